@@ -26,10 +26,17 @@
 
 import com.bernardomg.example.netty.tcp.cli.TcpClientMenu;
 
-import lombok.extern.slf4j.Slf4j;
 import picocli.CommandLine;
 
-@Slf4j
+/**
+ * Application entry point.
+ * <p>
+ * Nothing here logs, nor do the commands until they run. Initializing the logging takes a good part of the startup, so
+ * it is left for the commands which need it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
 public class Main {
 
     public static void main(final String[] args) {
@@ -37,8 +44,6 @@ public static void main(final String[] args) {
 
         exitCode = new CommandLine(new TcpClientMenu()).execute(args);
 
-        log.debug("Exited with code {}", exitCode);
-
         System.exit(exitCode);
     }
 
@@ -0,0 +1,298 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.broadcast;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.HdrHistogram.Histogram;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.resources.LoopResources;
+import reactor.netty.tcp.TcpClient;
+
+/**
+ * Sends the same message to many servers, and collects their replies. Each server gets its own connection, and
+ * connections are opened concurrently, up to a maximum at once. All of them share the same event loops.
+ * <p>
+ * Replies are sent to the consumer as they arrive, so slow servers don't hold back the rest. The broadcast finishes
+ * once every server has replied, failed or timed out.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class Broadcast {
+
+    /**
+     * Maximum time for releasing the event loops.
+     */
+    private static final Duration          DISPOSE_TIMEOUT    = Duration.ofSeconds(5);
+
+    /**
+     * Maximum length for a line, when the messages are line delimited.
+     */
+    private static final int               MAX_LINE_LENGTH    = 64 * 1024;
+
+    /**
+     * Significant digits for the latency histogram.
+     */
+    private static final int               SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Servers to send the message to.
+     */
+    private final List<InetSocketAddress>  endpoints;
+
+    /**
+     * Line delimited flag. If active, the message ends with a line break, and the response is a line.
+     */
+    private boolean                        lineDelimited;
+
+    /**
+     * Receives each reply as it arrives.
+     */
+    private final Consumer<BroadcastReply> listener;
+
+    /**
+     * Maximum number of servers contacted at once.
+     */
+    private int                            parallelism        = 100;
+
+    /**
+     * Maximum time for each server, since connecting until its reply.
+     */
+    private Duration                       timeout            = Duration.ofSeconds(5);
+
+    /**
+     * Constructs a broadcast to the servers.
+     *
+     * @param endpts
+     *            servers to send the message to
+     * @param lstnr
+     *            receives each reply as it arrives
+     */
+    public Broadcast(final List<InetSocketAddress> endpts, final Consumer<BroadcastReply> lstnr) {
+        super();
+
+        endpoints = List.copyOf(endpts);
+        listener = Objects.requireNonNull(lstnr);
+    }
+
+    /**
+     * Sends the message to all the servers, and waits until all of them reply or fail.
+     *
+     * @param message
+     *            message to send
+     * @return the summary for the broadcast
+     */
+    public final BroadcastSummary run(final String message) {
+        final LoopResources     loops;
+        final TcpClient         client;
+        final String            payload;
+        final Histogram         latencies;
+        final Map<String, Long> failures;
+        final long              start;
+        final long              elapsed;
+        final long              replied;
+
+        log.debug("Broadcasting {} to {} servers, {} at once", message, endpoints.size(), parallelism);
+
+        loops = LoopResources.create("tcp-broadcast", LoopResources.DEFAULT_IO_WORKER_COUNT, true);
+        client = buildClient(loops);
+        if (lineDelimited) {
+            payload = message + '\n';
+        } else {
+            payload = message;
+        }
+        latencies = new Histogram(SIGNIFICANT_DIGITS);
+        failures = new TreeMap<>();
+
+        start = System.nanoTime();
+        // Replies are serialized by the flux, so they can be aggregated without locking
+        replied = Flux.fromIterable(endpoints)
+            .flatMap(endpoint -> exchange(client, endpoint, payload), parallelism)
+            .doOnNext(reply -> {
+                if (reply.isReplied()) {
+                    latencies.recordValue(reply.getLatency());
+                } else {
+                    failures.merge(reply.getError(), 1L, Long::sum);
+                }
+                listener.accept(reply);
+            })
+            .filter(BroadcastReply::isReplied)
+            .count()
+            .block();
+        elapsed = System.nanoTime() - start;
+
+        loops.disposeLater(Duration.ZERO, DISPOSE_TIMEOUT)
+            .block();
+
+        return new BroadcastSummary(endpoints.size(), replied, failures, elapsed, latencies);
+    }
+
+    /**
+     * Sets the line delimited flag. If active, a line break is appended to the message, and the response is the first
+     * line received. Otherwise the response is the first read from the connection.
+     *
+     * @param delimited
+     *            line delimited flag
+     */
+    public final void setLineDelimited(final boolean delimited) {
+        lineDelimited = delimited;
+    }
+
+    /**
+     * Sets the maximum number of servers contacted at once. By default it is 100.
+     *
+     * @param max
+     *            maximum number of servers contacted at once
+     */
+    public final void setParallelism(final int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("At least one server at once is required, received " + max);
+        }
+
+        parallelism = max;
+    }
+
+    /**
+     * Sets the maximum time for each server, since connecting until its reply. By default it is five seconds.
+     *
+     * @param tmt
+     *            maximum time for each server
+     */
+    public final void setTimeout(final Duration tmt) {
+        timeout = Objects.requireNonNull(tmt);
+    }
+
+    /**
+     * Builds the client shared by all the connections. Each connection sets its own address.
+     *
+     * @param loops
+     *            event loops for the connections
+     * @return the client for the connections
+     */
+    private final TcpClient buildClient(final LoopResources loops) {
+        return TcpClient.newConnection()
+            .runOn(loops)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeout.toMillis())
+            .doOnConnected(conn -> {
+                if (lineDelimited) {
+                    conn.addHandlerLast(new LineBasedFrameDecoder(MAX_LINE_LENGTH));
+                }
+            });
+    }
+
+    /**
+     * Connects to the server, sends the message and takes the response. Errors, including the timeout, are turned
+     * into failed replies, so they don't stop the broadcast.
+     *
+     * @param client
+     *            client for the connection
+     * @param endpoint
+     *            server address
+     * @param payload
+     *            message to send
+     * @return the reply from the server
+     */
+    private final Mono<BroadcastReply> exchange(final TcpClient client, final InetSocketAddress endpoint,
+            final String payload) {
+        return Mono.defer(() -> {
+            final long begin;
+
+            begin = System.nanoTime();
+            return client.remoteAddress(() -> endpoint)
+                .connect()
+                .flatMap(conn -> respond(conn, payload))
+                .timeout(timeout)
+                .map(response -> new BroadcastReply(endpoint, response, null, System.nanoTime() - begin))
+                .onErrorResume(e -> {
+                    log.debug("Broadcast to {} failed: {}", endpoint, e.getLocalizedMessage());
+                    return Mono.just(new BroadcastReply(endpoint, null, getErrorName(e), System.nanoTime() - begin));
+                });
+        });
+    }
+
+    /**
+     * Returns the name used to group the error. This is its class name, but Netty annotates socket errors with the
+     * address in its own subclasses, and for these the standard exception is used.
+     *
+     * @param error
+     *            error to name
+     * @return the error name
+     */
+    private final String getErrorName(final Throwable error) {
+        final Class<?> type;
+
+        if (error.getClass()
+            .getSimpleName()
+            .startsWith("Annotated")) {
+            type = error.getClass()
+                .getSuperclass();
+        } else {
+            type = error.getClass();
+        }
+
+        return type.getSimpleName();
+    }
+
+    /**
+     * Sends the message through the connection, and takes the first response. The connection is closed afterwards,
+     * also when cancelled by the timeout.
+     *
+     * @param connection
+     *            connection to the server
+     * @param payload
+     *            message to send
+     * @return the response from the server
+     */
+    private final Mono<String> respond(final Connection connection, final String payload) {
+        return connection.outbound()
+            .sendString(Mono.just(payload), Charset.defaultCharset())
+            .then()
+            .then(connection.inbound()
+                .receive()
+                .asString(Charset.defaultCharset())
+                .next())
+            // Closed without replying
+            .switchIfEmpty(Mono.error(ClosedChannelException::new))
+            .doFinally(signal -> connection.dispose());
+    }
+
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.broadcast;
+
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Outcome of the broadcast for a single server. Either its response, or the error which kept it from replying.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class BroadcastReply {
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double     NANOS_TO_MILLIS = 1_000_000;
+
+    /**
+     * Server address.
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * Error which kept the server from replying. Is {@code null} if it replied.
+     */
+    private final String            error;
+
+    /**
+     * Nanoseconds since connecting until the response, or the error.
+     */
+    private final long              latency;
+
+    /**
+     * Server response. Is {@code null} if it failed.
+     */
+    private final String            response;
+
+    /**
+     * Constructs a reply. Only one of the response and the error is expected.
+     *
+     * @param addrss
+     *            server address
+     * @param rspns
+     *            server response, {@code null} if it failed
+     * @param err
+     *            error which kept the server from replying, {@code null} if it replied
+     * @param ltncy
+     *            nanoseconds since connecting until the response, or the error
+     */
+    public BroadcastReply(final InetSocketAddress addrss, final String rspns, final String err, final long ltncy) {
+        super();
+
+        address = Objects.requireNonNull(addrss);
+        response = rspns;
+        error = err;
+        latency = ltncy;
+    }
+
+    /**
+     * Returns the server address.
+     *
+     * @return the server address
+     */
+    public final InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the server address as {@code host:port}.
+     *
+     * @return the server address as text
+     */
+    public final String getEndpoint() {
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Returns the error which kept the server from replying. If the server replied, then it returns {@code null}.
+     *
+     * @return the error, or {@code null} if the server replied
+     */
+    public final String getError() {
+        return error;
+    }
+
+    /**
+     * Returns the nanoseconds since connecting until the response, or the error.
+     *
+     * @return the latency in nanoseconds
+     */
+    public final long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the server response. If the server failed, then it returns {@code null}.
+     *
+     * @return the server response, or {@code null} if it failed
+     */
+    public final String getResponse() {
+        return response;
+    }
+
+    /**
+     * Tells if the server replied.
+     *
+     * @return {@code true} if the server replied
+     */
+    public final boolean isReplied() {
+        return error == null;
+    }
+
+    /**
+     * Returns the reply as a human readable line.
+     *
+     * @return the reply as text
+     */
+    public final String toText() {
+        final String text;
+
+        if (isReplied()) {
+            text = String.format(Locale.ROOT, "%s replied in %.3f ms: %s", getEndpoint(), latency / NANOS_TO_MILLIS,
+                response);
+        } else {
+            text = String.format(Locale.ROOT, "%s failed after %.3f ms: %s", getEndpoint(), latency / NANOS_TO_MILLIS,
+                error);
+        }
+
+        return text;
+    }
+
+}
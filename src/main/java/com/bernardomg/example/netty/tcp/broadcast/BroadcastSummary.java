@@ -0,0 +1,233 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.broadcast;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary for a broadcast.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class BroadcastSummary {
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double     NANOS_TO_MILLIS  = 1_000_000;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double     NANOS_TO_SECONDS = 1_000_000_000;
+
+    /**
+     * Latency percentiles to show.
+     */
+    private static final double[]   PERCENTILES      = { 50, 90, 99, 99.9 };
+
+    /**
+     * Nanoseconds taken by the broadcast.
+     */
+    private final long              elapsed;
+
+    /**
+     * Servers which received the message.
+     */
+    private final long              endpoints;
+
+    /**
+     * Failed servers, by error.
+     */
+    private final Map<String, Long> failures;
+
+    /**
+     * Reply latencies, in nanoseconds. Only for the servers which replied.
+     */
+    private final Histogram         latencies;
+
+    /**
+     * Servers which replied.
+     */
+    private final long              replied;
+
+    /**
+     * Constructs a summary.
+     *
+     * @param endpts
+     *            servers which received the message
+     * @param rpld
+     *            servers which replied
+     * @param fails
+     *            failed servers, by error
+     * @param elpsd
+     *            nanoseconds taken by the broadcast
+     * @param ltncs
+     *            reply latencies, in nanoseconds
+     */
+    public BroadcastSummary(final long endpts, final long rpld, final Map<String, Long> fails, final long elpsd,
+            final Histogram ltncs) {
+        super();
+
+        endpoints = endpts;
+        replied = rpld;
+        failures = new TreeMap<>(Objects.requireNonNull(fails));
+        elapsed = elpsd;
+        latencies = Objects.requireNonNull(ltncs);
+    }
+
+    /**
+     * Returns the nanoseconds taken by the broadcast.
+     *
+     * @return the nanoseconds taken
+     */
+    public final long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the number of servers which received the message.
+     *
+     * @return the number of servers
+     */
+    public final long getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Returns the failed servers, by error.
+     *
+     * @return the failed servers, by error
+     */
+    public final Map<String, Long> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the reply latencies, in nanoseconds. Only for the servers which replied.
+     *
+     * @return the reply latencies
+     */
+    public final Histogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the number of servers which replied.
+     *
+     * @return the number of servers which replied
+     */
+    public final long getReplied() {
+        return replied;
+    }
+
+    /**
+     * Returns the summary as a JSON object.
+     *
+     * @return the summary as JSON
+     */
+    public final String toJson() {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        json.append(String.format(Locale.ROOT, "{\"endpoints\":%d,\"replied\":%d,\"elapsedSeconds\":%.3f,", endpoints,
+            replied, elapsed / NANOS_TO_SECONDS));
+        json.append("\"failures\":{");
+        json.append(failures.entrySet()
+            .stream()
+            .map(failure -> String.format(Locale.ROOT, "\"%s\":%d", failure.getKey(), failure.getValue()))
+            .collect(Collectors.joining(",")));
+        json.append("},");
+        json.append("\"latencyMillis\":{");
+        json.append(String.format(Locale.ROOT, "\"count\":%d,\"min\":%.3f,\"mean\":%.3f,", latencies.getTotalCount(),
+            latencies.getMinValue() / NANOS_TO_MILLIS, latencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            json.append(String.format(Locale.ROOT, "\"p%s\":%.3f,", formatPercentile(percentile),
+                latencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        json.append(String.format(Locale.ROOT, "\"max\":%.3f", latencies.getMaxValue() / NANOS_TO_MILLIS));
+        json.append("}}");
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the summary as human-readable text.
+     *
+     * @return the summary as text
+     */
+    public final String toText() {
+        final StringBuilder text;
+
+        text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Servers:    %d, %d replied%n", endpoints, replied));
+        text.append(String.format(Locale.ROOT, "Failures:   %d", endpoints - replied));
+        if (!failures.isEmpty()) {
+            text.append(failures.entrySet()
+                .stream()
+                .map(failure -> failure.getKey() + " " + failure.getValue())
+                .collect(Collectors.joining(", ", " (", ")")));
+        }
+        text.append(System.lineSeparator());
+        text.append(String.format(Locale.ROOT, "Elapsed:    %.3f s%n", elapsed / NANOS_TO_SECONDS));
+        text.append(String.format(Locale.ROOT, "Latency ms: min %.3f | mean %.3f",
+            latencies.getMinValue() / NANOS_TO_MILLIS, latencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, " | p%s %.3f", formatPercentile(percentile),
+                latencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        text.append(String.format(Locale.ROOT, " | max %.3f", latencies.getMaxValue() / NANOS_TO_MILLIS));
+
+        return text.toString();
+    }
+
+    /**
+     * Returns the percentile name, without decimals if it is an integer.
+     *
+     * @param percentile
+     *            percentile to format
+     * @return the formatted percentile
+     */
+    private final String formatPercentile(final double percentile) {
+        final String formatted;
+
+        if (percentile == Math.rint(percentile)) {
+            formatted = String.valueOf((long) percentile);
+        } else {
+            formatted = String.valueOf(percentile);
+        }
+
+        return formatted;
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.broadcast;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads server addresses from a file, one per line. Each line is {@code host:port}, or just {@code host} to use the
+ * default port. IPv6 addresses with a port are written between brackets, as in {@code [::1]:8080}.
+ * <p>
+ * Blank lines, and those starting with {@code #}, are ignored. Addresses are not resolved, so each connection
+ * resolves its own.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class HostsFile {
+
+    /**
+     * Comment line start.
+     */
+    private static final String COMMENT = "#";
+
+    /**
+     * Parses an address. If it has no port, then the default port is used.
+     *
+     * @param line
+     *            address to parse
+     * @param defaultPort
+     *            port for addresses without one, negative if all should have a port
+     * @return the parsed address, unresolved
+     */
+    public static final InetSocketAddress parse(final String line, final int defaultPort) {
+        final String address;
+        final int    separator;
+        final String host;
+        final int    port;
+
+        address = line.trim();
+        separator = address.lastIndexOf(':');
+        if (address.startsWith("[")) {
+            // IPv6, the port goes after the brackets
+            if (address.endsWith("]")) {
+                host = address.substring(1, address.length() - 1);
+                port = defaultPort;
+            } else {
+                host = address.substring(1, address.lastIndexOf(']'));
+                port = Integer.parseInt(address.substring(separator + 1));
+            }
+        } else if ((separator < 0) || (separator != address.indexOf(':'))) {
+            // No port, or a bare IPv6 address
+            host = address;
+            port = defaultPort;
+        } else {
+            host = address.substring(0, separator);
+            port = Integer.parseInt(address.substring(separator + 1));
+        }
+
+        if (port < 0) {
+            throw new IllegalArgumentException("Missing port, and no default port, for " + address);
+        }
+
+        return InetSocketAddress.createUnresolved(host, port);
+    }
+
+    /**
+     * Reads all the addresses in the file.
+     *
+     * @param path
+     *            file to read
+     * @param defaultPort
+     *            port for addresses without one, negative if all should have a port
+     * @return all the addresses in the file, unresolved
+     * @throws IOException
+     *             if the file can't be read
+     */
+    public static final List<InetSocketAddress> read(final Path path, final int defaultPort) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, Charset.defaultCharset())) {
+            return reader.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT))
+                .map(line -> parse(line, defaultPort))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Utility class.
+     */
+    private HostsFile() {
+        super();
+    }
+
+}
@@ -0,0 +1,335 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.churn;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary for a connection churn run.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class ChurnSummary {
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double     NANOS_TO_MILLIS  = 1_000_000;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double     NANOS_TO_SECONDS = 1_000_000_000;
+
+    /**
+     * Latency percentiles to show.
+     */
+    private static final double[]   PERCENTILES      = { 50, 90, 99, 99.9 };
+
+    /**
+     * Connections attempted.
+     */
+    private final long              attempts;
+
+    /**
+     * Connections opened.
+     */
+    private final long              connected;
+
+    /**
+     * Connect latencies, in nanoseconds.
+     */
+    private final Histogram         connectLatencies;
+
+    /**
+     * Nanoseconds taken by the run.
+     */
+    private final long              elapsed;
+
+    /**
+     * Ephemeral ports for outgoing connections. Zero if not known.
+     */
+    private final long              ephemeralPorts;
+
+    /**
+     * Failed connections, by error.
+     */
+    private final Map<String, Long> failures;
+
+    /**
+     * Highest number of sockets to the server. Negative if not known.
+     */
+    private final long              maxSockets;
+
+    /**
+     * Highest number of sockets to the server in TIME_WAIT. Negative if not known.
+     */
+    private final long              maxTimeWait;
+
+    /**
+     * Message exchanges which failed.
+     */
+    private final long              messageErrors;
+
+    /**
+     * Responses received.
+     */
+    private final long              received;
+
+    /**
+     * Constructs a summary.
+     *
+     * @param attmpts
+     *            connections attempted
+     * @param cnnctd
+     *            connections opened
+     * @param fails
+     *            failed connections, by error
+     * @param rcvd
+     *            responses received
+     * @param msgErrs
+     *            message exchanges which failed
+     * @param elpsd
+     *            nanoseconds taken by the run
+     * @param ltncs
+     *            connect latencies, in nanoseconds
+     * @param sockets
+     *            highest number of sockets to the server, negative if not known
+     * @param timeWait
+     *            highest number of sockets to the server in TIME_WAIT, negative if not known
+     * @param ports
+     *            ephemeral ports for outgoing connections, zero if not known
+     */
+    public ChurnSummary(final long attmpts, final long cnnctd, final Map<String, Long> fails, final long rcvd,
+            final long msgErrs, final long elpsd, final Histogram ltncs, final long sockets, final long timeWait,
+            final long ports) {
+        super();
+
+        attempts = attmpts;
+        connected = cnnctd;
+        failures = new TreeMap<>(Objects.requireNonNull(fails));
+        received = rcvd;
+        messageErrors = msgErrs;
+        elapsed = elpsd;
+        connectLatencies = Objects.requireNonNull(ltncs);
+        maxSockets = sockets;
+        maxTimeWait = timeWait;
+        ephemeralPorts = ports;
+    }
+
+    /**
+     * Returns the number of connections attempted.
+     *
+     * @return the number of connections attempted
+     */
+    public final long getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns the number of connections opened.
+     *
+     * @return the number of connections opened
+     */
+    public final long getConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns the connections opened per second.
+     *
+     * @return the connections opened per second
+     */
+    public final double getConnectedThroughput() {
+        final double throughput;
+
+        if (elapsed == 0) {
+            throughput = 0;
+        } else {
+            throughput = connected / (elapsed / NANOS_TO_SECONDS);
+        }
+
+        return throughput;
+    }
+
+    /**
+     * Returns the connect latencies, in nanoseconds.
+     *
+     * @return the connect latencies
+     */
+    public final Histogram getConnectLatencies() {
+        return connectLatencies;
+    }
+
+    /**
+     * Returns the failed connections, by error.
+     *
+     * @return the failed connections, by error
+     */
+    public final Map<String, Long> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns the highest number of sockets to the server, in any state. Negative if not known.
+     *
+     * @return the highest number of sockets
+     */
+    public final long getMaxSockets() {
+        return maxSockets;
+    }
+
+    /**
+     * Returns the highest number of sockets to the server in TIME_WAIT. Negative if not known.
+     *
+     * @return the highest number of sockets in TIME_WAIT
+     */
+    public final long getMaxTimeWait() {
+        return maxTimeWait;
+    }
+
+    /**
+     * Returns the number of message exchanges which failed.
+     *
+     * @return the number of message errors
+     */
+    public final long getMessageErrors() {
+        return messageErrors;
+    }
+
+    /**
+     * Returns the number of responses received.
+     *
+     * @return the number of responses received
+     */
+    public final long getReceived() {
+        return received;
+    }
+
+    /**
+     * Returns the summary as a JSON object.
+     *
+     * @return the summary as JSON
+     */
+    public final String toJson() {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        json.append(String.format(Locale.ROOT,
+            "{\"attempts\":%d,\"connected\":%d,\"connectedPerSecond\":%.2f,\"elapsedSeconds\":%.3f,", attempts,
+            connected, getConnectedThroughput(), elapsed / NANOS_TO_SECONDS));
+        json.append("\"failures\":{");
+        json.append(failures.entrySet()
+            .stream()
+            .map(failure -> String.format(Locale.ROOT, "\"%s\":%d", failure.getKey(), failure.getValue()))
+            .collect(Collectors.joining(",")));
+        json.append("},");
+        json.append(String.format(Locale.ROOT, "\"received\":%d,\"messageErrors\":%d,", received, messageErrors));
+        json.append(String.format(Locale.ROOT, "\"maxSockets\":%d,\"maxTimeWait\":%d,\"ephemeralPorts\":%d,",
+            maxSockets, maxTimeWait, ephemeralPorts));
+        json.append("\"connectMillis\":{");
+        json.append(String.format(Locale.ROOT, "\"count\":%d,\"min\":%.3f,\"mean\":%.3f,",
+            connectLatencies.getTotalCount(), connectLatencies.getMinValue() / NANOS_TO_MILLIS,
+            connectLatencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            json.append(String.format(Locale.ROOT, "\"p%s\":%.3f,", formatPercentile(percentile),
+                connectLatencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        json.append(String.format(Locale.ROOT, "\"max\":%.3f", connectLatencies.getMaxValue() / NANOS_TO_MILLIS));
+        json.append("}}");
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the summary as human-readable text.
+     *
+     * @return the summary as text
+     */
+    public final String toText() {
+        final StringBuilder text;
+
+        text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Connections: %d attempted, %d connected, %.2f conn/s%n", attempts,
+            connected, getConnectedThroughput()));
+        text.append(String.format(Locale.ROOT, "Failures:    %d", attempts - connected));
+        if (!failures.isEmpty()) {
+            text.append(failures.entrySet()
+                .stream()
+                .map(failure -> failure.getKey() + " " + failure.getValue())
+                .collect(Collectors.joining(", ", " (", ")")));
+        }
+        text.append(System.lineSeparator());
+        text.append(String.format(Locale.ROOT, "Messages:    %d received, %d errors%n", received, messageErrors));
+        text.append(String.format(Locale.ROOT, "Elapsed:     %.3f s%n", elapsed / NANOS_TO_SECONDS));
+        if (maxSockets < 0) {
+            text.append(String.format("Sockets:     not available%n"));
+        } else if (ephemeralPorts > 0) {
+            text.append(String.format(Locale.ROOT,
+                "Sockets:     max %d open, max %d in TIME_WAIT, %.1f%% of %d ephemeral ports%n", maxSockets,
+                maxTimeWait, (maxSockets * 100.0) / ephemeralPorts, ephemeralPorts));
+        } else {
+            text.append(String.format(Locale.ROOT, "Sockets:     max %d open, max %d in TIME_WAIT%n", maxSockets,
+                maxTimeWait));
+        }
+        text.append(String.format(Locale.ROOT, "Connect ms:  min %.3f | mean %.3f",
+            connectLatencies.getMinValue() / NANOS_TO_MILLIS, connectLatencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, " | p%s %.3f", formatPercentile(percentile),
+                connectLatencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        text.append(String.format(Locale.ROOT, " | max %.3f", connectLatencies.getMaxValue() / NANOS_TO_MILLIS));
+
+        return text.toString();
+    }
+
+    /**
+     * Returns the percentile name, without decimals if it is an integer.
+     *
+     * @param percentile
+     *            percentile to format
+     * @return the formatted percentile
+     */
+    private final String formatPercentile(final double percentile) {
+        final String formatted;
+
+        if (percentile == Math.rint(percentile)) {
+            formatted = String.valueOf((long) percentile);
+        } else {
+            formatted = String.valueOf(percentile);
+        }
+
+        return formatted;
+    }
+
+}
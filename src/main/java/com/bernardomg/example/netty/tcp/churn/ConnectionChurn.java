@@ -0,0 +1,481 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.churn;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Recorder;
+
+import com.bernardomg.example.netty.tcp.client.rate.RateSchedule;
+import com.bernardomg.example.netty.tcp.client.rate.TokenBucket;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.resources.LoopResources;
+import reactor.netty.tcp.TcpClient;
+
+/**
+ * Opens and closes connections at a fixed rate, with a maximum number open at once. Each connection may exchange a
+ * few messages before being closed. Measures how long connecting takes, how many connections fail, and how many
+ * sockets are left behind by the closed connections.
+ * <p>
+ * Each connection is new, nothing is pooled, so every cycle goes through the full handshake. Counters add up across
+ * runs, so each instance is meant to be run once.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class ConnectionChurn {
+
+    /**
+     * Maximum time for releasing the event loops.
+     */
+    private static final Duration        DISPOSE_TIMEOUT    = Duration.ofSeconds(5);
+
+    /**
+     * Maximum length for a line, when the messages are line delimited.
+     */
+    private static final int             MAX_LINE_LENGTH    = 64 * 1024;
+
+    /**
+     * Interval between samples of the socket states.
+     */
+    private static final Duration        SAMPLE_INTERVAL    = Duration.ofMillis(250);
+
+    /**
+     * Significant digits for the latency histogram.
+     */
+    private static final int             SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Abortive close flag. If active, connections are reset when closing, so they don't go through TIME_WAIT.
+     */
+    private boolean                      abortiveClose;
+
+    /**
+     * Connections attempted.
+     */
+    private final LongAdder              attempts           = new LongAdder();
+
+    /**
+     * Maximum number of connections open at once.
+     */
+    private int                          concurrency        = 1;
+
+    /**
+     * Connections opened.
+     */
+    private final LongAdder              connected          = new LongAdder();
+
+    /**
+     * Failed connections, by error.
+     */
+    private final Map<String, LongAdder> failures           = new ConcurrentHashMap<>();
+
+    /**
+     * Server host.
+     */
+    private final String                 host;
+
+    /**
+     * Connect latencies, in nanoseconds.
+     */
+    private final Recorder               latencies          = new Recorder(SIGNIFICANT_DIGITS);
+
+    /**
+     * Line delimited flag. If active, each message ends with a line break, and each response is a line.
+     */
+    private boolean                      lineDelimited;
+
+    /**
+     * Message sent through each connection.
+     */
+    private String                       message            = "";
+
+    /**
+     * Message exchanges which failed.
+     */
+    private final LongAdder              messageErrors      = new LongAdder();
+
+    /**
+     * Messages sent through each connection.
+     */
+    private int                          messages;
+
+    /**
+     * Server port.
+     */
+    private final int                    port;
+
+    /**
+     * Connections opened per second. Zero for no limit.
+     */
+    private double                       rate;
+
+    /**
+     * Responses received.
+     */
+    private final LongAdder              received           = new LongAdder();
+
+    /**
+     * Maximum time for connecting, and for receiving the responses in each connection.
+     */
+    private Duration                     timeout            = Duration.ofSeconds(5);
+
+    /**
+     * Constructs a churn against the server.
+     *
+     * @param hst
+     *            server host
+     * @param prt
+     *            server port
+     */
+    public ConnectionChurn(final String hst, final int prt) {
+        super();
+
+        host = Objects.requireNonNull(hst);
+        port = prt;
+    }
+
+    /**
+     * Opens and closes connections until the received time passes, and then waits for those still open.
+     *
+     * @param duration
+     *            time to keep opening connections
+     * @return the summary for the run
+     */
+    public final ChurnSummary run(final Duration duration) {
+        final InetSocketAddress  address;
+        final LoopResources      loops;
+        final TcpClient          client;
+        final Semaphore          permits;
+        final TokenBucket        bucket;
+        final SocketStateSampler sampler;
+        final long               start;
+        final long               end;
+        final long               elapsed;
+        long                     next;
+
+        log.debug("Churning connections to {}:{} for {} ms", host, port, duration.toMillis());
+
+        // Resolved once, so the churn measures connecting and not resolving
+        address = new InetSocketAddress(host, port);
+        loops = LoopResources.create("tcp-churn", LoopResources.DEFAULT_IO_WORKER_COUNT, true);
+        client = buildClient(address, loops);
+        permits = new Semaphore(concurrency);
+        if (rate > 0) {
+            bucket = new TokenBucket(RateSchedule.constant(rate), 1);
+        } else {
+            bucket = null;
+        }
+
+        sampler = new SocketStateSampler(port);
+        sampler.start(SAMPLE_INTERVAL);
+
+        start = System.nanoTime();
+        end = start + duration.toNanos();
+        next = nextTime(bucket);
+        while (next < end) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            permits.acquireUninterruptibly();
+            attempts.increment();
+            cycle(client).doFinally(signal -> permits.release())
+                .subscribe();
+            next = nextTime(bucket);
+        }
+
+        // Waits for the connections still open
+        permits.acquireUninterruptibly(concurrency);
+        elapsed = System.nanoTime() - start;
+
+        sampler.close();
+        loops.disposeLater(Duration.ZERO, DISPOSE_TIMEOUT)
+            .block();
+
+        return toSummary(elapsed, sampler);
+    }
+
+    /**
+     * Sets the abortive close flag. If active, connections are reset when closing, instead of going through the usual
+     * close. This way they don't stay in TIME_WAIT, but the server sees a reset.
+     *
+     * @param abortive
+     *            abortive close flag
+     */
+    public final void setAbortiveClose(final boolean abortive) {
+        abortiveClose = abortive;
+    }
+
+    /**
+     * Sets the maximum number of connections open at once. When reached, no connection is opened until another one
+     * is closed. By default it is one.
+     *
+     * @param max
+     *            maximum number of connections open at once
+     */
+    public final void setConcurrency(final int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("At least one connection is required, received " + max);
+        }
+
+        concurrency = max;
+    }
+
+    /**
+     * Sets the line delimited flag. If active, a line break is appended to each message, and responses are split into
+     * lines. Otherwise each read from the connection is a response.
+     *
+     * @param delimited
+     *            line delimited flag
+     */
+    public final void setLineDelimited(final boolean delimited) {
+        lineDelimited = delimited;
+    }
+
+    /**
+     * Sets the messages exchanged through each connection before closing it. All of them are sent at once, and then
+     * the connection waits for as many responses. By default no message is sent.
+     *
+     * @param count
+     *            messages sent through each connection
+     * @param msg
+     *            message to send
+     */
+    public final void setMessages(final int count, final String msg) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The messages per connection can't be negative, received " + count);
+        }
+
+        messages = count;
+        message = Objects.requireNonNull(msg);
+    }
+
+    /**
+     * Sets the connections opened per second. Zero removes the limit, so connections are opened as soon as the
+     * concurrency allows it, which is the default.
+     *
+     * @param perSecond
+     *            connections opened per second
+     */
+    public final void setRate(final double perSecond) {
+        rate = perSecond;
+    }
+
+    /**
+     * Sets the maximum time for connecting, and for receiving the responses in each connection.
+     *
+     * @param tmt
+     *            maximum time for connecting and for the responses
+     */
+    public final void setTimeout(final Duration tmt) {
+        timeout = Objects.requireNonNull(tmt);
+    }
+
+    /**
+     * Builds the client for all the connections.
+     *
+     * @param address
+     *            server address
+     * @param loops
+     *            event loops for the connections
+     * @return the client for the connections
+     */
+    private final TcpClient buildClient(final InetSocketAddress address, final LoopResources loops) {
+        TcpClient client;
+
+        client = TcpClient.newConnection()
+            .runOn(loops)
+            .remoteAddress(() -> address)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeout.toMillis())
+            .doOnConnected(conn -> {
+                if (lineDelimited) {
+                    conn.addHandlerLast(new LineBasedFrameDecoder(MAX_LINE_LENGTH));
+                }
+            });
+        if (abortiveClose) {
+            // Resets when closing
+            client = client.option(ChannelOption.SO_LINGER, 0);
+        }
+
+        return client;
+    }
+
+    /**
+     * Opens a connection, exchanges the messages and closes it.
+     *
+     * @param client
+     *            client for the connection
+     * @return the cycle, completed once the connection is closed
+     */
+    private final Mono<Void> cycle(final TcpClient client) {
+        return Mono.defer(() -> {
+            final long begin;
+
+            begin = System.nanoTime();
+            return client.connect()
+                .doOnNext(conn -> {
+                    latencies.recordValue(System.nanoTime() - begin);
+                    connected.increment();
+                })
+                .doOnError(this::onConnectError)
+                .flatMap(conn -> exchange(conn).then(disconnect(conn)))
+                // Already counted
+                .onErrorResume(e -> Mono.empty());
+        });
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @param connection
+     *            connection to close
+     * @return the close, completed once the connection is closed
+     */
+    private final Mono<Void> disconnect(final Connection connection) {
+        return Mono.defer(() -> {
+            connection.dispose();
+            return connection.onDispose();
+        });
+    }
+
+    /**
+     * Sends the messages through the connection, and waits for their responses. Errors are counted, and don't fail the
+     * cycle, so the connection is still closed.
+     *
+     * @param connection
+     *            connection for the messages
+     * @return the exchange, completed once all the responses arrive
+     */
+    private final Mono<Void> exchange(final Connection connection) {
+        final String     payload;
+        final Mono<Void> exchange;
+
+        if (messages == 0) {
+            exchange = Mono.empty();
+        } else {
+            if (lineDelimited) {
+                payload = message + '\n';
+            } else {
+                payload = message;
+            }
+
+            exchange = connection.outbound()
+                .sendString(Flux.range(0, messages)
+                    .map(i -> payload))
+                .then()
+                .thenMany(connection.inbound()
+                    .receive()
+                    .asString()
+                    .take(messages))
+                .doOnNext(response -> received.increment())
+                .then()
+                .timeout(timeout)
+                .doOnError(e -> {
+                    log.debug("Exchange failed: {}", e.getLocalizedMessage());
+                    messageErrors.increment();
+                })
+                .onErrorResume(e -> Mono.empty());
+        }
+
+        return exchange;
+    }
+
+    /**
+     * Returns the time for the next connection. Without a rate, this is now.
+     *
+     * @param bucket
+     *            token bucket for the rate, {@code null} if there is no rate
+     * @return the time for the next connection, in nanoseconds
+     */
+    private final long nextTime(final TokenBucket bucket) {
+        final long time;
+
+        if (bucket == null) {
+            time = System.nanoTime();
+        } else {
+            time = bucket.reserve();
+        }
+
+        return time;
+    }
+
+    /**
+     * Counts a failed connection.
+     *
+     * @param error
+     *            connection error
+     */
+    private final void onConnectError(final Throwable error) {
+        log.debug("Connection failed: {}", error.getLocalizedMessage());
+        failures.computeIfAbsent(error.getClass()
+            .getSimpleName(), key -> new LongAdder())
+            .increment();
+    }
+
+    /**
+     * Returns the summary for the counters.
+     *
+     * @param elapsed
+     *            nanoseconds taken by the run
+     * @param sampler
+     *            socket states for the run
+     * @return the summary for the counters
+     */
+    private final ChurnSummary toSummary(final long elapsed, final SocketStateSampler sampler) {
+        final Map<String, Long> failed;
+        final long              sockets;
+        final long              timeWait;
+
+        failed = failures.entrySet()
+            .stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, failure -> failure.getValue()
+                .sum()));
+        if (SocketStateSampler.isAvailable()) {
+            sockets = sampler.getMaxSockets();
+            timeWait = sampler.getMaxTimeWait();
+        } else {
+            sockets = -1;
+            timeWait = -1;
+        }
+
+        return new ChurnSummary(attempts.sum(), connected.sum(), failed, received.sum(), messageErrors.sum(), elapsed,
+            latencies.getIntervalHistogram(), sockets, timeWait, sampler.getEphemeralPorts());
+    }
+
+}
@@ -0,0 +1,226 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.churn;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Samples the local sockets to a server port, and keeps the highest counts. These tell how close the client is to
+ * running out of ephemeral ports, as closed connections stay in TIME_WAIT for a while.
+ * <p>
+ * The sockets are read from the Linux proc files, so on other systems the sampler is not available.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class SocketStateSampler implements AutoCloseable {
+
+    /**
+     * Ephemeral port range file.
+     */
+    private static final Path       PORT_RANGE    = Paths.get("/proc/sys/net/ipv4/ip_local_port_range");
+
+    /**
+     * TCP socket tables, for IPv4 and IPv6.
+     */
+    private static final List<Path> SOCKET_TABLES = List.of(Paths.get("/proc/net/tcp"), Paths.get("/proc/net/tcp6"));
+
+    /**
+     * Socket state for TIME_WAIT, as written in the socket tables.
+     */
+    private static final String     TIME_WAIT     = "06";
+
+    /**
+     * Highest number of sockets to the port, in any state.
+     */
+    private volatile long           maxSockets;
+
+    /**
+     * Highest number of sockets to the port in TIME_WAIT.
+     */
+    private volatile long           maxTimeWait;
+
+    /**
+     * Server port, as written in the socket tables.
+     */
+    private final String            port;
+
+    /**
+     * Running samples. Is {@code null} until started.
+     */
+    private Disposable              task;
+
+    /**
+     * Constructs a sampler for the sockets to the server port.
+     *
+     * @param prt
+     *            server port
+     */
+    public SocketStateSampler(final int prt) {
+        super();
+
+        port = String.format("%04X", prt);
+    }
+
+    /**
+     * Tells if the socket states can be read in this system.
+     *
+     * @return {@code true} if the sampler is available
+     */
+    public static final boolean isAvailable() {
+        return Files.isReadable(SOCKET_TABLES.get(0));
+    }
+
+    @Override
+    public final void close() {
+        if (task != null) {
+            task.dispose();
+        }
+        // Last sample, in case the run was shorter than the interval
+        sample();
+    }
+
+    /**
+     * Returns the number of ephemeral ports for outgoing connections. Zero if it is not known.
+     *
+     * @return the number of ephemeral ports
+     */
+    public final long getEphemeralPorts() {
+        final String[] range;
+        long           ports;
+
+        try {
+            // Proc files tell no size, so they are read line by line
+            range = Files.readAllLines(PORT_RANGE)
+                .get(0)
+                .trim()
+                .split("\\s+");
+            ports = (Long.parseLong(range[1]) - Long.parseLong(range[0])) + 1;
+        } catch (final IOException | RuntimeException e) {
+            log.debug("Could not read the ephemeral port range: {}", e.getLocalizedMessage());
+            ports = 0;
+        }
+
+        return ports;
+    }
+
+    /**
+     * Returns the highest number of sockets to the port, in any state.
+     *
+     * @return the highest number of sockets
+     */
+    public final long getMaxSockets() {
+        return maxSockets;
+    }
+
+    /**
+     * Returns the highest number of sockets to the port in TIME_WAIT.
+     *
+     * @return the highest number of sockets in TIME_WAIT
+     */
+    public final long getMaxTimeWait() {
+        return maxTimeWait;
+    }
+
+    /**
+     * Starts sampling the sockets periodically.
+     *
+     * @param interval
+     *            time between samples
+     */
+    public final void start(final Duration interval) {
+        if (isAvailable()) {
+            task = Flux.interval(interval)
+                .subscribe(i -> sample());
+        } else {
+            log.warn("Socket states are not available in this system");
+        }
+    }
+
+    /**
+     * Counts the sockets to the port in a socket table, and adds them to the received counts.
+     *
+     * @param table
+     *            socket table to read
+     * @param counts
+     *            sockets and sockets in TIME_WAIT, updated with the sockets found
+     */
+    private final void count(final Path table, final long[] counts) {
+        final List<String> lines;
+        String[]           columns;
+
+        if (Files.isReadable(table)) {
+            try {
+                lines = Files.readAllLines(table);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // The first line is the header
+            // Columns: index, local address, remote address, state, and then some more
+            for (final String line : lines.subList(1, lines.size())) {
+                columns = line.trim()
+                    .split("\\s+");
+                if ((columns.length > 3) && columns[2].endsWith(":" + port)) {
+                    counts[0]++;
+                    if (TIME_WAIT.equals(columns[3])) {
+                        counts[1]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the socket tables, and keeps the highest counts.
+     */
+    private final synchronized void sample() {
+        final long[] counts;
+
+        counts = new long[2];
+        try {
+            for (final Path table : SOCKET_TABLES) {
+                count(table, counts);
+            }
+            maxSockets = Math.max(maxSockets, counts[0]);
+            maxTimeWait = Math.max(maxTimeWait, counts[1]);
+        } catch (final UncheckedIOException e) {
+            log.debug("Could not read the socket states: {}", e.getLocalizedMessage());
+        }
+    }
+
+}
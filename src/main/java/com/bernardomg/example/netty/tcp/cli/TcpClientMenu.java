@@ -24,9 +24,16 @@
 
 package com.bernardomg.example.netty.tcp.cli;
 
+import com.bernardomg.example.netty.tcp.cli.command.BroadcastCommand;
+import com.bernardomg.example.netty.tcp.cli.command.ChurnCommand;
+import com.bernardomg.example.netty.tcp.cli.command.DiffCommand;
+import com.bernardomg.example.netty.tcp.cli.command.LoadCoordinatorCommand;
+import com.bernardomg.example.netty.tcp.cli.command.LoadWorkerCommand;
 import com.bernardomg.example.netty.tcp.cli.command.SendEmptyMessageCommand;
 import com.bernardomg.example.netty.tcp.cli.command.SendMessageCommand;
 import com.bernardomg.example.netty.tcp.cli.command.SendMultipleMessagesCommand;
+import com.bernardomg.example.netty.tcp.cli.command.SendPayloadCommand;
+import com.bernardomg.example.netty.tcp.cli.command.SessionCommand;
 import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
 
 import picocli.CommandLine.Command;
@@ -38,7 +45,9 @@
  *
  */
 @Command(description = "TCP client",
-        subcommands = { SendMessageCommand.class, SendEmptyMessageCommand.class, SendMultipleMessagesCommand.class },
+        subcommands = { SendMessageCommand.class, SendEmptyMessageCommand.class, SendMultipleMessagesCommand.class,
+                SendPayloadCommand.class, SessionCommand.class, DiffCommand.class, ChurnCommand.class,
+                BroadcastCommand.class, LoadWorkerCommand.class, LoadCoordinatorCommand.class },
         mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
 public class TcpClientMenu {
 
@@ -28,6 +28,7 @@
 import java.util.Objects;
 
 import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
 
 /**
  * Transaction listener which will write the context of each step into a {@link PrintWriter}.
@@ -60,6 +61,26 @@ public TransactionPrinterListener(final String hst, final Integer prt, final Pri
         writer = Objects.requireNonNull(wrt);
     }
 
+    @Override
+    public final void onCacheHit(final String message) {
+        writer.printf("Cached response for message: %s", message);
+        writer.println();
+    }
+
+    @Override
+    public final void onDrain(final int unanswered, final long unwritten) {
+        if ((unanswered > 0) || (unwritten > 0)) {
+            writer.printf("Closing with %d requests unanswered and %d bytes unwritten", unanswered, unwritten);
+            writer.println();
+        }
+    }
+
+    @Override
+    public final void onHedge(final String message) {
+        writer.printf("Hedged message: %s", message);
+        writer.println();
+    }
+
     @Override
     public final void onReceive(final String message) {
         if (message.isEmpty()) {
@@ -70,6 +91,12 @@ public final void onReceive(final String message) {
         }
     }
 
+    @Override
+    public final void onRecycle(final String reason) {
+        writer.printf("Recycling connection: %s", reason);
+        writer.println();
+    }
+
     @Override
     public final void onSend(final String message) {
         if (message.isEmpty()) {
@@ -80,6 +107,23 @@ public final void onSend(final String message) {
         }
     }
 
+    @Override
+    public final void onSendBytes(final int bytes) {
+        writer.printf("Sent payload: %d bytes", bytes);
+        writer.println();
+    }
+
+    @Override
+    public final void onSocketStats(final SocketStats stats) {
+        writer.printf("Socket stats: %s", stats);
+        writer.println();
+    }
+
+    @Override
+    public final void onSpill() {
+        writer.println("Pipelining window full, request spilled to another connection");
+    }
+
     @Override
     public final void onStart() {
         writer.printf("Connecting to %s:%d", host, port);
@@ -91,4 +135,13 @@ public final void onStop() {
         writer.println("Stopping connection");
     }
 
+    @Override
+    public final void onWritabilityChange(final boolean writable) {
+        if (writable) {
+            writer.println("Connection writable again");
+        } else {
+            writer.println("Connection unwritable, too much data waiting to be written");
+        }
+    }
+
 }
@@ -0,0 +1,580 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.example.netty.tcp.cli.TransactionPrinterListener;
+import com.bernardomg.example.netty.tcp.cli.option.CacheOptions;
+import com.bernardomg.example.netty.tcp.cli.option.ConcurrencyLimitOptions;
+import com.bernardomg.example.netty.tcp.cli.option.HedgeOptions;
+import com.bernardomg.example.netty.tcp.cli.option.KeepAliveOptions;
+import com.bernardomg.example.netty.tcp.cli.option.PriorityOptions;
+import com.bernardomg.example.netty.tcp.cli.option.RateLimitOptions;
+import com.bernardomg.example.netty.tcp.cli.option.ResolverOptions;
+import com.bernardomg.example.netty.tcp.cli.option.ResultFileOptions;
+import com.bernardomg.example.netty.tcp.cli.option.SloOptions;
+import com.bernardomg.example.netty.tcp.cli.option.WireLogOptions;
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.ClientWarmUp;
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.WarmUpTransactionListener;
+import com.bernardomg.example.netty.tcp.client.keepalive.KeepAlivePolicy;
+import com.bernardomg.example.netty.tcp.diff.RequestRecorder;
+import com.bernardomg.example.netty.tcp.metrics.IntervalReporter;
+import com.bernardomg.example.netty.tcp.metrics.JvmStats;
+import com.bernardomg.example.netty.tcp.metrics.JvmStatsSampler;
+import com.bernardomg.example.netty.tcp.metrics.LaneMetricsListener;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.metrics.SloThresholds;
+import com.bernardomg.example.netty.tcp.metrics.SummaryFormat;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Base for the commands which send messages to a server. Takes care of the common options, and of the client
+ * lifecycle: connecting, warming up, waiting for responses and closing.
+ * <p>
+ * Returns {@value SloOptions#VIOLATION_EXIT_CODE} as exit code when the results violate any of the objectives set.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public abstract class AbstractClientCommand implements Callable<Integer> {
+
+    /**
+     * Response cache options.
+     */
+    @Mixin
+    private CacheOptions            cache;
+
+    /**
+     * Charset for the messages. If not set, the platform charset is used.
+     */
+    @Option(names = { "--charset" }, paramLabel = "charset",
+            description = "Charset for the messages. Defaults to the platform charset.")
+    private Charset                 charset;
+
+    /**
+     * Concurrency limit options.
+     */
+    @Mixin
+    private ConcurrencyLimitOptions concurrencyLimit;
+
+    /**
+     * Number of connections to open.
+     */
+    @Option(names = { "--connections" }, paramLabel = "number", description = "Connections to open.",
+            defaultValue = "1", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer                 connections;
+
+    /**
+     * Debug flag. Shows debug logs.
+     */
+    @Option(names = { "--debug" }, paramLabel = "flag", description = "Enable debug logs.", defaultValue = "false")
+    private boolean                 debug;
+
+    /**
+     * Hedging options.
+     */
+    @Mixin
+    private HedgeOptions            hedge;
+
+    /**
+     * Server host.
+     */
+    @Option(names = { "-h", "--host" }, paramLabel = "URL", description = "Server host.", required = true)
+    private String                  host;
+
+    /**
+     * JVM stats flag. If active, the JVM costs of the run are printed with the summary, or as text if there is no
+     * summary.
+     */
+    @Option(names = { "--jvm-stats" }, paramLabel = "flag",
+            description = "Print the allocations, garbage collections and direct memory of the run with the summary.",
+            defaultValue = "false")
+    private boolean                 jvmStats;
+
+    /**
+     * Keep-alive options.
+     */
+    @Mixin
+    private KeepAliveOptions        keepAlive;
+
+    /**
+     * Line delimited flag. If active, messages and responses are separated by line breaks.
+     */
+    @Option(names = { "--line-delimited" }, paramLabel = "flag",
+            description = "Ends each message with a line break, and splits responses into lines.",
+            defaultValue = "false")
+    private boolean                 lineDelimited;
+
+    /**
+     * Pipelining depth for each connection.
+     */
+    @Option(names = { "--pipeline-depth" }, paramLabel = "requests",
+            description = "Requests waiting for a response on each connection. Once a connection is full, requests"
+                    + " spill into the others, and are queued when all are full. Zero disables the window.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer                 pipelineDepth;
+
+    /**
+     * Server port.
+     */
+    @Option(names = { "-p", "--port" }, paramLabel = "port", description = "Server port.", required = true)
+    private Integer                 port;
+
+    /**
+     * Priority lanes options.
+     */
+    @Mixin
+    private PriorityOptions         priority;
+
+    /**
+     * Rate limit options.
+     */
+    @Mixin
+    private RateLimitOptions        rateLimit;
+
+    /**
+     * Record file. If set, the messages sent are recorded into it, to be replayed later.
+     */
+    @Option(names = { "--record" }, paramLabel = "file",
+            description = "File to record the messages sent into, one per line, to replay them later.")
+    private File                    record;
+
+    /**
+     * Report mode. If active, prints a summary for each interval, instead of each message.
+     */
+    @Option(names = { "--report" }, paramLabel = "flag",
+            description = "Print a summary for each interval, instead of each message.", defaultValue = "false")
+    private boolean                 report;
+
+    /**
+     * Report interval, in milliseconds.
+     */
+    @Option(names = { "--report-interval" }, paramLabel = "milliseconds",
+            description = "Milliseconds between each interval summary.", defaultValue = "1000",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long                    reportInterval;
+
+    /**
+     * Address resolution options.
+     */
+    @Mixin
+    private ResolverOptions         resolver;
+
+    /**
+     * Result file options.
+     */
+    @Mixin
+    private ResultFileOptions       resultFile;
+
+    /**
+     * Socket stats flag. If active, samples the socket state of each connection.
+     */
+    @Option(names = { "--socket-stats" }, paramLabel = "flag",
+            description = "Sample the kernel TCP stats and write queue of each connection, at the report interval.",
+            defaultValue = "false")
+    private boolean                 socketStats;
+
+    /**
+     * Service level objective options.
+     */
+    @Mixin
+    private SloOptions              slo;
+
+    /**
+     * Command specification. Used to get the line output.
+     */
+    @Spec
+    private CommandSpec             spec;
+
+    /**
+     * Logical streams on each connection.
+     */
+    @Option(names = { "--streams" }, paramLabel = "number",
+            description = "Logical streams multiplexed over each connection. Requires a server which speaks the"
+                    + " multiplexing protocol. Zero disables multiplexing.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer                 streams;
+
+    /**
+     * Final summary format.
+     */
+    @Option(names = { "--summary" }, paramLabel = "format",
+            description = "Final summary format. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "NONE",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private SummaryFormat           summary;
+
+    /**
+     * Verbose mode. If active prints info into the console. Active by default.
+     */
+    @Option(names = { "--verbose" }, paramLabel = "flag", description = "Print information to console.",
+            defaultValue = "true", showDefaultValue = Help.Visibility.ALWAYS)
+    private boolean                 verbose;
+
+    /**
+     * Response wait time. This is the maximum number of seconds to wait for responses, when closing.
+     */
+    @Option(names = { "-w", "--wait" }, paramLabel = "seconds",
+            description = "Wait up to received seconds for responses. Closes earlier once all are received.",
+            defaultValue = "2",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer                 wait;
+
+    /**
+     * Number of warm-up messages. These are sent before the actual messages, and are not reported.
+     */
+    @Option(names = { "--warm-up" }, paramLabel = "messages",
+            description = "Warm-up messages to send before the actual messages.", defaultValue = "0",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer                 warmUp;
+
+    /**
+     * Message sent during the warm-up.
+     */
+    @Option(names = { "--warm-up-message" }, paramLabel = "text", description = "Message sent during the warm-up.",
+            defaultValue = "warm-up", showDefaultValue = Help.Visibility.ALWAYS)
+    private String                  warmUpMessage;
+
+    /**
+     * Warm-up wait time. This is the number of milliseconds to wait for the warm-up responses.
+     */
+    @Option(names = { "--warm-up-timeout" }, paramLabel = "milliseconds",
+            description = "Milliseconds to wait for the warm-up responses.", defaultValue = "5000",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long                    warmUpTimeout;
+
+    /**
+     * Wire log options.
+     */
+    @Mixin
+    private WireLogOptions          wireLog;
+
+    /**
+     * Default constructor.
+     */
+    public AbstractClientCommand() {
+        super();
+    }
+
+    @Override
+    public final Integer call() {
+        final PrintWriter                writer;
+        final ReactorNettyTcpClient      client;
+        final Client                     sender;
+        final WarmUpTransactionListener  listener;
+        final MetricsTransactionListener metrics;
+        final List<TransactionListener>  listeners;
+        final RequestRecorder            recorder;
+        final IntervalReporter           reporter;
+        final KeepAlivePolicy            keepAlivePolicy;
+        final LaneMetricsListener        laneMetrics;
+        final JvmStatsSampler            jvmSampler;
+        final MetricsSummary             result;
+        final SloThresholds              thresholds;
+        final List<String>               violations;
+        final Logger                     log;
+
+        // Taken when running, so the commands can be built without initializing the logging
+        log = LoggerFactory.getLogger(AbstractClientCommand.class);
+
+        if (debug) {
+            activateDebugLog();
+        }
+
+        if (verbose) {
+            // Prints to console
+            writer = spec.commandLine()
+                .getOut();
+        } else {
+            // Prints nothing
+            writer = new PrintWriter(OutputStream.nullOutputStream(), false, Charset.defaultCharset());
+        }
+
+        // Create client
+        // Same charset as the client, so the bytes are counted as written
+        metrics = new MetricsTransactionListener(getCharset());
+        listeners = new ArrayList<>();
+        // In report mode only the interval summaries are printed
+        if (!report) {
+            listeners.add(new TransactionPrinterListener(host, port, writer));
+        }
+        listeners.add(metrics);
+        if (priority.isEnabled()) {
+            laneMetrics = new LaneMetricsListener();
+            listeners.add(laneMetrics);
+        } else {
+            laneMetrics = null;
+        }
+        if (record == null) {
+            recorder = null;
+        } else {
+            try {
+                recorder = new RequestRecorder(record.toPath());
+            } catch (final IOException e) {
+                log.error(e.getLocalizedMessage(), e);
+                throw new UncheckedIOException(e);
+            }
+            listeners.add(recorder);
+        }
+        listener = new WarmUpTransactionListener(new CompositeTransactionListener(listeners));
+        client = new ReactorNettyTcpClient(host, port, listener, debug);
+        client.setConnections(connections);
+        client.setLineDelimited(lineDelimited);
+        if (charset != null) {
+            client.setCharset(charset);
+        }
+        client.setStreams(streams);
+        keepAlivePolicy = keepAlive.toPolicy();
+        if (keepAlivePolicy != null) {
+            client.setKeepAlive(keepAlivePolicy);
+        }
+        client.setDrainTimeout(Duration.ofSeconds(wait));
+        client.setConcurrencyLimit(concurrencyLimit.toLimitFactory());
+        client.setMaxQueued(concurrencyLimit.getMaxQueued());
+        client.setPriorities(priority.toPolicy());
+        client.setPipelineDepth(pipelineDepth);
+        client.setResolver(resolver.toPolicy(port));
+        if (socketStats) {
+            client.setSocketStatsInterval(reportInterval);
+        }
+        wireLog.apply(client);
+
+        client.connect();
+
+        if (warmUp > 0) {
+            writer.printf("Warming up with %d messages", warmUp);
+            writer.println();
+            new ClientWarmUp(client, listener, warmUpMessage, warmUpTimeout).warmUp(warmUp);
+        }
+
+        // Set after the warm-up, which shouldn't be slowed down nor take part in the ramp
+        client.setRateLimit(rateLimit.toTokenBucket(getDefaultRate()));
+
+        if (report) {
+            reporter = new IntervalReporter(metrics, writer, reportInterval);
+            reporter.start();
+        } else {
+            reporter = null;
+        }
+
+        // Taken after the warm-up, so it only measures the run
+        if (jvmStats) {
+            jvmSampler = new JvmStatsSampler();
+            jvmSampler.start();
+        } else {
+            jvmSampler = null;
+        }
+
+        // Send messages
+        // Cached responses are never hedged
+        // Priorities are chosen right before the client, as the other wrappers do not pass them on
+        sender = cache.wrap(hedge.wrap(priority.wrap(client), listener), listener);
+        send(sender);
+
+        // Closing gives time to the server for responses
+        log.debug("Waiting up to {} seconds for responses", wait);
+        writer.printf("Waiting up to %d seconds for responses", wait);
+        writer.println();
+        sender.close();
+        writer.println("finished waiting");
+        log.debug("Finished waiting for responses");
+
+        // Closed after the client, so the last interval includes the final responses
+        if (reporter != null) {
+            reporter.close();
+        }
+        if (recorder != null) {
+            recorder.close();
+        }
+        if (jvmSampler != null) {
+            jvmSampler.close();
+        }
+
+        result = MetricsSummary.of(metrics);
+        printSummary(result, writer);
+        if ((laneMetrics != null) && (summary == SummaryFormat.TEXT)) {
+            writer.print(laneMetrics.toText());
+        }
+        if (jvmSampler != null) {
+            printJvmStats(jvmSampler.toStats(result.getSent(), result.getElapsed()), writer);
+        }
+        resultFile.write(result);
+
+        thresholds = slo.toThresholds();
+        violations = thresholds.check(result);
+        if (!thresholds.isEmpty() && violations.isEmpty()) {
+            writer.println("All the objectives are met");
+        }
+
+        // Close writer
+        writer.close();
+
+        if (wireLog.isEnabled()) {
+            // The wire log is asynchronous, and there is no shutdown hook to flush it
+            LogManager.shutdown();
+        }
+
+        return checkViolations(violations);
+    }
+
+    /**
+     * Returns the charset for the messages. If none was chosen, this is the platform charset.
+     *
+     * @return the charset for the messages
+     */
+    protected final Charset getCharset() {
+        final Charset selected;
+
+        if (charset == null) {
+            selected = Charset.defaultCharset();
+        } else {
+            selected = charset;
+        }
+
+        return selected;
+    }
+
+    /**
+     * Returns the message rate used when none is chosen. By default there is no limit.
+     *
+     * @return messages per second, zero for no limit
+     */
+    protected double getDefaultRate() {
+        return 0;
+    }
+
+    /**
+     * Sends the command messages through the client. The client is already connected.
+     *
+     * @param client
+     *            client to send the messages
+     */
+    protected abstract void send(final Client client);
+
+    /**
+     * Activates debug logs for the application.
+     */
+    private final void activateDebugLog() {
+        Configurator.setLevel("com.bernardomg.example", Level.DEBUG);
+        Configurator.setLevel("reactor.netty.tcp", Level.DEBUG);
+    }
+
+    /**
+     * Reports the service level objective violations, and returns the exit code matching them.
+     *
+     * @param violations
+     *            objectives violated
+     * @return the command exit code
+     */
+    private final Integer checkViolations(final List<String> violations) {
+        final PrintWriter err;
+        final Integer     code;
+
+        if (violations.isEmpty()) {
+            code = 0;
+        } else {
+            err = spec.commandLine()
+                .getErr();
+            for (final String violation : violations) {
+                err.printf("SLO violated: %s", violation);
+                err.println();
+            }
+            err.flush();
+            code = SloOptions.VIOLATION_EXIT_CODE;
+        }
+
+        return code;
+    }
+
+    /**
+     * Prints the JVM costs of the run, in the same format as the summary. As they were asked for explicitly, they are
+     * printed as text when there is no summary.
+     *
+     * @param stats
+     *            JVM costs to print
+     * @param writer
+     *            writer where the stats are printed
+     */
+    private final void printJvmStats(final JvmStats stats, final PrintWriter writer) {
+        switch (summary) {
+            case JSON:
+                writer.println(stats.toJson());
+                break;
+            case TEXT:
+            case NONE:
+            default:
+                writer.println(stats.toText());
+                break;
+        }
+    }
+
+    /**
+     * Prints the final summary, in the chosen format.
+     *
+     * @param result
+     *            results to summarize
+     * @param writer
+     *            writer where the summary is printed
+     */
+    private final void printSummary(final MetricsSummary result, final PrintWriter writer) {
+        switch (summary) {
+            case TEXT:
+                writer.println(result.toText());
+                break;
+            case JSON:
+                writer.println(result.toJson());
+                break;
+            case NONE:
+            default:
+                break;
+        }
+    }
+
+}
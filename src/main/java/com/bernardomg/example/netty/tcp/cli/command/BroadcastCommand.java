@@ -0,0 +1,202 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.example.netty.tcp.broadcast.Broadcast;
+import com.bernardomg.example.netty.tcp.broadcast.BroadcastSummary;
+import com.bernardomg.example.netty.tcp.broadcast.HostsFile;
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.metrics.SummaryFormat;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Broadcast command. Sends the same message to all the servers in a hosts file, printing each reply as it arrives,
+ * and then a summary of the replies and their latencies.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "broadcast", description = "Sends a TCP message to many servers, and collects their replies",
+        mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
+public final class BroadcastCommand implements Runnable {
+
+    /**
+     * Debug flag. Shows debug logs.
+     */
+    @Option(names = { "--debug" }, paramLabel = "flag", description = "Enable debug logs.", defaultValue = "false")
+    private boolean       debug;
+
+    /**
+     * Hosts file.
+     */
+    @Option(names = { "--hosts" }, paramLabel = "file",
+            description = "File with the servers, one host:port per line. Lines starting with # are ignored.",
+            required = true)
+    private File          hosts;
+
+    /**
+     * Line delimited flag. If active, messages and responses are separated by line breaks.
+     */
+    @Option(names = { "--line-delimited" }, paramLabel = "flag",
+            description = "Ends the message with a line break, and takes the first line as response.",
+            defaultValue = "false")
+    private boolean       lineDelimited;
+
+    /**
+     * Message to send.
+     */
+    @Option(names = { "-m", "--message" }, paramLabel = "text", description = "Message to send.", required = true)
+    private String        message;
+
+    /**
+     * Maximum number of servers contacted at once.
+     */
+    @Option(names = { "--parallelism" }, paramLabel = "servers", description = "Maximum servers contacted at once.",
+            defaultValue = "100", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer       parallelism;
+
+    /**
+     * Port for the servers without one.
+     */
+    @Option(names = { "-p", "--port" }, paramLabel = "port",
+            description = "Port for the servers listed without one.", defaultValue = "-1")
+    private Integer       port;
+
+    /**
+     * Quiet flag. If active, the replies are not printed.
+     */
+    @Option(names = { "--quiet" }, paramLabel = "flag", description = "Print only the summary.",
+            defaultValue = "false")
+    private boolean       quiet;
+
+    /**
+     * Command specification. Used to get the line output.
+     */
+    @Spec
+    private CommandSpec   spec;
+
+    /**
+     * Final summary format.
+     */
+    @Option(names = { "--summary" }, paramLabel = "format",
+            description = "Final summary format. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "TEXT",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private SummaryFormat summary;
+
+    /**
+     * Maximum milliseconds for each server.
+     */
+    @Option(names = { "--timeout" }, paramLabel = "milliseconds",
+            description = "Milliseconds for each server to connect and reply, after which it counts as failed.",
+            defaultValue = "5000", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long          timeout;
+
+    /**
+     * Default constructor.
+     */
+    public BroadcastCommand() {
+        super();
+    }
+
+    @Override
+    public final void run() {
+        final PrintWriter             writer;
+        final List<InetSocketAddress> endpoints;
+        final Broadcast               broadcast;
+        final BroadcastSummary        result;
+
+        if (debug) {
+            activateDebugLog();
+        }
+
+        writer = spec.commandLine()
+            .getOut();
+
+        try {
+            endpoints = HostsFile.read(hosts.toPath(), port);
+        } catch (final IOException e) {
+            LoggerFactory.getLogger(BroadcastCommand.class)
+                .error(e.getLocalizedMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+
+        // Replies are printed as they arrive
+        broadcast = new Broadcast(endpoints, reply -> {
+            if (!quiet) {
+                writer.println(reply.toText());
+                writer.flush();
+            }
+        });
+        broadcast.setParallelism(parallelism);
+        broadcast.setLineDelimited(lineDelimited);
+        broadcast.setTimeout(Duration.ofMillis(timeout));
+
+        writer.printf("Broadcasting to %d servers, up to %d at once", endpoints.size(), parallelism);
+        writer.println();
+        writer.flush();
+
+        result = broadcast.run(message);
+
+        switch (summary) {
+            case TEXT:
+                writer.println(result.toText());
+                break;
+            case JSON:
+                writer.println(result.toJson());
+                break;
+            case NONE:
+            default:
+                break;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Activates debug logs for the application.
+     */
+    private final void activateDebugLog() {
+        Configurator.setLevel("com.bernardomg.example", Level.DEBUG);
+        Configurator.setLevel("reactor.netty.tcp", Level.DEBUG);
+    }
+
+}
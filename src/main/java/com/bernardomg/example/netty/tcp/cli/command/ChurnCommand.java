@@ -0,0 +1,211 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.PrintWriter;
+import java.time.Duration;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import com.bernardomg.example.netty.tcp.churn.ChurnSummary;
+import com.bernardomg.example.netty.tcp.churn.ConnectionChurn;
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.metrics.SummaryFormat;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Churn command. Opens and closes connections at a fixed rate, to find out how many the server can accept, and how
+ * many sockets are left behind.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "churn", description = "Opens and closes TCP connections at a fixed rate",
+        mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
+public final class ChurnCommand implements Runnable {
+
+    /**
+     * Abortive close flag. If active, connections are reset when closing.
+     */
+    @Option(names = { "--abortive-close" }, paramLabel = "flag",
+            description = "Reset the connections when closing, so they don't stay in TIME_WAIT.",
+            defaultValue = "false")
+    private boolean       abortiveClose;
+
+    /**
+     * Maximum number of connections open at once.
+     */
+    @Option(names = { "--concurrency" }, paramLabel = "connections",
+            description = "Maximum connections open at once.", defaultValue = "50",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer       concurrency;
+
+    /**
+     * Debug flag. Shows debug logs.
+     */
+    @Option(names = { "--debug" }, paramLabel = "flag", description = "Enable debug logs.", defaultValue = "false")
+    private boolean       debug;
+
+    /**
+     * Churn duration, in seconds.
+     */
+    @Option(names = { "--duration" }, paramLabel = "seconds", description = "Seconds to keep opening connections.",
+            defaultValue = "10", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long          duration;
+
+    /**
+     * Server host.
+     */
+    @Option(names = { "--host" }, paramLabel = "URL", description = "Server host.", required = true)
+    private String        host;
+
+    /**
+     * Line delimited flag. If active, messages and responses are separated by line breaks.
+     */
+    @Option(names = { "--line-delimited" }, paramLabel = "flag",
+            description = "Ends each message with a line break, and splits responses into lines.",
+            defaultValue = "false")
+    private boolean       lineDelimited;
+
+    /**
+     * Message sent through each connection.
+     */
+    @Option(names = { "--message" }, paramLabel = "text", description = "Message sent through each connection.",
+            defaultValue = "churn", showDefaultValue = Help.Visibility.ALWAYS)
+    private String        message;
+
+    /**
+     * Messages sent through each connection.
+     */
+    @Option(names = { "--messages" }, paramLabel = "count",
+            description = "Messages sent through each connection before closing it.", defaultValue = "0",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer       messages;
+
+    /**
+     * Server port.
+     */
+    @Option(names = { "--port" }, paramLabel = "port", description = "Server port.", required = true)
+    private Integer       port;
+
+    /**
+     * Connections opened per second.
+     */
+    @Option(names = { "--rate" }, paramLabel = "connections",
+            description = "Connections opened per second. If 0 there is no limit.", defaultValue = "100",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Double        rate;
+
+    /**
+     * Command specification. Used to get the line output.
+     */
+    @Spec
+    private CommandSpec   spec;
+
+    /**
+     * Final summary format.
+     */
+    @Option(names = { "--summary" }, paramLabel = "format",
+            description = "Final summary format. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "TEXT",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private SummaryFormat summary;
+
+    /**
+     * Maximum milliseconds for connecting, and for the responses in each connection.
+     */
+    @Option(names = { "--timeout" }, paramLabel = "milliseconds",
+            description = "Milliseconds for connecting, and for the responses in each connection.",
+            defaultValue = "5000", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long          timeout;
+
+    /**
+     * Default constructor.
+     */
+    public ChurnCommand() {
+        super();
+    }
+
+    @Override
+    public final void run() {
+        final PrintWriter     writer;
+        final ConnectionChurn churn;
+        final ChurnSummary    result;
+
+        if (debug) {
+            activateDebugLog();
+        }
+
+        writer = spec.commandLine()
+            .getOut();
+
+        churn = new ConnectionChurn(host, port);
+        churn.setRate(rate);
+        churn.setConcurrency(concurrency);
+        churn.setMessages(messages, message);
+        churn.setLineDelimited(lineDelimited);
+        churn.setTimeout(Duration.ofMillis(timeout));
+        churn.setAbortiveClose(abortiveClose);
+
+        if (rate > 0) {
+            writer.printf("Opening %.0f connections per second for %d seconds, up to %d at once", rate, duration,
+                concurrency);
+        } else {
+            writer.printf("Opening connections for %d seconds, up to %d at once", duration, concurrency);
+        }
+        writer.println();
+        writer.flush();
+
+        result = churn.run(Duration.ofSeconds(duration));
+
+        switch (summary) {
+            case TEXT:
+                writer.println(result.toText());
+                break;
+            case JSON:
+                writer.println(result.toJson());
+                break;
+            case NONE:
+            default:
+                break;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Activates debug logs for the application.
+     */
+    private final void activateDebugLog() {
+        Configurator.setLevel("com.bernardomg.example", Level.DEBUG);
+        Configurator.setLevel("reactor.netty.tcp", Level.DEBUG);
+    }
+
+}
@@ -0,0 +1,265 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.diff.DiffSummary;
+import com.bernardomg.example.netty.tcp.diff.ResponseDiff;
+import com.bernardomg.example.netty.tcp.metrics.SummaryFormat;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Diff command. Replays a corpus of messages, read line by line, against a baseline and a candidate server. Prints
+ * the messages with different responses as they are found, and then both servers' latencies side by side.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "diff", description = "Compares the responses and latencies of two servers for recorded messages",
+        mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
+public final class DiffCommand implements Runnable {
+
+    /**
+     * Baseline server address.
+     */
+    @Option(names = { "--baseline" }, paramLabel = "host:port", description = "Baseline server address.",
+            required = true)
+    private String        baseline;
+
+    /**
+     * Candidate server address.
+     */
+    @Option(names = { "--candidate" }, paramLabel = "host:port", description = "Candidate server address.",
+            required = true)
+    private String        candidate;
+
+    /**
+     * Maximum number of messages waiting for responses. Without line delimiters, only one of them is sent on each
+     * connection at a time.
+     */
+    @Option(names = { "--concurrency" }, paramLabel = "messages",
+            description = "Maximum messages waiting for responses. Without line delimiters, each connection sends"
+                    + " them one at a time.",
+            defaultValue = "64",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer       concurrency;
+
+    /**
+     * Number of connections to open to each server.
+     */
+    @Option(names = { "--connections" }, paramLabel = "number", description = "Connections to open to each server.",
+            defaultValue = "1", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer       connections;
+
+    /**
+     * Debug flag. Shows debug logs.
+     */
+    @Option(names = { "--debug" }, paramLabel = "flag", description = "Enable debug logs.", defaultValue = "false")
+    private boolean       debug;
+
+    /**
+     * Corpus file. If not set, the standard input is read.
+     */
+    @Option(names = { "--input" }, paramLabel = "file",
+            description = "File to read the messages from. Defaults to the standard input.")
+    private File          input;
+
+    /**
+     * Line delimited flag. If active, messages and responses are separated by line breaks.
+     */
+    @Option(names = { "--line-delimited" }, paramLabel = "flag",
+            description = "Ends each message with a line break, and splits responses into lines.",
+            defaultValue = "false")
+    private boolean       lineDelimited;
+
+    /**
+     * Mismatches file. If not set, they are printed with the summary.
+     */
+    @Option(names = { "--mismatches" }, paramLabel = "file",
+            description = "File to write the mismatches into. Defaults to the standard output.")
+    private File          mismatches;
+
+    /**
+     * Command specification. Used to get the line output.
+     */
+    @Spec
+    private CommandSpec   spec;
+
+    /**
+     * Final summary format.
+     */
+    @Option(names = { "--summary" }, paramLabel = "format",
+            description = "Final summary format. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "TEXT",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private SummaryFormat summary;
+
+    /**
+     * Maximum milliseconds to wait for each response.
+     */
+    @Option(names = { "--timeout" }, paramLabel = "milliseconds",
+            description = "Milliseconds to wait for each response, after which it counts as an error.",
+            defaultValue = "5000", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long          timeout;
+
+    /**
+     * Default constructor.
+     */
+    public DiffCommand() {
+        super();
+    }
+
+    @Override
+    public final void run() {
+        final PrintWriter           writer;
+        final PrintWriter           mismatchWriter;
+        final ReactorNettyTcpClient baselineClient;
+        final ReactorNettyTcpClient candidateClient;
+        final ResponseDiff          diff;
+        final DiffSummary           result;
+
+        if (debug) {
+            activateDebugLog();
+        }
+
+        writer = spec.commandLine()
+            .getOut();
+
+        baselineClient = buildClient(baseline);
+        candidateClient = buildClient(candidate);
+        baselineClient.connect();
+        candidateClient.connect();
+
+        try {
+            if (mismatches == null) {
+                mismatchWriter = writer;
+            } else {
+                mismatchWriter = new PrintWriter(
+                    Files.newBufferedWriter(mismatches.toPath(), Charset.defaultCharset()));
+            }
+
+            // Mismatches are written as they are found
+            diff = new ResponseDiff(baselineClient, candidateClient, Duration.ofMillis(timeout),
+                mismatch -> mismatchWriter.println(mismatch.toText()));
+            if (input == null) {
+                // The standard input is not closed
+                result = diff.run(new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()))
+                    .lines(), concurrency);
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(input.toPath(), Charset.defaultCharset())) {
+                    result = diff.run(reader.lines(), concurrency);
+                }
+            }
+
+            if (mismatches != null) {
+                mismatchWriter.close();
+            }
+        } catch (final IOException e) {
+            LoggerFactory.getLogger(DiffCommand.class)
+                .error(e.getLocalizedMessage(), e);
+            throw new UncheckedIOException(e);
+        } finally {
+            baselineClient.close();
+            candidateClient.close();
+        }
+
+        switch (summary) {
+            case TEXT:
+                writer.println(result.toText());
+                break;
+            case JSON:
+                writer.println(result.toJson());
+                break;
+            case NONE:
+            default:
+                break;
+        }
+        writer.flush();
+    }
+
+    /**
+     * Activates debug logs for the application.
+     */
+    private final void activateDebugLog() {
+        Configurator.setLevel("com.bernardomg.example", Level.DEBUG);
+        Configurator.setLevel("reactor.netty.tcp", Level.DEBUG);
+    }
+
+    /**
+     * Builds a client for the server address.
+     *
+     * @param address
+     *            server address, as host:port
+     * @return a client for the server
+     */
+    private final ReactorNettyTcpClient buildClient(final String address) {
+        final int                   separator;
+        final ReactorNettyTcpClient client;
+
+        separator = address.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Server address should be host:port, received " + address);
+        }
+
+        // Responses are handled by the comparison, the listener does nothing
+        client = new ReactorNettyTcpClient(address.substring(0, separator),
+            Integer.parseInt(address.substring(separator + 1)), new CompositeTransactionListener(List.of()), debug);
+        client.setConnections(connections);
+        client.setLineDelimited(lineDelimited);
+        if (!lineDelimited) {
+            // Reads may merge or split unframed responses, so they can only be paired with one request at a time
+            client.setConcurrencyLimit(() -> new FixedConcurrencyLimit(1));
+            client.setMaxQueued(concurrency);
+        }
+        // Responses arriving after their timeout are given as much to arrive
+        client.setDrainTimeout(Duration.ofMillis(timeout));
+
+        return client;
+    }
+
+}
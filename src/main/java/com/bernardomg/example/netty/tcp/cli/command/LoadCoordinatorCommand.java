@@ -0,0 +1,255 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import com.bernardomg.example.netty.tcp.cli.option.ResultFileOptions;
+import com.bernardomg.example.netty.tcp.cli.option.SloOptions;
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.distributed.LoadCoordinator;
+import com.bernardomg.example.netty.tcp.load.LoadPlan;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.metrics.SummaryFormat;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Load coordinator command. Splits a load plan among several workers, and prints their merged metrics.
+ * <p>
+ * Returns {@value SloOptions#VIOLATION_EXIT_CODE} as exit code when the merged metrics violate any of the objectives
+ * set.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "coordinator", description = "Distributes a load plan among workers",
+        mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
+public final class LoadCoordinatorCommand implements Callable<Integer> {
+
+    /**
+     * Total number of connections, split among the workers.
+     */
+    @Option(names = { "--connections" }, paramLabel = "number",
+            description = "Connections to open, split among the workers.", defaultValue = "1",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer           connections;
+
+    /**
+     * Debug flag. Shows debug logs.
+     */
+    @Option(names = { "--debug" }, paramLabel = "flag", description = "Enable debug logs.", defaultValue = "false")
+    private boolean           debug;
+
+    /**
+     * Load duration, in seconds.
+     */
+    @Option(names = { "-d", "--duration" }, paramLabel = "seconds", description = "Seconds to send messages.",
+            defaultValue = "10", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long              duration;
+
+    /**
+     * Server host.
+     */
+    @Option(names = { "-h", "--host" }, paramLabel = "URL", description = "Server host.", required = true)
+    private String            host;
+
+    /**
+     * Line delimited flag. If active, messages and responses are separated by line breaks.
+     */
+    @Option(names = { "--line-delimited" }, paramLabel = "flag",
+            description = "Ends each message with a line break, and splits responses into lines.",
+            defaultValue = "false")
+    private boolean           lineDelimited;
+
+    /**
+     * Message to send.
+     */
+    @Option(names = { "-m", "--message" }, paramLabel = "text", description = "Message to send.", required = true)
+    private String            message;
+
+    /**
+     * Server port.
+     */
+    @Option(names = { "-p", "--port" }, paramLabel = "port", description = "Server port.", required = true)
+    private Integer           port;
+
+    /**
+     * Total rate, split among the workers.
+     */
+    @Option(names = { "-r", "--rate" }, paramLabel = "messages",
+            description = "Messages per second, split among the workers.", required = true)
+    private Long              rate;
+
+    /**
+     * Result file options.
+     */
+    @Mixin
+    private ResultFileOptions resultFile;
+
+    /**
+     * Service level objective options.
+     */
+    @Mixin
+    private SloOptions        slo;
+
+    /**
+     * Command specification. Used to get the line output.
+     */
+    @Spec
+    private CommandSpec       spec;
+
+    /**
+     * Final summary format.
+     */
+    @Option(names = { "--summary" }, paramLabel = "format",
+            description = "Final summary format. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "TEXT",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private SummaryFormat     summary;
+
+    /**
+     * Response wait time. This is the number of seconds to wait for responses.
+     */
+    @Option(names = { "-w", "--wait" }, paramLabel = "seconds",
+            description = "Wait received seconds, to wait for responses.", defaultValue = "2",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer           wait;
+
+    /**
+     * Worker control addresses.
+     */
+    @Option(names = { "--worker" }, paramLabel = "host:port", description = "Worker control address.",
+            required = true)
+    private List<String>      workers;
+
+    /**
+     * Default constructor.
+     */
+    public LoadCoordinatorCommand() {
+        super();
+    }
+
+    @Override
+    public final Integer call() {
+        final PrintWriter             writer;
+        final PrintWriter             err;
+        final LoadPlan                plan;
+        final List<InetSocketAddress> addresses;
+        final MetricsSummary          result;
+        final List<String>            violations;
+        final Integer                 code;
+
+        if (debug) {
+            activateDebugLog();
+        }
+
+        writer = spec.commandLine()
+            .getOut();
+
+        addresses = workers.stream()
+            .map(this::toAddress)
+            .collect(Collectors.toList());
+        plan = new LoadPlan(host, port, message, rate, connections, duration * 1000, wait * 1000L, lineDelimited);
+
+        writer.printf("Running %d messages per second for %d seconds on %d workers", rate, duration,
+            addresses.size());
+        writer.println();
+        writer.flush();
+
+        result = new LoadCoordinator(addresses).run(plan);
+
+        switch (summary) {
+            case TEXT:
+                writer.println(result.toText());
+                break;
+            case JSON:
+                writer.println(result.toJson());
+                break;
+            case NONE:
+            default:
+                break;
+        }
+        writer.flush();
+
+        resultFile.write(result);
+
+        violations = slo.toThresholds()
+            .check(result);
+        if (violations.isEmpty()) {
+            code = 0;
+        } else {
+            err = spec.commandLine()
+                .getErr();
+            for (final String violation : violations) {
+                err.printf("SLO violated: %s", violation);
+                err.println();
+            }
+            err.flush();
+            code = SloOptions.VIOLATION_EXIT_CODE;
+        }
+
+        return code;
+    }
+
+    /**
+     * Activates debug logs for the application.
+     */
+    private final void activateDebugLog() {
+        Configurator.setLevel("com.bernardomg.example", Level.DEBUG);
+        Configurator.setLevel("reactor.netty.tcp", Level.DEBUG);
+    }
+
+    /**
+     * Parses a worker control address.
+     *
+     * @param worker
+     *            address, as host:port
+     * @return the worker control address
+     */
+    private final InetSocketAddress toAddress(final String worker) {
+        final int separator;
+
+        separator = worker.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Worker address should be host:port, received " + worker);
+        }
+
+        return new InetSocketAddress(worker.substring(0, separator),
+            Integer.parseInt(worker.substring(separator + 1)));
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.distributed.LoadWorker;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Load worker command. Waits for load plans from a coordinator, and runs them.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "worker", description = "Runs load plans received from a coordinator",
+        mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
+public final class LoadWorkerCommand implements Runnable {
+
+    /**
+     * Control host. The worker listens for plans on it.
+     */
+    @Option(names = { "--control-host" }, paramLabel = "host", description = "Host to listen for plans.",
+            defaultValue = "localhost", showDefaultValue = Help.Visibility.ALWAYS)
+    private String      controlHost;
+
+    /**
+     * Control port. The worker listens for plans on it.
+     */
+    @Option(names = { "--control-port" }, paramLabel = "port",
+            description = "Port to listen for plans. If 0 any free port is used.", required = true)
+    private Integer     controlPort;
+
+    /**
+     * Debug flag. Shows debug logs.
+     */
+    @Option(names = { "--debug" }, paramLabel = "flag", description = "Enable debug logs.", defaultValue = "false")
+    private boolean     debug;
+
+    /**
+     * Number of plans to run before exiting.
+     */
+    @Option(names = { "--plans" }, paramLabel = "number",
+            description = "Plans to run before exiting. If 0 it runs until stopped.", defaultValue = "0",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer     plans;
+
+    /**
+     * Command specification. Used to get the line output.
+     */
+    @Spec
+    private CommandSpec spec;
+
+    /**
+     * Default constructor.
+     */
+    public LoadWorkerCommand() {
+        super();
+    }
+
+    @Override
+    public final void run() {
+        final PrintWriter writer;
+
+        if (debug) {
+            activateDebugLog();
+        }
+
+        writer = spec.commandLine()
+            .getOut();
+
+        try (LoadWorker worker = new LoadWorker(controlHost, controlPort)) {
+            writer.printf("Listening for plans on %s:%d", controlHost, worker.getPort());
+            writer.println();
+            writer.flush();
+
+            worker.serve(plans);
+        } catch (final IOException e) {
+            LoggerFactory.getLogger(LoadWorkerCommand.class)
+                .error(e.getLocalizedMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Activates debug logs for the application.
+     */
+    private final void activateDebugLog() {
+        Configurator.setLevel("com.bernardomg.example", Level.DEBUG);
+        Configurator.setLevel("reactor.netty.tcp", Level.DEBUG);
+    }
+
+}
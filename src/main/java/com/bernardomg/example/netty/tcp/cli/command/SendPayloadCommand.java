@@ -0,0 +1,140 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.payload.CounterPayloadGenerator;
+import com.bernardomg.example.netty.tcp.payload.PayloadContent;
+import com.bernardomg.example.netty.tcp.payload.PayloadGenerator;
+import com.bernardomg.example.netty.tcp.payload.TemplatePayloadGenerator;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Send payload command. Will send generated payloads of any size to the server through TCP.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "payload", description = "Sends generated TCP payloads", mixinStandardHelpOptions = true,
+        versionProvider = ManifestVersionProvider.class)
+public final class SendPayloadCommand extends AbstractClientCommand {
+
+    /**
+     * Payload contents.
+     */
+    @Option(names = { "--content" }, paramLabel = "content",
+            description = "Payload contents. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "RANDOM",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private PayloadContent content;
+
+    /**
+     * Number of payloads to send.
+     */
+    @Option(names = { "--count" }, paramLabel = "payloads", description = "Payloads to send.", defaultValue = "1",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        count;
+
+    /**
+     * Seed for random contents.
+     */
+    @Option(names = { "--seed" }, paramLabel = "number", description = "Seed for random contents.",
+            defaultValue = "1", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long           seed;
+
+    /**
+     * Payload size, in bytes.
+     */
+    @Option(names = { "--size" }, paramLabel = "bytes", description = "Payload size.", defaultValue = "1024",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        size;
+
+    /**
+     * Template text for counter contents.
+     */
+    @Option(names = { "--template" }, paramLabel = "text",
+            description = "Template for counter contents, with %%d where the counter goes.",
+            defaultValue = "Message %d", showDefaultValue = Help.Visibility.ALWAYS)
+    private String         template;
+
+    /**
+     * Number of templates for random contents.
+     */
+    @Option(names = { "--templates" }, paramLabel = "number",
+            description = "Random payloads built beforehand, sent in turn.", defaultValue = "16",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        templates;
+
+    /**
+     * Default constructor.
+     */
+    public SendPayloadCommand() {
+        super();
+    }
+
+    @Override
+    protected final void send(final Client client) {
+        final ByteBufAllocator allocator;
+
+        allocator = PooledByteBufAllocator.DEFAULT;
+        try (PayloadGenerator generator = createGenerator(allocator)) {
+            for (int i = 0; i < count; i++) {
+                client.request(generator.next());
+            }
+        }
+    }
+
+    /**
+     * Creates the generator for the chosen contents.
+     *
+     * @param allocator
+     *            allocator for the templates
+     * @return the payload generator
+     */
+    private final PayloadGenerator createGenerator(final ByteBufAllocator allocator) {
+        final PayloadGenerator generator;
+
+        switch (content) {
+            case COUNTER:
+                generator = new CounterPayloadGenerator(allocator, template, size);
+                break;
+            case SEQUENTIAL:
+                generator = TemplatePayloadGenerator.sequential(allocator, size);
+                break;
+            case RANDOM:
+            default:
+                generator = TemplatePayloadGenerator.random(allocator, size, templates, seed);
+                break;
+        }
+
+        return generator;
+    }
+
+}
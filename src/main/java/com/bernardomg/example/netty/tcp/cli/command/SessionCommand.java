@@ -0,0 +1,114 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.command;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.example.netty.tcp.cli.version.ManifestVersionProvider;
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.session.SessionInterpreter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+/**
+ * Session command. Keeps the client connected while sending the messages read line by line, from the standard input
+ * or a file. This way any number of messages can be sent through the same connections, from a single process. The
+ * input is read in the same charset as the messages.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Command(name = "session", description = "Sends TCP messages read line by line, through the same connections",
+        mixinStandardHelpOptions = true, versionProvider = ManifestVersionProvider.class)
+public final class SessionCommand extends AbstractClientCommand {
+
+    /**
+     * Session prompt.
+     */
+    private static final String PROMPT = "> ";
+
+    /**
+     * Input file. If not set, the standard input is read.
+     */
+    @Option(names = { "--input" }, paramLabel = "file",
+            description = "File to read the messages from. Defaults to the standard input.")
+    private File                input;
+
+    /**
+     * Command specification. Used to get the error output.
+     */
+    @Spec
+    private CommandSpec         spec;
+
+    /**
+     * Default constructor.
+     */
+    public SessionCommand() {
+        super();
+    }
+
+    @Override
+    protected final void send(final Client client) {
+        final SessionInterpreter interpreter;
+        final long               sent;
+
+        // Directives and prompts go to the error output, so they don't mix with the responses
+        interpreter = new SessionInterpreter(client, spec.commandLine()
+            .getErr());
+
+        try {
+            if (input == null) {
+                if (System.console() != null) {
+                    interpreter.setPrompt(PROMPT);
+                }
+                // The standard input is not closed
+                sent = interpreter.run(new BufferedReader(new InputStreamReader(System.in, getCharset())));
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(input.toPath(), getCharset())) {
+                    sent = interpreter.run(reader);
+                }
+            }
+        } catch (final IOException e) {
+            LoggerFactory.getLogger(SessionCommand.class)
+                .error(e.getLocalizedMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+
+        LoggerFactory.getLogger(SessionCommand.class)
+            .debug("Session ended after {} messages", sent);
+    }
+
+}
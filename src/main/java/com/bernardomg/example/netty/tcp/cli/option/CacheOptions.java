@@ -0,0 +1,88 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.time.Duration;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.cache.CachingClient;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the response cache.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class CacheOptions {
+
+    /**
+     * Maximum cached responses. Zero disables the cache.
+     */
+    @Option(names = { "--cache-size" }, paramLabel = "responses",
+            description = "Responses cached, keyed by message. Zero disables the cache.", defaultValue = "0",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long size;
+
+    /**
+     * Time to keep each response, in milliseconds.
+     */
+    @Option(names = { "--cache-ttl" }, paramLabel = "milliseconds",
+            description = "Milliseconds to keep each cached response.", defaultValue = "60000",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long ttl;
+
+    /**
+     * Default constructor.
+     */
+    public CacheOptions() {
+        super();
+    }
+
+    /**
+     * Wraps the client with a response cache, if the cache is enabled. Otherwise the same client is returned.
+     *
+     * @param client
+     *            client to wrap
+     * @param listener
+     *            transaction listener, receives the cache hits and misses
+     * @return the client with the cache
+     */
+    public final Client wrap(final Client client, final TransactionListener listener) {
+        final Client wrapped;
+
+        if (size > 0) {
+            wrapped = new CachingClient(client, listener, size, Duration.ofMillis(ttl));
+        } else {
+            wrapped = client;
+        }
+
+        return wrapped;
+    }
+
+}
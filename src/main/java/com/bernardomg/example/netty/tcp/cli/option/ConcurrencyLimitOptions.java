@@ -0,0 +1,148 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.bernardomg.example.netty.tcp.client.limit.AimdConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.ConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.GradientConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.LimitAlgorithm;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the concurrency limit of each connection.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class ConcurrencyLimitOptions {
+
+    /**
+     * Concurrency limit algorithm.
+     */
+    @Option(names = { "--concurrency-limit" }, paramLabel = "algorithm",
+            description = "Limit for the requests waiting for a response on each connection."
+                    + " Valid values: ${COMPLETION-CANDIDATES}.",
+            defaultValue = "NONE", showDefaultValue = Help.Visibility.ALWAYS)
+    private LimitAlgorithm algorithm;
+
+    /**
+     * Initial limit.
+     */
+    @Option(names = { "--initial-limit" }, paramLabel = "requests", description = "Initial concurrency limit.",
+            defaultValue = "10", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        initialLimit;
+
+    /**
+     * Latency threshold, in milliseconds. Used by AIMD.
+     */
+    @Option(names = { "--latency-threshold" }, paramLabel = "milliseconds",
+            description = "Latency over which the AIMD limit decreases.", defaultValue = "100",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long           latencyThreshold;
+
+    /**
+     * Maximum limit.
+     */
+    @Option(names = { "--max-limit" }, paramLabel = "requests", description = "Maximum concurrency limit.",
+            defaultValue = "1000", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        maxLimit;
+
+    /**
+     * Maximum queued requests.
+     */
+    @Option(names = { "--max-queued" }, paramLabel = "requests",
+            description = "Requests queued on each connection over the limit. Any other is rejected.",
+            defaultValue = "1000", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        maxQueued;
+
+    /**
+     * Minimum limit.
+     */
+    @Option(names = { "--min-limit" }, paramLabel = "requests", description = "Minimum concurrency limit.",
+            defaultValue = "1", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer        minLimit;
+
+    /**
+     * Default constructor.
+     */
+    public ConcurrencyLimitOptions() {
+        super();
+    }
+
+    /**
+     * Returns the maximum number of queued requests on each connection.
+     *
+     * @return the maximum number of queued requests
+     */
+    public final Integer getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * Returns a factory for the chosen concurrency limit. The adaptive limits require {@code 1 <= min <= initial <=
+     * max}.
+     *
+     * @return the concurrency limit factory
+     * @throws IllegalArgumentException
+     *             if the limits for an adaptive algorithm are out of order
+     */
+    public final Supplier<ConcurrencyLimit> toLimitFactory() {
+        final Supplier<ConcurrencyLimit> factory;
+
+        // Checked before connecting, instead of when each connection creates its limit
+        if (((algorithm == LimitAlgorithm.AIMD) || (algorithm == LimitAlgorithm.GRADIENT))
+                && ((minLimit < 1) || (initialLimit < minLimit) || (maxLimit < initialLimit))) {
+            throw new IllegalArgumentException(String.format(
+                "The limits should be 1 <= min <= initial <= max, received min %d, initial %d and max %d", minLimit,
+                initialLimit, maxLimit));
+        }
+
+        switch (algorithm) {
+            case AIMD:
+                factory = () -> new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                    TimeUnit.MILLISECONDS.toNanos(latencyThreshold));
+                break;
+            case GRADIENT:
+                factory = () -> new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit);
+                break;
+            case FIXED:
+                factory = () -> new FixedConcurrencyLimit(initialLimit);
+                break;
+            case NONE:
+            default:
+                factory = () -> FixedConcurrencyLimit.UNLIMITED;
+                break;
+        }
+
+        return factory;
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.time.Duration;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.hedge.HedgeBudget;
+import com.bernardomg.example.netty.tcp.client.hedge.HedgingClient;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for request hedging.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class HedgeOptions {
+
+    /**
+     * Percentage of requests which can be hedged.
+     */
+    @Option(names = { "--hedge-budget" }, paramLabel = "percentage",
+            description = "Percentage of the requests which can be hedged.", defaultValue = "5",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Double budget;
+
+    /**
+     * Maximum hedges which can be saved.
+     */
+    @Option(names = { "--hedge-burst" }, paramLabel = "requests",
+            description = "Hedges which can be saved while responses are fast.", defaultValue = "10",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Double burst;
+
+    /**
+     * Hedge delay, in milliseconds. Zero disables hedging.
+     */
+    @Option(names = { "--hedge-delay" }, paramLabel = "milliseconds",
+            description = "Milliseconds to wait for a response before sending the message again."
+                    + " With a percentile, this is the minimum. Zero disables hedging.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long   delay;
+
+    /**
+     * Latency percentile used as delay.
+     */
+    @Option(names = { "--hedge-percentile" }, paramLabel = "percentile",
+            description = "Latency percentile used as hedge delay. Zero for a fixed delay.", defaultValue = "0",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Double percentile;
+
+    /**
+     * Default constructor.
+     */
+    public HedgeOptions() {
+        super();
+    }
+
+    /**
+     * Wraps the client with hedging, if it is enabled. Otherwise the same client is returned.
+     *
+     * @param client
+     *            client to wrap
+     * @param listener
+     *            transaction listener, receives the hedges
+     * @return the client with hedging
+     */
+    public final Client wrap(final Client client, final TransactionListener listener) {
+        final Client wrapped;
+
+        if (delay > 0) {
+            wrapped = new HedgingClient(client, listener, Duration.ofMillis(delay), percentile,
+                new HedgeBudget(budget / 100, burst));
+        } else {
+            wrapped = client;
+        }
+
+        return wrapped;
+    }
+
+}
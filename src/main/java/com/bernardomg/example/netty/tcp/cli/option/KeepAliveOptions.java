@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.time.Duration;
+
+import com.bernardomg.example.netty.tcp.client.keepalive.KeepAlivePolicy;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for keeping the connections alive, and recycling them.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class KeepAliveOptions {
+
+    /**
+     * Heartbeat interval, in milliseconds.
+     */
+    @Option(names = { "--heartbeat-interval" }, paramLabel = "milliseconds",
+            description = "Milliseconds without traffic after which a heartbeat is sent. Zero disables heartbeats.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long   heartbeatInterval;
+
+    /**
+     * Heartbeat message.
+     */
+    @Option(names = { "--heartbeat-message" }, paramLabel = "text",
+            description = "Heartbeat message. Its response is discarded.",
+            defaultValue = KeepAlivePolicy.DEFAULT_HEARTBEAT, showDefaultValue = Help.Visibility.ALWAYS)
+    private String heartbeatMessage;
+
+    /**
+     * Idle timeout, in milliseconds.
+     */
+    @Option(names = { "--idle-timeout" }, paramLabel = "milliseconds",
+            description = "Milliseconds without reads, while waiting for a response, after which a connection is dead.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long   idleTimeout;
+
+    /**
+     * Maximum idle time, in milliseconds.
+     */
+    @Option(names = { "--max-idle" }, paramLabel = "milliseconds",
+            description = "Milliseconds without requests after which a connection is replaced. Zero disables it.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long   maxIdle;
+
+    /**
+     * Maximum life time, in milliseconds.
+     */
+    @Option(names = { "--max-life" }, paramLabel = "milliseconds",
+            description = "Milliseconds after which a connection is replaced. Zero disables it.", defaultValue = "0",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long   maxLife;
+
+    /**
+     * Validation interval, in milliseconds.
+     */
+    @Option(names = { "--validation-interval" }, paramLabel = "milliseconds",
+            description = "Milliseconds between validations of the connections.", defaultValue = "1000",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long   validationInterval;
+
+    /**
+     * Default constructor.
+     */
+    public KeepAliveOptions() {
+        super();
+    }
+
+    /**
+     * Returns the keep-alive policy for the chosen options, or {@code null} if none of them was enabled.
+     *
+     * @return the keep-alive policy, or {@code null} if disabled
+     */
+    public final KeepAlivePolicy toPolicy() {
+        final KeepAlivePolicy policy;
+
+        if ((heartbeatInterval > 0) || (idleTimeout > 0) || (maxIdle > 0) || (maxLife > 0)) {
+            policy = new KeepAlivePolicy();
+            policy.setHeartbeat(heartbeatMessage, Duration.ofMillis(heartbeatInterval));
+            policy.setIdleTimeout(Duration.ofMillis(idleTimeout));
+            policy.setMaxIdle(Duration.ofMillis(maxIdle));
+            policy.setMaxLife(Duration.ofMillis(maxLife));
+            policy.setValidationInterval(Duration.ofMillis(validationInterval));
+        } else {
+            policy = null;
+        }
+
+        return policy;
+    }
+
+}
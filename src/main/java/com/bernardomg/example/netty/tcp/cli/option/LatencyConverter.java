@@ -0,0 +1,96 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.TypeConversionException;
+
+/**
+ * Converts a latency with its unit, such as {@code 5ms}, into a duration. The units are {@code ns}, {@code us},
+ * {@code ms} and {@code s}, and without a unit the value is in milliseconds. Decimals are allowed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class LatencyConverter implements ITypeConverter<Duration> {
+
+    /**
+     * Latency format, a number followed by an optional unit.
+     */
+    private static final Pattern FORMAT = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(ns|us|ms|s)?");
+
+    /**
+     * Default constructor.
+     */
+    public LatencyConverter() {
+        super();
+    }
+
+    @Override
+    public final Duration convert(final String value) {
+        final Matcher matcher;
+        final double  amount;
+        final String  unit;
+        final double  nanos;
+
+        matcher = FORMAT.matcher(value.trim()
+            .toLowerCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            throw new TypeConversionException(
+                "Invalid latency " + value + ", expected a number and a unit such as 5ms");
+        }
+
+        amount = Double.parseDouble(matcher.group(1));
+        if (matcher.group(2) == null) {
+            unit = "ms";
+        } else {
+            unit = matcher.group(2);
+        }
+        switch (unit) {
+            case "ns":
+                nanos = amount;
+                break;
+            case "us":
+                nanos = amount * 1_000;
+                break;
+            case "s":
+                nanos = amount * 1_000_000_000;
+                break;
+            case "ms":
+            default:
+                nanos = amount * 1_000_000;
+                break;
+        }
+
+        return Duration.ofNanos(Math.round(nanos));
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.util.Map;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.priority.PriorityMixClient;
+import com.bernardomg.example.netty.tcp.client.priority.PriorityPolicy;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the request priority lanes.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class PriorityOptions {
+
+    /**
+     * Maximum requests in each lane.
+     */
+    @Option(names = { "--lane-capacity" }, paramLabel = "requests",
+            description = "Maximum requests waiting in each priority lane.",
+            defaultValue = PriorityPolicy.DEFAULT_CAPACITY + "", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer                capacity;
+
+    /**
+     * Fraction of the messages sent as high priority.
+     */
+    @Option(names = { "--high-ratio" }, paramLabel = "fraction",
+            description = "Fraction of the messages sent as high priority. The rest are sent as bulk.",
+            defaultValue = "0.1", showDefaultValue = Help.Visibility.ALWAYS)
+    private Double                 highRatio;
+
+    /**
+     * Enables the priority lanes.
+     */
+    @Option(names = { "--priority-lanes" }, description = "Sends the messages through priority lanes.",
+            defaultValue = "false")
+    private boolean                lanes;
+
+    /**
+     * Weight of each lane.
+     */
+    @Option(names = { "--lane-weights" }, paramLabel = "PRIORITY=weight", split = ",",
+            description = "Requests written from each lane in each round. Valid priorities: ${COMPLETION-CANDIDATES}.")
+    private Map<Priority, Integer> weights;
+
+    /**
+     * Default constructor.
+     */
+    public PriorityOptions() {
+        super();
+    }
+
+    /**
+     * Tells if the priority lanes are enabled.
+     *
+     * @return {@code true} if the priority lanes are enabled
+     */
+    public final boolean isEnabled() {
+        return lanes;
+    }
+
+    /**
+     * Returns the priority lanes configuration, or {@code null} if they are not enabled.
+     *
+     * @return the priority lanes configuration, or {@code null} if they are not enabled
+     */
+    public final PriorityPolicy toPolicy() {
+        final PriorityPolicy policy;
+
+        if (lanes) {
+            policy = new PriorityPolicy();
+            policy.setCapacity(capacity);
+            if (weights != null) {
+                weights.forEach(policy::setWeight);
+            }
+        } else {
+            policy = null;
+        }
+
+        return policy;
+    }
+
+    /**
+     * Wraps the client so it mixes high priority messages into bulk traffic, if the lanes are enabled. Otherwise the
+     * same client is returned.
+     *
+     * @param client
+     *            client to wrap
+     * @return the client sending messages with priorities
+     */
+    public final Client wrap(final Client client) {
+        final Client wrapped;
+
+        if (lanes) {
+            wrapped = new PriorityMixClient(client, highRatio);
+        } else {
+            wrapped = client;
+        }
+
+        return wrapped;
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.time.Duration;
+
+import com.bernardomg.example.netty.tcp.client.rate.RampType;
+import com.bernardomg.example.netty.tcp.client.rate.RateSchedule;
+import com.bernardomg.example.netty.tcp.client.rate.TokenBucket;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the message rate limit.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class RateLimitOptions {
+
+    /**
+     * Messages allowed at once after an idle period.
+     */
+    @Option(names = { "--burst" }, paramLabel = "messages",
+            description = "Messages allowed at once, over the rate, after an idle period.", defaultValue = "1",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer  burst;
+
+    /**
+     * Ramp type.
+     */
+    @Option(names = { "--ramp" }, paramLabel = "type",
+            description = "Ramp up to the rate. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "NONE",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private RampType ramp;
+
+    /**
+     * Ramp duration, in milliseconds.
+     */
+    @Option(names = { "--ramp-duration" }, paramLabel = "milliseconds",
+            description = "Milliseconds to ramp up to the rate.", defaultValue = "10000",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long     rampDuration;
+
+    /**
+     * Rate at the start of the ramp.
+     */
+    @Option(names = { "--ramp-from" }, paramLabel = "messages/s", description = "Rate at the start of the ramp.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Double   rampFrom;
+
+    /**
+     * Number of steps in a step ramp.
+     */
+    @Option(names = { "--ramp-steps" }, paramLabel = "steps", description = "Steps in a step ramp.",
+            defaultValue = "5", showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer  rampSteps;
+
+    /**
+     * Messages per second. If not set, the command default is used.
+     */
+    @Option(names = { "--rate" }, paramLabel = "messages/s",
+            description = "Maximum messages per second, across all the connections. Zero disables the limit.")
+    private Double   rate;
+
+    /**
+     * Default constructor.
+     */
+    public RateLimitOptions() {
+        super();
+    }
+
+    /**
+     * Returns a token bucket for the chosen rate, or {@code null} if there is no limit.
+     *
+     * @param defaultRate
+     *            rate used if none was chosen, zero for no limit
+     * @return the token bucket, or {@code null} if there is no limit
+     */
+    public final TokenBucket toTokenBucket(final double defaultRate) {
+        final double       target;
+        final RateSchedule schedule;
+        final TokenBucket  bucket;
+
+        if (rate == null) {
+            target = defaultRate;
+        } else {
+            target = rate;
+        }
+
+        if (target > 0) {
+            switch (ramp) {
+                case LINEAR:
+                    schedule = RateSchedule.linear(rampFrom, target, Duration.ofMillis(rampDuration));
+                    break;
+                case STEP:
+                    schedule = RateSchedule.steps(rampFrom, target, Duration.ofMillis(rampDuration), rampSteps);
+                    break;
+                case NONE:
+                default:
+                    schedule = RateSchedule.constant(target);
+                    break;
+            }
+            bucket = new TokenBucket(schedule, burst);
+        } else {
+            bucket = null;
+        }
+
+        return bucket;
+    }
+
+}
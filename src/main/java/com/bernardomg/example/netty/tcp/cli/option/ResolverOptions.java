@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.bernardomg.example.netty.tcp.broadcast.HostsFile;
+import com.bernardomg.example.netty.tcp.client.resolve.AddressPreference;
+import com.bernardomg.example.netty.tcp.client.resolve.ResolverPolicy;
+import com.bernardomg.example.netty.tcp.client.resolve.ResolverType;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for resolving the server host.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class ResolverOptions {
+
+    /**
+     * Default port for the DNS server.
+     */
+    private static final int  DNS_PORT = 53;
+
+    /**
+     * Delay between connection attempts, in milliseconds.
+     */
+    @Option(names = { "--happy-eyeballs-delay" }, paramLabel = "milliseconds",
+            description = "Milliseconds before trying the next address while a connection attempt is pending."
+                    + " Zero only tries it after a failure.",
+            defaultValue = "250", showDefaultValue = Help.Visibility.ALWAYS)
+    private Long              happyEyeballsDelay;
+
+    /**
+     * Maximum time to live, in seconds.
+     */
+    @Option(names = { "--dns-max-ttl" }, paramLabel = "seconds",
+            description = "Maximum seconds the DNS addresses are cached for.", defaultValue = "300",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long              maxTtl;
+
+    /**
+     * Minimum time to live, in seconds.
+     */
+    @Option(names = { "--dns-min-ttl" }, paramLabel = "seconds",
+            description = "Minimum seconds the DNS addresses are cached for.", defaultValue = "1",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long              minTtl;
+
+    /**
+     * DNS server to query.
+     */
+    @Option(names = { "--dns-server" }, paramLabel = "address",
+            description = "DNS server to query, as host or host:port. By default the system name servers are used.")
+    private String            nameServer;
+
+    /**
+     * Negative time to live, in seconds.
+     */
+    @Option(names = { "--dns-negative-ttl" }, paramLabel = "seconds",
+            description = "Seconds before querying again after a failed DNS resolution.", defaultValue = "5",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long              negativeTtl;
+
+    /**
+     * Preference between IPv4 and IPv6 addresses.
+     */
+    @Option(names = { "--address-preference" }, paramLabel = "preference",
+            description = "Address families used, and which one is tried first."
+                    + " Valid values: ${COMPLETION-CANDIDATES}.",
+            defaultValue = "IPV4_PREFERRED", showDefaultValue = Help.Visibility.ALWAYS)
+    private AddressPreference preference;
+
+    /**
+     * DNS query timeout, in milliseconds.
+     */
+    @Option(names = { "--dns-query-timeout" }, paramLabel = "milliseconds",
+            description = "Milliseconds to wait for each DNS query.", defaultValue = "5000",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Long              queryTimeout;
+
+    /**
+     * Addresses for the static resolver.
+     */
+    @Option(names = { "--static-addresses" }, paramLabel = "addresses", split = ",",
+            description = "Addresses for the static resolver, as host or host:port. Those without a port use the"
+                    + " server port.")
+    private List<String>      staticAddresses;
+
+    /**
+     * Resolver type.
+     */
+    @Option(names = { "--resolver" }, paramLabel = "type",
+            description = "How the server host is resolved. Valid values: ${COMPLETION-CANDIDATES}.",
+            defaultValue = "JVM", showDefaultValue = Help.Visibility.ALWAYS)
+    private ResolverType      type;
+
+    /**
+     * Default constructor.
+     */
+    public ResolverOptions() {
+        super();
+    }
+
+    /**
+     * Returns the resolution policy for the chosen options.
+     *
+     * @param port
+     *            server port, for the static addresses without one
+     * @return the resolution policy
+     */
+    public final ResolverPolicy toPolicy(final int port) {
+        final ResolverPolicy    policy;
+        final InetSocketAddress server;
+
+        policy = new ResolverPolicy();
+        policy.setType(type);
+        policy.setPreference(preference);
+        policy.setHappyEyeballsDelay(Duration.ofMillis(happyEyeballsDelay));
+        policy.setTtl(Duration.ofSeconds(minTtl), Duration.ofSeconds(maxTtl));
+        policy.setNegativeTtl(Duration.ofSeconds(negativeTtl));
+        policy.setQueryTimeout(Duration.ofMillis(queryTimeout));
+        if (nameServer != null) {
+            server = HostsFile.parse(nameServer, DNS_PORT);
+            policy.setNameServer(new InetSocketAddress(server.getHostString(), server.getPort()));
+        }
+        if (staticAddresses != null) {
+            policy.setStaticAddresses(staticAddresses.stream()
+                .map(address -> HostsFile.parse(address, port))
+                .collect(Collectors.toList()));
+        }
+
+        return policy;
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.metrics.ResultFormat;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the machine-readable result file.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class ResultFileOptions {
+
+    /**
+     * Result file. If not set, no file is written.
+     */
+    @Option(names = { "--result-file" }, paramLabel = "file",
+            description = "File to write the results into, with the full latency distribution.")
+    private File         file;
+
+    /**
+     * Result file format.
+     */
+    @Option(names = { "--result-format" }, paramLabel = "format",
+            description = "Result file format. Valid values: ${COMPLETION-CANDIDATES}.", defaultValue = "JSON",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private ResultFormat format;
+
+    /**
+     * Default constructor.
+     */
+    public ResultFileOptions() {
+        super();
+    }
+
+    /**
+     * Writes the summary into the result file, if it is set.
+     *
+     * @param summary
+     *            summary to write
+     */
+    public final void write(final MetricsSummary summary) {
+        final String contents;
+
+        if (file != null) {
+            if (format == ResultFormat.CSV) {
+                contents = summary.toCsv();
+            } else {
+                contents = summary.toDetailedJson();
+            }
+
+            try {
+                Files.writeString(file.toPath(), contents, StandardCharsets.UTF_8);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import java.time.Duration;
+
+import com.bernardomg.example.netty.tcp.metrics.SloThresholds;
+
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the service level objectives. When any of them is violated, the command exits with
+ * {@value #VIOLATION_EXIT_CODE}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class SloOptions {
+
+    /**
+     * Exit code when the objectives are violated.
+     */
+    public static final int VIOLATION_EXIT_CODE = 3;
+
+    /**
+     * Maximum number of errors.
+     */
+    @Option(names = { "--assert-errors" }, paramLabel = "errors", description = "Maximum number of errors.")
+    private Long            errors;
+
+    /**
+     * Maximum latency.
+     */
+    @Option(names = { "--assert-max" }, paramLabel = "latency", description = "Maximum latency, such as 20ms.",
+            converter = LatencyConverter.class)
+    private Duration        max;
+
+    /**
+     * Maximum median latency.
+     */
+    @Option(names = { "--assert-p50" }, paramLabel = "latency", description = "Maximum p50 latency, such as 2ms.",
+            converter = LatencyConverter.class)
+    private Duration        p50;
+
+    /**
+     * Maximum p90 latency.
+     */
+    @Option(names = { "--assert-p90" }, paramLabel = "latency", description = "Maximum p90 latency, such as 4ms.",
+            converter = LatencyConverter.class)
+    private Duration        p90;
+
+    /**
+     * Maximum p99 latency.
+     */
+    @Option(names = { "--assert-p99" }, paramLabel = "latency", description = "Maximum p99 latency, such as 5ms.",
+            converter = LatencyConverter.class)
+    private Duration        p99;
+
+    /**
+     * Maximum p99.9 latency.
+     */
+    @Option(names = { "--assert-p999" }, paramLabel = "latency",
+            description = "Maximum p99.9 latency, such as 10ms.", converter = LatencyConverter.class)
+    private Duration        p999;
+
+    /**
+     * Minimum responses per second.
+     */
+    @Option(names = { "--assert-throughput" }, paramLabel = "messages",
+            description = "Minimum responses per second.")
+    private Double          throughput;
+
+    /**
+     * Default constructor.
+     */
+    public SloOptions() {
+        super();
+    }
+
+    /**
+     * Returns the thresholds for the objectives received.
+     *
+     * @return the thresholds for the objectives
+     */
+    public final SloThresholds toThresholds() {
+        final SloThresholds thresholds;
+
+        thresholds = new SloThresholds();
+        if (p50 != null) {
+            thresholds.setMaxLatency(50, p50);
+        }
+        if (p90 != null) {
+            thresholds.setMaxLatency(90, p90);
+        }
+        if (p99 != null) {
+            thresholds.setMaxLatency(99, p99);
+        }
+        if (p999 != null) {
+            thresholds.setMaxLatency(99.9, p999);
+        }
+        if (max != null) {
+            thresholds.setMaxLatency(100, max);
+        }
+        if (throughput != null) {
+            thresholds.setMinThroughput(throughput);
+        }
+        if (errors != null) {
+            thresholds.setMaxErrors(errors);
+        }
+
+        return thresholds;
+    }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.cli.option;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+
+import picocli.CommandLine.Help;
+import picocli.CommandLine.Option;
+
+/**
+ * Options for the sampled wire log.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class WireLogOptions {
+
+    /**
+     * Maximum bytes shown in each event.
+     */
+    @Option(names = { "--wire-log-preview" }, paramLabel = "bytes",
+            description = "Maximum bytes shown in each wire log event.", defaultValue = "64",
+            showDefaultValue = Help.Visibility.ALWAYS)
+    private Integer preview;
+
+    /**
+     * Fraction of the reads and writes logged. Zero disables the wire log.
+     */
+    @Option(names = { "--wire-log" }, paramLabel = "rate",
+            description = "Fraction of the reads and writes logged into wire.log, from 0 to 1. Zero disables it.",
+            defaultValue = "0", showDefaultValue = Help.Visibility.ALWAYS)
+    private Double  rate;
+
+    /**
+     * Default constructor.
+     */
+    public WireLogOptions() {
+        super();
+    }
+
+    /**
+     * Sets up the wire log on the client.
+     *
+     * @param client
+     *            client to set up
+     */
+    public final void apply(final ReactorNettyTcpClient client) {
+        client.setWireLog(rate, preview);
+    }
+
+    /**
+     * Tells if the wire log is enabled.
+     *
+     * @return {@code true} if the wire log is enabled
+     */
+    public final boolean isEnabled() {
+        return rate > 0;
+    }
+
+}
@@ -26,19 +26,46 @@
 
 import com.bernardomg.cli.picocli.version.AbstractManifestVersionProvider;
 
+import picocli.CommandLine.IVersionProvider;
+
 /**
  * Version provider based on the JAR manifest.
+ * <p>
+ * The manifest reader is only created when the version is requested, as it initializes the logging. Every command
+ * builds its version provider, even if it is never used.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
  */
-public final class ManifestVersionProvider extends AbstractManifestVersionProvider {
+public final class ManifestVersionProvider implements IVersionProvider {
+
+    /**
+     * Reads the version from the JAR manifest.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    private static final class ProjectManifestVersionProvider extends AbstractManifestVersionProvider {
+
+        /**
+         * Default constructor.
+         */
+        private ProjectManifestVersionProvider() {
+            super("Netty TCP Client Example");
+        }
+
+    }
 
     /**
      * Default constructor.
      */
     public ManifestVersionProvider() {
-        super("Netty TCP Client Example");
+        super();
+    }
+
+    @Override
+    public final String[] getVersion() throws Exception {
+        return new ProjectManifestVersionProvider().getVersion();
     }
 
 }
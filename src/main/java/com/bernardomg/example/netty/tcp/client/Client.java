@@ -24,6 +24,11 @@
 
 package com.bernardomg.example.netty.tcp.client;
 
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Mono;
+
 /**
  * Generic client. Can start a connection, close said connection and send messages.
  *
@@ -42,6 +47,52 @@ public interface Client {
      */
     public void connect();
 
+    /**
+     * Sends the message through the connection, and returns its response. The message is sent when subscribing.
+     * <p>
+     * Empty messages are not written, so they don't receive a response and the result is empty.
+     *
+     * @param message
+     *            message to send
+     * @return the response for the message
+     */
+    public Mono<String> exchange(final String message);
+
+    /**
+     * Sends the message through the connection with a priority, and returns its response. By default the priority is
+     * ignored.
+     *
+     * @param message
+     *            message to send
+     * @param priority
+     *            message priority
+     * @return the response for the message
+     */
+    public default Mono<String> exchange(final String message, final Priority priority) {
+        return exchange(message);
+    }
+
+    /**
+     * Sends the payload through the connection. The client takes ownership of the buffer, and releases it once
+     * written.
+     *
+     * @param payload
+     *            payload to send
+     */
+    public void request(final ByteBuf payload);
+
+    /**
+     * Sends the payload through the connection with a priority. By default the priority is ignored.
+     *
+     * @param payload
+     *            payload to send
+     * @param priority
+     *            payload priority
+     */
+    public default void request(final ByteBuf payload, final Priority priority) {
+        request(payload);
+    }
+
     /**
      * Sends the message through the connection.
      *
@@ -50,4 +101,16 @@ public interface Client {
      */
     public void request(final String message);
 
+    /**
+     * Sends the message through the connection with a priority. By default the priority is ignored.
+     *
+     * @param message
+     *            message to send
+     * @param priority
+     *            message priority
+     */
+    public default void request(final String message, final Priority priority) {
+        request(message);
+    }
+
 }
@@ -0,0 +1,115 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client;
+
+import java.util.Objects;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warm-up phase for a client. Sends a number of messages, and waits for their responses, before any real request is
+ * sent. This way DNS resolution, connection handshakes and JIT compilation are not part of the measured requests.
+ * <p>
+ * The client should be connected before the warm-up, and use the same listener received here, which will keep the
+ * warm-up events away from the real listener.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class ClientWarmUp {
+
+    /**
+     * Client to warm up.
+     */
+    private final Client                    client;
+
+    /**
+     * Listener used by the client. Hides the warm-up events.
+     */
+    private final WarmUpTransactionListener listener;
+
+    /**
+     * Message sent during the warm-up.
+     */
+    private final String                    message;
+
+    /**
+     * Maximum time to wait for the warm-up responses, in milliseconds.
+     */
+    private final long                      timeout;
+
+    /**
+     * Constructs a warm-up for the client.
+     *
+     * @param clnt
+     *            client to warm up
+     * @param lst
+     *            listener used by the client
+     * @param msg
+     *            message sent during the warm-up
+     * @param tout
+     *            maximum time to wait for the warm-up responses, in milliseconds
+     */
+    public ClientWarmUp(final Client clnt, final WarmUpTransactionListener lst, final String msg, final long tout) {
+        super();
+
+        client = Objects.requireNonNull(clnt);
+        listener = Objects.requireNonNull(lst);
+        message = Objects.requireNonNull(msg);
+        timeout = tout;
+    }
+
+    /**
+     * Runs the warm-up, sending the received number of messages.
+     *
+     * @param messages
+     *            number of warm-up messages
+     */
+    public final void warmUp(final int messages) {
+        final boolean received;
+
+        log.debug("Warming up with {} messages", messages);
+
+        listener.startWarmUp(messages);
+        for (int i = 0; i < messages; i++) {
+            client.request(message);
+        }
+
+        try {
+            received = listener.awaitWarmUp(timeout);
+        } catch (final InterruptedException e) {
+            log.error(e.getLocalizedMessage(), e);
+            throw new RuntimeException(e);
+        }
+
+        if (received) {
+            log.debug("Finished warm-up");
+        } else {
+            log.warn("Warm-up timed out before receiving all the responses");
+        }
+    }
+
+}
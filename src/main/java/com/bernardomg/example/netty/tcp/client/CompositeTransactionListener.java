@@ -0,0 +1,171 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
+
+/**
+ * Transaction listener which sends all the events to a list of listeners, in order.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class CompositeTransactionListener implements TransactionListener {
+
+    /**
+     * Listeners to send the events to.
+     */
+    private final List<TransactionListener> listeners;
+
+    public CompositeTransactionListener(final List<TransactionListener> lsts) {
+        super();
+
+        listeners = List.copyOf(Objects.requireNonNull(lsts));
+    }
+
+    @Override
+    public final void onCacheHit(final String message) {
+        for (final TransactionListener listener : listeners) {
+            listener.onCacheHit(message);
+        }
+    }
+
+    @Override
+    public final void onCacheMiss(final String message) {
+        for (final TransactionListener listener : listeners) {
+            listener.onCacheMiss(message);
+        }
+    }
+
+    @Override
+    public final void onConcurrencyLimitChange(final int previous, final int current) {
+        for (final TransactionListener listener : listeners) {
+            listener.onConcurrencyLimitChange(previous, current);
+        }
+    }
+
+    @Override
+    public final void onDrain(final int unanswered, final long unwritten) {
+        for (final TransactionListener listener : listeners) {
+            listener.onDrain(unanswered, unwritten);
+        }
+    }
+
+    @Override
+    public final void onError(final Throwable error) {
+        for (final TransactionListener listener : listeners) {
+            listener.onError(error);
+        }
+    }
+
+    @Override
+    public final void onHedge(final String message) {
+        for (final TransactionListener listener : listeners) {
+            listener.onHedge(message);
+        }
+    }
+
+    @Override
+    public final void onLaneLatency(final Priority priority, final long nanos) {
+        for (final TransactionListener listener : listeners) {
+            listener.onLaneLatency(priority, nanos);
+        }
+    }
+
+    @Override
+    public final void onLatency(final long nanos) {
+        for (final TransactionListener listener : listeners) {
+            listener.onLatency(nanos);
+        }
+    }
+
+    @Override
+    public final void onReceive(final String message) {
+        for (final TransactionListener listener : listeners) {
+            listener.onReceive(message);
+        }
+    }
+
+    @Override
+    public final void onRecycle(final String reason) {
+        for (final TransactionListener listener : listeners) {
+            listener.onRecycle(reason);
+        }
+    }
+
+    @Override
+    public final void onSend(final String message) {
+        for (final TransactionListener listener : listeners) {
+            listener.onSend(message);
+        }
+    }
+
+    @Override
+    public final void onSendBytes(final int bytes) {
+        for (final TransactionListener listener : listeners) {
+            listener.onSendBytes(bytes);
+        }
+    }
+
+    @Override
+    public final void onSocketStats(final SocketStats stats) {
+        for (final TransactionListener listener : listeners) {
+            listener.onSocketStats(stats);
+        }
+    }
+
+    @Override
+    public final void onSpill() {
+        for (final TransactionListener listener : listeners) {
+            listener.onSpill();
+        }
+    }
+
+    @Override
+    public final void onStart() {
+        for (final TransactionListener listener : listeners) {
+            listener.onStart();
+        }
+    }
+
+    @Override
+    public final void onStop() {
+        for (final TransactionListener listener : listeners) {
+            listener.onStop();
+        }
+    }
+
+    @Override
+    public final void onWritabilityChange(final boolean writable) {
+        for (final TransactionListener listener : listeners) {
+            listener.onWritabilityChange(writable);
+        }
+    }
+
+}
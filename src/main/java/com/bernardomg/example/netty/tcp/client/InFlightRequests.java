@@ -0,0 +1,526 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+import com.bernardomg.example.netty.tcp.client.limit.ConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.pipeline.RingBuffer;
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.priority.PriorityLanes;
+import com.bernardomg.example.netty.tcp.client.priority.PriorityPolicy;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Requests sent through a connection which are still waiting for a response. Stored in the connection channel.
+ * <p>
+ * Responses are matched to requests in the same order they were sent, so the server is expected to send a single
+ * response for each request.
+ * <p>
+ * Requests may carry a sink waiting for their response, which is completed when the response is matched.
+ * <p>
+ * The number of requests waiting is bounded by a concurrency limit. Requests over the limit are queued until a
+ * response is received, and if the queue is full they are rejected.
+ * <p>
+ * Queued requests are kept in priority lanes, which decide the order they are written in. By default all the requests
+ * go to the same lane, so they keep the order they were submitted in. With priorities enabled, requests are also held
+ * while the channel is unwritable, and written one at a time from its event loop, so requests with more priority can
+ * overtake the bulk traffic waiting for the socket.
+ * <p>
+ * A pipelining depth bounds the requests written on top of the limit. They are then kept in a ring buffer with room
+ * for the depth, and callers may offer requests only while the window has room, to send them somewhere else when it
+ * is full.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class InFlightRequests {
+
+    /**
+     * Request sent, or queued to be sent.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    private static final class PendingRequest {
+
+        /**
+         * Requests waiting for a response when this one was written, including it.
+         */
+        private int                    inFlight;
+
+        /**
+         * Request message. Either a {@code String} or a {@code ByteBuf}.
+         */
+        private final Object           message;
+
+        /**
+         * Request priority.
+         */
+        private final Priority         priority;
+
+        /**
+         * Receives the response. May be {@code null}, if no one is waiting for it.
+         */
+        private final MonoSink<String> reply;
+
+        /**
+         * Time at which the request was written, in nanoseconds.
+         */
+        private long                   sent;
+
+        /**
+         * Time at which the request was submitted, in nanoseconds.
+         */
+        private final long             submitted;
+
+        /**
+         * Constructs a request submitted at the received time.
+         *
+         * @param msg
+         *            request message
+         * @param rply
+         *            receives the response, may be {@code null}
+         * @param prrty
+         *            request priority
+         * @param sbmttd
+         *            time at which the request was submitted
+         */
+        private PendingRequest(final Object msg, final MonoSink<String> rply, final Priority prrty,
+                final long sbmttd) {
+            super();
+
+            message = msg;
+            reply = rply;
+            priority = prrty;
+            submitted = sbmttd;
+        }
+
+    }
+
+    /**
+     * Channel attribute which stores the in-flight requests.
+     */
+    private static final AttributeKey<InFlightRequests> KEY      = AttributeKey.valueOf("inFlightRequests");
+
+    /**
+     * Stores the in-flight requests in the channel.
+     *
+     * @param channel
+     *            channel where the requests are sent
+     * @param requests
+     *            in-flight requests for the channel
+     */
+    public static final void attach(final Channel channel, final InFlightRequests requests) {
+        channel.attr(KEY)
+            .set(requests);
+    }
+
+    /**
+     * Returns the in-flight requests for the channel. If none have been attached, then it returns {@code null}.
+     *
+     * @param channel
+     *            channel to get the requests from
+     * @return the in-flight requests for the channel, or {@code null} if there are none
+     */
+    public static final InFlightRequests of(final Channel channel) {
+        return channel.attr(KEY)
+            .get();
+    }
+
+    /**
+     * Channel where the requests are written. Only set with priorities enabled, to hold requests while it is
+     * unwritable.
+     */
+    private Channel                                     channel;
+
+    /**
+     * Pipelining depth. Maximum requests written and waiting for a response, whatever the limit says.
+     */
+    private int                                         depth    = Integer.MAX_VALUE;
+
+    /**
+     * Flags a drain step already scheduled in the event loop.
+     */
+    private boolean                                     drainScheduled;
+
+    /**
+     * Requests written, waiting for a response. In the same order as they were written.
+     */
+    private Queue<PendingRequest>                       inFlight = new ArrayDeque<>();
+
+    /**
+     * Concurrency limit. Bounds the in-flight requests.
+     */
+    private final ConcurrencyLimit                      limit;
+
+    /**
+     * Transaction listener. Receives the limit changes.
+     */
+    private final TransactionListener                   listener;
+
+    /**
+     * Requests over the limit, waiting to be written.
+     */
+    private PriorityLanes<PendingRequest>               queued;
+
+    /**
+     * Writes the messages into the connection.
+     */
+    private final Consumer<Object>                      writer;
+
+    /**
+     * Constructs the in-flight requests for a connection.
+     *
+     * @param lmt
+     *            concurrency limit
+     * @param queue
+     *            maximum number of queued requests
+     * @param wrtr
+     *            writes the messages into the connection
+     * @param lst
+     *            transaction listener
+     */
+    public InFlightRequests(final ConcurrencyLimit lmt, final int queue, final Consumer<Object> wrtr,
+            final TransactionListener lst) {
+        super();
+
+        limit = Objects.requireNonNull(lmt);
+        queued = new PriorityLanes<>(queue);
+        writer = Objects.requireNonNull(wrtr);
+        listener = Objects.requireNonNull(lst);
+
+        if (limit != FixedConcurrencyLimit.UNLIMITED) {
+            listener.onConcurrencyLimitChange(0, limit.getLimit());
+        }
+    }
+
+    /**
+     * Fails all the requests still waiting, either for a response or to be written. Used when the connection is
+     * closed, as no response will arrive.
+     * <p>
+     * Queued buffers are released, as they won't be written.
+     *
+     * @param error
+     *            error for the requests
+     */
+    public final void failAll(final Throwable error) {
+        final Collection<PendingRequest> pending;
+
+        synchronized (this) {
+            pending = new ArrayList<>(inFlight);
+            for (final PendingRequest request : queued.removeAll()) {
+                ReferenceCountUtil.release(request.message);
+                pending.add(request);
+            }
+            inFlight.clear();
+        }
+
+        for (final PendingRequest request : pending) {
+            if (request.reply != null) {
+                request.reply.error(error);
+            }
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return the current concurrency limit
+     */
+    public final int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * Returns the number of requests still without a response, both those written and those queued.
+     *
+     * @return the number of requests without a response
+     */
+    public final synchronized int getUnanswered() {
+        return inFlight.size() + queued.size();
+    }
+
+    /**
+     * Writes the request if the window has room right now, which requires being under the limit and the pipelining
+     * depth, and no request being queued. Otherwise the request is refused, and nothing is queued, so the caller may
+     * send it through another connection.
+     *
+     * @param message
+     *            request message
+     * @param reply
+     *            receives the response, may be {@code null}
+     * @param priority
+     *            request priority
+     * @return {@code true} if the request was written, {@code false} if it was refused
+     */
+    public final synchronized boolean offer(final Object message, final MonoSink<String> reply,
+            final Priority priority) {
+        final boolean written;
+
+        if (queued.isEmpty() && isWritable()) {
+            write(new PendingRequest(message, reply, priority, System.nanoTime()));
+            written = true;
+        } else {
+            written = false;
+        }
+
+        return written;
+    }
+
+    /**
+     * Matches a response to the oldest in-flight request, and returns the latency since said request was submitted.
+     * If there is no request waiting, then -1 is returned.
+     * <p>
+     * As a request has finished, queued requests may be written.
+     *
+     * @param response
+     *            response received
+     * @return the latency for the matching request, in nanoseconds, or -1 if there is none
+     */
+    public final long onReceived(final String response) {
+        final long           now;
+        final PendingRequest request;
+        final int            previousLimit;
+        final int            currentLimit;
+        final long           latency;
+
+        now = System.nanoTime();
+        synchronized (this) {
+            request = inFlight.poll();
+            if (request == null) {
+                previousLimit = 0;
+                currentLimit = 0;
+                latency = -1;
+            } else {
+                previousLimit = limit.getLimit();
+                limit.onSample(now - request.sent, request.inFlight);
+                currentLimit = limit.getLimit();
+                latency = now - request.submitted;
+
+                drain();
+            }
+        }
+
+        if (previousLimit != currentLimit) {
+            listener.onConcurrencyLimitChange(previousLimit, currentLimit);
+        }
+
+        if ((request != null) && (channel != null)) {
+            listener.onLaneLatency(request.priority, latency);
+        }
+
+        if ((request != null) && (request.reply != null)) {
+            request.reply.success(response);
+        }
+
+        return latency;
+    }
+
+    /**
+     * Writes the requests held while the channel was unwritable. Should be called when the channel becomes writable
+     * again.
+     */
+    public final synchronized void onWritable() {
+        drain();
+    }
+
+    /**
+     * Sets the pipelining depth. Requests waiting for a response are kept in a ring buffer with room for this many,
+     * and those over it are queued, the same as those over the limit.
+     * <p>
+     * Should be set before submitting any request.
+     *
+     * @param dpth
+     *            maximum requests waiting for a response
+     */
+    public final synchronized void setPipelineDepth(final int dpth) {
+        inFlight = new RingBuffer<>(dpth);
+        depth = dpth;
+    }
+
+    /**
+     * Enables priorities. Queued requests go to the lanes built from the policy, and are held while the channel is
+     * unwritable.
+     * <p>
+     * Should be set before submitting any request.
+     *
+     * @param policy
+     *            priority lanes configuration
+     * @param chnnl
+     *            channel where the requests are written
+     */
+    public final synchronized void setPriorities(final PriorityPolicy policy, final Channel chnnl) {
+        queued = policy.newLanes();
+        channel = Objects.requireNonNull(chnnl);
+    }
+
+    /**
+     * Returns the number of requests waiting for a response.
+     *
+     * @return the number of requests waiting for a response
+     */
+    public final synchronized int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * Submits a request. It is written if the limit allows it, otherwise it is queued. If the queue is full, then the
+     * request is rejected.
+     * <p>
+     * The message may be a {@code String} or a {@code ByteBuf}. Buffers of rejected requests are not released.
+     *
+     * @param message
+     *            request message
+     * @return {@code true} if the request was accepted, {@code false} if it was rejected
+     */
+    public final boolean submit(final Object message) {
+        return submit(message, null);
+    }
+
+    /**
+     * Submits a request, which will send its response to the sink. It is written if the limit allows it, otherwise it
+     * is queued. If the queue is full, then the request is rejected, and the sink is not used.
+     *
+     * @param message
+     *            request message
+     * @param reply
+     *            receives the response, may be {@code null}
+     * @return {@code true} if the request was accepted, {@code false} if it was rejected
+     */
+    public final boolean submit(final Object message, final MonoSink<String> reply) {
+        return submit(message, reply, Priority.NORMAL);
+    }
+
+    /**
+     * Submits a request with a priority, which will send its response to the sink. It is written if the limit allows
+     * it, and no request is waiting. Otherwise it is queued into the lane for its priority. If the lane is full, then
+     * the request is rejected, and the sink is not used.
+     *
+     * @param message
+     *            request message
+     * @param reply
+     *            receives the response, may be {@code null}
+     * @param priority
+     *            request priority
+     * @return {@code true} if the request was accepted, {@code false} if it was rejected
+     */
+    public final synchronized boolean submit(final Object message, final MonoSink<String> reply,
+            final Priority priority) {
+        final PendingRequest request;
+        final boolean        accepted;
+
+        request = new PendingRequest(message, reply, priority, System.nanoTime());
+        if (queued.isEmpty() && isWritable()) {
+            write(request);
+            accepted = true;
+        } else if (queued.offer(request, priority)) {
+            // With priorities the queue may be held by the channel, not by the limit
+            if (channel != null) {
+                scheduleDrain();
+            }
+            accepted = true;
+        } else {
+            accepted = false;
+        }
+
+        return accepted;
+    }
+
+    /**
+     * Writes queued requests, while the limit allows it. With priorities this is done in steps on the event loop.
+     */
+    private final void drain() {
+        if (channel == null) {
+            while (!queued.isEmpty() && isWritable()) {
+                write(queued.poll());
+            }
+        } else if (!queued.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Writes the next queued request, if the limit and the channel allow it, and schedules the next step.
+     * <p>
+     * Writes are queued into the event loop, so running a single one per step lets the channel writability catch up
+     * before choosing the next request.
+     */
+    private final synchronized void drainStep() {
+        drainScheduled = false;
+        if (!queued.isEmpty() && isWritable()) {
+            write(queued.poll());
+            if (!queued.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    /**
+     * Tells if a new request can be written. This requires being under the limit and the pipelining depth and, with
+     * priorities, the channel being writable.
+     *
+     * @return {@code true} if a request can be written
+     */
+    private final boolean isWritable() {
+        return (inFlight.size() < Math.min(limit.getLimit(), depth)) && ((channel == null) || channel.isWritable());
+    }
+
+    /**
+     * Schedules a drain step on the channel event loop, unless one is already scheduled.
+     */
+    private final void scheduleDrain() {
+        if (!drainScheduled) {
+            drainScheduled = true;
+            channel.eventLoop()
+                .execute(this::drainStep);
+        }
+    }
+
+    /**
+     * Writes the request. This happens while holding the lock, so requests are written in the same order they are
+     * registered.
+     *
+     * @param request
+     *            request to write
+     */
+    private final void write(final PendingRequest request) {
+        request.sent = System.nanoTime();
+        inFlight.add(request);
+        request.inFlight = inFlight.size();
+        writer.accept(request.message);
+    }
+
+}
@@ -25,40 +25,83 @@
 package com.bernardomg.example.netty.tcp.client;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 
 import org.reactivestreams.Publisher;
 
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+
+import io.netty.channel.Channel;
 import reactor.netty.NettyInbound;
 import reactor.netty.NettyOutbound;
 
 /**
- * I/O handler which sends any received message to the listener.
+ * I/O handler which sends any received message to the listener. Each message is matched to the oldest in-flight
+ * request of the connection, to measure the latency.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
  */
 public final class InboundToListenerIoHandler implements BiFunction<NettyInbound, NettyOutbound, Publisher<Void>> {
 
+    /**
+     * Codec for the received messages.
+     */
+    private final TextCodec           codec;
+
     /**
      * Transaction listener. Reacts to events during the request.
      */
     private final TransactionListener listener;
 
-    public InboundToListenerIoHandler(final TransactionListener lst) {
+    public InboundToListenerIoHandler(final TransactionListener lst, final TextCodec cdc) {
         super();
 
         listener = Objects.requireNonNull(lst);
+        codec = Objects.requireNonNull(cdc);
     }
 
     @Override
     public Publisher<Void> apply(final NettyInbound request, final NettyOutbound response) {
+        final AtomicReference<Channel> channel;
+
+        channel = new AtomicReference<>();
+        request.withConnection(conn -> channel.set(conn.channel()));
+
         // Receives the response
         return request.receive()
-            .asString()
+            // Decoded while the buffer is still valid
+            .map(codec::decode)
             // Sends request to listener
-            .doOnNext(listener::onReceive)
+            .doOnNext(message -> onReceive(channel.get(), message))
+            .doOnError(listener::onError)
             .then();
     }
 
+    /**
+     * Reacts to a received message.
+     *
+     * @param channel
+     *            channel which received the message
+     * @param message
+     *            message received
+     */
+    private final void onReceive(final Channel channel, final String message) {
+        final InFlightRequests inFlight;
+        final long             latency;
+
+        inFlight = InFlightRequests.of(channel);
+        if (inFlight == null) {
+            latency = -1;
+        } else {
+            latency = inFlight.onReceived(message);
+        }
+
+        if (latency >= 0) {
+            listener.onLatency(latency);
+        }
+        listener.onReceive(message);
+    }
+
 }
@@ -24,20 +24,71 @@
 
 package com.bernardomg.example.netty.tcp.client;
 
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.reactivestreams.Publisher;
 
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+import com.bernardomg.example.netty.tcp.client.keepalive.KeepAliveHandler;
+import com.bernardomg.example.netty.tcp.client.keepalive.KeepAlivePolicy;
+import com.bernardomg.example.netty.tcp.client.limit.ConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.mux.MuxFrame;
+import com.bernardomg.example.netty.tcp.client.mux.MuxStream;
+import com.bernardomg.example.netty.tcp.client.mux.StreamMultiplexer;
+import com.bernardomg.example.netty.tcp.client.priority.LaneWritabilityHandler;
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.priority.PriorityPolicy;
+import com.bernardomg.example.netty.tcp.client.rate.TokenBucket;
+import com.bernardomg.example.netty.tcp.client.resolve.EndpointResolver;
+import com.bernardomg.example.netty.tcp.client.resolve.HappyEyeballs;
+import com.bernardomg.example.netty.tcp.client.resolve.ResolverPolicy;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStatsSampler;
+import com.bernardomg.example.netty.tcp.client.socket.WritabilityListenerHandler;
+import com.bernardomg.example.netty.tcp.client.wire.WireLogHandler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.timeout.IdleStateHandler;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.Connection;
 import reactor.netty.NettyInbound;
 import reactor.netty.NettyOutbound;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.tcp.TcpClient;
 
 /**
  * Reactor Netty based TCP client.
+ * <p>
+ * All the connections are opened when connecting, and the requests are distributed among them in round-robin order.
+ * The server address is resolved a single time, and reused for every connection.
+ * <p>
+ * Closing is graceful. New requests are rejected, while those already accepted are given until the drain timeout to
+ * be written and answered. Then the connections, pool and event loops are released.
  *
  * @author Bernardo Mart&iacute;nez Garrido
  *
@@ -46,30 +97,193 @@
 public final class ReactorNettyTcpClient implements Client {
 
     /**
-     * Main connection. For sending messages and reacting to responses.
+     * Maximum time for releasing the pool and event loops, once the connections are closed.
+     */
+    private static final Duration                                          DISPOSE_TIMEOUT  = Duration.ofSeconds(5);
+
+    /**
+     * Interval between checks for pending requests, while draining.
+     */
+    private static final Duration                                          DRAIN_POLL       = Duration.ofMillis(10);
+
+    /**
+     * Line break appended to payloads, when the messages are line delimited. Shared, so it is never released.
+     */
+    private static final ByteBuf                                           LINE_BREAK       = Unpooled
+        .unreleasableBuffer(Unpooled.directBuffer(1)
+            .writeByte('\n'));
+
+    /**
+     * Maximum length for a line, when the messages are line delimited.
+     */
+    private static final int                                               MAX_LINE_LENGTH  = 64 * 1024;
+
+    /**
+     * How far ahead of time messages are scheduled, in nanoseconds, when rate limited. Callers which may block are
+     * held back until their messages are within this, so a fast caller can't fill the event loops with scheduled
+     * messages.
+     */
+    private static final long                                              RATE_HORIZON     = TimeUnit.MILLISECONDS
+        .toNanos(100);
+
+    /**
+     * Closing flag. Once active, new requests are rejected.
+     */
+    private volatile boolean                                               closing;
+
+    /**
+     * Open connections. For sending messages and reacting to responses. Recycled connections are replaced in place.
+     */
+    private List<Connection>                                               connections;
+
+    /**
+     * Number of connections to open.
+     */
+    private Integer                                                        connectionsCount = 1;
+
+    /**
+     * Codec for the messages. Uses the default charset unless told otherwise.
      */
-    private Connection                                                     connection;
+    private TextCodec                                                      codec            = new TextCodec(
+        Charset.defaultCharset());
+
+    /**
+     * Maximum time to wait for pending requests when closing.
+     */
+    private Duration                                                       drainTimeout     = Duration.ZERO;
 
     /**
      * IO handler for the client.
      */
-    private final BiFunction<NettyInbound, NettyOutbound, Publisher<Void>> handler;
+    private BiFunction<NettyInbound, NettyOutbound, Publisher<Void>>       handler;
 
     /**
      * Host for the server to which this client will connect.
      */
     private final String                                                   host;
 
+    /**
+     * Creates the concurrency limit for each connection.
+     */
+    private Supplier<ConcurrencyLimit>                                     limitFactory;
+
+    /**
+     * Line delimited flag. If active, each message ends with a line break, and each response is a line.
+     */
+    private boolean                                                        lineDelimited;
+
+    /**
+     * Keep-alive policy. If {@code null}, connections are never recycled.
+     */
+    private KeepAlivePolicy                                                keepAlive;
+
     /**
      * Transaction listener. Reacts to events during the request.
      */
     private final TransactionListener                                      listener;
 
+    /**
+     * Event loops for the connections. Owned by the client, so closing it releases them.
+     */
+    private LoopResources                                                  loops;
+
+    /**
+     * Maximum number of requests queued on each connection, when over the concurrency limit.
+     */
+    private Integer                                                        maxQueued        = 0;
+
+    /**
+     * Index of the next connection to use.
+     */
+    private final AtomicInteger                                            nextConnection   = new AtomicInteger();
+
+    /**
+     * Index of the next stream to use.
+     */
+    private final AtomicInteger                                            nextStream       = new AtomicInteger();
+
+    /**
+     * Requests written and waiting for a response on each connection. Zero leaves them bounded only by the concurrency
+     * limit.
+     */
+    private int                                                            pipelineDepth;
+
     /**
      * Port for the server to which this client will connect.
      */
     private final Integer                                                  port;
 
+    /**
+     * Priority lanes configuration. If {@code null}, then all the requests have the same priority.
+     */
+    private PriorityPolicy                                                 priorities;
+
+    /**
+     * Connection pool. Keeps all the connections opened by the client.
+     */
+    private ConnectionProvider                                             provider;
+
+    /**
+     * Connections being recycled. Kept until they are closed, so they are recycled only once.
+     */
+    private final Set<Connection>                                          recycling        = ConcurrentHashMap
+        .newKeySet();
+
+    /**
+     * Rate limit for the messages. If {@code null} there is no limit.
+     */
+    private TokenBucket                                                    rateLimit;
+
+    /**
+     * Resolves the server host. Created when connecting.
+     */
+    private EndpointResolver                                               resolution;
+
+    /**
+     * Address resolution policy. By default the host is resolved once by the JVM.
+     */
+    private ResolverPolicy                                                 resolver         = new ResolverPolicy();
+
+    /**
+     * Rate limited messages scheduled on the event loops, and still not sent.
+     */
+    private final AtomicInteger                                            scheduled        = new AtomicInteger();
+
+    /**
+     * Milliseconds between samples of the socket state. Zero disables them.
+     */
+    private long                                                           socketStatsInterval;
+
+    /**
+     * Streams opened by the client, across all the connections, when multiplexed.
+     */
+    private List<MuxStream>                                                streams          = List.of();
+
+    /**
+     * Logical streams on each connection. Zero disables multiplexing.
+     */
+    private int                                                            streamsCount;
+
+    /**
+     * Maximum bytes shown in each wire log event.
+     */
+    private int                                                            wireLogPreview;
+
+    /**
+     * Fraction of the reads and writes sent to the wire log. Zero disables it.
+     */
+    private double                                                         wireLogRate;
+
+    /**
+     * TCP client, kept to open replacements for recycled connections.
+     */
+    private TcpClient                                                      tcpClient;
+
+    /**
+     * Periodic validation of the connections. Only when there is a keep-alive policy.
+     */
+    private Disposable                                                     validation;
+
     /**
      * Wiretap flag.
      */
@@ -96,63 +310,952 @@ public ReactorNettyTcpClient(final String hst, final Integer prt, final Transact
         listener = Objects.requireNonNull(lst);
         wiretap = Objects.requireNonNull(wtap);
 
-        handler = new InboundToListenerIoHandler(listener);
+        limitFactory = () -> FixedConcurrencyLimit.UNLIMITED;
     }
 
     @Override
     public final void close() {
+        final int  unanswered;
+        final long unwritten;
+
         log.trace("Stopping client");
 
-        listener.onStop();
+        closing = true;
+        try {
+            if (validation != null) {
+                validation.dispose();
+            }
+
+            // Without connections the client never connected, or failed connecting, so there is nothing to drain
+            if (connections != null) {
+                drain();
 
-        connection.dispose();
+                unanswered = countUnanswered();
+                unwritten = countUnwritten();
+                if ((unanswered > 0) || (unwritten > 0)) {
+                    log.warn("Closing with {} requests unanswered and {} bytes unwritten", unanswered, unwritten);
+                }
+                listener.onDrain(unanswered, unwritten);
+            }
+
+            listener.onStop();
+
+            if (connections != null) {
+                connections.forEach(Connection::dispose);
+            }
+        } finally {
+            // Whatever failed before, the threads and sockets are always released
+            release();
+        }
 
         log.trace("Stopped client");
     }
 
     @Override
     public final void connect() {
+        final int     poolSize;
+        final boolean keepAliveHandlers;
+
         log.trace("Starting client");
 
-        log.debug("Connecting to {}:{}", host, port);
+        log.debug("Connecting to {}:{} with {} connections", host, port, connectionsCount);
 
         listener.onStart();
 
-        connection = TcpClient.create()
+        handler = new InboundToListenerIoHandler(listener, codec);
+
+        // Fixed pool, so each connection is a new channel
+        if (keepAlive == null) {
+            poolSize = connectionsCount;
+        } else {
+            // Room for the replacements, as the old connections are kept until drained
+            poolSize = connectionsCount * 2;
+        }
+        provider = ConnectionProvider.create("tcp-client", poolSize);
+        // Multiplexed connections are never recycled
+        keepAliveHandlers = (keepAlive != null) && (streamsCount == 0);
+        if ((keepAlive != null) && !keepAliveHandlers) {
+            log.warn("Connections are not kept alive when multiplexing");
+        }
+        if ((pipelineDepth > 0) && (streamsCount > 0)) {
+            log.warn("The pipelining depth is not used when multiplexing");
+        }
+        // Daemon threads, so they never keep the application alive
+        loops = LoopResources.create("tcp-client", Math.min(connectionsCount, LoopResources.DEFAULT_IO_WORKER_COUNT),
+            true);
+
+        // Resolved once, so no connection has to pay for it
+        resolution = new EndpointResolver(host, port, resolver);
+        resolution.start(loops);
+
+        tcpClient = TcpClient.create(provider)
+            .runOn(loops)
             // Wiretap
             .wiretap(wiretap)
-            // Sets connection
-            .host(host)
-            .port(port)
+            // Splits responses into lines
+            .doOnConnected(conn -> {
+                if ((wireLogRate > 0) && WireLogHandler.isEnabled()) {
+                    // First, to see the raw reads
+                    conn.addHandlerFirst(new WireLogHandler(wireLogRate, wireLogPreview));
+                }
+                conn.addHandlerLast(new WritabilityListenerHandler(listener));
+                if (priorities != null) {
+                    conn.addHandlerLast(new LaneWritabilityHandler());
+                }
+                // When multiplexing, frames delimit the messages
+                if ((streamsCount == 0) && lineDelimited) {
+                    conn.addHandlerLast(new LineBasedFrameDecoder(MAX_LINE_LENGTH));
+                }
+                // After the framing, so heartbeat responses are whole messages
+                if (keepAliveHandlers) {
+                    if (keepAlive.isIdleEvents()) {
+                        conn.addHandlerLast(new IdleStateHandler(keepAlive.getIdleTimeout()
+                            .toMillis(), 0, keepAlive.getHeartbeatInterval()
+                                .toMillis(),
+                            TimeUnit.MILLISECONDS));
+                    }
+                    conn.addHandlerLast(new KeepAliveHandler(keepAlive, codec, lineDelimited));
+                }
+            })
             // Adds handler
-            .handle(handler)
-            // Connect
-            .connectNow();
+            .handle(handler);
+
+        // All the connections are opened before sending anything
+        connections = new CopyOnWriteArrayList<>(Flux.range(0, connectionsCount)
+            .flatMap(i -> openConnection())
+            .cast(Connection.class)
+            .collectList()
+            .block());
+        connections.forEach(this::prepareConnection);
+        if (streamsCount > 0) {
+            streams = connections.stream()
+                .flatMap(this::openStreams)
+                .collect(Collectors.toList());
+        }
+        if (keepAliveHandlers) {
+            validation = Flux.interval(keepAlive.getValidationInterval())
+                .subscribe(i -> validateConnections());
+        }
 
         log.trace("Started client");
     }
 
+    @Override
+    public final Mono<String> exchange(final String message) {
+        return exchange(message, Priority.NORMAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The priority is only used with priorities enabled, and without multiplexing. When the messages are line
+     * delimited, an empty message is written as an empty line, and waits for its response as any other message.
+     */
+    @Override
+    public final Mono<String> exchange(final String message, final Priority priority) {
+        return Mono.create(sink -> {
+            final Connection connection;
+            final MuxStream  stream;
+
+            log.debug("Exchanging {}", message);
+
+            if (closing) {
+                log.debug("Rejected {}, closing", message);
+                sink.error(new RequestRejectedException("Client is closing"));
+            } else if (streams.isEmpty()) {
+                connection = nextConnection();
+                paced(connection.channel(), () -> {
+                    if (message.isEmpty() && !lineDelimited) {
+                        // Empty messages have no bytes to write, so there won't be a response
+                        listener.onSend(message);
+                        sink.success();
+                    } else if (!submit(connection, message, sink, priority)) {
+                        log.debug("Rejected {}", message);
+                        sink.error(new RequestRejectedException("Concurrency limit and queue are full"));
+                    }
+                });
+            } else {
+                stream = nextStream();
+                // Completing an already completed sink does nothing
+                paced(stream.getChannel(), () -> stream.exchange(message)
+                    .subscribe(sink::success, sink::error, sink::success));
+            }
+        });
+    }
+
+    /**
+     * Opens a new logical stream on one of the connections. The stream works as an independent client, which shares
+     * the connection with any other stream. It should be closed once done.
+     * <p>
+     * Only available when multiplexing. Messages sent through the stream are not rate limited.
+     *
+     * @return a new stream
+     */
+    public final Client openStream() {
+        if (streamsCount <= 0) {
+            throw new IllegalStateException("Streams require multiplexing to be enabled");
+        }
+
+        return StreamMultiplexer.of(nextConnection().channel())
+            .openStream(limitFactory.get(), maxQueued);
+    }
+
+    @Override
+    public final void request(final ByteBuf payload) {
+        request(payload, Priority.NORMAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The priority is only used with priorities enabled, and without multiplexing.
+     */
+    @Override
+    public final void request(final ByteBuf payload, final Priority priority) {
+        final Connection connection;
+        final MuxStream  stream;
+
+        log.debug("Sending {} bytes", payload.readableBytes());
+
+        if (closing) {
+            log.debug("Rejected {} bytes, closing", payload.readableBytes());
+            payload.release();
+            listener.onError(new RequestRejectedException("Client is closing"));
+        } else if (streams.isEmpty()) {
+            connection = nextConnection();
+            paced(connection.channel(), () -> {
+                if (!submit(connection, payload, null, priority)) {
+                    log.debug("Rejected {} bytes", payload.readableBytes());
+                    payload.release();
+                    listener.onError(new RequestRejectedException("Concurrency limit and queue are full"));
+                }
+            });
+        } else {
+            stream = nextStream();
+            paced(stream.getChannel(), () -> stream.request(payload));
+        }
+    }
+
     @Override
     public final void request(final String message) {
-        final Publisher<String> dataStream;
+        request(message, Priority.NORMAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The priority is only used with priorities enabled, and without multiplexing. When the messages are line
+     * delimited, an empty message is written as an empty line, and waits for its response as any other message.
+     */
+    @Override
+    public final void request(final String message, final Priority priority) {
+        final Connection connection;
+        final MuxStream  stream;
 
         log.debug("Sending {}", message);
 
-        // Request data
-        dataStream = buildStream(message);
+        if (closing) {
+            log.debug("Rejected {}, closing", message);
+            listener.onError(new RequestRejectedException("Client is closing"));
+        } else if (streams.isEmpty()) {
+            connection = nextConnection();
+            paced(connection.channel(), () -> {
+                if (message.isEmpty() && !lineDelimited) {
+                    // Empty messages have no bytes to write, so there won't be a response
+                    listener.onSend(message);
+                } else if (!submit(connection, message, null, priority)) {
+                    log.debug("Rejected {}", message);
+                    listener.onError(new RequestRejectedException("Concurrency limit and queue are full"));
+                }
+            });
+        } else {
+            stream = nextStream();
+            paced(stream.getChannel(), () -> stream.request(message));
+        }
+    }
+
+    /**
+     * Sets the charset for the messages, both sent and received.
+     *
+     * @param charset
+     *            charset for the messages
+     */
+    public final void setCharset(final Charset charset) {
+        codec = new TextCodec(charset);
+    }
+
+    /**
+     * Sets the concurrency limit for each connection. A new one is created for each connection. By default there is
+     * no limit.
+     *
+     * @param factory
+     *            creates the concurrency limit for each connection
+     */
+    public final void setConcurrencyLimit(final Supplier<ConcurrencyLimit> factory) {
+        limitFactory = Objects.requireNonNull(factory);
+    }
+
+    /**
+     * Sets the number of connections to open. They will be opened when connecting.
+     *
+     * @param count
+     *            number of connections to open
+     */
+    public final void setConnections(final Integer count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one connection is required");
+        }
+
+        connectionsCount = count;
+    }
+
+    /**
+     * Sets the maximum time to wait for pending requests when closing. The client closes as soon as all the accepted
+     * requests are written and answered, or once this time passes. By default it closes right away.
+     *
+     * @param timeout
+     *            maximum time to wait for pending requests
+     */
+    public final void setDrainTimeout(final Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("The drain timeout can't be negative, received " + timeout);
+        }
+
+        drainTimeout = timeout;
+    }
+
+    /**
+     * Sets the keep-alive policy. Connections are validated periodically, and those closed, too old or too idle are
+     * replaced with new ones. Not supported when multiplexing.
+     *
+     * @param policy
+     *            keep-alive policy
+     */
+    public final void setKeepAlive(final KeepAlivePolicy policy) {
+        keepAlive = Objects.requireNonNull(policy);
+    }
+
+    /**
+     * Sets the line delimited flag. If active, a line break is appended to each message, and responses are split into
+     * lines. Otherwise each read from the connection is a response.
+     * <p>
+     * Responses are matched to requests by order, so when several responses may arrive together this is required for
+     * accurate latencies.
+     *
+     * @param delimited
+     *            line delimited flag
+     */
+    public final void setLineDelimited(final boolean delimited) {
+        lineDelimited = delimited;
+    }
+
+    /**
+     * Sets the maximum number of requests queued on each connection, when the concurrency limit is reached. Requests
+     * over it are rejected.
+     *
+     * @param queued
+     *            maximum number of queued requests
+     */
+    public final void setMaxQueued(final Integer queued) {
+        maxQueued = Objects.requireNonNull(queued);
+    }
+
+    /**
+     * Sets the pipelining depth. Each connection has a window for this many requests written and waiting for a
+     * response, matched to the responses in order. When the window of the connection chosen for a request is full, the
+     * request spills into the next connection with room. If all of them are full, it is queued on the one chosen. Zero
+     * disables the window, which is the default. Not used when multiplexing.
+     *
+     * @param depth
+     *            requests waiting for a response on each connection
+     */
+    public final void setPipelineDepth(final int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("The pipelining depth can't be negative, received " + depth);
+        }
+
+        pipelineDepth = depth;
+    }
+
+    /**
+     * Enables priorities. Each connection gets its own lanes, which hold the requests over the concurrency limit, or
+     * while the connection is unwritable, and write them by priority. Not used when multiplexing.
+     *
+     * @param policy
+     *            priority lanes configuration
+     */
+    public final void setPriorities(final PriorityPolicy policy) {
+        priorities = policy;
+    }
+
+    /**
+     * Sets the rate limit for the messages. Messages over the rate are scheduled on the event loop of their
+     * connection, so the client never sleeps. If {@code null} there is no limit, which is the default.
+     *
+     * @param limit
+     *            token bucket for the messages
+     */
+    public final void setRateLimit(final TokenBucket limit) {
+        rateLimit = limit;
+    }
+
+    /**
+     * Sets the address resolution policy. It tells how the host is resolved, and how connections go through the
+     * addresses. By default the host is resolved once by the JVM.
+     *
+     * @param policy
+     *            address resolution policy
+     */
+    public final void setResolver(final ResolverPolicy policy) {
+        resolver = Objects.requireNonNull(policy);
+    }
+
+    /**
+     * Sets the interval between samples of the socket state of each connection. Zero disables the samples, which is
+     * the default.
+     *
+     * @param interval
+     *            milliseconds between samples
+     */
+    public final void setSocketStatsInterval(final long interval) {
+        socketStatsInterval = interval;
+    }
+
+    /**
+     * Sets the number of logical streams multiplexed over each connection. Messages are sent in turns through the
+     * streams, framed by the multiplexing protocol, so the server should speak it. Zero disables multiplexing, which
+     * is the default.
+     * <p>
+     * When multiplexing, messages are never line delimited, as frames already delimit them.
+     *
+     * @param count
+     *            streams on each connection
+     */
+    public final void setStreams(final int count) {
+        streamsCount = count;
+    }
+
+    /**
+     * Sets the wire log sampling. Each connection logs the received fraction of its reads and writes, with a preview
+     * of their contents, as JSON lines into the wire logger. A zero rate disables the wire log, which is the default.
+     *
+     * @param rate
+     *            fraction of the reads and writes to log, from 0 to 1
+     * @param preview
+     *            maximum bytes shown in each event
+     */
+    public final void setWireLog(final double rate, final int preview) {
+        if ((rate < 0) || (rate > 1)) {
+            throw new IllegalArgumentException("The wire log rate should be between 0 and 1, received " + rate);
+        }
+        if (preview < 0) {
+            throw new IllegalArgumentException("The wire log preview can't be negative, received " + preview);
+        }
+
+        wireLogRate = rate;
+        wireLogPreview = preview;
+    }
+
+    /**
+     * Stores the in-flight requests for the connection.
+     *
+     * @param connection
+     *            connection to store the in-flight requests into
+     */
+    private final void attachInFlightRequests(final Connection connection) {
+        final InFlightRequests requests;
+
+        requests = new InFlightRequests(limitFactory.get(), maxQueued, msg -> write(connection, msg), listener);
+        if (priorities != null) {
+            requests.setPriorities(priorities, connection.channel());
+        }
+        if (pipelineDepth > 0) {
+            requests.setPipelineDepth(pipelineDepth);
+        }
+        InFlightRequests.attach(connection.channel(), requests);
+
+        // No response will arrive after closing
+        connection.onDispose(() -> requests.failAll(new ClosedChannelException()));
+    }
+
+    /**
+     * Returns the number of accepted requests still without a response. This includes those waiting for the rate
+     * limit.
+     *
+     * @return the number of requests without a response
+     */
+    private final int countUnanswered() {
+        final int unanswered;
+
+        if (streams.isEmpty()) {
+            unanswered = connections.stream()
+                .mapToInt(conn -> InFlightRequests.of(conn.channel())
+                    .getUnanswered())
+                .sum();
+        } else {
+            unanswered = streams.stream()
+                .mapToInt(MuxStream::getUnanswered)
+                .sum();
+        }
+
+        return unanswered + scheduled.get();
+    }
+
+    /**
+     * Returns the number of bytes waiting to be written, across all the connections.
+     *
+     * @return the number of bytes waiting to be written
+     */
+    private final long countUnwritten() {
+        return connections.stream()
+            .map(Connection::channel)
+            .mapToLong(this::getUnwritten)
+            .sum();
+    }
+
+    /**
+     * Waits until all the accepted requests are written and answered, or until the drain timeout.
+     */
+    private final void drain() {
+        if (!drainTimeout.isZero() && !isDrained()) {
+            log.debug("Waiting up to {} ms for pending requests", drainTimeout.toMillis());
+            Flux.interval(DRAIN_POLL)
+                .filter(i -> isDrained())
+                .next()
+                .timeout(drainTimeout, Mono.empty())
+                .block();
+        }
+    }
+
+    /**
+     * Returns the reason to recycle the connection, if any. Closed connections are recycled, and so are those over
+     * the maximum life or idle time of the keep-alive policy.
+     *
+     * @param connection
+     *            connection to check
+     * @return the reason to recycle the connection, or {@code null} if it should be kept
+     */
+    private final String findRecycleReason(final Connection connection) {
+        final KeepAliveHandler handler;
+        final String           reason;
+
+        handler = KeepAliveHandler.of(connection.channel());
+        if (!connection.channel()
+            .isActive() || (handler == null)) {
+            reason = "connection closed";
+        } else if (!keepAlive.getMaxLife()
+            .isZero() && (handler.getAge() > keepAlive.getMaxLife()
+                .toNanos())) {
+            reason = "over the maximum life time";
+        } else if (!keepAlive.getMaxIdle()
+            .isZero() && (handler.getIdle() > keepAlive.getMaxIdle()
+                .toNanos())) {
+            reason = "over the maximum idle time";
+        } else {
+            reason = null;
+        }
+
+        return reason;
+    }
+
+    /**
+     * Returns the number of bytes waiting to be written into the channel.
+     *
+     * @param channel
+     *            channel to check
+     * @return the number of bytes waiting to be written
+     */
+    private final long getUnwritten(final Channel channel) {
+        final ChannelOutboundBuffer buffer;
+        final long                  unwritten;
+
+        // Missing once the channel is closed
+        buffer = channel.unsafe()
+            .outboundBuffer();
+        if (buffer == null) {
+            unwritten = 0;
+        } else {
+            unwritten = buffer.totalPendingWriteBytes();
+        }
+
+        return unwritten;
+    }
+
+    /**
+     * Tells if all the accepted requests are written and answered.
+     *
+     * @return {@code true} if nothing is pending
+     */
+    private final boolean isDrained() {
+        return (countUnanswered() == 0) && (countUnwritten() == 0);
+    }
+
+    /**
+     * Returns the connection to use for the next request.
+     *
+     * @return the connection to use
+     */
+    private final Connection nextConnection() {
+        final int  index;
+        Connection connection;
+        int        tries;
+
+        index = Math.floorMod(nextConnection.getAndIncrement(), connections.size());
+
+        // Closed connections are skipped while their replacements are opened
+        connection = connections.get(index);
+        tries = 1;
+        while (!connection.channel()
+            .isActive() && (tries < connections.size())) {
+            connection = connections.get((index + tries) % connections.size());
+            tries++;
+        }
+        if (!connection.channel()
+            .isActive()) {
+            // None open, the request will fail as before
+            connection = connections.get(index);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Returns the stream to use for the next request. Consecutive streams are on different connections, if there are
+     * several.
+     *
+     * @return the stream to use
+     */
+    private final MuxStream nextStream() {
+        final int index;
+
+        index = Math.floorMod(nextStream.getAndIncrement(), streams.size());
+
+        // Streams are grouped by connection
+        return streams.get(((index % connections.size()) * streamsCount) + (index / connections.size()));
+    }
+
+    /**
+     * Writes the message into the connection. It may be a {@code String} or a {@code ByteBuf}.
+     * <p>
+     * The write is always queued on the event loop, even when already running on it. Otherwise a write from the event
+     * loop could overtake those queued before it from other threads, and responses would be matched to the wrong
+     * requests.
+     *
+     * @param connection
+     *            connection to write into
+     * @param message
+     *            message to write
+     */
+    private final void write(final Connection connection, final Object message) {
+        connection.channel()
+            .eventLoop()
+            .execute(() -> {
+                if (message instanceof ByteBuf) {
+                    writeBytes(connection, (ByteBuf) message);
+                } else {
+                    writeString(connection, (String) message);
+                }
+            });
+    }
+
+    /**
+     * Writes the payload into the connection. The payload is released once written.
+     *
+     * @param connection
+     *            connection to write into
+     * @param payload
+     *            payload to write
+     */
+    private final void writeBytes(final Connection connection, final ByteBuf payload) {
+        final ByteBuf data;
+        final int     bytes;
+
+        // Same as for messages, the line break is not counted
+        bytes = payload.readableBytes();
+        if (lineDelimited) {
+            // The line break is shared, only the composite is new
+            data = Unpooled.wrappedBuffer(payload, LINE_BREAK.duplicate());
+        } else {
+            data = payload;
+        }
 
         // Sends request
         connection.outbound()
-            .sendString(dataStream)
+            .send(Mono.just(data)
+                .doOnNext(d -> listener.onSendBytes(bytes)))
             .then()
             // Subscribe to run
+            .subscribe(null, listener::onError);
+    }
+
+    /**
+     * Writes the message into the connection.
+     *
+     * @param connection
+     *            connection to write into
+     * @param message
+     *            message to write
+     */
+    private final void writeString(final Connection connection, final String message) {
+        final ByteBuf data;
+
+        // Encoded straight into a direct buffer, along with the line break
+        if (lineDelimited) {
+            data = codec.encodeLine(connection.channel()
+                .alloc(), message);
+        } else {
+            data = codec.encode(connection.channel()
+                .alloc(), message);
+        }
+
+        // Sends request
+        connection.outbound()
+            .send(Mono.just(data)
+                .doOnNext(d -> listener.onSend(message)))
+            .then()
+            // Subscribe to run
+            .subscribe(null, listener::onError);
+    }
+
+    /**
+     * Sets up multiplexing on the connection, and opens its streams.
+     *
+     * @param connection
+     *            connection to multiplex
+     * @return the streams opened on the connection
+     */
+    private final Stream<MuxStream> openStreams(final Connection connection) {
+        final StreamMultiplexer multiplexer;
+
+        multiplexer = new StreamMultiplexer(connection.channel(), codec, listener);
+        StreamMultiplexer.attach(connection.channel(), multiplexer);
+        connection.addHandlerLast(MuxFrame.newDecoder());
+        connection.addHandlerLast(multiplexer);
+
+        return IntStream.range(0, streamsCount)
+            .mapToObj(i -> multiplexer.openStream(limitFactory.get(), maxQueued));
+    }
+
+    /**
+     * Opens a new connection through the resolved addresses. When there are several, they are tried following the
+     * happy eyeballs algorithm.
+     *
+     * @return the new connection
+     */
+    private final Mono<Connection> openConnection() {
+        return HappyEyeballs.connect(resolution.getAddresses(), address -> tcpClient.remoteAddress(() -> address)
+            .connect()
+            .cast(Connection.class), resolver.getHappyEyeballsDelay());
+    }
+
+    /**
+     * Sends the message when the rate limit allows it, by scheduling it on the event loop of the channel. Even
+     * messages which are already due are scheduled, as the event loop runs them by their send time, which keeps them
+     * in order. When the message is too far ahead the caller is held back, unless it is a non blocking thread.
+     *
+     * @param channel
+     *            channel for the message
+     * @param send
+     *            sends the message
+     */
+    private final void paced(final Channel channel, final Runnable send) {
+        final long sendTime;
+        long       delay;
+
+        if (rateLimit == null) {
+            send.run();
+        } else {
+            sendTime = rateLimit.reserve();
+            delay = sendTime - System.nanoTime();
+            if ((delay > RATE_HORIZON) && !Schedulers.isInNonBlockingThread()) {
+                LockSupport.parkNanos(delay - RATE_HORIZON);
+                delay = sendTime - System.nanoTime();
+            }
+
+            // Counted until sent, so closing waits for it
+            scheduled.incrementAndGet();
+            channel.eventLoop()
+                .schedule(() -> {
+                    try {
+                        send.run();
+                    } finally {
+                        scheduled.decrementAndGet();
+                    }
+                }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Prepares a new connection for the requests.
+     *
+     * @param connection
+     *            connection to prepare
+     */
+    private final void prepareConnection(final Connection connection) {
+        attachInFlightRequests(connection);
+        if (socketStatsInterval > 0) {
+            new SocketStatsSampler(connection.channel(), listener).start(socketStatsInterval);
+        }
+    }
+
+    /**
+     * Recycles the connection. A new connection is opened, and once ready it takes the place of the old one, which is
+     * closed after answering its pending requests.
+     *
+     * @param connection
+     *            connection to recycle
+     * @param reason
+     *            reason for recycling it
+     */
+    private final void recycle(final Connection connection, final String reason) {
+        log.debug("Recycling {}, {}", connection.channel(), reason);
+        listener.onRecycle(reason);
+
+        recycling.add(connection);
+        openConnection().subscribe(replacement -> replaceConnection(connection, replacement), e -> {
+                // Tried again on the next validation
+                log.warn("Could not open a replacement connection: {}", e.getMessage());
+                recycling.remove(connection);
+                listener.onError(e);
+            });
+    }
+
+    /**
+     * Releases the resolver, pool and event loops created when connecting. Those not created, because connecting
+     * failed before them, are skipped.
+     */
+    private final void release() {
+        Mono<Void> disposal;
+
+        try {
+            if (resolution != null) {
+                resolution.close();
+            }
+        } finally {
+            disposal = Mono.empty();
+            if (provider != null) {
+                disposal = disposal.then(provider.disposeLater());
+            }
+            if (loops != null) {
+                disposal = disposal.then(loops.disposeLater(Duration.ZERO, DISPOSE_TIMEOUT));
+            }
+            // Bounded, so a stuck channel can't keep the client from finishing
+            disposal.timeout(DISPOSE_TIMEOUT)
+                .onErrorResume(e -> {
+                    log.warn("Could not release the client resources in time");
+                    return Mono.empty();
+                })
+                .block();
+        }
+    }
+
+    /**
+     * Replaces the connection, and retires the old one.
+     *
+     * @param connection
+     *            connection to replace
+     * @param replacement
+     *            new connection
+     */
+    private final void replaceConnection(final Connection connection, final Connection replacement) {
+        if (closing) {
+            replacement.dispose();
+            recycling.remove(connection);
+        } else {
+            prepareConnection(replacement);
+            connections.set(connections.indexOf(connection), replacement);
+            retireConnection(connection);
+        }
+    }
+
+    /**
+     * Closes a replaced connection once it has no pending requests. Requests paced for it are given time to be
+     * written first.
+     *
+     * @param connection
+     *            connection to close
+     */
+    private final void retireConnection(final Connection connection) {
+        Mono.delay(Duration.ofNanos(RATE_HORIZON))
+            .thenMany(Flux.interval(Duration.ZERO, DRAIN_POLL))
+            .filter(i -> InFlightRequests.of(connection.channel())
+                .getUnanswered() == 0)
+            .next()
+            .timeout(DISPOSE_TIMEOUT, Mono.empty())
+            .doFinally(signal -> {
+                connection.dispose();
+                recycling.remove(connection);
+            })
             .subscribe();
     }
 
-    private final Publisher<String> buildStream(final String message) {
-        return Mono.just(message)
-            .flux()
-            .doOnNext(listener::onSend);
+    /**
+     * Submits the request through the connection. With a pipelining depth, a full window makes the request spill into
+     * the following connections, and it is only queued on the received connection if all the windows are full.
+     *
+     * @param connection
+     *            connection chosen for the request
+     * @param message
+     *            request message
+     * @param reply
+     *            receives the response, may be {@code null}
+     * @param priority
+     *            request priority
+     * @return {@code true} if the request was accepted, {@code false} if it was rejected
+     */
+    private final boolean submit(final Connection connection, final Object message, final MonoSink<String> reply,
+            final Priority priority) {
+        final int  start;
+        Connection candidate;
+        boolean    accepted;
+        int        tries;
+
+        if (pipelineDepth == 0) {
+            accepted = InFlightRequests.of(connection.channel())
+                .submit(message, reply, priority);
+        } else {
+            // Missing if it was just replaced, then any connection is a good start
+            start = Math.max(0, connections.indexOf(connection));
+            candidate = connection;
+            accepted = false;
+            tries = 0;
+            while (!accepted && (tries < connections.size())) {
+                candidate = connections.get((start + tries) % connections.size());
+                // Closed connections are skipped while their replacements are opened
+                if (candidate.channel()
+                    .isActive()) {
+                    accepted = InFlightRequests.of(candidate.channel())
+                        .offer(message, reply, priority);
+                }
+                tries++;
+            }
+
+            if (!accepted) {
+                accepted = InFlightRequests.of(connection.channel())
+                    .submit(message, reply, priority);
+            } else if (candidate != connection) {
+                log.trace("Spilled request from {} to {}", connection.channel(), candidate.channel());
+                listener.onSpill();
+            }
+        }
+
+        return accepted;
+    }
+
+    /**
+     * Validates all the connections, and recycles those which require it.
+     */
+    private final void validateConnections() {
+        String reason;
+
+        for (final Connection connection : connections) {
+            if (!recycling.contains(connection)) {
+                reason = findRecycleReason(connection);
+                if (reason != null) {
+                    recycle(connection, reason);
+                }
+            }
+        }
     }
 
 }
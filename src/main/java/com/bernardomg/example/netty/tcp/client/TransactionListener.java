@@ -24,6 +24,9 @@
 
 package com.bernardomg.example.netty.tcp.client;
 
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
+
 /**
  * Transaction listener. Allows reacting to the events of a message transaction.
  *
@@ -32,6 +35,79 @@
  */
 public interface TransactionListener {
 
+    /**
+     * Reacts to a response being taken from the cache, instead of sending the request.
+     *
+     * @param message
+     *            request message
+     */
+    public default void onCacheHit(final String message) {}
+
+    /**
+     * Reacts to a response missing from the cache, so the request is sent.
+     *
+     * @param message
+     *            request message
+     */
+    public default void onCacheMiss(final String message) {}
+
+    /**
+     * Reacts to the concurrency limit of a connection changing. Limits start at zero, so adding all the changes gives
+     * the limit for all the connections.
+     *
+     * @param previous
+     *            previous limit
+     * @param current
+     *            current limit
+     */
+    public default void onConcurrencyLimitChange(final int previous, final int current) {}
+
+    /**
+     * Reacts to the client finishing the drain when closing. Anything still pending once the drain ends is lost.
+     *
+     * @param unanswered
+     *            requests still waiting for a response
+     * @param unwritten
+     *            bytes still waiting to be written
+     */
+    public default void onDrain(final int unanswered, final long unwritten) {}
+
+    /**
+     * Reacts to an error during the transaction.
+     *
+     * @param error
+     *            error received
+     */
+    public default void onError(final Throwable error) {}
+
+    /**
+     * Reacts to a request being hedged, as its response is taking too long. The message is sent again.
+     *
+     * @param message
+     *            request message
+     */
+    public default void onHedge(final String message) {}
+
+    /**
+     * Reacts to the latency of a request being measured, along the priority lane it went through. Only received with
+     * priorities enabled, and before the same latency is received by {@link #onLatency(long)}.
+     *
+     * @param priority
+     *            request priority
+     * @param nanos
+     *            latency in nanoseconds
+     */
+    public default void onLaneLatency(final Priority priority, final long nanos) {}
+
+    /**
+     * Reacts to the latency of a request being measured. This is the time since the request was sent until its
+     * response was received.
+     *
+     * @param nanos
+     *            latency in nanoseconds
+     */
+    public default void onLatency(final long nanos) {}
+
     /**
      * Reacts to a message being received.
      *
@@ -40,6 +116,14 @@ public interface TransactionListener {
      */
     public void onReceive(final String message);
 
+    /**
+     * Reacts to a connection being replaced by a new one, as it is no longer usable, or it is too old or too idle.
+     *
+     * @param reason
+     *            reason for replacing the connection
+     */
+    public default void onRecycle(final String reason) {}
+
     /**
      * Reacts to a message being sent.
      *
@@ -48,6 +132,28 @@ public interface TransactionListener {
      */
     public void onSend(final String message);
 
+    /**
+     * Reacts to a binary payload being sent. Only the size is received, as the payload is not decoded.
+     *
+     * @param bytes
+     *            payload size, in bytes
+     */
+    public default void onSendBytes(final int bytes) {}
+
+    /**
+     * Reacts to a sample of the socket state of a connection.
+     *
+     * @param stats
+     *            socket state sample
+     */
+    public default void onSocketStats(final SocketStats stats) {}
+
+    /**
+     * Reacts to a request spilling into another connection, as the pipelining window of the one chosen for it was
+     * full.
+     */
+    public default void onSpill() {}
+
     /**
      * Reacts to the start event.
      */
@@ -58,4 +164,13 @@ public interface TransactionListener {
      */
     public void onStop();
 
+    /**
+     * Reacts to a connection becoming writable, or unwritable. A connection is unwritable while too much data is
+     * waiting to be written into its socket.
+     *
+     * @param writable
+     *            {@code true} if the connection is now writable, {@code false} otherwise
+     */
+    public default void onWritabilityChange(final boolean writable) {}
+
 }
@@ -0,0 +1,239 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
+
+/**
+ * Transaction listener which hides the warm-up messages from the wrapped listener. While warming up, messages sent
+ * and errors are not reported, and neither are the responses, until as many responses as warm-up messages have been
+ * received.
+ * <p>
+ * Responses are matched by count. Those arriving after the warm-up has finished, because waiting for them timed out,
+ * are still hidden. Each error during the warm-up counts as a response, as its request won't receive one. As the
+ * count is shared by all the connections, a late warm-up response may be taken for a measured one answered sooner
+ * by another connection.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class WarmUpTransactionListener implements TransactionListener {
+
+    /**
+     * Wrapped listener. Receives all the events outside the warm-up.
+     */
+    private final TransactionListener listener;
+
+    /**
+     * Warm-up responses still pending, to wait for them. Is {@code null} until the warm-up starts.
+     */
+    private volatile CountDownLatch   pending;
+
+    /**
+     * Warm-up responses still to hide. Kept after the warm-up ends, for the late responses.
+     */
+    private final AtomicInteger       unanswered = new AtomicInteger();
+
+    /**
+     * Warm-up flag. Active while the warm-up messages are sent, and until their responses are received or the wait
+     * times out.
+     */
+    private volatile boolean          warmingUp;
+
+    /**
+     * Constructs a listener hiding the warm-up from the received one.
+     *
+     * @param lst
+     *            wrapped listener
+     */
+    public WarmUpTransactionListener(final TransactionListener lst) {
+        super();
+
+        listener = Objects.requireNonNull(lst);
+    }
+
+    /**
+     * Waits until all the warm-up responses are received, or the timeout expires. Afterwards the warm-up ends, but
+     * any warm-up response still missing will be hidden when it arrives.
+     *
+     * @param timeout
+     *            maximum time to wait, in milliseconds
+     * @return {@code true} if all the warm-up responses were received, {@code false} otherwise
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public final boolean awaitWarmUp(final long timeout) throws InterruptedException {
+        final CountDownLatch latch;
+        final boolean        received;
+
+        latch = pending;
+        if (latch == null) {
+            received = true;
+        } else {
+            try {
+                received = latch.await(timeout, TimeUnit.MILLISECONDS);
+            } finally {
+                warmingUp = false;
+            }
+        }
+
+        return received;
+    }
+
+    @Override
+    public final void onCacheHit(final String message) {
+        listener.onCacheHit(message);
+    }
+
+    @Override
+    public final void onCacheMiss(final String message) {
+        listener.onCacheMiss(message);
+    }
+
+    @Override
+    public final void onConcurrencyLimitChange(final int previous, final int current) {
+        listener.onConcurrencyLimitChange(previous, current);
+    }
+
+    @Override
+    public final void onDrain(final int unanswered, final long unwritten) {
+        listener.onDrain(unanswered, unwritten);
+    }
+
+    @Override
+    public final void onError(final Throwable error) {
+        // The failed request won't be answered, so there is one response less to hide
+        if (!warmingUp || !takeWarmUpResponse()) {
+            listener.onError(error);
+        }
+    }
+
+    @Override
+    public final void onHedge(final String message) {
+        listener.onHedge(message);
+    }
+
+    @Override
+    public final void onLaneLatency(final Priority priority, final long nanos) {
+        // Same as the latencies, received before the response
+        if (unanswered.get() == 0) {
+            listener.onLaneLatency(priority, nanos);
+        }
+    }
+
+    @Override
+    public final void onLatency(final long nanos) {
+        // Latencies are received just before the response they belong to
+        if (unanswered.get() == 0) {
+            listener.onLatency(nanos);
+        }
+    }
+
+    @Override
+    public final void onReceive(final String message) {
+        if (!takeWarmUpResponse()) {
+            listener.onReceive(message);
+        }
+    }
+
+    @Override
+    public final void onRecycle(final String reason) {
+        listener.onRecycle(reason);
+    }
+
+    @Override
+    public final void onSend(final String message) {
+        if (!warmingUp) {
+            listener.onSend(message);
+        }
+    }
+
+    @Override
+    public final void onSendBytes(final int bytes) {
+        if (!warmingUp) {
+            listener.onSendBytes(bytes);
+        }
+    }
+
+    @Override
+    public final void onSocketStats(final SocketStats stats) {
+        listener.onSocketStats(stats);
+    }
+
+    @Override
+    public final void onSpill() {
+        listener.onSpill();
+    }
+
+    @Override
+    public final void onStart() {
+        listener.onStart();
+    }
+
+    @Override
+    public final void onStop() {
+        listener.onStop();
+    }
+
+    @Override
+    public final void onWritabilityChange(final boolean writable) {
+        listener.onWritabilityChange(writable);
+    }
+
+    /**
+     * Starts the warm-up. Until it ends, the events will be hidden from the wrapped listener.
+     *
+     * @param messages
+     *            number of warm-up messages which will be sent
+     */
+    public final void startWarmUp(final int messages) {
+        pending = new CountDownLatch(messages);
+        unanswered.set(messages);
+        warmingUp = true;
+    }
+
+    /**
+     * Takes one of the warm-up responses still to hide, if there is any left.
+     *
+     * @return {@code true} if a warm-up response was taken, {@code false} if there are none left
+     */
+    private final boolean takeWarmUpResponse() {
+        final boolean taken;
+
+        taken = unanswered.getAndUpdate(count -> Math.max(0, count - 1)) > 0;
+        if (taken) {
+            pending.countDown();
+        }
+
+        return taken;
+    }
+
+}
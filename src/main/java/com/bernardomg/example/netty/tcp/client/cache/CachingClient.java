@@ -0,0 +1,177 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.netty.buffer.ByteBuf;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client which caches the responses, keyed by request message. Only meant for idempotent requests, whose responses
+ * don't change often.
+ * <p>
+ * The cache is bounded by size and by the time since each response was received. Eviction is handled by Caffeine,
+ * which keeps the entries most likely to be requested again.
+ * <p>
+ * Concurrent requests for the same message share a single exchange, so only the first one is sent. These count as
+ * cache hits. Failed exchanges are not cached.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class CachingClient implements Client {
+
+    /**
+     * Responses for each request message. Holds the exchanges still in flight, so they can be shared.
+     */
+    private final AsyncCache<String, String> cache;
+
+    /**
+     * Wrapped client. Sends the requests missing from the cache.
+     */
+    private final Client                     client;
+
+    /**
+     * Transaction listener. Receives the cache hits and misses.
+     */
+    private final TransactionListener        listener;
+
+    /**
+     * Constructs a caching client.
+     *
+     * @param clnt
+     *            wrapped client
+     * @param lst
+     *            transaction listener
+     * @param maxSize
+     *            maximum number of cached responses
+     * @param ttl
+     *            time to keep each response
+     */
+    public CachingClient(final Client clnt, final TransactionListener lst, final long maxSize, final Duration ttl) {
+        super();
+
+        client = Objects.requireNonNull(clnt);
+        listener = Objects.requireNonNull(lst);
+
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Objects.requireNonNull(ttl))
+            .buildAsync();
+    }
+
+    @Override
+    public final void close() {
+        cache.synchronous()
+            .invalidateAll();
+        client.close();
+    }
+
+    @Override
+    public final void connect() {
+        client.connect();
+    }
+
+    @Override
+    public final Mono<String> exchange(final String message) {
+        final Mono<String> response;
+
+        if (message.isEmpty()) {
+            // There is no response to cache
+            response = client.exchange(message);
+        } else {
+            response = Mono.defer(() -> fromCache(message));
+        }
+
+        return response;
+    }
+
+    /**
+     * Payloads are not cached, they are sent directly.
+     *
+     * @param payload
+     *            payload to send
+     */
+    @Override
+    public final void request(final ByteBuf payload) {
+        client.request(payload);
+    }
+
+    /**
+     * Sends the message, unless its response is cached. The response is discarded, as only the listener receives
+     * it.
+     * <p>
+     * Cached responses are not sent again to the listener, only the cache hit is.
+     *
+     * @param message
+     *            message to send
+     */
+    @Override
+    public final void request(final String message) {
+        exchange(message).subscribe(null, listener::onError);
+    }
+
+    /**
+     * Returns the response from the cache, sending the message if it is missing.
+     *
+     * @param message
+     *            message to send
+     * @return the response for the message
+     */
+    private final Mono<String> fromCache(final String message) {
+        final AtomicBoolean             missing;
+        final CompletableFuture<String> response;
+
+        missing = new AtomicBoolean();
+        response = cache.get(message, (key, executor) -> {
+            missing.set(true);
+            return client.exchange(key)
+                .toFuture();
+        });
+
+        if (missing.get()) {
+            log.debug("Cache miss for {}", message);
+            listener.onCacheMiss(message);
+        } else {
+            log.debug("Cache hit for {}", message);
+            listener.onCacheHit(message);
+        }
+
+        // The exchange may be shared, so a subscriber cancelling can't cancel it
+        return Mono.fromFuture(response, true);
+    }
+
+}
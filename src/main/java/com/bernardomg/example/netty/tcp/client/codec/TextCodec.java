@@ -0,0 +1,187 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.codec;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * Text codec for the messages. Encodes them straight into direct buffers, and decodes them from the received
+ * buffers, using a single charset.
+ * <p>
+ * UTF-8 and ISO-8859-1 are encoded by Netty without any charset encoder, in a single pass over the message. Other
+ * charsets use the encoders cached by Netty for each thread.
+ * <p>
+ * Messages are decoded by Netty, which copies the bytes into an array cached for each thread, and builds the string
+ * from it. The JDK has fast paths for UTF-8, ISO-8859-1 and US-ASCII.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class TextCodec {
+
+    /**
+     * UTF-8 codec.
+     */
+    public static final TextCodec UTF_8 = new TextCodec(StandardCharsets.UTF_8);
+
+    /**
+     * Charset for the messages.
+     */
+    private final Charset         charset;
+
+    /**
+     * Constructs a codec for the charset.
+     *
+     * @param chrst
+     *            charset for the messages
+     */
+    public TextCodec(final Charset chrst) {
+        super();
+
+        charset = Objects.requireNonNull(chrst);
+    }
+
+    /**
+     * Decodes the readable bytes of the buffer. The buffer indexes are not modified, and it is not released.
+     *
+     * @param data
+     *            buffer to decode
+     * @return the decoded message
+     */
+    public final String decode(final ByteBuf data) {
+        return data.toString(data.readerIndex(), data.readableBytes(), charset);
+    }
+
+    /**
+     * Encodes the message into a new buffer. The caller owns the buffer.
+     *
+     * @param allocator
+     *            allocator for the buffer
+     * @param message
+     *            message to encode
+     * @return the encoded message
+     */
+    public final ByteBuf encode(final ByteBufAllocator allocator, final CharSequence message) {
+        return encode(allocator, message, false);
+    }
+
+    /**
+     * Encodes the message, followed by a line break, into a new buffer. The caller owns the buffer.
+     *
+     * @param allocator
+     *            allocator for the buffer
+     * @param message
+     *            message to encode
+     * @return the encoded message, ending with a line break
+     */
+    public final ByteBuf encodeLine(final ByteBufAllocator allocator, final CharSequence message) {
+        return encode(allocator, message, true);
+    }
+
+    /**
+     * Returns the number of bytes the message takes once encoded, without a line break.
+     *
+     * @param message
+     *            message to measure
+     * @return the encoded length of the message
+     */
+    public final int encodedLength(final CharSequence message) {
+        final int length;
+
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            // Counted without encoding
+            length = ByteBufUtil.utf8Bytes(message);
+        } else if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            length = message.length();
+        } else {
+            length = charset.encode(CharBuffer.wrap(message))
+                .remaining();
+        }
+
+        return length;
+    }
+
+    /**
+     * Returns the charset for the messages.
+     *
+     * @return the charset for the messages
+     */
+    public final Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Encodes the message into a new buffer, optionally followed by a line break.
+     *
+     * @param allocator
+     *            allocator for the buffer
+     * @param message
+     *            message to encode
+     * @param line
+     *            line break flag
+     * @return the encoded message
+     */
+    private final ByteBuf encode(final ByteBufAllocator allocator, final CharSequence message, final boolean line) {
+        final ByteBuf data;
+        final int     extra;
+
+        if (line) {
+            extra = 1;
+        } else {
+            extra = 0;
+        }
+
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            // Sized for the worst case, so the message is written in a single pass
+            data = allocator.directBuffer(ByteBufUtil.utf8MaxBytes(message) + extra);
+            ByteBufUtil.writeUtf8(data, message);
+            if (line) {
+                data.writeByte('\n');
+            }
+        } else if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            data = allocator.directBuffer(message.length() + extra);
+            ByteBufUtil.writeAscii(data, message);
+            if (line) {
+                data.writeByte('\n');
+            }
+        } else if (line) {
+            // The line break may take several bytes in this charset
+            data = ByteBufUtil.encodeString(allocator, CharBuffer.wrap(message + "\n"), charset);
+        } else {
+            data = ByteBufUtil.encodeString(allocator, CharBuffer.wrap(message), charset);
+        }
+
+        return data;
+    }
+
+}
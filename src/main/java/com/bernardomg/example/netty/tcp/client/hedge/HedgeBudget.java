@@ -0,0 +1,104 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.hedge;
+
+/**
+ * Bounds the extra load caused by hedging. Each request earns a fraction of a hedge, and each hedge spends a whole
+ * one, so hedges can't go over that fraction of the requests.
+ * <p>
+ * Earned hedges are capped, so a long run of fast responses can't be followed by a burst of hedges.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class HedgeBudget {
+
+    /**
+     * Maximum hedges which can be saved.
+     */
+    private final double cap;
+
+    /**
+     * Hedges earned for each request.
+     */
+    private final double ratio;
+
+    /**
+     * Hedges available.
+     */
+    private double       tokens;
+
+    /**
+     * Constructs a budget.
+     *
+     * @param rt
+     *            hedges earned for each request, from 0 to 1
+     * @param cp
+     *            maximum hedges which can be saved, at least 1
+     * @throws IllegalArgumentException
+     *             if the ratio is not between 0 and 1, or less than one hedge can be saved
+     */
+    public HedgeBudget(final double rt, final double cp) {
+        super();
+
+        if ((rt < 0) || (rt > 1)) {
+            throw new IllegalArgumentException("The hedge ratio should be between 0 and 1");
+        }
+        // Each hedge takes a whole token
+        if (cp < 1) {
+            throw new IllegalArgumentException(
+                String.format("At least one hedge should be saved, or none could be sent, received %s", cp));
+        }
+
+        ratio = rt;
+        cap = cp;
+    }
+
+    /**
+     * Records a request.
+     */
+    public final synchronized void onRequest() {
+        tokens = Math.min(cap, tokens + ratio);
+    }
+
+    /**
+     * Takes a hedge from the budget, if there is one available.
+     *
+     * @return {@code true} if the hedge is allowed, {@code false} otherwise
+     */
+    public final synchronized boolean tryHedge() {
+        final boolean allowed;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            allowed = true;
+        } else {
+            allowed = false;
+        }
+
+        return allowed;
+    }
+
+}
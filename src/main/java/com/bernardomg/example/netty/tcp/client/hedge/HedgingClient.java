@@ -0,0 +1,277 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.hedge;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+
+import io.netty.buffer.ByteBuf;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Client which hedges slow requests. If the response hasn't arrived after a delay, then the message is sent again,
+ * and the first response is taken. The other one is ignored when it arrives.
+ * <p>
+ * The wrapped client chooses the connection for each message, so with several connections the duplicate will go
+ * through another one.
+ * <p>
+ * The delay can be fixed, or follow a percentile of the latencies. In the second case the percentile is taken from
+ * the recent responses, and the fixed delay is the minimum, and the delay until there are enough responses.
+ * <p>
+ * Hedges are bounded by a budget, so they can only add a fraction of the load. A message which fails before the
+ * delay is not hedged, and its error is returned.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class HedgingClient implements Client {
+
+    /**
+     * Responses between each update of the delay, when following a percentile.
+     */
+    private static final int          SAMPLES_PER_UPDATE = 100;
+
+    /**
+     * Bounds the hedges.
+     */
+    private final HedgeBudget         budget;
+
+    /**
+     * Wrapped client. Sends both the requests and the hedges.
+     */
+    private final Client              client;
+
+    /**
+     * Current delay, in nanoseconds.
+     */
+    private volatile long             delay;
+
+    /**
+     * Latencies since the last delay update.
+     */
+    private final Recorder            latencies          = new Recorder(2);
+
+    /**
+     * Transaction listener. Receives the hedges.
+     */
+    private final TransactionListener listener;
+
+    /**
+     * Minimum delay, in nanoseconds.
+     */
+    private final long                minDelay;
+
+    /**
+     * Latency percentile used as delay. If zero, the delay is fixed.
+     */
+    private final double              percentile;
+
+    /**
+     * Responses until the next delay update.
+     */
+    private final AtomicInteger       samples            = new AtomicInteger();
+
+    /**
+     * Constructs a hedging client.
+     *
+     * @param clnt
+     *            wrapped client
+     * @param lst
+     *            transaction listener
+     * @param dly
+     *            fixed delay, or minimum delay when following a percentile
+     * @param prcntl
+     *            latency percentile used as delay, zero for a fixed delay
+     * @param bdgt
+     *            hedge budget
+     */
+    public HedgingClient(final Client clnt, final TransactionListener lst, final Duration dly, final double prcntl,
+            final HedgeBudget bdgt) {
+        super();
+
+        client = Objects.requireNonNull(clnt);
+        listener = Objects.requireNonNull(lst);
+        budget = Objects.requireNonNull(bdgt);
+        minDelay = dly.toNanos();
+        percentile = prcntl;
+
+        delay = minDelay;
+    }
+
+    @Override
+    public final void close() {
+        client.close();
+    }
+
+    @Override
+    public final void connect() {
+        client.connect();
+    }
+
+    @Override
+    public final Mono<String> exchange(final String message) {
+        final Mono<String> response;
+
+        if (message.isEmpty()) {
+            // There is no response to wait for
+            response = client.exchange(message);
+        } else {
+            response = Mono.defer(() -> hedged(message));
+        }
+
+        return response;
+    }
+
+    /**
+     * Returns the current hedge delay.
+     *
+     * @return the current hedge delay
+     */
+    public final Duration getDelay() {
+        return Duration.ofNanos(delay);
+    }
+
+    /**
+     * Payloads are not hedged, they are sent directly.
+     *
+     * @param payload
+     *            payload to send
+     */
+    @Override
+    public final void request(final ByteBuf payload) {
+        client.request(payload);
+    }
+
+    /**
+     * Sends the message, and hedges it if needed. The response is discarded, as only the listener receives it.
+     *
+     * @param message
+     *            message to send
+     */
+    @Override
+    public final void request(final String message) {
+        exchange(message).subscribe(null, listener::onError);
+    }
+
+    /**
+     * Sends the message, and a hedge if the response takes longer than the delay and the budget allows it. The hedge
+     * is only sent while the message is pending, so a message failing before the delay is never hedged.
+     *
+     * @param message
+     *            message to send
+     * @return the first response
+     */
+    private final Mono<String> hedged(final String message) {
+        final long              start;
+        final Sinks.Empty<Void> failed;
+        final Mono<String>      primary;
+        final Mono<String>      hedge;
+
+        start = System.nanoTime();
+        budget.onRequest();
+
+        failed = Sinks.empty();
+        primary = client.exchange(message)
+            .doOnError(e -> failed.tryEmitEmpty());
+
+        // A failure cancels the hedge, as there is nothing to wait for
+        hedge = Mono.firstWithSignal(Mono.delay(Duration.ofNanos(delay)), failed.asMono()
+            .then(Mono.<Long> empty()))
+            .filter(t -> budget.tryHedge())
+            .flatMap(t -> {
+                log.debug("Hedging {}", message);
+                listener.onHedge(message);
+                return client.exchange(message);
+            });
+
+        return Mono.firstWithValue(primary, hedge)
+            .onErrorMap(NoSuchElementException.class, HedgingClient::primaryError)
+            .doOnNext(r -> onResponse(System.nanoTime() - start));
+    }
+
+    /**
+     * Records the latency of a response, and updates the delay when needed.
+     *
+     * @param latency
+     *            response latency, in nanoseconds
+     */
+    private final void onResponse(final long latency) {
+        final Histogram interval;
+
+        if (percentile > 0) {
+            latencies.recordValue(latency);
+            if (samples.incrementAndGet() >= SAMPLES_PER_UPDATE) {
+                samples.set(0);
+                synchronized (latencies) {
+                    interval = latencies.getIntervalHistogram();
+                }
+                if (interval.getTotalCount() > 0) {
+                    delay = Math.max(minDelay, interval.getValueAtPercentile(percentile));
+                    log.debug("Hedge delay updated to {} ns", delay);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the error of the original message. Racing the message and its hedge joins their errors, and the
+     * original one comes first.
+     *
+     * @param error
+     *            error of the race
+     * @return the error of the original message
+     */
+    private static final Throwable primaryError(final Throwable error) {
+        final List<Throwable> errors;
+        final Throwable       primary;
+
+        if (error.getCause() == null) {
+            primary = error;
+        } else {
+            errors = Exceptions.unwrapMultiple(error.getCause());
+            if (errors.isEmpty()) {
+                primary = error;
+            } else {
+                primary = errors.get(0);
+            }
+        }
+
+        return primary;
+    }
+
+}
@@ -0,0 +1,220 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.keepalive;
+
+import java.util.Objects;
+
+import com.bernardomg.example.netty.tcp.client.InFlightRequests;
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a connection alive, and finds out when it is dead. Reacts to the events of an {@code IdleStateHandler}, which
+ * should come before it in the pipeline:
+ * <ul>
+ * <li>All idle, when nothing is pending, sends a heartbeat. The response to it is discarded.</li>
+ * <li>Reader idle, while waiting for a response or a heartbeat, closes the connection as dead.</li>
+ * </ul>
+ * <p>
+ * As responses are matched to requests by order, heartbeats are only sent while no request is waiting, and the first
+ * message read after one is taken as its response. It should come after any frame decoder.
+ * <p>
+ * It also keeps track of the last request and response, to tell how long the connection has been idle.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class KeepAliveHandler extends ChannelDuplexHandler {
+
+    /**
+     * Returns the handler for the channel, if it has one.
+     *
+     * @param channel
+     *            channel to get the handler from
+     * @return the handler for the channel, or {@code null} if there is none
+     */
+    public static final KeepAliveHandler of(final Channel channel) {
+        return channel.pipeline()
+            .get(KeepAliveHandler.class);
+    }
+
+    /**
+     * Codec for the heartbeat.
+     */
+    private final TextCodec       codec;
+
+    /**
+     * Creation time, in nanoseconds.
+     */
+    private final long            created      = System.nanoTime();
+
+    /**
+     * Waiting for the heartbeat response flag.
+     */
+    private boolean               heartbeatPending;
+
+    /**
+     * Time of the last request or response, in nanoseconds.
+     */
+    private volatile long         lastActivity = created;
+
+    /**
+     * Line delimited flag. If active, a line break is appended to the heartbeat.
+     */
+    private final boolean         lineDelimited;
+
+    /**
+     * Keep-alive policy.
+     */
+    private final KeepAlivePolicy policy;
+
+    /**
+     * Constructs a handler for the policy.
+     *
+     * @param plcy
+     *            keep-alive policy
+     * @param cdc
+     *            codec for the heartbeat
+     * @param delimited
+     *            line delimited flag
+     */
+    public KeepAliveHandler(final KeepAlivePolicy plcy, final TextCodec cdc, final boolean delimited) {
+        super();
+
+        policy = Objects.requireNonNull(plcy);
+        codec = Objects.requireNonNull(cdc);
+        lineDelimited = delimited;
+    }
+
+    @Override
+    public final void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+        if (heartbeatPending) {
+            log.trace("Received heartbeat response");
+            heartbeatPending = false;
+            ReferenceCountUtil.release(msg);
+        } else {
+            lastActivity = System.nanoTime();
+            super.channelRead(ctx, msg);
+        }
+    }
+
+    /**
+     * Returns the time since the connection was created.
+     *
+     * @return the connection age, in nanoseconds
+     */
+    public final long getAge() {
+        return System.nanoTime() - created;
+    }
+
+    /**
+     * Returns the time since the last request or response. Heartbeats are not counted.
+     *
+     * @return the idle time, in nanoseconds
+     */
+    public final long getIdle() {
+        return System.nanoTime() - lastActivity;
+    }
+
+    @Override
+    public final void userEventTriggered(final ChannelHandlerContext ctx, final Object evt) throws Exception {
+        final IdleState state;
+
+        if (evt instanceof IdleStateEvent) {
+            state = ((IdleStateEvent) evt).state();
+            if ((state == IdleState.READER_IDLE) && (heartbeatPending || (countUnanswered(ctx.channel()) > 0))) {
+                log.debug("No response in {} ms, closing {}", policy.getIdleTimeout()
+                    .toMillis(), ctx.channel());
+                ctx.close();
+            } else if ((state == IdleState.ALL_IDLE) && !heartbeatPending
+                    && (countUnanswered(ctx.channel()) == 0)) {
+                sendHeartbeat(ctx);
+            }
+        } else {
+            super.userEventTriggered(ctx, evt);
+        }
+    }
+
+    @Override
+    public final void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise)
+            throws Exception {
+        lastActivity = System.nanoTime();
+        super.write(ctx, msg, promise);
+    }
+
+    /**
+     * Returns the number of requests waiting for a response on the channel.
+     *
+     * @param channel
+     *            channel to check
+     * @return the number of requests waiting
+     */
+    private final int countUnanswered(final Channel channel) {
+        final InFlightRequests requests;
+        final int              unanswered;
+
+        requests = InFlightRequests.of(channel);
+        if (requests == null) {
+            unanswered = 0;
+        } else {
+            unanswered = requests.getUnanswered();
+        }
+
+        return unanswered;
+    }
+
+    /**
+     * Sends a heartbeat. It is written from this handler, so it doesn't count as a request.
+     *
+     * @param ctx
+     *            channel context
+     */
+    private final void sendHeartbeat(final ChannelHandlerContext ctx) {
+        final ByteBuf data;
+
+        log.trace("Sending heartbeat to {}", ctx.channel());
+
+        if (lineDelimited) {
+            data = codec.encodeLine(ctx.alloc(), policy.getHeartbeat());
+        } else {
+            data = codec.encode(ctx.alloc(), policy.getHeartbeat());
+        }
+
+        heartbeatPending = true;
+        ctx.writeAndFlush(data);
+    }
+
+}
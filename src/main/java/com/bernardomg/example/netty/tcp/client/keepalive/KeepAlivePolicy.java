@@ -0,0 +1,207 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.keepalive;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Keep-alive policy for the connections. Tells how to find dead connections, and when to replace healthy ones.
+ * <p>
+ * All the times are disabled by default, with a zero duration.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class KeepAlivePolicy {
+
+    /**
+     * Default heartbeat message.
+     */
+    public static final String DEFAULT_HEARTBEAT  = "PING";
+
+    /**
+     * Heartbeat message, sent to idle connections.
+     */
+    private String             heartbeat          = DEFAULT_HEARTBEAT;
+
+    /**
+     * Time without traffic after which a heartbeat is sent.
+     */
+    private Duration           heartbeatInterval  = Duration.ZERO;
+
+    /**
+     * Time without reads, while waiting for a response, after which the connection is taken as dead.
+     */
+    private Duration           idleTimeout        = Duration.ZERO;
+
+    /**
+     * Time without requests after which the connection is replaced.
+     */
+    private Duration           maxIdle            = Duration.ZERO;
+
+    /**
+     * Time after which the connection is replaced.
+     */
+    private Duration           maxLife            = Duration.ZERO;
+
+    /**
+     * Interval between validations of the connections.
+     */
+    private Duration           validationInterval = Duration.ofSeconds(1);
+
+    /**
+     * Default constructor.
+     */
+    public KeepAlivePolicy() {
+        super();
+    }
+
+    /**
+     * Returns the heartbeat message.
+     *
+     * @return the heartbeat message
+     */
+    public final String getHeartbeat() {
+        return heartbeat;
+    }
+
+    /**
+     * Returns the time without traffic after which a heartbeat is sent. Zero if heartbeats are disabled.
+     *
+     * @return the heartbeat interval
+     */
+    public final Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    /**
+     * Returns the time without reads, while waiting for a response, after which the connection is taken as dead.
+     * Zero if disabled.
+     *
+     * @return the idle timeout
+     */
+    public final Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Returns the time without requests after which the connection is replaced. Zero if disabled.
+     *
+     * @return the maximum idle time
+     */
+    public final Duration getMaxIdle() {
+        return maxIdle;
+    }
+
+    /**
+     * Returns the time after which the connection is replaced. Zero if disabled.
+     *
+     * @return the maximum life time
+     */
+    public final Duration getMaxLife() {
+        return maxLife;
+    }
+
+    /**
+     * Returns the interval between validations of the connections.
+     *
+     * @return the validation interval
+     */
+    public final Duration getValidationInterval() {
+        return validationInterval;
+    }
+
+    /**
+     * Tells if idle events are needed, for the heartbeats or the idle timeout.
+     *
+     * @return {@code true} if idle events are needed
+     */
+    public final boolean isIdleEvents() {
+        return !heartbeatInterval.isZero() || !idleTimeout.isZero();
+    }
+
+    /**
+     * Sets the heartbeats. After the interval without traffic, the message is sent, and its response is discarded.
+     * The server should reply to it like to any other message.
+     *
+     * @param message
+     *            heartbeat message
+     * @param interval
+     *            time without traffic after which a heartbeat is sent
+     */
+    public final void setHeartbeat(final String message, final Duration interval) {
+        heartbeat = Objects.requireNonNull(message);
+        heartbeatInterval = Objects.requireNonNull(interval);
+    }
+
+    /**
+     * Sets the time without reads, while waiting for a response, after which the connection is taken as dead. The
+     * connection is closed, and replaced.
+     *
+     * @param timeout
+     *            idle timeout
+     */
+    public final void setIdleTimeout(final Duration timeout) {
+        idleTimeout = Objects.requireNonNull(timeout);
+    }
+
+    /**
+     * Sets the time without requests after which the connection is replaced. Heartbeats don't count as requests.
+     *
+     * @param idle
+     *            maximum idle time
+     */
+    public final void setMaxIdle(final Duration idle) {
+        maxIdle = Objects.requireNonNull(idle);
+    }
+
+    /**
+     * Sets the time after which the connection is replaced. The old connection is closed once it has no requests
+     * pending.
+     *
+     * @param life
+     *            maximum life time
+     */
+    public final void setMaxLife(final Duration life) {
+        maxLife = Objects.requireNonNull(life);
+    }
+
+    /**
+     * Sets the interval between validations of the connections. Each validation replaces closed connections, and
+     * those over the maximum idle or life time.
+     *
+     * @param interval
+     *            validation interval
+     */
+    public final void setValidationInterval(final Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The validation interval should be positive");
+        }
+        validationInterval = interval;
+    }
+
+}
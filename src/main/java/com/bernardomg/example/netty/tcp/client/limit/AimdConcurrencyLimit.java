@@ -0,0 +1,103 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.limit;
+
+/**
+ * Additive increase, multiplicative decrease limit. The limit grows by one for each response received in time while
+ * the limit is being used, and is cut when a response takes longer than the latency threshold.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class AimdConcurrencyLimit implements ConcurrencyLimit {
+
+    /**
+     * Factor applied to the limit when decreasing it.
+     */
+    private static final double BACKOFF = 0.9;
+
+    /**
+     * Latency threshold, in nanoseconds. Slower responses decrease the limit.
+     */
+    private final long          threshold;
+
+    /**
+     * Current limit.
+     */
+    private volatile int        limit;
+
+    /**
+     * Maximum limit.
+     */
+    private final int           maxLimit;
+
+    /**
+     * Minimum limit.
+     */
+    private final int           minLimit;
+
+    /**
+     * Constructs a limit with the received values.
+     *
+     * @param initial
+     *            initial limit
+     * @param min
+     *            minimum limit, at least 1 and not over the initial one
+     * @param max
+     *            maximum limit, not below the initial one
+     * @param thrshld
+     *            latency threshold, in nanoseconds
+     */
+    public AimdConcurrencyLimit(final int initial, final int min, final int max, final long thrshld) {
+        super();
+
+        if ((min < 1) || (initial < min) || (max < initial)) {
+            throw new IllegalArgumentException(String.format(
+                "The limits should be 1 <= min <= initial <= max, received min %d, initial %d and max %d", min,
+                initial, max));
+        }
+
+        limit = initial;
+        minLimit = min;
+        maxLimit = max;
+        threshold = thrshld;
+    }
+
+    @Override
+    public final int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public final synchronized void onSample(final long rtt, final int inFlight) {
+        if (rtt > threshold) {
+            limit = Math.max(minLimit, (int) (limit * BACKOFF));
+        } else if ((inFlight * 2) >= limit) {
+            // Only grows if the limit is actually being used
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.limit;
+
+/**
+ * Limit for the number of requests waiting for a response on a connection. It may adapt to the measured round trip
+ * times.
+ * <p>
+ * Each connection has its own limit, and samples are received from its event loop, but the limit may be read from any
+ * thread.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the current limit
+     */
+    public int getLimit();
+
+    /**
+     * Reacts to a response being received, and updates the limit if needed.
+     *
+     * @param rtt
+     *            round trip time, in nanoseconds, since the request was written
+     * @param inFlight
+     *            requests waiting for a response when the request was sent, including it
+     */
+    public void onSample(final long rtt, final int inFlight);
+
+}
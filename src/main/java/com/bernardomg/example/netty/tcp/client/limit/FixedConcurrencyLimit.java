@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.limit;
+
+/**
+ * Limit which never changes.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class FixedConcurrencyLimit implements ConcurrencyLimit {
+
+    /**
+     * Unlimited requests.
+     */
+    public static final FixedConcurrencyLimit UNLIMITED = new FixedConcurrencyLimit(Integer.MAX_VALUE);
+
+    /**
+     * Limit.
+     */
+    private final int                         limit;
+
+    /**
+     * Constructs a limit with the received value.
+     *
+     * @param lmt
+     *            limit
+     */
+    public FixedConcurrencyLimit(final int lmt) {
+        super();
+
+        if (lmt < 1) {
+            throw new IllegalArgumentException("The limit should be positive");
+        }
+
+        limit = lmt;
+    }
+
+    @Override
+    public final int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public final void onSample(final long rtt, final int inFlight) {
+        // The limit never changes
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.limit;
+
+/**
+ * Gradient limit. Compares each round trip time with a long-term average. While they are similar the limit grows, and
+ * when the round trip times rise, which means requests are queuing on the server, the limit shrinks proportionally.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class GradientConcurrencyLimit implements ConcurrencyLimit {
+
+    /**
+     * Weight of each sample in the long-term round trip time.
+     */
+    private static final double LONG_RTT_WEIGHT = 0.01;
+
+    /**
+     * Minimum gradient. Limits how fast the limit can shrink.
+     */
+    private static final double MIN_GRADIENT    = 0.5;
+
+    /**
+     * Weight of each new limit over the current one.
+     */
+    private static final double SMOOTHING       = 0.2;
+
+    /**
+     * Tolerance over the long-term round trip time before the limit starts shrinking.
+     */
+    private static final double TOLERANCE       = 1.5;
+
+    /**
+     * Current limit.
+     */
+    private volatile int        limit;
+
+    /**
+     * Exact current limit.
+     */
+    private double              estimatedLimit;
+
+    /**
+     * Long-term round trip time, as an exponential moving average.
+     */
+    private double              longRtt;
+
+    /**
+     * Maximum limit.
+     */
+    private final int           maxLimit;
+
+    /**
+     * Minimum limit.
+     */
+    private final int           minLimit;
+
+    /**
+     * Constructs a limit with the received values.
+     *
+     * @param initial
+     *            initial limit
+     * @param min
+     *            minimum limit, at least 1 and not over the initial one
+     * @param max
+     *            maximum limit, not below the initial one
+     */
+    public GradientConcurrencyLimit(final int initial, final int min, final int max) {
+        super();
+
+        if ((min < 1) || (initial < min) || (max < initial)) {
+            throw new IllegalArgumentException(String.format(
+                "The limits should be 1 <= min <= initial <= max, received min %d, initial %d and max %d", min,
+                initial, max));
+        }
+
+        limit = initial;
+        estimatedLimit = initial;
+        minLimit = min;
+        maxLimit = max;
+    }
+
+    @Override
+    public final int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public final synchronized void onSample(final long rtt, final int inFlight) {
+        final double gradient;
+        final double queueSize;
+        final double newLimit;
+
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            longRtt = (longRtt * (1 - LONG_RTT_WEIGHT)) + (rtt * LONG_RTT_WEIGHT);
+        }
+
+        // When far below the limit there is nothing to learn about it
+        if ((inFlight * 2) >= limit) {
+            gradient = Math.max(MIN_GRADIENT, Math.min(1.0, (TOLERANCE * longRtt) / rtt));
+            queueSize = Math.sqrt(estimatedLimit);
+            newLimit = (estimatedLimit * gradient) + queueSize;
+
+            estimatedLimit = (estimatedLimit * (1 - SMOOTHING)) + (newLimit * SMOOTHING);
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+            limit = (int) estimatedLimit;
+        }
+    }
+
+}
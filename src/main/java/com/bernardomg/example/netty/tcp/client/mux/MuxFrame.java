@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.mux;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Frame protocol for multiplexed streams. Each frame starts with a header, followed by its payload:
+ *
+ * <pre>
+ * +----------------+----------------+---------+---------------------+
+ * | length (int32) | stream (int32) | flags   | payload (length)    |
+ * +----------------+----------------+---------+---------------------+
+ * </pre>
+ * <p>
+ * Messages are split into data frames of up to {@value #MAX_PAYLOAD} bytes, the last one flagged with
+ * {@link #FLAG_END}. Frames flagged with {@link #FLAG_WINDOW_UPDATE} carry a single int32, the bytes the receiver
+ * is ready to take on that stream.
+ * <p>
+ * Each side can send up to {@value #INITIAL_WINDOW} bytes on each stream before receiving a window update, and the
+ * window grows by the updates and shrinks by the data sent. The server is expected to echo the stream of each
+ * message in its responses.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class MuxFrame {
+
+    /**
+     * Flag for the last frame of a message.
+     */
+    public static final int FLAG_END           = 0x1;
+
+    /**
+     * Flag for window updates.
+     */
+    public static final int FLAG_WINDOW_UPDATE = 0x2;
+
+    /**
+     * Header length, in bytes.
+     */
+    public static final int HEADER_LENGTH      = 9;
+
+    /**
+     * Initial window for each stream, in bytes.
+     */
+    public static final int INITIAL_WINDOW     = 64 * 1024;
+
+    /**
+     * Maximum payload for a single frame, in bytes. Large messages are split, so they can't hold back the other
+     * streams.
+     */
+    public static final int MAX_PAYLOAD        = 16 * 1024;
+
+    /**
+     * Creates the header for a frame.
+     *
+     * @param alloc
+     *            allocator for the header
+     * @param stream
+     *            stream id
+     * @param flags
+     *            frame flags
+     * @param length
+     *            payload length
+     * @return the frame header
+     */
+    public static final ByteBuf header(final ByteBufAllocator alloc, final int stream, final int flags,
+            final int length) {
+        return alloc.buffer(HEADER_LENGTH)
+            .writeInt(length)
+            .writeInt(stream)
+            .writeByte(flags);
+    }
+
+    /**
+     * Creates a decoder which splits the received bytes into whole frames.
+     *
+     * @return a frame decoder
+     */
+    public static final LengthFieldBasedFrameDecoder newDecoder() {
+        // The length doesn't include the rest of the header
+        return new LengthFieldBasedFrameDecoder(HEADER_LENGTH + MAX_PAYLOAD, 0, Integer.BYTES,
+            HEADER_LENGTH - Integer.BYTES, 0);
+    }
+
+    /**
+     * Creates a window update frame.
+     *
+     * @param alloc
+     *            allocator for the frame
+     * @param stream
+     *            stream id
+     * @param increment
+     *            bytes added to the window
+     * @return the window update frame
+     */
+    public static final ByteBuf windowUpdate(final ByteBufAllocator alloc, final int stream, final int increment) {
+        return alloc.buffer(HEADER_LENGTH + Integer.BYTES)
+            .writeInt(Integer.BYTES)
+            .writeInt(stream)
+            .writeByte(FLAG_WINDOW_UPDATE)
+            .writeInt(increment);
+    }
+
+    private MuxFrame() {
+        super();
+    }
+
+}
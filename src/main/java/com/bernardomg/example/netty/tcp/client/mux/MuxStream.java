@@ -0,0 +1,366 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.mux;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.InFlightRequests;
+import com.bernardomg.example.netty.tcp.client.RequestRejectedException;
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+import com.bernardomg.example.netty.tcp.client.limit.ConcurrencyLimit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Logical stream over a multiplexed connection. It works as an independent client, with its own in-flight requests
+ * and flow control window, so a slow or blocked stream doesn't hold back the others sharing the connection.
+ * <p>
+ * Responses are matched to requests in the same order they were sent on this stream.
+ * <p>
+ * Except for the client methods, which can be called from any thread, everything happens in the channel event loop.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class MuxStream implements Client {
+
+    /**
+     * Channel for the stream.
+     */
+    private final Channel             channel;
+
+    /**
+     * Codec for the messages.
+     */
+    private final TextCodec           codec;
+
+    /**
+     * Stream id.
+     */
+    private final int                 id;
+
+    /**
+     * Received frames, waiting for the end of the message. {@code null} while no message is partially received.
+     */
+    private CompositeByteBuf          inbound;
+
+    /**
+     * Transaction listener. Reacts to events during the request.
+     */
+    private final TransactionListener listener;
+
+    /**
+     * Multiplexer for the connection.
+     */
+    private final StreamMultiplexer   multiplexer;
+
+    /**
+     * Messages waiting to be written. The first one may be partially written.
+     */
+    private final Queue<ByteBuf>      pending = new ArrayDeque<>();
+
+    /**
+     * Requests waiting for a response on this stream.
+     */
+    private final InFlightRequests    requests;
+
+    /**
+     * Tells if the stream is waiting its turn to write.
+     */
+    private boolean                   scheduled;
+
+    /**
+     * Bytes which can be written before receiving a window update.
+     */
+    private int                       window  = MuxFrame.INITIAL_WINDOW;
+
+    /**
+     * Constructs a stream.
+     *
+     * @param mux
+     *            multiplexer for the connection
+     * @param chnl
+     *            channel for the stream
+     * @param identifier
+     *            stream id
+     * @param limit
+     *            concurrency limit for the stream
+     * @param maxQueued
+     *            maximum number of queued requests
+     * @param cdc
+     *            codec for the messages
+     * @param lst
+     *            transaction listener
+     */
+    MuxStream(final StreamMultiplexer mux, final Channel chnl, final int identifier, final ConcurrencyLimit limit,
+            final int maxQueued, final TextCodec cdc, final TransactionListener lst) {
+        super();
+
+        multiplexer = Objects.requireNonNull(mux);
+        channel = Objects.requireNonNull(chnl);
+        codec = Objects.requireNonNull(cdc);
+        id = identifier;
+        listener = Objects.requireNonNull(lst);
+
+        requests = new InFlightRequests(limit, maxQueued, this::write, listener);
+    }
+
+    /**
+     * Closes the stream. Requests still waiting are failed. The connection is kept open for the other streams.
+     */
+    @Override
+    public final void close() {
+        multiplexer.close(this);
+    }
+
+    /**
+     * Does nothing, as streams are opened over connected clients.
+     */
+    @Override
+    public final void connect() {
+        // Already connected
+    }
+
+    @Override
+    public final Mono<String> exchange(final String message) {
+        return Mono.create(sink -> {
+            log.debug("Exchanging {} on stream {}", message, id);
+
+            if (message.isEmpty()) {
+                // Empty messages are not written, so there won't be a response
+                listener.onSend(message);
+                sink.success();
+            } else if (!requests.submit(message, sink)) {
+                log.debug("Rejected {}", message);
+                sink.error(new RequestRejectedException("Concurrency limit and queue are full"));
+            }
+        });
+    }
+
+    /**
+     * Returns the channel for the stream.
+     *
+     * @return the channel for the stream
+     */
+    public final Channel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Returns the stream id.
+     *
+     * @return the stream id
+     */
+    public final int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the number of requests on this stream still without a response.
+     *
+     * @return the number of requests without a response
+     */
+    public final int getUnanswered() {
+        return requests.getUnanswered();
+    }
+
+    @Override
+    public final void request(final ByteBuf payload) {
+        log.debug("Sending {} bytes on stream {}", payload.readableBytes(), id);
+
+        if (!requests.submit(payload)) {
+            log.debug("Rejected {} bytes", payload.readableBytes());
+            payload.release();
+            listener.onError(new RequestRejectedException("Concurrency limit and queue are full"));
+        }
+    }
+
+    @Override
+    public final void request(final String message) {
+        log.debug("Sending {} on stream {}", message, id);
+
+        if (message.isEmpty()) {
+            // Empty messages are not written, so there won't be a response
+            listener.onSend(message);
+        } else if (!requests.submit(message)) {
+            log.debug("Rejected {}", message);
+            listener.onError(new RequestRejectedException("Concurrency limit and queue are full"));
+        }
+    }
+
+    /**
+     * Queues a message to be written.
+     *
+     * @param message
+     *            message to write
+     */
+    final void enqueue(final ByteBuf message) {
+        pending.add(message);
+    }
+
+    /**
+     * Fails the stream, releasing anything still not written or received.
+     *
+     * @param error
+     *            error for the requests still waiting
+     */
+    final void fail(final Throwable error) {
+        pending.forEach(ByteBuf::release);
+        pending.clear();
+        if (inbound != null) {
+            inbound.release();
+            inbound = null;
+        }
+        requests.failAll(error);
+    }
+
+    /**
+     * Tells if the stream has something to write, and window to write it.
+     *
+     * @return {@code true} if the stream can write
+     */
+    final boolean isReady() {
+        return (!pending.isEmpty()) && (window > 0);
+    }
+
+    /**
+     * Tells if the stream is waiting its turn to write.
+     *
+     * @return {@code true} if the stream is waiting its turn
+     */
+    final boolean isScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Reacts to a data frame received for this stream. When it ends a message, the message is matched to the oldest
+     * in-flight request.
+     *
+     * @param payload
+     *            frame payload, this stream takes ownership of it
+     * @param end
+     *            {@code true} if it is the last frame of a message
+     */
+    final void onData(final ByteBuf payload, final boolean end) {
+        final String message;
+        final long   latency;
+
+        if (inbound == null) {
+            inbound = channel.alloc()
+                .compositeBuffer();
+        }
+        inbound.addComponent(true, payload);
+
+        if (end) {
+            message = codec.decode(inbound);
+            inbound.release();
+            inbound = null;
+
+            latency = requests.onReceived(message);
+            if (latency >= 0) {
+                listener.onLatency(latency);
+            }
+            listener.onReceive(message);
+        }
+    }
+
+    /**
+     * Adds to the window, after a window update.
+     *
+     * @param increment
+     *            bytes added to the window
+     */
+    final void onWindowUpdate(final int increment) {
+        window += increment;
+    }
+
+    /**
+     * Sets if the stream is waiting its turn to write.
+     *
+     * @param value
+     *            {@code true} if the stream is waiting its turn
+     */
+    final void setScheduled(final boolean value) {
+        scheduled = value;
+    }
+
+    /**
+     * Writes the next frame, which is as large as the window and the maximum payload allow. Doesn't flush.
+     *
+     * @param ctx
+     *            context for the multiplexer
+     */
+    final void writeFrame(final ChannelHandlerContext ctx) {
+        final ByteBuf message;
+        final int     size;
+        final boolean end;
+        final ByteBuf payload;
+
+        message = pending.peek();
+        size = Math.min(Math.min(MuxFrame.MAX_PAYLOAD, message.readableBytes()), window);
+        end = (size == message.readableBytes());
+        payload = message.readRetainedSlice(size);
+        if (end) {
+            pending.poll()
+                .release();
+        }
+        window -= size;
+
+        ctx.write(MuxFrame.header(ctx.alloc(), id, end ? MuxFrame.FLAG_END : 0, size));
+        ctx.write(payload);
+    }
+
+    /**
+     * Writes a message into the stream. Used by the in-flight requests.
+     *
+     * @param message
+     *            message to write, either a {@code String} or a {@code ByteBuf}
+     */
+    private final void write(final Object message) {
+        final ByteBuf data;
+
+        if (message instanceof ByteBuf) {
+            data = (ByteBuf) message;
+            listener.onSendBytes(data.readableBytes());
+        } else {
+            data = codec.encode(channel.alloc(), (String) message);
+            listener.onSend((String) message);
+        }
+
+        multiplexer.enqueue(this, data);
+    }
+
+}
@@ -0,0 +1,314 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.mux;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+import com.bernardomg.example.netty.tcp.client.limit.ConcurrencyLimit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.AttributeKey;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Multiplexes logical streams over a channel. Stored in the channel, so streams can be opened on it.
+ * <p>
+ * Streams take turns to write, one frame each, and frames are bounded in size. A stream with a large message, or
+ * without window, doesn't keep the others waiting. Writing stops while the channel is unwritable, and resumes once
+ * the socket takes data again.
+ * <p>
+ * Received frames are handed to their stream, and the window is given back to the server as soon as they are
+ * consumed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class StreamMultiplexer extends ChannelDuplexHandler {
+
+    /**
+     * Channel attribute which stores the multiplexer.
+     */
+    private static final AttributeKey<StreamMultiplexer> KEY     = AttributeKey.valueOf("streamMultiplexer");
+
+    /**
+     * Stores the multiplexer in the channel.
+     *
+     * @param channel
+     *            channel where the streams are multiplexed
+     * @param multiplexer
+     *            multiplexer for the channel
+     */
+    public static final void attach(final Channel channel, final StreamMultiplexer multiplexer) {
+        channel.attr(KEY)
+            .set(multiplexer);
+    }
+
+    /**
+     * Returns the multiplexer for the channel. If there is none, then it returns {@code null}.
+     *
+     * @param channel
+     *            channel to get the multiplexer from
+     * @return the multiplexer for the channel, or {@code null} if there is none
+     */
+    public static final StreamMultiplexer of(final Channel channel) {
+        return channel.attr(KEY)
+            .get();
+    }
+
+    /**
+     * Channel where the streams are multiplexed.
+     */
+    private final Channel                                channel;
+
+    /**
+     * Codec for the messages of all the streams.
+     */
+    private final TextCodec                              codec;
+
+    /**
+     * Channel context. Set when the handler is added, which always happens before writing.
+     */
+    private ChannelHandlerContext                        context;
+
+    /**
+     * Transaction listener. Reacts to events during the request.
+     */
+    private final TransactionListener                    listener;
+
+    /**
+     * Id for the next stream.
+     */
+    private final AtomicInteger                          nextId  = new AtomicInteger(1);
+
+    /**
+     * Streams waiting their turn to write. Only used from the event loop.
+     */
+    private final Queue<MuxStream>                       ready   = new ArrayDeque<>();
+
+    /**
+     * Open streams, by id.
+     */
+    private final Map<Integer, MuxStream>                streams = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a multiplexer for the channel. Streams can be opened before adding it to the pipeline, but nothing
+     * is written until then.
+     *
+     * @param chnl
+     *            channel where the streams are multiplexed
+     * @param cdc
+     *            codec for the messages
+     * @param lst
+     *            transaction listener
+     */
+    public StreamMultiplexer(final Channel chnl, final TextCodec cdc, final TransactionListener lst) {
+        super();
+
+        channel = Objects.requireNonNull(chnl);
+        codec = Objects.requireNonNull(cdc);
+        listener = Objects.requireNonNull(lst);
+    }
+
+    @Override
+    public final void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+        final ClosedChannelException error;
+
+        // No response will arrive after closing
+        error = new ClosedChannelException();
+        for (final MuxStream stream : new ArrayList<>(streams.values())) {
+            stream.fail(error);
+        }
+        streams.clear();
+        ready.clear();
+
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public final void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+        final ByteBuf   frame;
+        final int       length;
+        final int       id;
+        final int       flags;
+        final MuxStream stream;
+
+        frame = (ByteBuf) msg;
+        try {
+            length = frame.readInt();
+            id = frame.readInt();
+            flags = frame.readByte();
+
+            stream = streams.get(id);
+            if (stream == null) {
+                log.debug("Discarding frame for unknown stream {}", id);
+            } else if ((flags & MuxFrame.FLAG_WINDOW_UPDATE) != 0) {
+                stream.onWindowUpdate(frame.readInt());
+                schedule(stream);
+                flush();
+            } else {
+                stream.onData(frame.readRetainedSlice(length), (flags & MuxFrame.FLAG_END) != 0);
+                // Consumed right away, so the window is given back
+                if (length > 0) {
+                    ctx.write(MuxFrame.windowUpdate(ctx.alloc(), id, length));
+                }
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public final void channelReadComplete(final ChannelHandlerContext ctx) throws Exception {
+        // Sends the window updates
+        ctx.flush();
+
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public final void channelWritabilityChanged(final ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel()
+            .isWritable()) {
+            flush();
+        }
+
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public final void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
+        context = ctx;
+
+        super.handlerAdded(ctx);
+    }
+
+    /**
+     * Opens a new stream.
+     *
+     * @param limit
+     *            concurrency limit for the stream
+     * @param maxQueued
+     *            maximum number of queued requests on the stream
+     * @return the new stream
+     */
+    public final MuxStream openStream(final ConcurrencyLimit limit, final int maxQueued) {
+        final MuxStream stream;
+
+        stream = new MuxStream(this, channel, nextId.getAndIncrement(), limit, maxQueued, codec, listener);
+        streams.put(stream.getId(), stream);
+
+        return stream;
+    }
+
+    /**
+     * Closes the stream.
+     *
+     * @param stream
+     *            stream to close
+     */
+    final void close(final MuxStream stream) {
+        channel.eventLoop()
+            .execute(() -> {
+                if (streams.remove(stream.getId()) != null) {
+                    ready.remove(stream);
+                    stream.fail(new ClosedChannelException());
+                }
+            });
+    }
+
+    /**
+     * Queues a message to be written on the stream. Always goes through the event loop task queue, which keeps the
+     * messages in the order they were sent, no matter which thread sent them.
+     *
+     * @param stream
+     *            stream for the message
+     * @param message
+     *            message to write
+     */
+    final void enqueue(final MuxStream stream, final ByteBuf message) {
+        channel.eventLoop()
+            .execute(() -> {
+                if (streams.containsKey(stream.getId())) {
+                    stream.enqueue(message);
+                    schedule(stream);
+                    flush();
+                } else {
+                    message.release();
+                }
+            });
+    }
+
+    /**
+     * Writes one frame from each ready stream in turn, while the channel is writable.
+     */
+    private final void flush() {
+        MuxStream stream;
+        boolean   written;
+
+        written = false;
+        while ((!ready.isEmpty()) && channel.isWritable()) {
+            stream = ready.poll();
+            stream.setScheduled(false);
+
+            stream.writeFrame(context);
+            written = true;
+
+            // Back to the end of the line
+            schedule(stream);
+        }
+
+        if (written) {
+            context.flush();
+        }
+    }
+
+    /**
+     * Adds the stream to the ready streams, if it can write and it is not already waiting.
+     *
+     * @param stream
+     *            stream to schedule
+     */
+    private final void schedule(final MuxStream stream) {
+        if (stream.isReady() && !stream.isScheduled()) {
+            stream.setScheduled(true);
+            ready.add(stream);
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.pipeline;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Bounded FIFO queue over a fixed array. Elements are never moved, only the head and tail wrap around the array, so
+ * adding and polling never allocates.
+ * <p>
+ * Offering into a full buffer is refused, and adding into it throws an exception.
+ * <p>
+ * This is not thread safe.
+ *
+ * @param <T>
+ *            type of the stored elements
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class RingBuffer<T> extends AbstractQueue<T> {
+
+    /**
+     * Stored elements. Free slots are {@code null}.
+     */
+    private final Object[] elements;
+
+    /**
+     * Index of the oldest element.
+     */
+    private int            head;
+
+    /**
+     * Number of stored elements.
+     */
+    private int            size;
+
+    /**
+     * Constructs a buffer with the received capacity.
+     *
+     * @param capacity
+     *            maximum number of elements
+     */
+    public RingBuffer(final int capacity) {
+        super();
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity should be positive, received " + capacity);
+        }
+
+        elements = new Object[capacity];
+    }
+
+    /**
+     * Returns the maximum number of elements.
+     *
+     * @return the maximum number of elements
+     */
+    public final int getCapacity() {
+        return elements.length;
+    }
+
+    /**
+     * Tells if there is no room for more elements.
+     *
+     * @return {@code true} if the buffer is full
+     */
+    public final boolean isFull() {
+        return size == elements.length;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Iterator<>() {
+
+            /**
+             * Elements already returned.
+             */
+            private int returned;
+
+            @Override
+            public final boolean hasNext() {
+                return returned < size;
+            }
+
+            @Override
+            public final T next() {
+                final T next;
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                next = elementAt(returned);
+                returned++;
+
+                return next;
+            }
+
+        };
+    }
+
+    @Override
+    public final boolean offer(final T element) {
+        final boolean accepted;
+
+        if (element == null) {
+            throw new NullPointerException("Null elements are not allowed");
+        }
+
+        if (isFull()) {
+            accepted = false;
+        } else {
+            elements[(head + size) % elements.length] = element;
+            size++;
+            accepted = true;
+        }
+
+        return accepted;
+    }
+
+    @Override
+    public final T peek() {
+        final T element;
+
+        if (size == 0) {
+            element = null;
+        } else {
+            element = elementAt(0);
+        }
+
+        return element;
+    }
+
+    @Override
+    public final T poll() {
+        final T element;
+
+        element = peek();
+        if (element != null) {
+            // Cleared, so the buffer doesn't keep it from being collected
+            elements[head] = null;
+            head = (head + 1) % elements.length;
+            size--;
+        }
+
+        return element;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Returns the element at the received position, counting from the oldest one.
+     *
+     * @param position
+     *            position from the oldest element
+     * @return the element at the position
+     */
+    @SuppressWarnings("unchecked")
+    private final T elementAt(final int position) {
+        return (T) elements[(head + position) % elements.length];
+    }
+
+}
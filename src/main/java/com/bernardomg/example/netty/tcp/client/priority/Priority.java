@@ -0,0 +1,74 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.priority;
+
+/**
+ * Request priority. Each priority has its own lane, with a weight which tells how many of its requests are written
+ * in each round.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public enum Priority {
+
+    /**
+     * Bulk traffic, which can wait.
+     */
+    BULK(1),
+    /**
+     * Latency sensitive traffic, such as control messages.
+     */
+    HIGH(8),
+    /**
+     * Default traffic.
+     */
+    NORMAL(4);
+
+    /**
+     * Default weight for the lane.
+     */
+    private final int defaultWeight;
+
+    /**
+     * Constructs a priority with the received default weight.
+     *
+     * @param weight
+     *            default weight for the lane
+     */
+    private Priority(final int weight) {
+        defaultWeight = weight;
+    }
+
+    /**
+     * Returns the default weight for the lane.
+     *
+     * @return the default weight
+     */
+    public final int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+}
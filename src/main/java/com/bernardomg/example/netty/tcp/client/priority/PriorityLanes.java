@@ -0,0 +1,236 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.priority;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * Bounded queues, one for each priority, polled by weighted round robin. Each round polls up to the weight of each
+ * lane, from the highest priority to the lowest, so no lane is starved.
+ * <p>
+ * This is not thread safe.
+ *
+ * @param <T>
+ *            type of the queued elements
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class PriorityLanes<T> {
+
+    /**
+     * Lanes in the order they are polled in each round.
+     */
+    private static final Priority[]       ORDER = { Priority.HIGH, Priority.NORMAL, Priority.BULK };
+
+    /**
+     * Maximum elements in each lane.
+     */
+    private final int                     capacity;
+
+    /**
+     * Elements which the current lane may still take in this round.
+     */
+    private int                           credit;
+
+    /**
+     * Index of the current lane, in the round order.
+     */
+    private int                           current;
+
+    /**
+     * Queues, by priority.
+     */
+    private final Map<Priority, Queue<T>> lanes = new EnumMap<>(Priority.class);
+
+    /**
+     * Total elements, across all the lanes.
+     */
+    private int                           size;
+
+    /**
+     * Weight of each lane.
+     */
+    private final Map<Priority, Integer>  weights;
+
+    /**
+     * Constructs lanes with the default weights.
+     *
+     * @param cpcty
+     *            maximum elements in each lane
+     */
+    public PriorityLanes(final int cpcty) {
+        this(cpcty, defaultWeights());
+    }
+
+    /**
+     * Constructs lanes with the received weights.
+     *
+     * @param cpcty
+     *            maximum elements in each lane
+     * @param wghts
+     *            weight of each lane
+     */
+    public PriorityLanes(final int cpcty, final Map<Priority, Integer> wghts) {
+        super();
+
+        capacity = cpcty;
+        weights = new EnumMap<>(Objects.requireNonNull(wghts));
+        for (final Priority priority : ORDER) {
+            lanes.put(priority, new ArrayDeque<>());
+            if (weights.getOrDefault(priority, 0) < 1) {
+                throw new IllegalArgumentException("The weight for " + priority + " should be positive");
+            }
+        }
+
+        credit = weights.get(ORDER[0]);
+    }
+
+    /**
+     * Returns the default weight of each lane.
+     *
+     * @return the default weights
+     */
+    public static final Map<Priority, Integer> defaultWeights() {
+        final Map<Priority, Integer> defaults;
+
+        defaults = new EnumMap<>(Priority.class);
+        for (final Priority priority : Priority.values()) {
+            defaults.put(priority, priority.getDefaultWeight());
+        }
+
+        return defaults;
+    }
+
+    /**
+     * Tells if all the lanes are empty.
+     *
+     * @return {@code true} if all the lanes are empty
+     */
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the element to the lane for its priority, if the lane is not full.
+     *
+     * @param element
+     *            element to add
+     * @param priority
+     *            element priority
+     * @return {@code true} if the element was added, {@code false} if its lane is full
+     */
+    public final boolean offer(final T element, final Priority priority) {
+        final Queue<T> lane;
+        final boolean  added;
+
+        lane = lanes.get(priority);
+        if (lane.size() < capacity) {
+            lane.add(element);
+            size++;
+            added = true;
+        } else {
+            added = false;
+        }
+
+        return added;
+    }
+
+    /**
+     * Takes the next element. The current lane is polled while it has credit for this round, and then the next lane
+     * with elements is chosen.
+     *
+     * @return the next element, or {@code null} if all the lanes are empty
+     */
+    public final T poll() {
+        Queue<T> lane;
+        T        element;
+
+        element = null;
+        if (size > 0) {
+            lane = lanes.get(ORDER[current]);
+            // Moves to the next lane when this one is spent, or has nothing left
+            while ((credit == 0) || lane.isEmpty()) {
+                current = (current + 1) % ORDER.length;
+                credit = weights.get(ORDER[current]);
+                lane = lanes.get(ORDER[current]);
+            }
+
+            element = lane.poll();
+            credit--;
+            size--;
+        }
+
+        return element;
+    }
+
+    /**
+     * Removes all the elements, and returns them. Higher priorities come first.
+     *
+     * @return all the elements which were in the lanes
+     */
+    public final List<T> removeAll() {
+        final List<T> removed;
+
+        removed = new ArrayList<>(size);
+        for (final Priority priority : ORDER) {
+            removed.addAll(lanes.get(priority));
+            lanes.get(priority)
+                .clear();
+        }
+        size = 0;
+
+        return removed;
+    }
+
+    /**
+     * Returns the number of elements across all the lanes.
+     *
+     * @return the number of elements
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of elements in the lane for the priority.
+     *
+     * @param priority
+     *            lane priority
+     * @return the number of elements in the lane
+     */
+    public final int size(final Priority priority) {
+        return lanes.get(priority)
+            .size();
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.priority;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+
+import io.netty.buffer.ByteBuf;
+import reactor.core.publisher.Mono;
+
+/**
+ * Client which mixes high priority messages into bulk traffic. A fixed fraction of the messages is sent as
+ * {@link Priority#HIGH}, spread evenly, and the rest as {@link Priority#BULK}.
+ * <p>
+ * Messages sent with an explicit priority keep it.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class PriorityMixClient implements Client {
+
+    /**
+     * Wrapped client.
+     */
+    private final Client     client;
+
+    /**
+     * Fraction of the messages sent as high priority.
+     */
+    private final double     highRatio;
+
+    /**
+     * Messages sent until now.
+     */
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * Constructs a client which sends the received fraction of messages as high priority.
+     *
+     * @param clnt
+     *            wrapped client
+     * @param ratio
+     *            fraction of the messages sent as high priority, between 0 and 1
+     */
+    public PriorityMixClient(final Client clnt, final double ratio) {
+        super();
+
+        client = Objects.requireNonNull(clnt);
+        highRatio = ratio;
+    }
+
+    @Override
+    public final void close() {
+        client.close();
+    }
+
+    @Override
+    public final void connect() {
+        client.connect();
+    }
+
+    @Override
+    public final Mono<String> exchange(final String message) {
+        return client.exchange(message, nextPriority());
+    }
+
+    @Override
+    public final Mono<String> exchange(final String message, final Priority priority) {
+        return client.exchange(message, priority);
+    }
+
+    @Override
+    public final void request(final ByteBuf payload) {
+        client.request(payload, nextPriority());
+    }
+
+    @Override
+    public final void request(final ByteBuf payload, final Priority priority) {
+        client.request(payload, priority);
+    }
+
+    @Override
+    public final void request(final String message) {
+        client.request(message, nextPriority());
+    }
+
+    @Override
+    public final void request(final String message, final Priority priority) {
+        client.request(message, priority);
+    }
+
+    /**
+     * Returns the priority for the next message. A message is high priority each time the accumulated ratio reaches a
+     * new unit, so they are evenly spread.
+     *
+     * @return the priority for the next message
+     */
+    private final Priority nextPriority() {
+        final long     index;
+        final Priority priority;
+
+        index = sent.getAndIncrement();
+        if ((long) ((index + 1) * highRatio) > (long) (index * highRatio)) {
+            priority = Priority.HIGH;
+        } else {
+            priority = Priority.BULK;
+        }
+
+        return priority;
+    }
+
+}
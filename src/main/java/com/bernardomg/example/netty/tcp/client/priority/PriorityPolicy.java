@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.priority;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Priority lanes configuration. Each connection gets its own lanes, built from this policy.
+ * <p>
+ * Requests are held in the lanes not only while over the concurrency limit, but also while the connection is
+ * unwritable, so bulk traffic filling the socket doesn't delay the requests with more priority.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class PriorityPolicy {
+
+    /**
+     * Default maximum requests in each lane.
+     */
+    public static final int              DEFAULT_CAPACITY = 10_000;
+
+    /**
+     * Maximum requests in each lane.
+     */
+    private int                          capacity         = DEFAULT_CAPACITY;
+
+    /**
+     * Weight of each lane.
+     */
+    private final Map<Priority, Integer> weights          = PriorityLanes.defaultWeights();
+
+    /**
+     * Default constructor.
+     */
+    public PriorityPolicy() {
+        super();
+    }
+
+    /**
+     * Returns the maximum requests in each lane.
+     *
+     * @return the maximum requests in each lane
+     */
+    public final int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the weight of each lane.
+     *
+     * @return the weight of each lane
+     */
+    public final Map<Priority, Integer> getWeights() {
+        return new EnumMap<>(weights);
+    }
+
+    /**
+     * Builds new lanes following this policy.
+     *
+     * @param <T>
+     *            type of the queued elements
+     * @return new lanes
+     */
+    public final <T> PriorityLanes<T> newLanes() {
+        return new PriorityLanes<>(capacity, weights);
+    }
+
+    /**
+     * Sets the maximum requests in each lane.
+     *
+     * @param cpcty
+     *            maximum requests in each lane
+     */
+    public final void setCapacity(final int cpcty) {
+        capacity = cpcty;
+    }
+
+    /**
+     * Sets the weight of a lane. This is how many of its requests are written in each round.
+     *
+     * @param priority
+     *            lane priority
+     * @param weight
+     *            lane weight, should be positive
+     */
+    public final void setWeight(final Priority priority, final int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("The weight for " + priority + " should be positive");
+        }
+        weights.put(Objects.requireNonNull(priority), weight);
+    }
+
+}
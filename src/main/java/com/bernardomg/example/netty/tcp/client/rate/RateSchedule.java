@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.rate;
+
+import java.time.Duration;
+
+/**
+ * Message rate over time. Allows ramping up the load, for capacity tests.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public interface RateSchedule {
+
+    /**
+     * Returns a constant rate.
+     *
+     * @param rate
+     *            messages per second
+     * @return a constant rate schedule
+     */
+    public static RateSchedule constant(final double rate) {
+        checkRate(rate);
+
+        return elapsed -> rate;
+    }
+
+    /**
+     * Returns a rate which grows linearly during the ramp, and then stays constant.
+     *
+     * @param from
+     *            messages per second at the start of the ramp
+     * @param to
+     *            messages per second at the end of the ramp
+     * @param duration
+     *            ramp duration
+     * @return a linear ramp schedule
+     */
+    public static RateSchedule linear(final double from, final double to, final Duration duration) {
+        final long length;
+
+        checkRate(from);
+        checkRate(to);
+        length = duration.toNanos();
+
+        return elapsed -> {
+            final double rate;
+
+            if (elapsed >= length) {
+                rate = to;
+            } else {
+                rate = from + (((to - from) * elapsed) / length);
+            }
+
+            return rate;
+        };
+    }
+
+    /**
+     * Returns a rate which grows in equal steps during the ramp, and then stays constant. The first step starts at
+     * the initial rate, and the last one reaches the final rate. A ramp with no duration starts at the final rate.
+     *
+     * @param from
+     *            messages per second at the start of the ramp
+     * @param to
+     *            messages per second at the end of the ramp
+     * @param duration
+     *            ramp duration
+     * @param steps
+     *            number of steps
+     * @return a step ramp schedule
+     */
+    public static RateSchedule steps(final double from, final double to, final Duration duration, final int steps) {
+        final long   length;
+        final long   stepLength;
+        final double increment;
+
+        checkRate(from);
+        checkRate(to);
+        if (steps < 2) {
+            throw new IllegalArgumentException("At least two steps are required, received " + steps);
+        }
+        length = duration.toNanos();
+        // A ramp shorter than its steps still takes a nanosecond for each step
+        stepLength = Math.max(1, length / steps);
+        increment = (to - from) / (steps - 1);
+
+        return elapsed -> {
+            final double rate;
+
+            if (elapsed >= length) {
+                rate = to;
+            } else {
+                // The remainder of the division is added to the last step
+                rate = from + (increment * Math.min(steps - 1, elapsed / stepLength));
+            }
+
+            return rate;
+        };
+    }
+
+    /**
+     * Checks the rate is valid.
+     *
+     * @param rate
+     *            rate to check
+     */
+    private static void checkRate(final double rate) {
+        if (rate < 0) {
+            throw new IllegalArgumentException("The rate can't be negative, received " + rate);
+        }
+    }
+
+    /**
+     * Returns the rate at the received time.
+     *
+     * @param elapsed
+     *            nanoseconds since the start
+     * @return messages per second
+     */
+    public double getRate(final long elapsed);
+
+}
@@ -0,0 +1,130 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.rate;
+
+import java.util.Objects;
+
+/**
+ * Token bucket which tells when each message can be sent, instead of waiting for it. This way the caller decides how
+ * to wait, such as scheduling the message on an event loop.
+ * <p>
+ * Tokens are not actually stored. Instead it keeps the time at which the next message is due, which moves forward by
+ * one interval for each message. After an idle period the due time may fall behind, up to the burst, and that number
+ * of messages is allowed at once. As each message moves the due time exactly, the rate stays accurate no matter how
+ * high it is.
+ * <p>
+ * The interval is taken from the schedule at the due time, so the rate can change along the test. Rates under
+ * {@value #MIN_RATE} messages per second are raised to it, so a ramp starting at zero doesn't stall.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class TokenBucket {
+
+    /**
+     * Minimum rate, in messages per second.
+     */
+    public static final double MIN_RATE = 1;
+
+    /**
+     * Messages allowed at once after an idle period.
+     */
+    private final int          burst;
+
+    /**
+     * Time at which the next message is due, in nanoseconds.
+     */
+    private long               due;
+
+    /**
+     * Rate schedule.
+     */
+    private final RateSchedule schedule;
+
+    /**
+     * Start time, in nanoseconds. Set by the first message.
+     */
+    private long               start;
+
+    /**
+     * Tells if the bucket has started.
+     */
+    private boolean            started;
+
+    /**
+     * Constructs a token bucket with the received schedule and burst.
+     *
+     * @param sched
+     *            rate schedule
+     * @param bst
+     *            messages allowed at once after an idle period
+     */
+    public TokenBucket(final RateSchedule sched, final int bst) {
+        super();
+
+        if (bst < 1) {
+            throw new IllegalArgumentException("The burst should be positive, received " + bst);
+        }
+
+        schedule = Objects.requireNonNull(sched);
+        burst = bst;
+    }
+
+    /**
+     * Takes a token, and returns the time at which it can be used. This may be in the past, in which case the
+     * message can be sent right away.
+     *
+     * @return the time at which the message can be sent, as given by {@link System#nanoTime()}
+     */
+    public final synchronized long reserve() {
+        final long now;
+        final long interval;
+        final long earliest;
+        final long sendTime;
+
+        now = System.nanoTime();
+        if (!started) {
+            start = now;
+            due = now;
+        }
+
+        interval = (long) (1_000_000_000L / Math.max(MIN_RATE, schedule.getRate(Math.max(due, now) - start)));
+
+        // Unused tokens are kept up to the burst
+        // The bucket starts full
+        earliest = now - ((burst - 1) * interval);
+        if ((!started) || (due < earliest)) {
+            due = earliest;
+            started = true;
+        }
+
+        sendTime = due;
+        due += interval;
+
+        return sendTime;
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.resolve;
+
+import java.net.Inet6Address;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.resolver.ResolvedAddressTypes;
+
+/**
+ * Preference between IPv4 and IPv6 addresses. Tells which families are used, and which one is tried first.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public enum AddressPreference {
+
+    /**
+     * Only IPv4 addresses.
+     */
+    IPV4_ONLY(ResolvedAddressTypes.IPV4_ONLY),
+    /**
+     * IPv4 addresses first, then IPv6 addresses.
+     */
+    IPV4_PREFERRED(ResolvedAddressTypes.IPV4_PREFERRED),
+    /**
+     * Only IPv6 addresses.
+     */
+    IPV6_ONLY(ResolvedAddressTypes.IPV6_ONLY),
+    /**
+     * IPv6 addresses first, then IPv4 addresses.
+     */
+    IPV6_PREFERRED(ResolvedAddressTypes.IPV6_PREFERRED);
+
+    /**
+     * Netty address types for the preference.
+     */
+    private final ResolvedAddressTypes addressTypes;
+
+    /**
+     * Constructs a preference for the received Netty address types.
+     *
+     * @param types
+     *            Netty address types
+     */
+    private AddressPreference(final ResolvedAddressTypes types) {
+        addressTypes = types;
+    }
+
+    /**
+     * Returns the Netty address types for the preference.
+     *
+     * @return the Netty address types
+     */
+    public final ResolvedAddressTypes getAddressTypes() {
+        return addressTypes;
+    }
+
+    /**
+     * Tells if only the preferred family is used.
+     *
+     * @return {@code true} if the other family is discarded
+     */
+    public final boolean isExclusive() {
+        return (this == IPV4_ONLY) || (this == IPV6_ONLY);
+    }
+
+    /**
+     * Tells if IPv6 is the preferred family.
+     *
+     * @return {@code true} if IPv6 is preferred
+     */
+    public final boolean isIpv6First() {
+        return (this == IPV6_ONLY) || (this == IPV6_PREFERRED);
+    }
+
+    /**
+     * Orders the addresses by the preference. Addresses from the other family are discarded when the preference is
+     * exclusive. Otherwise both families are interleaved, starting with the preferred one, so a connection attempt
+     * which fails falls back to the other family. Unresolved addresses are kept along the preferred ones.
+     *
+     * @param addresses
+     *            addresses to order
+     * @return the ordered addresses
+     */
+    public final List<InetSocketAddress> order(final List<InetSocketAddress> addresses) {
+        final List<InetSocketAddress> preferred;
+        final List<InetSocketAddress> others;
+        final List<InetSocketAddress> ordered;
+
+        preferred = new ArrayList<>();
+        others = new ArrayList<>();
+        for (final InetSocketAddress address : addresses) {
+            if (address.isUnresolved() || ((address.getAddress() instanceof Inet6Address) == isIpv6First())) {
+                preferred.add(address);
+            } else if (!isExclusive()) {
+                others.add(address);
+            }
+        }
+
+        ordered = new ArrayList<>(preferred.size() + others.size());
+        for (int i = 0; i < Math.max(preferred.size(), others.size()); i++) {
+            if (i < preferred.size()) {
+                ordered.add(preferred.get(i));
+            }
+            if (i < others.size()) {
+                ordered.add(others.get(i));
+            }
+        }
+
+        return ordered;
+    }
+
+}
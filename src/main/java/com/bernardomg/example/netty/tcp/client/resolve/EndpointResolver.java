@@ -0,0 +1,483 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.resolve;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.handler.codec.dns.DefaultDnsQuestion;
+import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.resolver.DefaultHostsFileEntriesResolver;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.NoopDnsCache;
+import io.netty.resolver.dns.NoopDnsCnameCache;
+import io.netty.resolver.dns.SingletonDnsServerAddressStreamProvider;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Resolves the server host into the addresses for the connections, following a resolver policy. The addresses are
+ * resolved when starting, and afterwards they are always taken from memory, so opening connections never waits for
+ * the resolution.
+ * <p>
+ * With the DNS resolver the addresses are kept for the time to live of their records, bounded by the policy. They are
+ * refreshed in the background before they expire, so they are never stale while the name servers answer. If a
+ * refresh fails, then the last addresses are kept, and the refresh is tried again after the negative time to live.
+ * <p>
+ * Addresses are ordered by the address preference, ready for the happy eyeballs connection attempts.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class EndpointResolver implements AutoCloseable {
+
+    /**
+     * Addresses resolved in a DNS query, along their time to live.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    private static final class Resolution {
+
+        /**
+         * Empty resolution, for a family without addresses.
+         */
+        private static final Resolution       EMPTY = new Resolution(List.of(), Long.MAX_VALUE);
+
+        /**
+         * Addresses resolved.
+         */
+        private final List<InetSocketAddress> addresses;
+
+        /**
+         * Lowest time to live among the records, in seconds.
+         */
+        private final long                    ttl;
+
+        /**
+         * Constructs a resolution.
+         *
+         * @param addrs
+         *            addresses resolved
+         * @param tl
+         *            lowest time to live among the records, in seconds
+         */
+        private Resolution(final List<InetSocketAddress> addrs, final long tl) {
+            super();
+
+            addresses = addrs;
+            ttl = tl;
+        }
+
+        /**
+         * Joins this resolution with another one.
+         *
+         * @param other
+         *            resolution to join
+         * @return a resolution with the addresses of both
+         */
+        private final Resolution join(final Resolution other) {
+            final List<InetSocketAddress> joined;
+
+            joined = new ArrayList<>(addresses);
+            joined.addAll(other.addresses);
+
+            return new Resolution(joined, Math.min(ttl, other.ttl));
+        }
+
+    }
+
+    /**
+     * Fraction of the time to live after which the addresses are refreshed.
+     */
+    private static final double              REFRESH_RATIO = 0.8;
+
+    /**
+     * Resolved addresses, ordered by preference.
+     */
+    private volatile List<InetSocketAddress> addresses;
+
+    /**
+     * Closed flag. Once active, no more refreshes are scheduled.
+     */
+    private volatile boolean                 closed;
+
+    /**
+     * DNS resolver. Only used with the DNS resolver type.
+     */
+    private DnsNameResolver                  dnsResolver;
+
+    /**
+     * Host to resolve.
+     */
+    private final String                     host;
+
+    /**
+     * Event loop for the DNS queries and the refreshes. Only used with the DNS resolver type.
+     */
+    private EventLoop                        loop;
+
+    /**
+     * Resolution policy.
+     */
+    private final ResolverPolicy             policy;
+
+    /**
+     * Port for the addresses.
+     */
+    private final int                        port;
+
+    /**
+     * Next scheduled refresh. Is {@code null} until one is scheduled.
+     */
+    private volatile ScheduledFuture<?>      refresh;
+
+    /**
+     * Constructs a resolver for the host.
+     *
+     * @param hst
+     *            host to resolve
+     * @param prt
+     *            port for the addresses
+     * @param plcy
+     *            resolution policy
+     */
+    public EndpointResolver(final String hst, final int prt, final ResolverPolicy plcy) {
+        super();
+
+        host = Objects.requireNonNull(hst);
+        port = prt;
+        policy = Objects.requireNonNull(plcy);
+    }
+
+    @Override
+    public final void close() {
+        closed = true;
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+        if (dnsResolver != null) {
+            dnsResolver.close();
+        }
+    }
+
+    /**
+     * Returns the addresses for the host, ordered by preference. This never waits for a resolution.
+     *
+     * @return the addresses for the host
+     */
+    public final List<InetSocketAddress> getAddresses() {
+        return addresses;
+    }
+
+    /**
+     * Resolves the host for the first time, waiting for it. With the DNS resolver, the DNS queries run on the event
+     * loops, and the refreshes are scheduled on them.
+     *
+     * @param loops
+     *            event loops for the DNS queries
+     */
+    public final void start(final LoopResources loops) {
+        switch (policy.getType()) {
+            case DNS:
+                startDns(loops);
+                break;
+            case STATIC:
+                if (policy.getStaticAddresses()
+                    .isEmpty()) {
+                    throw new IllegalStateException("The static resolver requires at least one address");
+                }
+                addresses = policy.getPreference()
+                    .order(policy.getStaticAddresses()
+                        .stream()
+                        .map(this::resolveStatic)
+                        .collect(Collectors.toList()));
+                break;
+            case JVM:
+            default:
+                addresses = policy.getPreference()
+                    .order(resolveWithJvm());
+                break;
+        }
+
+        if (addresses.isEmpty()) {
+            throw new IllegalStateException(
+                "No address for " + host + " with the " + policy.getPreference() + " preference");
+        }
+
+        log.debug("Resolved {} to {}", host, addresses);
+    }
+
+    /**
+     * Stores the addresses of a DNS resolution, and schedules their refresh before the time to live expires.
+     *
+     * @param resolution
+     *            DNS resolution
+     */
+    private final void onResolved(final Resolution resolution) {
+        final long ttl;
+
+        ttl = Math.max(policy.getMinTtl()
+            .toMillis(),
+            Math.min(policy.getMaxTtl()
+                .toMillis(), TimeUnit.SECONDS.toMillis(resolution.ttl)));
+        addresses = policy.getPreference()
+            .order(resolution.addresses);
+        log.debug("Resolved {} to {}, valid for {} ms", host, addresses, ttl);
+
+        scheduleRefresh((long) (ttl * REFRESH_RATIO));
+    }
+
+    /**
+     * Keeps the last addresses after a failed DNS resolution, and schedules a new try after the negative time to live.
+     *
+     * @param error
+     *            resolution error
+     */
+    private final void onResolveFailed(final Throwable error) {
+        log.warn("Could not resolve {}, trying again in {} ms: {}", host, policy.getNegativeTtl()
+            .toMillis(), error.getMessage());
+
+        scheduleRefresh(policy.getNegativeTtl()
+            .toMillis());
+    }
+
+    /**
+     * Queries the DNS for the addresses of the host, for all the families allowed by the preference.
+     *
+     * @return the DNS resolution
+     */
+    private final Mono<Resolution> query() {
+        final Mono<Resolution> ipv4;
+        final Mono<Resolution> ipv6;
+        final Mono<Resolution> resolution;
+
+        if (policy.getPreference() == AddressPreference.IPV4_ONLY) {
+            resolution = query(DnsRecordType.A);
+        } else if (policy.getPreference() == AddressPreference.IPV6_ONLY) {
+            resolution = query(DnsRecordType.AAAA);
+        } else {
+            // A family without records shouldn't hide the other one
+            ipv4 = query(DnsRecordType.A).onErrorReturn(Resolution.EMPTY);
+            ipv6 = query(DnsRecordType.AAAA).onErrorReturn(Resolution.EMPTY);
+            resolution = ipv4.zipWith(ipv6, Resolution::join)
+                .filter(r -> !r.addresses.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new UnknownHostException("No address found for " + host)));
+        }
+
+        return resolution;
+    }
+
+    /**
+     * Queries the DNS for the records of the received type.
+     *
+     * @param type
+     *            record type, A or AAAA
+     * @return the DNS resolution
+     */
+    private final Mono<Resolution> query(final DnsRecordType type) {
+        return Mono.create(sink -> dnsResolver.resolveAll(new DefaultDnsQuestion(host, type))
+            .addListener(future -> {
+                if (future.isSuccess()) {
+                    @SuppressWarnings("unchecked")
+                    final List<DnsRecord> records = (List<DnsRecord>) future.getNow();
+
+                    sink.success(toResolution(records, type));
+                } else {
+                    sink.error(future.cause());
+                }
+            }));
+    }
+
+    /**
+     * Queries the DNS again, outside of the connections.
+     */
+    private final void refresh() {
+        query().subscribe(this::onResolved, this::onResolveFailed);
+    }
+
+    /**
+     * Resolves a static address. Those given by name are resolved once by the JVM.
+     *
+     * @param address
+     *            address to resolve
+     * @return the resolved address
+     */
+    private final InetSocketAddress resolveStatic(final InetSocketAddress address) {
+        final InetSocketAddress resolved;
+
+        if (address.isUnresolved()) {
+            resolved = new InetSocketAddress(address.getHostString(), address.getPort());
+        } else {
+            resolved = address;
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Resolves the host with the JVM. If it can't be resolved, then an unresolved address is returned, which is
+     * resolved again on each connection.
+     *
+     * @return the addresses for the host
+     */
+    private final List<InetSocketAddress> resolveWithJvm() {
+        List<InetSocketAddress> resolved;
+
+        try {
+            resolved = Arrays.stream(InetAddress.getAllByName(host))
+                .map(address -> new InetSocketAddress(address, port))
+                .collect(Collectors.toList());
+        } catch (final UnknownHostException e) {
+            log.warn("Could not resolve {}, it will be resolved on each connection", host);
+            resolved = List.of(InetSocketAddress.createUnresolved(host, port));
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Schedules a refresh of the addresses, unless closed.
+     *
+     * @param delay
+     *            milliseconds until the refresh
+     */
+    private final void scheduleRefresh(final long delay) {
+        if (!closed) {
+            refresh = loop.schedule(this::refresh, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Builds the DNS resolver, and queries the addresses for the first time. IP addresses and names in the hosts file
+     * are never queried. If the first query fails, then the host is resolved by the JVM, and the DNS is tried again
+     * later.
+     *
+     * @param loops
+     *            event loops for the DNS queries
+     */
+    private final void startDns(final LoopResources loops) {
+        final EventLoopGroup         group;
+        final DnsNameResolverBuilder builder;
+        final Duration               timeout;
+        final List<InetAddress>      hostsEntries;
+
+        hostsEntries = new DefaultHostsFileEntriesResolver().addresses(host, policy.getPreference()
+            .getAddressTypes());
+        if (NetUtil.isValidIpV4Address(host) || NetUtil.isValidIpV6Address(host)) {
+            addresses = policy.getPreference()
+                .order(List.of(new InetSocketAddress(NetUtil.createInetAddressFromIpAddressString(host), port)));
+        } else if ((hostsEntries != null) && !hostsEntries.isEmpty()) {
+            addresses = policy.getPreference()
+                .order(hostsEntries.stream()
+                    .map(address -> new InetSocketAddress(address, port))
+                    .collect(Collectors.toList()));
+        } else {
+            group = loops.onClient(LoopResources.DEFAULT_NATIVE);
+            loop = group.next();
+            // The addresses are cached here, so each refresh reaches the name servers
+            builder = new DnsNameResolverBuilder(loop).channelType(loops.onChannelClass(DatagramChannel.class, group))
+                .resolveCache(NoopDnsCache.INSTANCE)
+                .cnameCache(NoopDnsCnameCache.INSTANCE)
+                .queryTimeoutMillis(policy.getQueryTimeout()
+                    .toMillis())
+                .resolvedAddressTypes(policy.getPreference()
+                    .getAddressTypes());
+            if (policy.getNameServer() != null) {
+                builder.nameServerProvider(new SingletonDnsServerAddressStreamProvider(policy.getNameServer()));
+            }
+            dnsResolver = builder.build();
+
+            // Enough for the search domains and a retry. Taking longer is a failure, so the JVM resolves the host
+            timeout = policy.getQueryTimeout()
+                .multipliedBy(4);
+            query().timeout(timeout)
+                .doOnNext(this::onResolved)
+                .onErrorResume(e -> {
+                    onResolveFailed(e);
+                    return Mono.empty();
+                })
+                .block();
+            if (addresses == null) {
+                addresses = policy.getPreference()
+                    .order(resolveWithJvm());
+            }
+        }
+    }
+
+    /**
+     * Reads the addresses in the records, and releases them.
+     *
+     * @param records
+     *            records to read
+     * @param type
+     *            record type, A or AAAA
+     * @return the DNS resolution
+     */
+    private final Resolution toResolution(final List<DnsRecord> records, final DnsRecordType type) {
+        final List<InetSocketAddress> resolved;
+        long                          ttl;
+        InetAddress                   address;
+
+        resolved = new ArrayList<>(records.size());
+        ttl = Long.MAX_VALUE;
+        for (final DnsRecord record : records) {
+            try {
+                if ((record instanceof DnsRawRecord) && type.equals(record.type())) {
+                    address = InetAddress.getByAddress(host, ByteBufUtil.getBytes(((DnsRawRecord) record).content()));
+                    resolved.add(new InetSocketAddress(address, port));
+                    ttl = Math.min(ttl, record.timeToLive());
+                }
+            } catch (final UnknownHostException e) {
+                log.warn("Ignoring malformed {} record for {}", type, host);
+            } finally {
+                ReferenceCountUtil.release(record);
+            }
+        }
+
+        return new Resolution(resolved, ttl);
+    }
+
+}
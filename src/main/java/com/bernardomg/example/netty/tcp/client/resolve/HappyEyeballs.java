@@ -0,0 +1,142 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.resolve;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Staggered connection attempts through several addresses, following the happy eyeballs algorithm. The first address
+ * is tried, and each following address is tried once the previous attempt fails, or after a delay without it
+ * connecting. The first attempt to connect wins, and the rest are cancelled.
+ * <p>
+ * With the addresses interleaved by family, a family which is slow or unreachable doesn't hold the connections back.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class HappyEyeballs {
+
+    /**
+     * Connects through the first address which allows it.
+     * <p>
+     * If all the attempts fail, then the error of the last one is returned.
+     *
+     * @param <T>
+     *            type of the connection
+     * @param addresses
+     *            addresses to try, in order
+     * @param connector
+     *            opens a connection to an address
+     * @param delay
+     *            delay before trying the next address, zero to try it only after a failure
+     * @return the first connection opened
+     */
+    public static final <T> Mono<T> connect(final List<InetSocketAddress> addresses,
+            final Function<InetSocketAddress, Mono<T>> connector, final Duration delay) {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("At least one address is required");
+        }
+
+        return attempt(addresses, 0, connector, delay).onErrorMap(HappyEyeballs::lastError);
+    }
+
+    /**
+     * Tries the address at the index, and schedules the attempt for the next one.
+     *
+     * @param <T>
+     *            type of the connection
+     * @param addresses
+     *            addresses to try, in order
+     * @param index
+     *            index of the address to try
+     * @param connector
+     *            opens a connection to an address
+     * @param delay
+     *            delay before trying the next address, zero to try it only after a failure
+     * @return the first connection opened, from this address or the following ones
+     */
+    private static final <T> Mono<T> attempt(final List<InetSocketAddress> addresses, final int index,
+            final Function<InetSocketAddress, Mono<T>> connector, final Duration delay) {
+        final Mono<T>           current;
+        final Sinks.Empty<Void> failed;
+        final Mono<Void>        trigger;
+        final Mono<T>           result;
+
+        current = Mono.defer(() -> connector.apply(addresses.get(index)));
+        if (index == (addresses.size() - 1)) {
+            result = current;
+        } else {
+            failed = Sinks.empty();
+            if (delay.isZero()) {
+                trigger = failed.asMono();
+            } else {
+                trigger = Mono.firstWithSignal(Mono.delay(delay)
+                    .then(), failed.asMono());
+            }
+            // A failure starts the next attempt right away
+            result = Mono.firstWithValue(current.doOnError(e -> failed.tryEmitEmpty()),
+                trigger.then(Mono.defer(() -> attempt(addresses, index + 1, connector, delay))));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the error of the last attempt. Racing the attempts joins their errors, nested by each attempt, so this
+     * takes the last one at the deepest level.
+     *
+     * @param error
+     *            error of the attempts
+     * @return the error of the last attempt
+     */
+    private static final Throwable lastError(final Throwable error) {
+        List<Throwable> joined;
+        Throwable       last;
+
+        last = error;
+        while ((last instanceof NoSuchElementException) && Exceptions.isMultiple(last.getCause())) {
+            joined = Exceptions.unwrapMultiple(last.getCause());
+            last = joined.get(joined.size() - 1);
+        }
+
+        return last;
+    }
+
+    /**
+     * Utility class.
+     */
+    private HappyEyeballs() {
+        super();
+    }
+
+}
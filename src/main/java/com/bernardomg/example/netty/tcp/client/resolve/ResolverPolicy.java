@@ -0,0 +1,289 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.resolve;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Address resolution policy. Tells how the server host is resolved, how long the addresses are cached, and how
+ * connections go through them.
+ * <p>
+ * By default the host is resolved once by the JVM, preferring IPv4 addresses.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class ResolverPolicy {
+
+    /**
+     * Default delay between connection attempts to different addresses.
+     */
+    public static final Duration    DEFAULT_HAPPY_EYEBALLS_DELAY = Duration.ofMillis(250);
+
+    /**
+     * Delay between connection attempts to different addresses. Zero only moves to the next address after a failure.
+     */
+    private Duration                happyEyeballsDelay           = DEFAULT_HAPPY_EYEBALLS_DELAY;
+
+    /**
+     * Maximum time the DNS addresses are cached for, whatever their time to live.
+     */
+    private Duration                maxTtl                       = Duration.ofMinutes(5);
+
+    /**
+     * Minimum time the DNS addresses are cached for, whatever their time to live.
+     */
+    private Duration                minTtl                       = Duration.ofSeconds(1);
+
+    /**
+     * DNS server to query. If {@code null}, then the system name servers are used.
+     */
+    private InetSocketAddress       nameServer;
+
+    /**
+     * Time to wait before querying again after a failed DNS resolution.
+     */
+    private Duration                negativeTtl                  = Duration.ofSeconds(5);
+
+    /**
+     * Preference between IPv4 and IPv6 addresses.
+     */
+    private AddressPreference       preference                   = AddressPreference.IPV4_PREFERRED;
+
+    /**
+     * Maximum time to wait for each DNS query.
+     */
+    private Duration                queryTimeout                 = Duration.ofSeconds(5);
+
+    /**
+     * Addresses used instead of resolving the host, with the static resolver.
+     */
+    private List<InetSocketAddress> staticAddresses              = List.of();
+
+    /**
+     * Resolver type.
+     */
+    private ResolverType            type                         = ResolverType.JVM;
+
+    /**
+     * Default constructor.
+     */
+    public ResolverPolicy() {
+        super();
+    }
+
+    /**
+     * Returns the delay between connection attempts to different addresses. Zero if an address is only tried after
+     * the previous one failed.
+     *
+     * @return the delay between connection attempts
+     */
+    public final Duration getHappyEyeballsDelay() {
+        return happyEyeballsDelay;
+    }
+
+    /**
+     * Returns the maximum time the DNS addresses are cached for.
+     *
+     * @return the maximum time to live
+     */
+    public final Duration getMaxTtl() {
+        return maxTtl;
+    }
+
+    /**
+     * Returns the minimum time the DNS addresses are cached for.
+     *
+     * @return the minimum time to live
+     */
+    public final Duration getMinTtl() {
+        return minTtl;
+    }
+
+    /**
+     * Returns the DNS server to query. If {@code null}, then the system name servers are used.
+     *
+     * @return the DNS server, or {@code null} for the system ones
+     */
+    public final InetSocketAddress getNameServer() {
+        return nameServer;
+    }
+
+    /**
+     * Returns the time to wait before querying again after a failed DNS resolution.
+     *
+     * @return the negative time to live
+     */
+    public final Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    /**
+     * Returns the preference between IPv4 and IPv6 addresses.
+     *
+     * @return the address preference
+     */
+    public final AddressPreference getPreference() {
+        return preference;
+    }
+
+    /**
+     * Returns the maximum time to wait for each DNS query.
+     *
+     * @return the query timeout
+     */
+    public final Duration getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * Returns the addresses used instead of resolving the host, with the static resolver.
+     *
+     * @return the static addresses
+     */
+    public final List<InetSocketAddress> getStaticAddresses() {
+        return staticAddresses;
+    }
+
+    /**
+     * Returns the resolver type.
+     *
+     * @return the resolver type
+     */
+    public final ResolverType getType() {
+        return type;
+    }
+
+    /**
+     * Sets the delay between connection attempts to different addresses. If a connection attempt takes longer than
+     * this, the next address is tried along it, and the first one to connect is kept. Zero disables this, and an
+     * address is only tried after the previous one failed.
+     *
+     * @param delay
+     *            delay between connection attempts
+     */
+    public final void setHappyEyeballsDelay(final Duration delay) {
+        if (delay.isNegative()) {
+            throw new IllegalArgumentException("The happy eyeballs delay can't be negative, received " + delay);
+        }
+
+        happyEyeballsDelay = delay;
+    }
+
+    /**
+     * Sets the DNS server to query, instead of the system name servers.
+     *
+     * @param server
+     *            DNS server address
+     */
+    public final void setNameServer(final InetSocketAddress server) {
+        nameServer = server;
+    }
+
+    /**
+     * Sets the time to wait before querying again after a failed DNS resolution. Meanwhile the last addresses
+     * resolved are still used.
+     *
+     * @param ttl
+     *            negative time to live
+     */
+    public final void setNegativeTtl(final Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("The negative TTL should be positive, received " + ttl);
+        }
+
+        negativeTtl = ttl;
+    }
+
+    /**
+     * Sets the preference between IPv4 and IPv6 addresses.
+     *
+     * @param prfrnc
+     *            address preference
+     */
+    public final void setPreference(final AddressPreference prfrnc) {
+        preference = Objects.requireNonNull(prfrnc);
+    }
+
+    /**
+     * Sets the maximum time to wait for each DNS query.
+     *
+     * @param timeout
+     *            query timeout
+     */
+    public final void setQueryTimeout(final Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("The query timeout should be positive, received " + timeout);
+        }
+
+        queryTimeout = timeout;
+    }
+
+    /**
+     * Sets the addresses used instead of resolving the host, with the static resolver. Addresses given by name are
+     * resolved once by the JVM.
+     *
+     * @param addresses
+     *            static addresses
+     */
+    public final void setStaticAddresses(final List<InetSocketAddress> addresses) {
+        staticAddresses = List.copyOf(addresses);
+    }
+
+    /**
+     * Sets the bounds for the time the DNS addresses are cached for. The time to live of the records is kept between
+     * them.
+     *
+     * @param min
+     *            minimum time to live
+     * @param max
+     *            maximum time to live
+     */
+    public final void setTtl(final Duration min, final Duration max) {
+        if (min.isNegative() || min.isZero()) {
+            throw new IllegalArgumentException("The minimum TTL should be positive, received " + min);
+        }
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("The maximum TTL can't be below the minimum TTL, received " + max);
+        }
+
+        minTtl = min;
+        maxTtl = max;
+    }
+
+    /**
+     * Sets the resolver type.
+     *
+     * @param tp
+     *            resolver type
+     */
+    public final void setType(final ResolverType tp) {
+        type = Objects.requireNonNull(tp);
+    }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.socket;
+
+import java.util.Objects;
+
+/**
+ * Sample of the socket state for a connection. Kernel values come from {@code TCP_INFO}, and are only available with
+ * the epoll transport. Otherwise they are {@link #UNAVAILABLE}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class SocketStats {
+
+    /**
+     * Value for the kernel stats when they can't be read.
+     */
+    public static final long UNAVAILABLE = -1;
+
+    /**
+     * Connection id.
+     */
+    private final String     connection;
+
+    /**
+     * Congestion window, in segments.
+     */
+    private final long       congestionWindow;
+
+    /**
+     * Bytes waiting in the channel outbound buffer, not yet written into the socket.
+     */
+    private final long       pendingWriteBytes;
+
+    /**
+     * Total segments retransmitted.
+     */
+    private final long       retransmits;
+
+    /**
+     * Smoothed round trip time, in microseconds.
+     */
+    private final long       rtt;
+
+    /**
+     * Round trip time variance, in microseconds.
+     */
+    private final long       rttVariance;
+
+    /**
+     * Segments sent and not acknowledged.
+     */
+    private final long       unacked;
+
+    /**
+     * Channel writable flag.
+     */
+    private final boolean    writable;
+
+    /**
+     * Constructs a sample.
+     *
+     * @param conn
+     *            connection id
+     * @param rt
+     *            smoothed round trip time, in microseconds
+     * @param rtVar
+     *            round trip time variance, in microseconds
+     * @param retrans
+     *            total segments retransmitted
+     * @param cwnd
+     *            congestion window, in segments
+     * @param unack
+     *            segments not acknowledged
+     * @param pending
+     *            bytes waiting in the outbound buffer
+     * @param wrtbl
+     *            channel writable flag
+     */
+    public SocketStats(final String conn, final long rt, final long rtVar, final long retrans, final long cwnd,
+            final long unack, final long pending, final boolean wrtbl) {
+        super();
+
+        connection = Objects.requireNonNull(conn);
+        rtt = rt;
+        rttVariance = rtVar;
+        retransmits = retrans;
+        congestionWindow = cwnd;
+        unacked = unack;
+        pendingWriteBytes = pending;
+        writable = wrtbl;
+    }
+
+    /**
+     * Returns the congestion window, in segments.
+     *
+     * @return the congestion window
+     */
+    public final long getCongestionWindow() {
+        return congestionWindow;
+    }
+
+    /**
+     * Returns the connection id.
+     *
+     * @return the connection id
+     */
+    public final String getConnection() {
+        return connection;
+    }
+
+    /**
+     * Returns the bytes waiting in the channel outbound buffer.
+     *
+     * @return the bytes waiting to be written
+     */
+    public final long getPendingWriteBytes() {
+        return pendingWriteBytes;
+    }
+
+    /**
+     * Returns the total segments retransmitted.
+     *
+     * @return the total segments retransmitted
+     */
+    public final long getRetransmits() {
+        return retransmits;
+    }
+
+    /**
+     * Returns the smoothed round trip time, in microseconds.
+     *
+     * @return the round trip time
+     */
+    public final long getRtt() {
+        return rtt;
+    }
+
+    /**
+     * Returns the round trip time variance, in microseconds.
+     *
+     * @return the round trip time variance
+     */
+    public final long getRttVariance() {
+        return rttVariance;
+    }
+
+    /**
+     * Returns the segments sent and not acknowledged.
+     *
+     * @return the segments not acknowledged
+     */
+    public final long getUnacked() {
+        return unacked;
+    }
+
+    /**
+     * Returns if the kernel stats are available.
+     *
+     * @return {@code true} if the kernel stats are available, {@code false} otherwise
+     */
+    public final boolean isKernelAvailable() {
+        return rtt != UNAVAILABLE;
+    }
+
+    /**
+     * Returns the channel writable flag.
+     *
+     * @return {@code true} if the channel is writable, {@code false} otherwise
+     */
+    public final boolean isWritable() {
+        return writable;
+    }
+
+    @Override
+    public final String toString() {
+        return String.format("%s rtt %d us (var %d) | cwnd %d | unacked %d | retransmits %d | pending %d bytes%s",
+            connection, rtt, rttVariance, congestionWindow, unacked, retransmits, pendingWriteBytes,
+            writable ? "" : " | unwritable");
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.socket;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.epoll.EpollTcpInfo;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * Samples the socket state of a channel periodically, and sends it to the listener. Samples are taken in the channel
+ * event loop, so the outbound buffer can be read safely. The kernel stats are read with a single system call.
+ * <p>
+ * Stops by itself when the channel is closed.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class SocketStatsSampler implements Runnable {
+
+    /**
+     * Channel to sample.
+     */
+    private final Channel             channel;
+
+    /**
+     * Kernel stats holder. Reused for each sample. Is {@code null} if the stats are not available.
+     */
+    private final EpollTcpInfo        info;
+
+    /**
+     * Transaction listener. Receives the samples.
+     */
+    private final TransactionListener listener;
+
+    /**
+     * Scheduled samples.
+     */
+    private ScheduledFuture<?>        task;
+
+    /**
+     * Constructs a sampler for the channel.
+     *
+     * @param chnnl
+     *            channel to sample
+     * @param lst
+     *            transaction listener
+     */
+    public SocketStatsSampler(final Channel chnnl, final TransactionListener lst) {
+        super();
+
+        channel = Objects.requireNonNull(chnnl);
+        listener = Objects.requireNonNull(lst);
+
+        if (channel instanceof EpollSocketChannel) {
+            info = new EpollTcpInfo();
+        } else {
+            info = null;
+        }
+    }
+
+    @Override
+    public final void run() {
+        if (channel.isActive()) {
+            listener.onSocketStats(sample());
+        } else {
+            task.cancel(false);
+        }
+    }
+
+    /**
+     * Takes a sample of the channel socket. Should be called from the channel event loop.
+     *
+     * @return a sample of the socket
+     */
+    public final SocketStats sample() {
+        final ChannelOutboundBuffer outbound;
+        final long                  pending;
+        final SocketStats           stats;
+
+        outbound = channel.unsafe()
+            .outboundBuffer();
+        if (outbound == null) {
+            pending = 0;
+        } else {
+            pending = outbound.totalPendingWriteBytes();
+        }
+
+        if (info == null) {
+            stats = new SocketStats(channel.id()
+                .asShortText(), SocketStats.UNAVAILABLE, SocketStats.UNAVAILABLE, SocketStats.UNAVAILABLE,
+                SocketStats.UNAVAILABLE, SocketStats.UNAVAILABLE, pending, channel.isWritable());
+        } else {
+            ((EpollSocketChannel) channel).tcpInfo(info);
+            stats = new SocketStats(channel.id()
+                .asShortText(), info.rtt(), info.rttvar(), info.totalRetrans(), info.sndCwnd(), info.unacked(),
+                pending, channel.isWritable());
+        }
+
+        return stats;
+    }
+
+    /**
+     * Starts sampling in the channel event loop.
+     *
+     * @param interval
+     *            milliseconds between samples
+     */
+    public final void start(final long interval) {
+        task = channel.eventLoop()
+            .scheduleAtFixedRate(this, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.client.socket;
+
+import java.util.Objects;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Sends the channel writability changes to the listener. The channel becomes unwritable when its outbound buffer goes
+ * over the high water mark, which means the socket is not taking data as fast as it is written.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class WritabilityListenerHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * Transaction listener. Receives the writability changes.
+     */
+    private final TransactionListener listener;
+
+    /**
+     * Constructs a handler for the listener.
+     *
+     * @param lst
+     *            transaction listener
+     */
+    public WritabilityListenerHandler(final TransactionListener lst) {
+        super();
+
+        listener = Objects.requireNonNull(lst);
+    }
+
+    @Override
+    public final void channelWritabilityChanged(final ChannelHandlerContext ctx) throws Exception {
+        listener.onWritabilityChange(ctx.channel()
+            .isWritable());
+
+        super.channelWritabilityChanged(ctx);
+    }
+
+}
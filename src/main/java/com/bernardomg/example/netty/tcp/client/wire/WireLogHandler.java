@@ -0,0 +1,262 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.client.wire;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Logs a sample of the reads and writes of a channel, as a JSON line for each, into the wire logger. Unlike the Netty
+ * wiretap, which hex dumps every byte, this keeps only a short preview of each sampled event, so it can be used under
+ * load.
+ * <p>
+ * Each event tells the channel, the direction, its sequence number in that direction, the size and a preview of the
+ * contents. Gaps in the sequence numbers are the events left out of the sample. Opening and closing the channel are
+ * always logged.
+ * <p>
+ * The wire logger is asynchronous, and drops events when its queue is full, so logging never blocks the event loop.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class WireLogHandler extends ChannelDuplexHandler {
+
+    /**
+     * Name of the wire logger.
+     */
+    public static final String  WIRE_LOGGER = "wire";
+
+    /**
+     * Hexadecimal digits, for escaping bytes.
+     */
+    private static final char[] HEX         = "0123456789abcdef".toCharArray();
+
+    /**
+     * Wire logger.
+     */
+    private static final Logger LOG         = LoggerFactory.getLogger(WIRE_LOGGER);
+
+    /**
+     * Reusable buffer for the events. Each channel has its own handler, which is only called from the channel event
+     * loop.
+     */
+    private final StringBuilder event       = new StringBuilder(256);
+
+    /**
+     * Maximum bytes shown in the preview of each event.
+     */
+    private final int           preview;
+
+    /**
+     * Fraction of the reads and writes which are logged, from 0 to 1.
+     */
+    private final double        rate;
+
+    /**
+     * Number of reads.
+     */
+    private long                reads;
+
+    /**
+     * Number of writes.
+     */
+    private long                writes;
+
+    /**
+     * Constructs a handler with the received sampling.
+     *
+     * @param rt
+     *            fraction of the reads and writes which are logged, from 0 to 1
+     * @param prev
+     *            maximum bytes shown in the preview of each event
+     */
+    public WireLogHandler(final double rt, final int prev) {
+        super();
+
+        if ((rt < 0) || (rt > 1)) {
+            throw new IllegalArgumentException("The sampling rate should be between 0 and 1, received " + rt);
+        }
+        if (prev < 0) {
+            throw new IllegalArgumentException("The preview size can't be negative, received " + prev);
+        }
+
+        rate = rt;
+        preview = prev;
+    }
+
+    /**
+     * Tells if the wire logger is enabled. When it is not, there is no point in adding this handler.
+     *
+     * @return {@code true} if the wire logger is enabled
+     */
+    public static final boolean isEnabled() {
+        return LOG.isInfoEnabled();
+    }
+
+    @Override
+    public final void channelActive(final ChannelHandlerContext ctx) throws Exception {
+        log(ctx, "open", 0, null);
+
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public final void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+        log(ctx, "close", 0, null);
+
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public final void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+        reads++;
+        if (sampled()) {
+            log(ctx, "read", reads, msg);
+        }
+
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public final void handlerAdded(final ChannelHandlerContext ctx) throws Exception {
+        // Added to an open channel, which won't be activated again
+        if (ctx.channel()
+            .isActive()) {
+            log(ctx, "open", 0, null);
+        }
+
+        super.handlerAdded(ctx);
+    }
+
+    @Override
+    public final void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise)
+            throws Exception {
+        writes++;
+        if (sampled()) {
+            log(ctx, "write", writes, msg);
+        }
+
+        super.write(ctx, msg, promise);
+    }
+
+    /**
+     * Appends the start of the buffer as a JSON string, escaping quotes, backslashes and any non printable byte.
+     *
+     * @param buffer
+     *            buffer to preview, its indexes are not modified
+     */
+    private final void appendPreview(final ByteBuf buffer) {
+        final int start;
+        final int end;
+        int       value;
+
+        start = buffer.readerIndex();
+        end = start + Math.min(preview, buffer.readableBytes());
+
+        event.append('"');
+        for (int i = start; i < end; i++) {
+            value = buffer.getByte(i) & 0xff;
+            if ((value == '"') || (value == '\\')) {
+                event.append('\\')
+                    .append((char) value);
+            } else if ((value < 0x20) || (value > 0x7e)) {
+                event.append("\\u00")
+                    .append(HEX[value >> 4])
+                    .append(HEX[value & 0xf]);
+            } else {
+                event.append((char) value);
+            }
+        }
+        event.append('"');
+    }
+
+    /**
+     * Logs an event as a JSON line.
+     *
+     * @param ctx
+     *            channel context
+     * @param type
+     *            event type
+     * @param sequence
+     *            sequence number of the event in its direction
+     * @param msg
+     *            message read or written, or {@code null} if there is none
+     */
+    private final void log(final ChannelHandlerContext ctx, final String type, final long sequence,
+            final Object msg) {
+        final ByteBuf buffer;
+
+        event.setLength(0);
+        event.append("{\"ts\":")
+            .append(System.currentTimeMillis())
+            .append(",\"channel\":\"")
+            .append(ctx.channel()
+                .id()
+                .asShortText())
+            .append("\",\"event\":\"")
+            .append(type)
+            .append('"');
+        if (sequence > 0) {
+            event.append(",\"seq\":")
+                .append(sequence);
+        }
+        if (msg instanceof ByteBuf) {
+            buffer = (ByteBuf) msg;
+            event.append(",\"bytes\":")
+                .append(buffer.readableBytes())
+                .append(",\"preview\":");
+            appendPreview(buffer);
+            event.append(",\"truncated\":")
+                .append(buffer.readableBytes() > preview);
+        } else if (msg != null) {
+            event.append(",\"type\":\"")
+                .append(msg.getClass()
+                    .getSimpleName())
+                .append('"');
+        }
+        event.append('}');
+
+        LOG.info(event.toString());
+    }
+
+    /**
+     * Tells if the current event is in the sample.
+     *
+     * @return {@code true} if the event should be logged
+     */
+    private final boolean sampled() {
+        return (rate >= 1) || (ThreadLocalRandom.current()
+            .nextDouble() < rate);
+    }
+
+}
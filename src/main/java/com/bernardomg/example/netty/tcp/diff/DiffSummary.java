@@ -0,0 +1,317 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.diff;
+
+import java.util.Locale;
+import java.util.Objects;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary for a comparison between a baseline and a candidate server. Latencies and throughput are kept for each
+ * server, so they can be shown side by side.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class DiffSummary {
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double   NANOS_TO_MILLIS  = 1_000_000;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double   NANOS_TO_SECONDS = 1_000_000_000;
+
+    /**
+     * Latency percentiles to show.
+     */
+    private static final double[] PERCENTILES      = { 50, 90, 99, 99.9 };
+
+    /**
+     * Nanoseconds until the last response from the baseline server.
+     */
+    private final long            baselineElapsed;
+
+    /**
+     * Baseline requests which failed.
+     */
+    private final long            baselineErrors;
+
+    /**
+     * Baseline latencies, in nanoseconds.
+     */
+    private final Histogram       baselineLatencies;
+
+    /**
+     * Nanoseconds until the last response from the candidate server.
+     */
+    private final long            candidateElapsed;
+
+    /**
+     * Candidate requests which failed.
+     */
+    private final long            candidateErrors;
+
+    /**
+     * Candidate latencies, in nanoseconds.
+     */
+    private final Histogram       candidateLatencies;
+
+    /**
+     * Requests compared.
+     */
+    private final long            compared;
+
+    /**
+     * Requests with different responses.
+     */
+    private final long            mismatches;
+
+    /**
+     * Constructs a summary.
+     *
+     * @param cmprd
+     *            requests compared
+     * @param mssmtchs
+     *            requests with different responses
+     * @param baseErrs
+     *            baseline requests which failed
+     * @param candErrs
+     *            candidate requests which failed
+     * @param baseElpsd
+     *            nanoseconds until the last baseline response
+     * @param candElpsd
+     *            nanoseconds until the last candidate response
+     * @param baseLtncs
+     *            baseline latencies, in nanoseconds
+     * @param candLtncs
+     *            candidate latencies, in nanoseconds
+     */
+    public DiffSummary(final long cmprd, final long mssmtchs, final long baseErrs, final long candErrs,
+            final long baseElpsd, final long candElpsd, final Histogram baseLtncs, final Histogram candLtncs) {
+        super();
+
+        compared = cmprd;
+        mismatches = mssmtchs;
+        baselineErrors = baseErrs;
+        candidateErrors = candErrs;
+        baselineElapsed = baseElpsd;
+        candidateElapsed = candElpsd;
+        baselineLatencies = Objects.requireNonNull(baseLtncs);
+        candidateLatencies = Objects.requireNonNull(candLtncs);
+    }
+
+    /**
+     * Returns the number of baseline requests which failed.
+     *
+     * @return the number of baseline errors
+     */
+    public final long getBaselineErrors() {
+        return baselineErrors;
+    }
+
+    /**
+     * Returns the baseline latencies, in nanoseconds.
+     *
+     * @return the baseline latencies
+     */
+    public final Histogram getBaselineLatencies() {
+        return baselineLatencies;
+    }
+
+    /**
+     * Returns the baseline responses per second.
+     *
+     * @return the baseline responses per second
+     */
+    public final double getBaselineThroughput() {
+        return perSecond(baselineElapsed);
+    }
+
+    /**
+     * Returns the number of candidate requests which failed.
+     *
+     * @return the number of candidate errors
+     */
+    public final long getCandidateErrors() {
+        return candidateErrors;
+    }
+
+    /**
+     * Returns the candidate latencies, in nanoseconds.
+     *
+     * @return the candidate latencies
+     */
+    public final Histogram getCandidateLatencies() {
+        return candidateLatencies;
+    }
+
+    /**
+     * Returns the candidate responses per second.
+     *
+     * @return the candidate responses per second
+     */
+    public final double getCandidateThroughput() {
+        return perSecond(candidateElapsed);
+    }
+
+    /**
+     * Returns the number of requests compared.
+     *
+     * @return the number of requests compared
+     */
+    public final long getCompared() {
+        return compared;
+    }
+
+    /**
+     * Returns the number of requests with different responses.
+     *
+     * @return the number of mismatches
+     */
+    public final long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Returns the summary as a JSON object.
+     *
+     * @return the summary as JSON
+     */
+    public final String toJson() {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        json.append(String.format(Locale.ROOT, "{\"compared\":%d,\"mismatches\":%d,", compared, mismatches));
+        json.append("\"baseline\":");
+        appendJson(json, baselineErrors, getBaselineThroughput(), baselineLatencies);
+        json.append(",\"candidate\":");
+        appendJson(json, candidateErrors, getCandidateThroughput(), candidateLatencies);
+        json.append('}');
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the summary as human-readable text, with both servers side by side.
+     *
+     * @return the summary as text
+     */
+    public final String toText() {
+        final StringBuilder text;
+
+        text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Compared:   %d messages, %d mismatches%n", compared, mismatches));
+        text.append(String.format(Locale.ROOT, "%-12s%14s%14s%n", "", "baseline", "candidate"));
+        text.append(String.format(Locale.ROOT, "%-12s%14d%14d%n", "Errors:", baselineErrors, candidateErrors));
+        text.append(String.format(Locale.ROOT, "%-12s%14.2f%14.2f%n", "msg/s:", getBaselineThroughput(),
+            getCandidateThroughput()));
+        text.append(String.format(Locale.ROOT, "%-12s%14.3f%14.3f%n", "Elapsed s:",
+            baselineElapsed / NANOS_TO_SECONDS, candidateElapsed / NANOS_TO_SECONDS));
+        text.append(String.format(Locale.ROOT, "%-12s%14.3f%14.3f%n", "min ms:",
+            baselineLatencies.getMinValue() / NANOS_TO_MILLIS, candidateLatencies.getMinValue() / NANOS_TO_MILLIS));
+        text.append(String.format(Locale.ROOT, "%-12s%14.3f%14.3f%n", "mean ms:",
+            baselineLatencies.getMean() / NANOS_TO_MILLIS, candidateLatencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, "%-12s%14.3f%14.3f%n", "p" + formatPercentile(percentile) + " ms:",
+                baselineLatencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS,
+                candidateLatencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        text.append(String.format(Locale.ROOT, "%-12s%14.3f%14.3f", "max ms:",
+            baselineLatencies.getMaxValue() / NANOS_TO_MILLIS, candidateLatencies.getMaxValue() / NANOS_TO_MILLIS));
+
+        return text.toString();
+    }
+
+    /**
+     * Appends the results of a single server as a JSON object.
+     *
+     * @param json
+     *            JSON to append into
+     * @param errors
+     *            requests which failed
+     * @param throughput
+     *            responses per second
+     * @param latencies
+     *            latencies, in nanoseconds
+     */
+    private final void appendJson(final StringBuilder json, final long errors, final double throughput,
+            final Histogram latencies) {
+        json.append(String.format(Locale.ROOT, "{\"errors\":%d,\"perSecond\":%.2f,\"latencyMillis\":{", errors,
+            throughput));
+        json.append(String.format(Locale.ROOT, "\"count\":%d,\"min\":%.3f,\"mean\":%.3f,",
+            latencies.getTotalCount(), latencies.getMinValue() / NANOS_TO_MILLIS,
+            latencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            json.append(String.format(Locale.ROOT, "\"p%s\":%.3f,", formatPercentile(percentile),
+                latencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        json.append(String.format(Locale.ROOT, "\"max\":%.3f}}", latencies.getMaxValue() / NANOS_TO_MILLIS));
+    }
+
+    /**
+     * Returns the percentile name, without decimals if it is an integer.
+     *
+     * @param percentile
+     *            percentile to format
+     * @return the formatted percentile
+     */
+    private final String formatPercentile(final double percentile) {
+        final String formatted;
+
+        if (percentile == Math.rint(percentile)) {
+            formatted = String.valueOf((long) percentile);
+        } else {
+            formatted = String.valueOf(percentile);
+        }
+
+        return formatted;
+    }
+
+    /**
+     * Returns the requests compared per second, over the received time.
+     *
+     * @param elapsed
+     *            nanoseconds taken
+     * @return the requests per second
+     */
+    private final double perSecond(final long elapsed) {
+        final double throughput;
+
+        if (elapsed > 0) {
+            throughput = compared / (elapsed / NANOS_TO_SECONDS);
+        } else {
+            throughput = 0;
+        }
+
+        return throughput;
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.diff;
+
+import java.util.Objects;
+
+/**
+ * Request for which the baseline and candidate servers gave different responses.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class Mismatch {
+
+    /**
+     * Response from the baseline server.
+     */
+    private final String baseline;
+
+    /**
+     * Response from the candidate server.
+     */
+    private final String candidate;
+
+    /**
+     * Position of the request in the corpus, starting at zero.
+     */
+    private final long   index;
+
+    /**
+     * Request message.
+     */
+    private final String message;
+
+    /**
+     * Constructs a mismatch.
+     *
+     * @param idx
+     *            position of the request in the corpus
+     * @param msg
+     *            request message
+     * @param base
+     *            response from the baseline server
+     * @param cand
+     *            response from the candidate server
+     */
+    public Mismatch(final long idx, final String msg, final String base, final String cand) {
+        super();
+
+        index = idx;
+        message = Objects.requireNonNull(msg);
+        baseline = Objects.requireNonNull(base);
+        candidate = Objects.requireNonNull(cand);
+    }
+
+    /**
+     * Returns the response from the baseline server.
+     *
+     * @return the response from the baseline server
+     */
+    public final String getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Returns the response from the candidate server.
+     *
+     * @return the response from the candidate server
+     */
+    public final String getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Returns the position of the request in the corpus, starting at zero.
+     *
+     * @return the position of the request
+     */
+    public final long getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the request message.
+     *
+     * @return the request message
+     */
+    public final String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the mismatch as human-readable text, with the responses side by side.
+     *
+     * @return the mismatch as text
+     */
+    public final String toText() {
+        return String.format("#%d %s%n  baseline:  %s%n  candidate: %s", index, message, baseline, candidate);
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.diff;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records the messages sent into a file, one per line. The file can be replayed later as a corpus.
+ * <p>
+ * Only text messages are recorded, generated payloads are ignored.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class RequestRecorder implements TransactionListener, AutoCloseable {
+
+    /**
+     * Writer for the recorded messages.
+     */
+    private final BufferedWriter writer;
+
+    /**
+     * Constructs a recorder into the received file. Any previous contents are replaced.
+     *
+     * @param path
+     *            file to record into
+     * @throws IOException
+     *             if the file can't be opened
+     */
+    public RequestRecorder(final Path path) throws IOException {
+        super();
+
+        writer = Files.newBufferedWriter(path, Charset.defaultCharset());
+    }
+
+    @Override
+    public final synchronized void close() {
+        try {
+            writer.close();
+        } catch (final IOException e) {
+            log.error(e.getLocalizedMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public final void onReceive(final String message) {}
+
+    @Override
+    public final synchronized void onSend(final String message) {
+        try {
+            writer.write(message);
+            writer.newLine();
+        } catch (final IOException e) {
+            // Sending goes on, only the recording is lost
+            log.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @Override
+    public final void onStart() {}
+
+    @Override
+    public final void onStop() {}
+
+}
@@ -0,0 +1,332 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.diff;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Replays a corpus of requests against a baseline and a candidate server at the same time, and compares their
+ * responses.
+ * <p>
+ * Each request is sent to both servers, and their responses are compared once both arrive. Mismatches are handed over
+ * as soon as they are found, and only counters and latency histograms are kept, so any corpus size runs in constant
+ * memory.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class ResponseDiff {
+
+    /**
+     * Result of sending a request to a single server.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    private static final class Outcome {
+
+        /**
+         * Error flag. If active, the response describes the error.
+         */
+        private final boolean error;
+
+        /**
+         * Time at which the response arrived, in nanoseconds.
+         */
+        private final long    finished;
+
+        /**
+         * Nanoseconds taken by the response.
+         */
+        private final long    latency;
+
+        /**
+         * Response received.
+         */
+        private final String  response;
+
+        /**
+         * Constructs an outcome finished now.
+         *
+         * @param rspns
+         *            response received
+         * @param err
+         *            error flag
+         * @param start
+         *            time at which the request was sent, in nanoseconds
+         */
+        private Outcome(final String rspns, final boolean err, final long start) {
+            super();
+
+            response = rspns;
+            error = err;
+            finished = System.nanoTime();
+            latency = finished - start;
+        }
+
+    }
+
+    /**
+     * Running totals for a comparison.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    private static final class Tally {
+
+        /**
+         * Baseline requests which failed.
+         */
+        private long                     baselineErrors;
+
+        /**
+         * Time of the last baseline response, in nanoseconds.
+         */
+        private long                     baselineFinished;
+
+        /**
+         * Baseline latencies, in nanoseconds.
+         */
+        private final Histogram          baselineLatencies  = new Histogram(SIGNIFICANT_DIGITS);
+
+        /**
+         * Candidate requests which failed.
+         */
+        private long                     candidateErrors;
+
+        /**
+         * Time of the last candidate response, in nanoseconds.
+         */
+        private long                     candidateFinished;
+
+        /**
+         * Candidate latencies, in nanoseconds.
+         */
+        private final Histogram          candidateLatencies = new Histogram(SIGNIFICANT_DIGITS);
+
+        /**
+         * Requests compared.
+         */
+        private long                     compared;
+
+        /**
+         * Receives the mismatches.
+         */
+        private final Consumer<Mismatch> listener;
+
+        /**
+         * Requests with different responses.
+         */
+        private long                     mismatches;
+
+        /**
+         * Time at which the comparison started, in nanoseconds.
+         */
+        private final long               start;
+
+        /**
+         * Constructs a tally starting now.
+         *
+         * @param lst
+         *            receives the mismatches
+         */
+        private Tally(final Consumer<Mismatch> lst) {
+            super();
+
+            listener = lst;
+            start = System.nanoTime();
+            baselineFinished = start;
+            candidateFinished = start;
+        }
+
+        /**
+         * Adds the outcomes for a request.
+         *
+         * @param index
+         *            position of the request in the corpus
+         * @param message
+         *            request message
+         * @param baseline
+         *            outcome from the baseline server
+         * @param candidate
+         *            outcome from the candidate server
+         */
+        private final synchronized void add(final long index, final String message, final Outcome baseline,
+                final Outcome candidate) {
+            compared++;
+            baselineLatencies.recordValue(baseline.latency);
+            candidateLatencies.recordValue(candidate.latency);
+            baselineFinished = Math.max(baselineFinished, baseline.finished);
+            candidateFinished = Math.max(candidateFinished, candidate.finished);
+            if (baseline.error) {
+                baselineErrors++;
+            }
+            if (candidate.error) {
+                candidateErrors++;
+            }
+            if (!baseline.response.equals(candidate.response)) {
+                log.debug("Mismatch for {}: {} and {}", message, baseline.response, candidate.response);
+                mismatches++;
+                listener.accept(new Mismatch(index, message, baseline.response, candidate.response));
+            }
+        }
+
+        /**
+         * Returns the summary for the totals.
+         *
+         * @return the summary for the totals
+         */
+        private final synchronized DiffSummary toSummary() {
+            return new DiffSummary(compared, mismatches, baselineErrors, candidateErrors, baselineFinished - start,
+                candidateFinished - start, baselineLatencies.copy(), candidateLatencies.copy());
+        }
+
+    }
+
+    /**
+     * Significant digits for the latency histograms.
+     */
+    private static final int         SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Client for the baseline server.
+     */
+    private final Client             baseline;
+
+    /**
+     * Client for the candidate server.
+     */
+    private final Client             candidate;
+
+    /**
+     * Receives the mismatches, as soon as they are found.
+     */
+    private final Consumer<Mismatch> listener;
+
+    /**
+     * Maximum time to wait for each response. Requests over it count as errors.
+     */
+    private final Duration           timeout;
+
+    /**
+     * Constructs a comparison between two servers. Both clients should be connected.
+     *
+     * @param base
+     *            client for the baseline server
+     * @param cand
+     *            client for the candidate server
+     * @param tmt
+     *            maximum time to wait for each response
+     * @param lst
+     *            receives the mismatches
+     */
+    public ResponseDiff(final Client base, final Client cand, final Duration tmt, final Consumer<Mismatch> lst) {
+        super();
+
+        baseline = Objects.requireNonNull(base);
+        candidate = Objects.requireNonNull(cand);
+        timeout = Objects.requireNonNull(tmt);
+        listener = Objects.requireNonNull(lst);
+    }
+
+    /**
+     * Replays the corpus against both servers, and returns the summary once all the responses are compared. The
+     * corpus is read as it is needed, with no more than the received number of requests waiting for responses.
+     *
+     * @param corpus
+     *            requests to replay
+     * @param concurrency
+     *            maximum number of requests waiting for responses
+     * @return the summary for the comparison
+     */
+    public final DiffSummary run(final Stream<String> corpus, final int concurrency) {
+        final Tally tally;
+
+        tally = new Tally(listener);
+
+        Flux.fromStream(corpus)
+            .index()
+            // Bounded, so only a few requests are held at a time
+            .flatMap(entry -> compare(entry.getT1(), entry.getT2(), tally), concurrency)
+            .blockLast();
+
+        return tally.toSummary();
+    }
+
+    /**
+     * Sends the request to both servers, and adds their outcomes to the tally.
+     *
+     * @param index
+     *            position of the request in the corpus
+     * @param message
+     *            request message
+     * @param tally
+     *            running totals
+     * @return the comparison, completed once both responses arrive
+     */
+    private final Mono<Void> compare(final long index, final String message, final Tally tally) {
+        return Mono.zip(exchange(baseline, message), exchange(candidate, message))
+            .doOnNext(outcomes -> tally.add(index, message, outcomes.getT1(), outcomes.getT2()))
+            .then();
+    }
+
+    /**
+     * Sends the request to a single server. Errors are part of the outcome, so they can be compared.
+     *
+     * @param client
+     *            client for the server
+     * @param message
+     *            request message
+     * @return the outcome for the request
+     */
+    private final Mono<Outcome> exchange(final Client client, final String message) {
+        return Mono.defer(() -> {
+            final long start;
+
+            start = System.nanoTime();
+            return client.exchange(message)
+                .timeout(timeout)
+                // Empty messages have no response
+                .defaultIfEmpty("")
+                .map(response -> new Outcome(response, false, start))
+                .onErrorResume(e -> Mono.just(new Outcome("<" + e.getClass()
+                    .getSimpleName() + ">", true, start)));
+        });
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Reads and writes the messages exchanged between coordinator and workers. Each message is a set of properties,
+ * preceded by its length.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class ControlMessages {
+
+    /**
+     * Property for the error, in the messages answering a failed plan.
+     */
+    private static final String ERROR = "error";
+
+    /**
+     * Returns a message telling the plan failed.
+     *
+     * @param error
+     *            description of the failure
+     * @return the error message
+     */
+    public static final Properties error(final String error) {
+        final Properties properties;
+
+        properties = new Properties();
+        properties.setProperty(ERROR, error);
+
+        return properties;
+    }
+
+    /**
+     * Returns the error in the message, if it tells the plan failed. Otherwise returns {@code null}.
+     *
+     * @param properties
+     *            message to check
+     * @return the error in the message, or {@code null} if there is none
+     */
+    public static final String getError(final Properties properties) {
+        return properties.getProperty(ERROR);
+    }
+
+    /**
+     * Reads a message.
+     *
+     * @param input
+     *            stream to read from
+     * @return the properties read
+     * @throws IOException
+     *             if the message can't be read
+     */
+    public static final Properties read(final DataInputStream input) throws IOException {
+        final Properties properties;
+        final byte[]     data;
+
+        data = new byte[input.readInt()];
+        input.readFully(data);
+
+        properties = new Properties();
+        properties.load(new StringReader(new String(data, StandardCharsets.UTF_8)));
+
+        return properties;
+    }
+
+    /**
+     * Writes a message.
+     *
+     * @param output
+     *            stream to write into
+     * @param properties
+     *            properties to write
+     * @throws IOException
+     *             if the message can't be written
+     */
+    public static final void write(final DataOutputStream output, final Properties properties) throws IOException {
+        final StringWriter writer;
+        final byte[]       data;
+
+        writer = new StringWriter();
+        properties.store(writer, null);
+        data = writer.toString()
+            .getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(data.length);
+        output.write(data);
+        output.flush();
+    }
+
+    /**
+     * Utility class.
+     */
+    private ControlMessages() {
+        super();
+    }
+
+}
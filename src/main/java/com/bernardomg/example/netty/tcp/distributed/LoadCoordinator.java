@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import com.bernardomg.example.netty.tcp.load.LoadPlan;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Load coordinator. Splits a plan among several workers, runs it on all of them at the same time, and merges their
+ * metrics into a single summary.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class LoadCoordinator {
+
+    /**
+     * Extra time, over the plan duration, to wait for a worker before giving up, in milliseconds.
+     */
+    private static final int              TIMEOUT_MARGIN = 30_000;
+
+    /**
+     * Control addresses for the workers.
+     */
+    private final List<InetSocketAddress> workers;
+
+    /**
+     * Constructs a coordinator for the received workers.
+     *
+     * @param wrkrs
+     *            control addresses for the workers
+     */
+    public LoadCoordinator(final List<InetSocketAddress> wrkrs) {
+        super();
+
+        workers = List.copyOf(Objects.requireNonNull(wrkrs));
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+    }
+
+    /**
+     * Runs the plan on all the workers. The rate and connections are split among them.
+     *
+     * @param plan
+     *            plan to run
+     * @return the merged metrics from all the workers
+     */
+    public final MetricsSummary run(final LoadPlan plan) {
+        final List<LoadPlan>                          plans;
+        final ExecutorService                         executor;
+        final List<CompletableFuture<MetricsSummary>> results;
+        final List<MetricsSummary>                    summaries;
+
+        plans = split(plan);
+
+        executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            results = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++) {
+                final InetSocketAddress worker;
+                final LoadPlan          share;
+
+                worker = workers.get(i);
+                share = plans.get(i);
+                results.add(CompletableFuture.supplyAsync(() -> runOnWorker(worker, share), executor));
+            }
+
+            summaries = results.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return MetricsSummary.merge(summaries);
+    }
+
+    /**
+     * Sends the plan to the worker, and waits for its metrics. Fails if the worker answers that the plan failed.
+     *
+     * @param worker
+     *            control address for the worker
+     * @param plan
+     *            plan to run
+     * @return the metrics from the worker
+     */
+    private final MetricsSummary runOnWorker(final InetSocketAddress worker, final LoadPlan plan) {
+        final MetricsSummary summary;
+        final Properties     reply;
+        final String         error;
+
+        log.debug("Sending plan to worker {}, with rate {} and {} connections", worker, plan.getRate(),
+            plan.getConnections());
+
+        try (Socket socket = new Socket()) {
+            socket.connect(worker);
+            socket.setSoTimeout((int) (plan.getDuration() + plan.getDrain() + TIMEOUT_MARGIN));
+            try (DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+                    DataInputStream input = new DataInputStream(socket.getInputStream())) {
+                ControlMessages.write(output, plan.toProperties());
+                reply = ControlMessages.read(input);
+            }
+        } catch (final IOException e) {
+            log.error(e.getLocalizedMessage(), e);
+            throw new UncheckedIOException(e);
+        }
+
+        error = ControlMessages.getError(reply);
+        if (error != null) {
+            throw new IllegalStateException(String.format("Worker %s failed running the plan: %s", worker, error));
+        }
+
+        log.debug("Received metrics from worker {}", worker);
+        summary = MetricsSummary.fromProperties(reply);
+
+        return summary;
+    }
+
+    /**
+     * Splits the plan among the workers. Rate and connections are divided evenly, with any remainder going to the
+     * first workers. Each worker opens at least one connection.
+     *
+     * @param plan
+     *            plan to split
+     * @return a plan for each worker
+     */
+    private final List<LoadPlan> split(final LoadPlan plan) {
+        final List<LoadPlan> plans;
+        final int            count;
+        long                 rate;
+        int                  connections;
+
+        count = workers.size();
+        plans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rate = plan.getRate() / count;
+            if (i < (plan.getRate() % count)) {
+                rate++;
+            }
+            connections = plan.getConnections() / count;
+            if (i < (plan.getConnections() % count)) {
+                connections++;
+            }
+            plans.add(plan.withShare(rate, Math.max(1, connections)));
+        }
+
+        return plans;
+    }
+
+}
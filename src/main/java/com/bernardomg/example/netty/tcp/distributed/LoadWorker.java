@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Properties;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.load.LoadGenerator;
+import com.bernardomg.example.netty.tcp.load.LoadPlan;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Load worker. Listens on a control socket for load plans, runs each of them, and answers with the metrics summary.
+ * Plans are run one at a time. If a plan fails, the answer is an error, and the worker keeps serving.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class LoadWorker implements AutoCloseable {
+
+    /**
+     * Control socket, which receives the plans.
+     */
+    private final ServerSocket server;
+
+    /**
+     * Constructs a worker listening on the received address. If the port is 0 then any free port is used.
+     *
+     * @param host
+     *            host to listen on
+     * @param port
+     *            port to listen on
+     * @throws IOException
+     *             if the control socket can't be opened
+     */
+    public LoadWorker(final String host, final int port) throws IOException {
+        super();
+
+        server = new ServerSocket(port, 0, InetAddress.getByName(host));
+    }
+
+    @Override
+    public final void close() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Returns the port the control socket is listening on.
+     *
+     * @return the control port
+     */
+    public final int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Serves plans until the received number of plans has been run, or the worker is closed. If the number of plans
+     * is 0, then it keeps serving until closed.
+     *
+     * @param plans
+     *            number of plans to run
+     * @throws IOException
+     *             if the control socket fails
+     */
+    public final void serve(final int plans) throws IOException {
+        int served;
+
+        served = 0;
+        while (((plans == 0) || (served < plans)) && !server.isClosed()) {
+            try (Socket socket = server.accept();
+                    DataInputStream input = new DataInputStream(socket.getInputStream());
+                    DataOutputStream output = new DataOutputStream(socket.getOutputStream())) {
+                final Properties request;
+                final LoadPlan   plan;
+                Properties       reply;
+
+                request = ControlMessages.read(input);
+                try {
+                    plan = LoadPlan.fromProperties(request);
+                    log.debug("Received plan for {}:{}", plan.getHost(), plan.getPort());
+
+                    reply = run(plan).toProperties();
+                } catch (final RuntimeException e) {
+                    // The coordinator is told about the failure, and the worker keeps serving
+                    log.error("Failed running plan", e);
+                    reply = ControlMessages.error(e.toString());
+                }
+
+                ControlMessages.write(output, reply);
+            }
+            served++;
+        }
+    }
+
+    /**
+     * Runs the plan, and returns the metrics.
+     *
+     * @param plan
+     *            plan to run
+     * @return the metrics for the run
+     */
+    private final MetricsSummary run(final LoadPlan plan) {
+        final MetricsTransactionListener metrics;
+        final ReactorNettyTcpClient      client;
+
+        metrics = new MetricsTransactionListener();
+        client = new ReactorNettyTcpClient(plan.getHost(), plan.getPort(), metrics, false);
+        client.setConnections(plan.getConnections());
+        client.setLineDelimited(plan.isLineDelimited());
+        // Closing waits for the responses
+        client.setDrainTimeout(Duration.ofMillis(plan.getDrain()));
+
+        try {
+            client.connect();
+
+            new LoadGenerator(client).run(plan);
+        } catch (final RuntimeException e) {
+            // The coordinator is told about the failure, not about any problem when cleaning up after it
+            try {
+                client.close();
+            } catch (final RuntimeException c) {
+                e.addSuppressed(c);
+            }
+            throw e;
+        }
+        client.close();
+
+        return MetricsSummary.of(metrics);
+    }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.load;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends messages at a fixed rate, for a fixed time. On each tick it sends as many messages as needed to catch up with
+ * the rate, so a late tick doesn't lower the rate.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class LoadGenerator {
+
+    /**
+     * Time between ticks, in nanoseconds.
+     */
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Client to send the messages.
+     */
+    private final Client      client;
+
+    /**
+     * Constructs a generator sending messages through the client. It should already be connected.
+     *
+     * @param clnt
+     *            client to send the messages
+     */
+    public LoadGenerator(final Client clnt) {
+        super();
+
+        client = Objects.requireNonNull(clnt);
+    }
+
+    /**
+     * Sends messages following the plan. Blocks until the plan duration has passed.
+     *
+     * @param plan
+     *            plan to follow
+     * @return the number of messages sent
+     */
+    public final long run(final LoadPlan plan) {
+        final long start;
+        final long duration;
+        long       elapsed;
+        long       expected;
+        long       sent;
+
+        if (plan.getRate() < 0) {
+            throw new IllegalArgumentException("The rate can't be negative");
+        }
+
+        log.debug("Sending {} messages per second for {} ms", plan.getRate(), plan.getDuration());
+
+        duration = TimeUnit.MILLISECONDS.toNanos(plan.getDuration());
+        start = System.nanoTime();
+        sent = 0;
+        elapsed = 0;
+        while (elapsed < duration) {
+            expected = (long) (plan.getRate() * (elapsed / (double) TimeUnit.SECONDS.toNanos(1)));
+            while (sent < expected) {
+                client.request(plan.getMessage());
+                sent++;
+            }
+            LockSupport.parkNanos(TICK);
+            elapsed = System.nanoTime() - start;
+        }
+
+        log.debug("Sent {} messages", sent);
+
+        return sent;
+    }
+
+}
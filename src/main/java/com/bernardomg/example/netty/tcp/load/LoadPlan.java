@@ -0,0 +1,233 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.load;
+
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Plan for a load run. Tells where to send the messages, which ones, and how fast.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class LoadPlan {
+
+    /**
+     * Creates a plan from properties, as created by {@link #toProperties()}.
+     *
+     * @param properties
+     *            properties to read
+     * @return the plan stored in the properties
+     */
+    public static final LoadPlan fromProperties(final Properties properties) {
+        return new LoadPlan(properties.getProperty("host"), Integer.valueOf(properties.getProperty("port")),
+            properties.getProperty("message"), Long.parseLong(properties.getProperty("rate")),
+            Integer.parseInt(properties.getProperty("connections")),
+            Long.parseLong(properties.getProperty("duration")), Long.parseLong(properties.getProperty("drain")),
+            Boolean.parseBoolean(properties.getProperty("lineDelimited")));
+    }
+
+    /**
+     * Number of connections to open.
+     */
+    private final int     connections;
+
+    /**
+     * Time to wait for responses after the load ends, in milliseconds.
+     */
+    private final long    drain;
+
+    /**
+     * Load duration, in milliseconds.
+     */
+    private final long    duration;
+
+    /**
+     * Server host.
+     */
+    private final String  host;
+
+    /**
+     * Line delimited flag.
+     */
+    private final boolean lineDelimited;
+
+    /**
+     * Message to send.
+     */
+    private final String  message;
+
+    /**
+     * Server port.
+     */
+    private final Integer port;
+
+    /**
+     * Messages to send per second.
+     */
+    private final long    rate;
+
+    /**
+     * Constructs a plan with the received values.
+     *
+     * @param hst
+     *            server host
+     * @param prt
+     *            server port
+     * @param msg
+     *            message to send
+     * @param rt
+     *            messages to send per second
+     * @param conns
+     *            number of connections to open
+     * @param drtn
+     *            load duration, in milliseconds
+     * @param drn
+     *            time to wait for responses after the load ends, in milliseconds
+     * @param delimited
+     *            line delimited flag
+     */
+    public LoadPlan(final String hst, final Integer prt, final String msg, final long rt, final int conns,
+            final long drtn, final long drn, final boolean delimited) {
+        super();
+
+        host = Objects.requireNonNull(hst);
+        port = Objects.requireNonNull(prt);
+        message = Objects.requireNonNull(msg);
+        rate = rt;
+        connections = conns;
+        duration = drtn;
+        drain = drn;
+        lineDelimited = delimited;
+    }
+
+    /**
+     * Returns the number of connections to open.
+     *
+     * @return the number of connections to open
+     */
+    public final int getConnections() {
+        return connections;
+    }
+
+    /**
+     * Returns the time to wait for responses after the load ends, in milliseconds.
+     *
+     * @return the time to wait for responses
+     */
+    public final long getDrain() {
+        return drain;
+    }
+
+    /**
+     * Returns the load duration, in milliseconds.
+     *
+     * @return the load duration
+     */
+    public final long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the server host.
+     *
+     * @return the server host
+     */
+    public final String getHost() {
+        return host;
+    }
+
+    /**
+     * Returns the message to send.
+     *
+     * @return the message to send
+     */
+    public final String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the server port.
+     *
+     * @return the server port
+     */
+    public final Integer getPort() {
+        return port;
+    }
+
+    /**
+     * Returns the messages to send per second.
+     *
+     * @return the messages to send per second
+     */
+    public final long getRate() {
+        return rate;
+    }
+
+    /**
+     * Returns the line delimited flag.
+     *
+     * @return the line delimited flag
+     */
+    public final boolean isLineDelimited() {
+        return lineDelimited;
+    }
+
+    /**
+     * Returns the plan as properties.
+     *
+     * @return the plan as properties
+     */
+    public final Properties toProperties() {
+        final Properties properties;
+
+        properties = new Properties();
+        properties.setProperty("host", host);
+        properties.setProperty("port", String.valueOf(port));
+        properties.setProperty("message", message);
+        properties.setProperty("rate", String.valueOf(rate));
+        properties.setProperty("connections", String.valueOf(connections));
+        properties.setProperty("duration", String.valueOf(duration));
+        properties.setProperty("drain", String.valueOf(drain));
+        properties.setProperty("lineDelimited", String.valueOf(lineDelimited));
+
+        return properties;
+    }
+
+    /**
+     * Returns a copy of this plan, with a share of the rate and connections.
+     *
+     * @param rt
+     *            messages to send per second
+     * @param conns
+     *            number of connections to open
+     * @return a copy of the plan with the received rate and connections
+     */
+    public final LoadPlan withShare(final long rt, final int conns) {
+        return new LoadPlan(host, port, message, rt, conns, duration, drain, lineDelimited);
+    }
+
+}
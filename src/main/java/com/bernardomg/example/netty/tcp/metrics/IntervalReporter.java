@@ -0,0 +1,302 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.LongSummaryStatistics;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prints a summary of the metrics for each interval. Runs on its own thread, and only reads the metrics, so it never
+ * holds back the event loop threads.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class IntervalReporter implements AutoCloseable {
+
+    /**
+     * Bytes in a kilobyte.
+     */
+    private static final double              KILOBYTE         = 1024;
+
+    /**
+     * Bytes in a megabyte.
+     */
+    private static final double              MEGABYTE         = 1024 * 1024;
+
+    /**
+     * Microseconds in a millisecond.
+     */
+    private static final double              MICROS_TO_MILLIS = 1_000;
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double              NANOS_TO_MILLIS  = 1_000_000;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double              NANOS_TO_SECONDS = 1_000_000_000;
+
+    /**
+     * Executor running the reports.
+     */
+    private ScheduledExecutorService         executor;
+
+    /**
+     * Interval length, in milliseconds.
+     */
+    private final long                       interval;
+
+    /**
+     * Metrics to report.
+     */
+    private final MetricsTransactionListener metrics;
+
+    /**
+     * Bytes received at the previous report.
+     */
+    private long                             previousBytesReceived;
+
+    /**
+     * Bytes sent at the previous report.
+     */
+    private long                             previousBytesSent;
+
+    /**
+     * Errors at the previous report.
+     */
+    private long                             previousErrors;
+
+    /**
+     * Messages received at the previous report.
+     */
+    private long                             previousReceived;
+
+    /**
+     * Messages sent at the previous report.
+     */
+    private long                             previousSent;
+
+    /**
+     * Time of the previous report, in nanoseconds.
+     */
+    private long                             previousTime;
+
+    /**
+     * Time at which the reports started, in nanoseconds.
+     */
+    private long                             startTime;
+
+    /**
+     * Print writer, where the reports will be sent.
+     */
+    private final PrintWriter                writer;
+
+    /**
+     * Constructs a reporter for the metrics.
+     *
+     * @param mtrcs
+     *            metrics to report
+     * @param wrt
+     *            writer where the reports are printed
+     * @param intrvl
+     *            interval length, in milliseconds
+     */
+    public IntervalReporter(final MetricsTransactionListener mtrcs, final PrintWriter wrt, final long intrvl) {
+        super();
+
+        metrics = Objects.requireNonNull(mtrcs);
+        writer = Objects.requireNonNull(wrt);
+        interval = intrvl;
+    }
+
+    /**
+     * Stops the reports, and prints a last one for the partial interval since the previous report.
+     */
+    @Override
+    public final void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(interval, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                log.error(e.getLocalizedMessage(), e);
+                throw new RuntimeException(e);
+            }
+            executor = null;
+
+            // The executor is stopped, so this is the only report running
+            report();
+        }
+    }
+
+    /**
+     * Starts the reports. The first one will be printed after an interval.
+     */
+    public final void start() {
+        startTime = System.nanoTime();
+        previousTime = startTime;
+        previousSent = metrics.getSent();
+        previousReceived = metrics.getReceived();
+        previousBytesSent = metrics.getBytesSent();
+        previousBytesReceived = metrics.getBytesReceived();
+        previousErrors = metrics.getErrors();
+        // Discards anything recorded before starting
+        metrics.getIntervalLatencies();
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread;
+
+            thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prints the socket state of all the connections, if there are samples. Shows the mean round trip time, and the
+     * totals for the other values.
+     */
+    private final void printSocketStats() {
+        final Collection<SocketStats> samples;
+        final Collection<SocketStats> kernel;
+        final LongSummaryStatistics   rtt;
+        final long                    pending;
+
+        samples = metrics.getSocketStats();
+        if (!samples.isEmpty()) {
+            kernel = samples.stream()
+                .filter(SocketStats::isKernelAvailable)
+                .collect(Collectors.toList());
+            rtt = kernel.stream()
+                .mapToLong(SocketStats::getRtt)
+                .summaryStatistics();
+            pending = samples.stream()
+                .mapToLong(SocketStats::getPendingWriteBytes)
+                .sum();
+
+            if (rtt.getCount() > 0) {
+                writer.printf(" | tcp rtt ms %.3f max %.3f | cwnd %d | unacked %d | retransmits %d",
+                    rtt.getAverage() / MICROS_TO_MILLIS, rtt.getMax() / MICROS_TO_MILLIS,
+                    sum(kernel, SocketStats::getCongestionWindow), sum(kernel, SocketStats::getUnacked),
+                    sum(kernel, SocketStats::getRetransmits));
+            }
+            writer.printf(" | write queue %.1f KB", pending / KILOBYTE);
+        }
+        if (metrics.getWritabilityChanges() > 0) {
+            writer.printf(" | unwritable %d (%d changes)", metrics.getUnwritable(), metrics.getWritabilityChanges());
+        }
+    }
+
+    /**
+     * Adds a value from all the samples.
+     *
+     * @param samples
+     *            samples to add
+     * @param value
+     *            value to add
+     * @return the sum of the value for all the samples
+     */
+    private final long sum(final Collection<SocketStats> samples, final ToLongFunction<SocketStats> value) {
+        return samples.stream()
+            .mapToLong(value)
+            .sum();
+    }
+
+    /**
+     * Prints the report for the current interval.
+     */
+    private final void report() {
+        final long      now;
+        final long      sent;
+        final long      received;
+        final long      bytesSent;
+        final long      bytesReceived;
+        final long      errors;
+        final double    seconds;
+        final Histogram latencies;
+
+        now = System.nanoTime();
+        sent = metrics.getSent();
+        received = metrics.getReceived();
+        bytesSent = metrics.getBytesSent();
+        bytesReceived = metrics.getBytesReceived();
+        errors = metrics.getErrors();
+        latencies = metrics.getIntervalLatencies();
+
+        seconds = (now - previousTime) / NANOS_TO_SECONDS;
+
+        writer.printf(
+            "[%7.1fs] sent %.0f msg/s | received %.0f msg/s | out %.2f MB/s | in %.2f MB/s | in-flight %d"
+                    + " | latency ms p50 %.3f p90 %.3f p99 %.3f p99.9 %.3f max %.3f | errors %d",
+            (now - startTime) / NANOS_TO_SECONDS, (sent - previousSent) / seconds,
+            (received - previousReceived) / seconds, (bytesSent - previousBytesSent) / MEGABYTE / seconds,
+            (bytesReceived - previousBytesReceived) / MEGABYTE / seconds, metrics.getInFlight(),
+            latencies.getValueAtPercentile(50) / NANOS_TO_MILLIS, latencies.getValueAtPercentile(90) / NANOS_TO_MILLIS,
+            latencies.getValueAtPercentile(99) / NANOS_TO_MILLIS,
+            latencies.getValueAtPercentile(99.9) / NANOS_TO_MILLIS, latencies.getMaxValue() / NANOS_TO_MILLIS,
+            errors - previousErrors);
+        if (metrics.getConcurrencyLimit() > 0) {
+            writer.printf(" | limit %d", metrics.getConcurrencyLimit());
+        }
+        printSocketStats();
+        if (metrics.getHedges() > 0) {
+            writer.printf(" | hedges %d", metrics.getHedges());
+        }
+        if (metrics.getSpills() > 0) {
+            writer.printf(" | spills %d", metrics.getSpills());
+        }
+        if ((metrics.getCacheHits() + metrics.getCacheMisses()) > 0) {
+            writer.printf(" | cache hits %d misses %d", metrics.getCacheHits(), metrics.getCacheMisses());
+        }
+        writer.println();
+        writer.flush();
+
+        previousTime = now;
+        previousSent = sent;
+        previousReceived = received;
+        previousBytesSent = bytesSent;
+        previousBytesReceived = bytesReceived;
+        previousErrors = errors;
+    }
+
+}
@@ -0,0 +1,333 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.util.List;
+import java.util.Locale;
+
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+
+/**
+ * JVM costs of a run. Memory allocated, garbage collections, direct memory and Netty buffer pools.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class JvmStats {
+
+    /**
+     * Bytes in a megabyte.
+     */
+    private static final double BYTES_TO_MEGABYTES = 1024 * 1024;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double NANOS_TO_SECONDS   = 1_000_000_000;
+
+    /**
+     * Buffers allocated from the pool and not yet released. Negative if the pool is not used.
+     */
+    private final long          activeAllocations;
+
+    /**
+     * Bytes allocated by the threads. Negative if not known.
+     */
+    private final long          allocated;
+
+    /**
+     * Direct memory limit, in bytes.
+     */
+    private final long          directMax;
+
+    /**
+     * Highest direct memory used, in bytes.
+     */
+    private final long          directPeak;
+
+    /**
+     * Direct memory used at the end, in bytes.
+     */
+    private final long          directUsed;
+
+    /**
+     * Nanoseconds taken by the run.
+     */
+    private final long          elapsed;
+
+    /**
+     * Garbage collections.
+     */
+    private final long          gcCount;
+
+    /**
+     * Milliseconds spent on garbage collections.
+     */
+    private final long          gcTime;
+
+    /**
+     * Messages sent during the run.
+     */
+    private final long          messages;
+
+    /**
+     * Pool arenas for direct buffers.
+     */
+    private final int           poolDirectArenas;
+
+    /**
+     * Direct memory held by the pool, in bytes.
+     */
+    private final long          poolDirectUsed;
+
+    /**
+     * Pool arenas for heap buffers.
+     */
+    private final int           poolHeapArenas;
+
+    /**
+     * Heap memory held by the pool, in bytes.
+     */
+    private final long          poolHeapUsed;
+
+    /**
+     * Thread local caches of the pool.
+     */
+    private final int           poolThreadCaches;
+
+    /**
+     * Constructs the stats. The pool values are read immediately.
+     *
+     * @param msgs
+     *            messages sent during the run
+     * @param elpsd
+     *            nanoseconds taken by the run
+     * @param allctd
+     *            bytes allocated by the threads, negative if not known
+     * @param gcs
+     *            garbage collections
+     * @param gcMillis
+     *            milliseconds spent on garbage collections
+     * @param drctUsed
+     *            direct memory used at the end
+     * @param drctPeak
+     *            highest direct memory used
+     * @param drctMax
+     *            direct memory limit
+     * @param pool
+     *            buffer pool metrics, {@code null} if the pool is not used
+     */
+    public JvmStats(final long msgs, final long elpsd, final long allctd, final long gcs, final long gcMillis,
+            final long drctUsed, final long drctPeak, final long drctMax, final PooledByteBufAllocatorMetric pool) {
+        super();
+
+        messages = msgs;
+        elapsed = elpsd;
+        allocated = allctd;
+        gcCount = gcs;
+        gcTime = gcMillis;
+        directUsed = drctUsed;
+        directPeak = drctPeak;
+        directMax = drctMax;
+        if (pool == null) {
+            poolDirectArenas = 0;
+            poolHeapArenas = 0;
+            poolThreadCaches = 0;
+            poolDirectUsed = 0;
+            poolHeapUsed = 0;
+            activeAllocations = -1;
+        } else {
+            poolDirectArenas = pool.numDirectArenas();
+            poolHeapArenas = pool.numHeapArenas();
+            poolThreadCaches = pool.numThreadLocalCaches();
+            poolDirectUsed = pool.usedDirectMemory();
+            poolHeapUsed = pool.usedHeapMemory();
+            activeAllocations = countActive(pool.directArenas()) + countActive(pool.heapArenas());
+        }
+    }
+
+    /**
+     * Returns the buffers allocated from the pool and not yet released. Negative if the pool is not used.
+     *
+     * @return the active pool allocations
+     */
+    public final long getActiveAllocations() {
+        return activeAllocations;
+    }
+
+    /**
+     * Returns the bytes allocated by the threads. Negative if not known.
+     *
+     * @return the bytes allocated
+     */
+    public final long getAllocated() {
+        return allocated;
+    }
+
+    /**
+     * Returns the bytes allocated for each message sent. Negative if not known.
+     *
+     * @return the bytes allocated per message
+     */
+    public final double getAllocatedPerMessage() {
+        final double perMessage;
+
+        if (allocated < 0) {
+            perMessage = -1;
+        } else if (messages == 0) {
+            perMessage = 0;
+        } else {
+            perMessage = (double) allocated / messages;
+        }
+
+        return perMessage;
+    }
+
+    /**
+     * Returns the highest direct memory used, in bytes.
+     *
+     * @return the highest direct memory used
+     */
+    public final long getDirectPeak() {
+        return directPeak;
+    }
+
+    /**
+     * Returns the direct memory used at the end, in bytes.
+     *
+     * @return the direct memory used
+     */
+    public final long getDirectUsed() {
+        return directUsed;
+    }
+
+    /**
+     * Returns the number of garbage collections.
+     *
+     * @return the number of garbage collections
+     */
+    public final long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Returns the milliseconds spent on garbage collections.
+     *
+     * @return the milliseconds spent on garbage collections
+     */
+    public final long getGcTime() {
+        return gcTime;
+    }
+
+    /**
+     * Returns the stats as a JSON object.
+     *
+     * @return the stats as JSON
+     */
+    public final String toJson() {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        json.append(String.format(Locale.ROOT,
+            "{\"allocatedBytes\":%d,\"allocatedPerMessage\":%.1f,\"allocatedPerSecond\":%.1f,", allocated,
+            getAllocatedPerMessage(), getAllocatedPerSecond()));
+        json.append(String.format(Locale.ROOT, "\"gcCount\":%d,\"gcMillis\":%d,", gcCount, gcTime));
+        json.append(String.format(Locale.ROOT, "\"directUsed\":%d,\"directPeak\":%d,\"directMax\":%d,", directUsed,
+            directPeak, directMax));
+        json.append(String.format(Locale.ROOT,
+            "\"pool\":{\"directArenas\":%d,\"heapArenas\":%d,\"threadCaches\":%d,\"directUsed\":%d,\"heapUsed\":%d,"
+                    + "\"activeAllocations\":%d}}",
+            poolDirectArenas, poolHeapArenas, poolThreadCaches, poolDirectUsed, poolHeapUsed, activeAllocations));
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the stats as human-readable text.
+     *
+     * @return the stats as text
+     */
+    public final String toText() {
+        final StringBuilder text;
+
+        text = new StringBuilder();
+        if (allocated < 0) {
+            text.append(String.format("Allocated:  not available%n"));
+        } else {
+            text.append(String.format(Locale.ROOT, "Allocated:  %.1f MB, %.0f bytes/msg, %.1f MB/s%n",
+                allocated / BYTES_TO_MEGABYTES, getAllocatedPerMessage(),
+                getAllocatedPerSecond() / BYTES_TO_MEGABYTES));
+        }
+        text.append(String.format(Locale.ROOT, "GC:         %d collections, %d ms%n", gcCount, gcTime));
+        text.append(String.format(Locale.ROOT, "Direct:     %.1f MB used, %.1f MB peak, %.1f MB max%n",
+            directUsed / BYTES_TO_MEGABYTES, directPeak / BYTES_TO_MEGABYTES, directMax / BYTES_TO_MEGABYTES));
+        if (activeAllocations < 0) {
+            text.append("Pool:       not used");
+        } else {
+            text.append(String.format(Locale.ROOT,
+                "Pool:       %d direct and %d heap arenas, %d thread caches, %.1f MB direct, %.1f MB heap,"
+                        + " %d active buffers",
+                poolDirectArenas, poolHeapArenas, poolThreadCaches, poolDirectUsed / BYTES_TO_MEGABYTES,
+                poolHeapUsed / BYTES_TO_MEGABYTES, activeAllocations));
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Returns the buffers allocated from the arenas and not yet released.
+     *
+     * @param arenas
+     *            arenas to count
+     * @return the active allocations in the arenas
+     */
+    private final long countActive(final List<PoolArenaMetric> arenas) {
+        return arenas.stream()
+            .mapToLong(PoolArenaMetric::numActiveAllocations)
+            .sum();
+    }
+
+    /**
+     * Returns the bytes allocated per second. Negative if not known.
+     *
+     * @return the bytes allocated per second
+     */
+    private final double getAllocatedPerSecond() {
+        final double perSecond;
+
+        if (allocated < 0) {
+            perSecond = -1;
+        } else if (elapsed == 0) {
+            perSecond = 0;
+        } else {
+            perSecond = allocated / (elapsed / NANOS_TO_SECONDS);
+        }
+
+        return perSecond;
+    }
+
+}
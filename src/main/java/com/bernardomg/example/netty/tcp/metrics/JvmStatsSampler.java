@@ -0,0 +1,262 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.management.ThreadMXBean;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.netty.util.internal.PlatformDependent;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Samples the JVM costs of a run: memory allocated by the threads, garbage collections, direct memory and the Netty
+ * buffer pools. These tell if the client itself is slowing down the run.
+ * <p>
+ * Allocations are counted for each thread, and threads may end before the run does, as the client event loops do
+ * when closing. So they are sampled periodically, and for threads which end only the allocations until their last
+ * sample are counted. Allocation counters are not available in all the JVMs.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@Slf4j
+public final class JvmStatsSampler implements AutoCloseable {
+
+    /**
+     * Time between samples.
+     */
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * Bytes allocated by each thread when the run started, by thread id.
+     */
+    private final Map<Long, Long> baseline        = new HashMap<>();
+
+    /**
+     * Garbage collections when the run started.
+     */
+    private final long            gcCount;
+
+    /**
+     * Milliseconds spent on garbage collections when the run started.
+     */
+    private final long            gcTime;
+
+    /**
+     * Bytes allocated by each thread on the last sample, by thread id.
+     */
+    private final Map<Long, Long> latest          = new HashMap<>();
+
+    /**
+     * Highest direct memory used.
+     */
+    private long                  peakDirect;
+
+    /**
+     * Running samples. Is {@code null} until started.
+     */
+    private Disposable            task;
+
+    /**
+     * Thread bean, with the allocation counters. Is {@code null} if they are not available.
+     */
+    private final ThreadMXBean    threads;
+
+    /**
+     * Constructs a sampler, taking the current counters as the start of the run.
+     */
+    public JvmStatsSampler() {
+        super();
+
+        threads = getThreadBean();
+        sampleAllocations(baseline);
+        gcCount = getGcCount();
+        gcTime = getGcTime();
+        peakDirect = getDirectMemory();
+    }
+
+    @Override
+    public final synchronized void close() {
+        if (task != null) {
+            task.dispose();
+        }
+        sample();
+    }
+
+    /**
+     * Starts sampling periodically.
+     */
+    public final void start() {
+        task = Flux.interval(SAMPLE_INTERVAL)
+            .subscribe(i -> sample());
+    }
+
+    /**
+     * Returns the costs of the run, until now or until closed.
+     *
+     * @param messages
+     *            messages sent during the run
+     * @param elapsed
+     *            nanoseconds taken by the run, for the allocation rate
+     * @return the costs of the run
+     */
+    public final synchronized JvmStats toStats(final long messages, final long elapsed) {
+        final long                         allocated;
+        final ByteBufAllocator             allocator;
+        final PooledByteBufAllocatorMetric pool;
+
+        sample();
+        if (threads == null) {
+            allocated = -1;
+        } else {
+            allocated = latest.entrySet()
+                .stream()
+                .mapToLong(thread -> thread.getValue() - baseline.getOrDefault(thread.getKey(), 0L))
+                .sum();
+        }
+        allocator = ByteBufAllocator.DEFAULT;
+        if (allocator instanceof PooledByteBufAllocator) {
+            pool = ((PooledByteBufAllocator) allocator).metric();
+        } else {
+            pool = null;
+        }
+
+        return new JvmStats(messages, elapsed, allocated, getGcCount() - gcCount, getGcTime() - gcTime,
+            getDirectMemory(), peakDirect, PlatformDependent.maxDirectMemory(), pool);
+    }
+
+    /**
+     * Returns the direct memory in use. This adds the JDK direct buffers to those Netty allocates on its own, without
+     * going through the JDK.
+     *
+     * @return the direct memory in use, in bytes
+     */
+    private final long getDirectMemory() {
+        final List<BufferPoolMXBean> pools;
+        long                         used;
+
+        pools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+        used = pools.stream()
+            .filter(pool -> "direct".equals(pool.getName()))
+            .mapToLong(BufferPoolMXBean::getMemoryUsed)
+            .sum();
+        // Negative if Netty is not counting them
+        used += Math.max(0, PlatformDependent.usedDirectMemory());
+
+        return used;
+    }
+
+    /**
+     * Returns the number of garbage collections, across all the collectors.
+     *
+     * @return the number of garbage collections
+     */
+    private final long getGcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans()
+            .stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+            .filter(count -> count > 0)
+            .sum();
+    }
+
+    /**
+     * Returns the milliseconds spent on garbage collections, across all the collectors.
+     *
+     * @return the milliseconds spent on garbage collections
+     */
+    private final long getGcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans()
+            .stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+            .filter(time -> time > 0)
+            .sum();
+    }
+
+    /**
+     * Returns the thread bean, if it counts the allocations. Otherwise it returns {@code null}.
+     *
+     * @return the thread bean, or {@code null} if it doesn't count allocations
+     */
+    private final ThreadMXBean getThreadBean() {
+        ThreadMXBean bean;
+
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean) {
+            bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+                log.warn("Thread allocation counters are disabled");
+                bean = null;
+            }
+        } else {
+            log.warn("Thread allocation counters are not available in this JVM");
+            bean = null;
+        }
+
+        return bean;
+    }
+
+    /**
+     * Takes a sample of the allocations and the direct memory.
+     */
+    private final synchronized void sample() {
+        sampleAllocations(latest);
+        peakDirect = Math.max(peakDirect, getDirectMemory());
+    }
+
+    /**
+     * Reads the bytes allocated by each live thread into the map. Threads which ended keep their last value.
+     *
+     * @param allocations
+     *            bytes allocated, by thread id
+     */
+    private final void sampleAllocations(final Map<Long, Long> allocations) {
+        final long[] ids;
+        final long[] bytes;
+
+        if (threads != null) {
+            ids = threads.getAllThreadIds();
+            bytes = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                // Negative for threads which ended while reading
+                if (bytes[i] >= 0) {
+                    allocations.put(ids[i], bytes[i]);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+
+/**
+ * Transaction listener which keeps the latencies of each priority lane apart, so they can be compared.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class LaneMetricsListener implements TransactionListener {
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double            NANOS_TO_MILLIS    = 1_000_000;
+
+    /**
+     * Number of significant value digits in the histograms.
+     */
+    private static final int               SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Latencies, by lane.
+     */
+    private final Map<Priority, Histogram> latencies          = new EnumMap<>(Priority.class);
+
+    /**
+     * Default constructor.
+     */
+    public LaneMetricsListener() {
+        super();
+
+        for (final Priority priority : Priority.values()) {
+            latencies.put(priority, new Histogram(SIGNIFICANT_DIGITS));
+        }
+    }
+
+    /**
+     * Returns a copy of the latencies of a lane.
+     *
+     * @param priority
+     *            lane priority
+     * @return the latencies of the lane
+     */
+    public final Histogram getLatencies(final Priority priority) {
+        final Histogram histogram;
+        final Histogram copy;
+
+        histogram = latencies.get(priority);
+        synchronized (histogram) {
+            copy = histogram.copy();
+        }
+
+        return copy;
+    }
+
+    @Override
+    public final void onLaneLatency(final Priority priority, final long nanos) {
+        final Histogram histogram;
+
+        histogram = latencies.get(priority);
+        synchronized (histogram) {
+            histogram.recordValue(nanos);
+        }
+    }
+
+    @Override
+    public final void onReceive(final String message) {}
+
+    @Override
+    public final void onSend(final String message) {}
+
+    @Override
+    public final void onStart() {}
+
+    @Override
+    public final void onStop() {}
+
+    /**
+     * Returns the latencies of each lane with responses, as human readable text. One line for each lane.
+     *
+     * @return the lane latencies as text
+     */
+    public final String toText() {
+        final StringBuilder text;
+        Histogram           histogram;
+
+        text = new StringBuilder();
+        for (final Priority priority : Priority.values()) {
+            histogram = getLatencies(priority);
+            if (histogram.getTotalCount() > 0) {
+                text.append(String.format(Locale.ROOT, "Lane %-6s  %d responses | p50 %.3f ms | p99 %.3f ms%n",
+                    priority, histogram.getTotalCount(), histogram.getValueAtPercentile(50) / NANOS_TO_MILLIS,
+                    histogram.getValueAtPercentile(99) / NANOS_TO_MILLIS));
+            }
+        }
+
+        return text.toString();
+    }
+
+}
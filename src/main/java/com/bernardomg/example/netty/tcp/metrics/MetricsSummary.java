@@ -0,0 +1,478 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Summary of the metrics for a full run.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class MetricsSummary {
+
+    /**
+     * Reporting ticks per half distance to 100%, for the latency distribution.
+     */
+    private static final int      DISTRIBUTION_TICKS = 5;
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double   NANOS_TO_MILLIS    = 1_000_000;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double   NANOS_TO_SECONDS   = 1_000_000_000;
+
+    /**
+     * Percentiles included in the summary.
+     */
+    private static final double[] PERCENTILES        = { 50, 90, 99, 99.9 };
+
+    /**
+     * Significant digits kept by the latency histograms.
+     */
+    private static final int      SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Creates a summary from properties, as created by {@link #toProperties()}.
+     *
+     * @param properties
+     *            properties to read
+     * @return the summary stored in the properties
+     */
+    public static final MetricsSummary fromProperties(final Properties properties) {
+        final Histogram latencies;
+        final byte[]    encoded;
+
+        encoded = Base64.getDecoder()
+            .decode(properties.getProperty("latencies"));
+        try {
+            latencies = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(encoded), 0);
+        } catch (final DataFormatException e) {
+            throw new IllegalArgumentException("Invalid latencies histogram", e);
+        }
+
+        return new MetricsSummary(Long.parseLong(properties.getProperty("sent")),
+            Long.parseLong(properties.getProperty("received")), Long.parseLong(properties.getProperty("bytesSent")),
+            Long.parseLong(properties.getProperty("bytesReceived")), Long.parseLong(properties.getProperty("errors")),
+            Long.parseLong(properties.getProperty("elapsed")), latencies);
+    }
+
+    /**
+     * Merges several summaries into a single one. Counters and latencies are added, while the elapsed time is the
+     * longest one, as the summaries are expected to come from runs in parallel.
+     *
+     * @param summaries
+     *            summaries to merge
+     * @return the merged summary
+     */
+    public static final MetricsSummary merge(final Collection<MetricsSummary> summaries) {
+        final Histogram latencies;
+        long            sent;
+        long            received;
+        long            bytesSent;
+        long            bytesReceived;
+        long            errors;
+        long            elapsed;
+
+        latencies = new Histogram(SIGNIFICANT_DIGITS);
+        sent = 0;
+        received = 0;
+        bytesSent = 0;
+        bytesReceived = 0;
+        errors = 0;
+        elapsed = 0;
+        for (final MetricsSummary summary : summaries) {
+            sent += summary.getSent();
+            received += summary.getReceived();
+            bytesSent += summary.getBytesSent();
+            bytesReceived += summary.getBytesReceived();
+            errors += summary.getErrors();
+            elapsed = Math.max(elapsed, summary.getElapsed());
+            latencies.add(summary.getLatencies());
+        }
+
+        return new MetricsSummary(sent, received, bytesSent, bytesReceived, errors, elapsed, latencies);
+    }
+
+    /**
+     * Creates a summary from the metrics gathered by the listener.
+     *
+     * @param metrics
+     *            metrics to summarize
+     * @return the summary for the metrics
+     */
+    public static final MetricsSummary of(final MetricsTransactionListener metrics) {
+        return new MetricsSummary(metrics.getSent(), metrics.getReceived(), metrics.getBytesSent(),
+            metrics.getBytesReceived(), metrics.getErrors(), metrics.getElapsed(), metrics.getTotalLatencies());
+    }
+
+    /**
+     * Bytes received.
+     */
+    private final long            bytesReceived;
+
+    /**
+     * Bytes sent.
+     */
+    private final long            bytesSent;
+
+    /**
+     * Time elapsed, in nanoseconds.
+     */
+    private final long            elapsed;
+
+    /**
+     * Errors.
+     */
+    private final long            errors;
+
+    /**
+     * All the latencies.
+     */
+    private final Histogram       latencies;
+
+    /**
+     * Messages received.
+     */
+    private final long            received;
+
+    /**
+     * Messages sent.
+     */
+    private final long            sent;
+
+    /**
+     * Constructs a summary with the received values.
+     *
+     * @param snt
+     *            messages sent
+     * @param rcvd
+     *            messages received
+     * @param bSent
+     *            bytes sent
+     * @param bRcvd
+     *            bytes received
+     * @param errs
+     *            errors
+     * @param elpsd
+     *            time elapsed, in nanoseconds
+     * @param ltncs
+     *            all the latencies
+     */
+    public MetricsSummary(final long snt, final long rcvd, final long bSent, final long bRcvd, final long errs,
+            final long elpsd, final Histogram ltncs) {
+        super();
+
+        sent = snt;
+        received = rcvd;
+        bytesSent = bSent;
+        bytesReceived = bRcvd;
+        errors = errs;
+        elapsed = elpsd;
+        latencies = Objects.requireNonNull(ltncs);
+    }
+
+    /**
+     * Returns the number of bytes received.
+     *
+     * @return the number of bytes received
+     */
+    public final long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Returns the number of bytes sent.
+     *
+     * @return the number of bytes sent
+     */
+    public final long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Returns the time elapsed, in nanoseconds.
+     *
+     * @return the time elapsed
+     */
+    public final long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the number of errors.
+     *
+     * @return the number of errors
+     */
+    public final long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns all the latencies, in nanoseconds.
+     *
+     * @return all the latencies
+     */
+    public final Histogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the number of messages received.
+     *
+     * @return the number of messages received
+     */
+    public final long getReceived() {
+        return received;
+    }
+
+    /**
+     * Returns the messages received per second.
+     *
+     * @return the messages received per second
+     */
+    public final double getReceivedThroughput() {
+        return perSecond(received);
+    }
+
+    /**
+     * Returns the number of messages sent.
+     *
+     * @return the number of messages sent
+     */
+    public final long getSent() {
+        return sent;
+    }
+
+    /**
+     * Returns the messages sent per second.
+     *
+     * @return the messages sent per second
+     */
+    public final double getSentThroughput() {
+        return perSecond(sent);
+    }
+
+    /**
+     * Returns the summary as CSV, with the full latency distribution in milliseconds. The columns are the same used
+     * by the HdrHistogram tools, so it can be plotted with them.
+     *
+     * @return the latency distribution as CSV
+     */
+    public final String toCsv() {
+        final ByteArrayOutputStream output;
+
+        output = new ByteArrayOutputStream();
+        latencies.outputPercentileDistribution(new PrintStream(output, true, StandardCharsets.UTF_8),
+            DISTRIBUTION_TICKS, NANOS_TO_MILLIS, true);
+
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the summary as a JSON object, along with the full latency distribution and the encoded histogram. This
+     * way the results can be analyzed, or merged with others, later.
+     *
+     * @return the detailed summary as JSON
+     */
+    public final String toDetailedJson() {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        appendJson(json);
+        json.append(",\"distribution\":[");
+        json.append(StreamSupport.stream(latencies.percentiles(DISTRIBUTION_TICKS)
+            .spliterator(), false)
+            .map(value -> String.format(Locale.ROOT, "{\"percentile\":%.6f,\"valueMillis\":%.3f,\"count\":%d}",
+                value.getPercentileLevelIteratedTo(), value.getValueIteratedTo() / NANOS_TO_MILLIS,
+                value.getTotalCountToThisValue()))
+            .collect(Collectors.joining(",")));
+        json.append("],\"histogram\":\"");
+        json.append(encodeLatencies());
+        json.append("\"}");
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the summary as a JSON object.
+     *
+     * @return the summary as JSON
+     */
+    public final String toJson() {
+        final StringBuilder json;
+
+        json = new StringBuilder();
+        appendJson(json);
+        json.append('}');
+
+        return json.toString();
+    }
+
+    /**
+     * Returns the summary as properties. Latencies are stored as a compressed histogram.
+     *
+     * @return the summary as properties
+     */
+    public final Properties toProperties() {
+        final Properties properties;
+
+        properties = new Properties();
+        properties.setProperty("sent", String.valueOf(sent));
+        properties.setProperty("received", String.valueOf(received));
+        properties.setProperty("bytesSent", String.valueOf(bytesSent));
+        properties.setProperty("bytesReceived", String.valueOf(bytesReceived));
+        properties.setProperty("errors", String.valueOf(errors));
+        properties.setProperty("elapsed", String.valueOf(elapsed));
+        properties.setProperty("latencies", encodeLatencies());
+
+        return properties;
+    }
+
+    /**
+     * Returns the summary as human-readable text.
+     *
+     * @return the summary as text
+     */
+    public final String toText() {
+        final StringBuilder text;
+
+        text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Sent:       %d messages, %d bytes, %.2f msg/s%n", sent, bytesSent,
+            getSentThroughput()));
+        text.append(String.format(Locale.ROOT, "Received:   %d messages, %d bytes, %.2f msg/s%n", received,
+            bytesReceived, getReceivedThroughput()));
+        text.append(String.format(Locale.ROOT, "Errors:     %d%n", errors));
+        text.append(String.format(Locale.ROOT, "Elapsed:    %.3f s%n", elapsed / NANOS_TO_SECONDS));
+        text.append(String.format(Locale.ROOT, "Latency ms: min %.3f | mean %.3f",
+            latencies.getMinValue() / NANOS_TO_MILLIS, latencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, " | p%s %.3f", formatPercentile(percentile),
+                latencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        text.append(String.format(Locale.ROOT, " | max %.3f", latencies.getMaxValue() / NANOS_TO_MILLIS));
+
+        return text.toString();
+    }
+
+    /**
+     * Appends the summary fields as a JSON object, without closing it.
+     *
+     * @param json
+     *            JSON to append into
+     */
+    private final void appendJson(final StringBuilder json) {
+        json.append('{');
+        json.append(String.format(Locale.ROOT,
+            "\"sent\":%d,\"received\":%d,\"bytesSent\":%d,\"bytesReceived\":%d,\"errors\":%d,\"elapsedSeconds\":%.3f,",
+            sent, received, bytesSent, bytesReceived, errors, elapsed / NANOS_TO_SECONDS));
+        json.append(String.format(Locale.ROOT, "\"sentPerSecond\":%.2f,\"receivedPerSecond\":%.2f,",
+            getSentThroughput(), getReceivedThroughput()));
+        json.append("\"latencyMillis\":{");
+        json.append(String.format(Locale.ROOT, "\"count\":%d,\"min\":%.3f,\"mean\":%.3f,",
+            latencies.getTotalCount(), latencies.getMinValue() / NANOS_TO_MILLIS,
+            latencies.getMean() / NANOS_TO_MILLIS));
+        for (final double percentile : PERCENTILES) {
+            json.append(String.format(Locale.ROOT, "\"p%s\":%.3f,", formatPercentile(percentile),
+                latencies.getValueAtPercentile(percentile) / NANOS_TO_MILLIS));
+        }
+        json.append(String.format(Locale.ROOT, "\"max\":%.3f", latencies.getMaxValue() / NANOS_TO_MILLIS));
+        json.append('}');
+    }
+
+    /**
+     * Returns the latencies as a compressed histogram, encoded in Base64.
+     *
+     * @return the encoded latencies
+     */
+    private final String encodeLatencies() {
+        final ByteBuffer buffer;
+        final int        length;
+
+        buffer = ByteBuffer.allocate(latencies.getNeededByteBufferCapacity());
+        length = latencies.encodeIntoCompressedByteBuffer(buffer);
+
+        return Base64.getEncoder()
+            .encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    /**
+     * Returns the percentile name, without decimals if it is an integer.
+     *
+     * @param percentile
+     *            percentile to format
+     * @return the formatted percentile
+     */
+    private final String formatPercentile(final double percentile) {
+        final String formatted;
+
+        if (percentile == Math.rint(percentile)) {
+            formatted = String.valueOf((long) percentile);
+        } else {
+            formatted = String.valueOf(percentile);
+        }
+
+        return formatted;
+    }
+
+    /**
+     * Returns the value per second elapsed.
+     *
+     * @param value
+     *            value to divide
+     * @return the value per second
+     */
+    private final double perSecond(final long value) {
+        final double result;
+
+        if (elapsed == 0) {
+            result = 0;
+        } else {
+            result = value / (elapsed / NANOS_TO_SECONDS);
+        }
+
+        return result;
+    }
+
+}
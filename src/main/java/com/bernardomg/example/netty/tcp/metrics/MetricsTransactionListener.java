@@ -0,0 +1,428 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
+
+/**
+ * Transaction listener which gathers metrics. Counters are striped, so the event loop threads updating them don't
+ * contend with each other, or with the threads reading them.
+ * <p>
+ * Latencies are stored into interval histograms. Each time an interval is taken, it is also added to the total
+ * latencies, so intervals should be read by a single reader.
+ * <p>
+ * Bytes are counted in the charset of the messages, which should be the same one used by the client.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class MetricsTransactionListener implements TransactionListener {
+
+    /**
+     * Significant digits kept by the latency histograms.
+     */
+    private static final int               SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * Bytes received.
+     */
+    private final LongAdder                bytesReceived      = new LongAdder();
+
+    /**
+     * Bytes sent.
+     */
+    private final LongAdder                bytesSent          = new LongAdder();
+
+    /**
+     * Responses taken from the cache.
+     */
+    private final LongAdder                cacheHits          = new LongAdder();
+
+    /**
+     * Responses missing from the cache.
+     */
+    private final LongAdder                cacheMisses        = new LongAdder();
+
+    /**
+     * Codec for the messages. Tells the bytes they take.
+     */
+    private final TextCodec                codec;
+
+    /**
+     * Concurrency limit for all the connections.
+     */
+    private final LongAdder                concurrencyLimit   = new LongAdder();
+
+    /**
+     * Errors.
+     */
+    private final LongAdder                errors             = new LongAdder();
+
+    /**
+     * Time of the first message sent, in nanoseconds.
+     */
+    private final LongAccumulator          firstSend          = new LongAccumulator(Long::min, Long.MAX_VALUE);
+
+    /**
+     * Requests hedged.
+     */
+    private final LongAdder                hedges             = new LongAdder();
+
+    /**
+     * Time of the last message sent or received, in nanoseconds.
+     */
+    private final LongAccumulator          lastActivity       = new LongAccumulator(Long::max, Long.MIN_VALUE);
+
+    /**
+     * Latencies recorder. Gives the latencies for each interval.
+     */
+    private final Recorder                 latencies          = new Recorder(SIGNIFICANT_DIGITS);
+
+    /**
+     * Messages received.
+     */
+    private final LongAdder                received           = new LongAdder();
+
+    /**
+     * Messages sent.
+     */
+    private final LongAdder                sent               = new LongAdder();
+
+    /**
+     * Latest socket state sample for each connection.
+     */
+    private final Map<String, SocketStats> socketStats        = new ConcurrentHashMap<>();
+
+    /**
+     * Requests spilled into another connection, as the pipelining window was full.
+     */
+    private final LongAdder                spills             = new LongAdder();
+
+    /**
+     * Latencies for all the finished intervals.
+     */
+    private final Histogram                totalLatencies     = new Histogram(SIGNIFICANT_DIGITS);
+
+    /**
+     * Connections currently unwritable.
+     */
+    private final LongAdder                unwritable         = new LongAdder();
+
+    /**
+     * Writability changes.
+     */
+    private final LongAdder                writabilityChanges = new LongAdder();
+
+    /**
+     * Reusable interval histogram.
+     */
+    private Histogram                      interval;
+
+    /**
+     * Constructs a listener for messages in the platform charset, which is the default one for the client.
+     */
+    public MetricsTransactionListener() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * Constructs a listener for messages in the charset.
+     *
+     * @param charset
+     *            charset for the messages
+     */
+    public MetricsTransactionListener(final Charset charset) {
+        super();
+
+        codec = new TextCodec(charset);
+    }
+
+    /**
+     * Returns the number of bytes received.
+     *
+     * @return the number of bytes received
+     */
+    public final long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * Returns the number of bytes sent.
+     *
+     * @return the number of bytes sent
+     */
+    public final long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * Returns the number of responses taken from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public final long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the number of responses missing from the cache.
+     *
+     * @return the number of cache misses
+     */
+    public final long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Returns the concurrency limit for all the connections. If there is no limit, then it is zero.
+     *
+     * @return the concurrency limit
+     */
+    public final long getConcurrencyLimit() {
+        return concurrencyLimit.sum();
+    }
+
+    /**
+     * Returns the time elapsed since the first message was sent until the last message was sent or received. If
+     * nothing has been sent then it is zero.
+     *
+     * @return the elapsed time, in nanoseconds
+     */
+    public final long getElapsed() {
+        final long first;
+
+        first = firstSend.get();
+
+        return first == Long.MAX_VALUE ? 0 : Math.max(0, lastActivity.get() - first);
+    }
+
+    /**
+     * Returns the number of errors.
+     *
+     * @return the number of errors
+     */
+    public final long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the number of requests hedged.
+     *
+     * @return the number of requests hedged
+     */
+    public final long getHedges() {
+        return hedges.sum();
+    }
+
+    /**
+     * Returns the number of requests waiting for a response. Calculated from the messages sent and received.
+     *
+     * @return the number of requests waiting for a response
+     */
+    public final long getInFlight() {
+        return Math.max(0, sent.sum() - received.sum());
+    }
+
+    /**
+     * Returns the latencies recorded since the last interval was taken, and starts a new interval. The returned
+     * histogram is reused by the next call.
+     *
+     * @return the latencies for the interval
+     */
+    public final synchronized Histogram getIntervalLatencies() {
+        interval = latencies.getIntervalHistogram(interval);
+        totalLatencies.add(interval);
+
+        return interval;
+    }
+
+    /**
+     * Returns the number of messages received.
+     *
+     * @return the number of messages received
+     */
+    public final long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * Returns the number of messages sent.
+     *
+     * @return the number of messages sent
+     */
+    public final long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * Returns the latest socket state sample for each connection.
+     *
+     * @return the latest socket state samples
+     */
+    public final Collection<SocketStats> getSocketStats() {
+        return List.copyOf(socketStats.values());
+    }
+
+    /**
+     * Returns the number of requests spilled into another connection, as the pipelining window was full.
+     *
+     * @return the number of requests spilled
+     */
+    public final long getSpills() {
+        return spills.sum();
+    }
+
+    /**
+     * Returns a copy of all the latencies recorded. This closes the current interval.
+     *
+     * @return all the latencies recorded
+     */
+    public final synchronized Histogram getTotalLatencies() {
+        getIntervalLatencies();
+
+        return totalLatencies.copy();
+    }
+
+    /**
+     * Returns the number of connections currently unwritable.
+     *
+     * @return the number of connections unwritable
+     */
+    public final long getUnwritable() {
+        return unwritable.sum();
+    }
+
+    /**
+     * Returns the number of times a connection became writable or unwritable.
+     *
+     * @return the number of writability changes
+     */
+    public final long getWritabilityChanges() {
+        return writabilityChanges.sum();
+    }
+
+    @Override
+    public final void onCacheHit(final String message) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public final void onCacheMiss(final String message) {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public final void onConcurrencyLimitChange(final int previous, final int current) {
+        concurrencyLimit.add(current - previous);
+    }
+
+    @Override
+    public final void onError(final Throwable error) {
+        errors.increment();
+    }
+
+    @Override
+    public final void onHedge(final String message) {
+        hedges.increment();
+    }
+
+    @Override
+    public final void onLatency(final long nanos) {
+        latencies.recordValue(nanos);
+    }
+
+    @Override
+    public final void onReceive(final String message) {
+        received.increment();
+        bytesReceived.add(codec.encodedLength(message));
+        lastActivity.accumulate(System.nanoTime());
+    }
+
+    @Override
+    public final void onSend(final String message) {
+        final long now;
+
+        now = System.nanoTime();
+        sent.increment();
+        bytesSent.add(codec.encodedLength(message));
+        firstSend.accumulate(now);
+        lastActivity.accumulate(now);
+    }
+
+    @Override
+    public final void onSendBytes(final int bytes) {
+        final long now;
+
+        now = System.nanoTime();
+        sent.increment();
+        bytesSent.add(bytes);
+        firstSend.accumulate(now);
+        lastActivity.accumulate(now);
+    }
+
+    @Override
+    public final void onSocketStats(final SocketStats stats) {
+        socketStats.put(stats.getConnection(), stats);
+    }
+
+    @Override
+    public final void onSpill() {
+        spills.increment();
+    }
+
+    @Override
+    public final void onStart() {
+        // Nothing to gather
+    }
+
+    @Override
+    public final void onStop() {
+        // Nothing to gather
+    }
+
+    @Override
+    public final void onWritabilityChange(final boolean writable) {
+        writabilityChanges.increment();
+        if (writable) {
+            unwritable.decrement();
+        } else {
+            unwritable.increment();
+        }
+    }
+
+}
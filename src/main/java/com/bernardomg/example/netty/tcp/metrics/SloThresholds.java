@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service level objectives for a run. Each threshold is optional, and a summary meets the objectives when it is within
+ * all of those set.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class SloThresholds {
+
+    /**
+     * Nanoseconds in a millisecond.
+     */
+    private static final double     NANOS_TO_MILLIS = 1_000_000;
+
+    /**
+     * Maximum number of errors. Negative if not set.
+     */
+    private long                    maxErrors       = -1;
+
+    /**
+     * Maximum latency at each percentile, in nanoseconds.
+     */
+    private final Map<Double, Long> maxLatencies    = new TreeMap<>();
+
+    /**
+     * Minimum responses per second. Zero if not set.
+     */
+    private double                  minThroughput;
+
+    /**
+     * Default constructor.
+     */
+    public SloThresholds() {
+        super();
+    }
+
+    /**
+     * Checks the summary against the thresholds, and returns the violations. If it is empty, then the summary meets
+     * all the objectives. Latency thresholds are never met when there are no latencies to check.
+     *
+     * @param summary
+     *            summary to check
+     * @return a description of each violated threshold
+     */
+    public final List<String> check(final MetricsSummary summary) {
+        final List<String> violations;
+        long               latency;
+
+        violations = new ArrayList<>();
+        if (!maxLatencies.isEmpty() && (summary.getLatencies()
+            .getTotalCount() == 0)) {
+            // An empty histogram reads as zero latency, which would meet any threshold
+            violations.add("no latencies were recorded, as no response was received");
+        }
+        for (final Map.Entry<Double, Long> threshold : maxLatencies.entrySet()) {
+            latency = summary.getLatencies()
+                .getValueAtPercentile(threshold.getKey());
+            if (latency > threshold.getValue()) {
+                violations.add(String.format(Locale.ROOT, "p%s latency %.3f ms is over %.3f ms",
+                    formatPercentile(threshold.getKey()), latency / NANOS_TO_MILLIS,
+                    threshold.getValue() / NANOS_TO_MILLIS));
+            }
+        }
+        if (summary.getReceivedThroughput() < minThroughput) {
+            violations.add(String.format(Locale.ROOT, "throughput %.2f msg/s is under %.2f msg/s",
+                summary.getReceivedThroughput(), minThroughput));
+        }
+        if ((maxErrors >= 0) && (summary.getErrors() > maxErrors)) {
+            violations.add(String.format(Locale.ROOT, "%d errors are over %d", summary.getErrors(), maxErrors));
+        }
+
+        return violations;
+    }
+
+    /**
+     * Tells if no threshold is set.
+     *
+     * @return {@code true} if there are no thresholds
+     */
+    public final boolean isEmpty() {
+        return maxLatencies.isEmpty() && (minThroughput <= 0) && (maxErrors < 0);
+    }
+
+    /**
+     * Sets the maximum number of errors.
+     *
+     * @param errors
+     *            maximum number of errors
+     */
+    public final void setMaxErrors(final long errors) {
+        maxErrors = errors;
+    }
+
+    /**
+     * Sets the maximum latency at a percentile. The percentile 100 is the maximum latency.
+     *
+     * @param percentile
+     *            percentile, from 0 to 100
+     * @param latency
+     *            maximum latency at the percentile
+     */
+    public final void setMaxLatency(final double percentile, final Duration latency) {
+        if ((percentile < 0) || (percentile > 100)) {
+            throw new IllegalArgumentException("The percentile should be between 0 and 100, received " + percentile);
+        }
+
+        maxLatencies.put(percentile, latency.toNanos());
+    }
+
+    /**
+     * Sets the minimum responses per second.
+     *
+     * @param throughput
+     *            minimum responses per second
+     */
+    public final void setMinThroughput(final double throughput) {
+        minThroughput = throughput;
+    }
+
+    /**
+     * Returns the percentile name, without decimals if it is an integer.
+     *
+     * @param percentile
+     *            percentile to format
+     * @return the formatted percentile
+     */
+    private final String formatPercentile(final double percentile) {
+        final String formatted;
+
+        if (percentile == Math.rint(percentile)) {
+            formatted = String.valueOf((long) percentile);
+        } else {
+            formatted = String.valueOf(percentile);
+        }
+
+        return formatted;
+    }
+
+}
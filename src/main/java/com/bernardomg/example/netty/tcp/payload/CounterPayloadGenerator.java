@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.payload;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+
+/**
+ * Generates payloads from a template text with a counter, such as {@code Message %d}. The text is filled with
+ * printable characters up to the payload size, unless it is already longer.
+ * <p>
+ * The text around the counter is built beforehand, and each payload duplicates it. Only the counter digits are
+ * written for each payload.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class CounterPayloadGenerator implements PayloadGenerator {
+
+    /**
+     * Maximum digits in the counter.
+     */
+    private static final int       COUNTER_DIGITS = 20;
+
+    /**
+     * Placeholder for the counter in the template.
+     */
+    private static final String    PLACEHOLDER    = "%d";
+
+    /**
+     * Allocator for the counters.
+     */
+    private final ByteBufAllocator allocator;
+
+    /**
+     * Next counter.
+     */
+    private final AtomicLong       counter        = new AtomicLong(1);
+
+    /**
+     * Text before the counter.
+     */
+    private final ByteBuf          prefix;
+
+    /**
+     * Text after the counter, including the filling.
+     */
+    private final ByteBuf          suffix;
+
+    /**
+     * Constructs a generator for the template.
+     *
+     * @param alloc
+     *            allocator for the templates and counters
+     * @param template
+     *            template text, with {@code %d} where the counter goes. If missing, the counter is appended
+     * @param size
+     *            payload size, in bytes
+     */
+    public CounterPayloadGenerator(final ByteBufAllocator alloc, final String template, final int size) {
+        super();
+
+        final int    placeholder;
+        final String before;
+        final String after;
+        final int    filling;
+
+        allocator = Objects.requireNonNull(alloc);
+
+        placeholder = template.indexOf(PLACEHOLDER);
+        if (placeholder < 0) {
+            before = template;
+            after = "";
+        } else {
+            before = template.substring(0, placeholder);
+            after = template.substring(placeholder + PLACEHOLDER.length());
+        }
+
+        prefix = allocator.directBuffer(ByteBufUtil.utf8Bytes(before));
+        ByteBufUtil.writeUtf8(prefix, before);
+
+        // The counter length changes, so the filling assumes a single digit
+        filling = Math.max(0, size - prefix.readableBytes() - 1 - ByteBufUtil.utf8Bytes(after));
+        suffix = allocator.directBuffer(ByteBufUtil.utf8Bytes(after) + filling);
+        ByteBufUtil.writeUtf8(suffix, after);
+        TemplatePayloadGenerator.fillSequential(suffix, filling);
+    }
+
+    @Override
+    public final void close() {
+        prefix.release();
+        suffix.release();
+    }
+
+    @Override
+    public final ByteBuf next() {
+        final CompositeByteBuf payload;
+        final ByteBuf          digits;
+
+        digits = allocator.directBuffer(COUNTER_DIGITS);
+        ByteBufUtil.writeAscii(digits, Long.toString(counter.getAndIncrement()));
+
+        payload = allocator.compositeDirectBuffer(3);
+        payload.addComponents(true, prefix.retainedDuplicate(), digits, suffix.retainedDuplicate());
+
+        return payload;
+    }
+
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.payload;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Generates payloads by duplicating templates built beforehand. Each payload shares the memory of its template, so
+ * nothing is copied or allocated for the content.
+ * <p>
+ * Contents are made of printable ASCII characters, so they never contain line breaks and can be sent line delimited.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class TemplatePayloadGenerator implements PayloadGenerator {
+
+    /**
+     * First printable ASCII character, after the space.
+     */
+    private static final int FIRST_PRINTABLE = '!';
+
+    /**
+     * Number of printable ASCII characters, after the space.
+     */
+    private static final int PRINTABLES      = ('~' - FIRST_PRINTABLE) + 1;
+
+    /**
+     * Creates a generator which takes its payloads in turn from several random templates.
+     *
+     * @param allocator
+     *            allocator for the templates
+     * @param size
+     *            payload size, in bytes
+     * @param count
+     *            number of templates
+     * @param seed
+     *            seed for the random contents
+     * @return a generator for random payloads
+     */
+    public static final TemplatePayloadGenerator random(final ByteBufAllocator allocator, final int size,
+            final int count, final long seed) {
+        final ByteBuf[] templates;
+        final Random    random;
+
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one template is required");
+        }
+
+        random = new Random(seed);
+        templates = new ByteBuf[count];
+        for (int i = 0; i < count; i++) {
+            templates[i] = allocator.directBuffer(size, size);
+            for (int j = 0; j < size; j++) {
+                templates[i].writeByte(FIRST_PRINTABLE + random.nextInt(PRINTABLES));
+            }
+        }
+
+        return new TemplatePayloadGenerator(templates);
+    }
+
+    /**
+     * Creates a generator which always returns the same sequence of characters.
+     *
+     * @param allocator
+     *            allocator for the template
+     * @param size
+     *            payload size, in bytes
+     * @return a generator for sequential payloads
+     */
+    public static final TemplatePayloadGenerator sequential(final ByteBufAllocator allocator, final int size) {
+        final ByteBuf template;
+
+        template = allocator.directBuffer(size, size);
+        fillSequential(template, size);
+
+        return new TemplatePayloadGenerator(new ByteBuf[] { template });
+    }
+
+    /**
+     * Writes printable characters in sequence into the buffer.
+     *
+     * @param buffer
+     *            buffer to write into
+     * @param length
+     *            number of characters to write
+     */
+    static final void fillSequential(final ByteBuf buffer, final int length) {
+        for (int i = 0; i < length; i++) {
+            buffer.writeByte(FIRST_PRINTABLE + (i % PRINTABLES));
+        }
+    }
+
+    /**
+     * Index for the next template.
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * Templates for the payloads.
+     */
+    private final ByteBuf[]  templates;
+
+    /**
+     * Constructs a generator from the templates. The generator takes ownership of them.
+     *
+     * @param tmplts
+     *            templates for the payloads
+     */
+    private TemplatePayloadGenerator(final ByteBuf[] tmplts) {
+        super();
+
+        templates = Objects.requireNonNull(tmplts);
+    }
+
+    @Override
+    public final void close() {
+        for (final ByteBuf template : templates) {
+            template.release();
+        }
+    }
+
+    @Override
+    public final ByteBuf next() {
+        final int index;
+
+        index = (int) (next.getAndIncrement() % templates.length);
+
+        return templates[index].retainedDuplicate();
+    }
+
+}
@@ -0,0 +1,274 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.session;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+
+/**
+ * Reads lines from an input and sends them through a client, which is kept connected for the whole session. This
+ * way scripts and users can push any number of messages through the same connections.
+ * <p>
+ * Each line is sent as a message, as written, except for blank lines, which are ignored, and directives, which start
+ * with a colon, optionally after some whitespace:
+ * <ul>
+ * <li>{@code :empty} sends an empty message</li>
+ * <li>{@code :repeat <times> <message>} sends the message the received number of times</li>
+ * <li>{@code :sleep <milliseconds>} pauses the session</li>
+ * <li>{@code :help} lists the directives</li>
+ * <li>{@code :quit} ends the session, same as the end of the input</li>
+ * </ul>
+ * Messages starting with a colon are sent by doubling it, so {@code ::text} sends {@code :text}.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class SessionInterpreter {
+
+    /**
+     * Directive prefix.
+     */
+    private static final String DIRECTIVE = ":";
+
+    /**
+     * Client where the messages are sent.
+     */
+    private final Client        client;
+
+    /**
+     * Prompt printed before reading each line. If {@code null} no prompt is printed.
+     */
+    private String              prompt;
+
+    /**
+     * Messages sent during the session.
+     */
+    private long                sent;
+
+    /**
+     * Writer for the directives output and errors.
+     */
+    private final PrintWriter   writer;
+
+    /**
+     * Constructs an interpreter for the received client.
+     *
+     * @param clnt
+     *            client where the messages are sent, already connected
+     * @param wrtr
+     *            writer for the directives output and errors
+     */
+    public SessionInterpreter(final Client clnt, final PrintWriter wrtr) {
+        super();
+
+        client = Objects.requireNonNull(clnt);
+        writer = Objects.requireNonNull(wrtr);
+    }
+
+    /**
+     * Returns the number of messages sent so far.
+     *
+     * @return the number of messages sent
+     */
+    public final long getSent() {
+        return sent;
+    }
+
+    /**
+     * Reads the input until its end or the quit directive, sending each message through the client.
+     *
+     * @param input
+     *            input to read
+     * @return the number of messages sent
+     * @throws IOException
+     *             if the input can't be read
+     */
+    public final long run(final BufferedReader input) throws IOException {
+        String  line;
+        boolean running;
+
+        running = true;
+        while (running) {
+            if (prompt != null) {
+                writer.print(prompt);
+                writer.flush();
+            }
+            line = input.readLine();
+            if (line == null) {
+                // End of input
+                running = false;
+            } else {
+                running = execute(line);
+            }
+        }
+
+        return sent;
+    }
+
+    /**
+     * Sets the prompt printed before reading each line. If {@code null} no prompt is printed, which is the default.
+     *
+     * @param value
+     *            prompt to print
+     */
+    public final void setPrompt(final String value) {
+        prompt = value;
+    }
+
+    /**
+     * Executes a single line. Whitespace is ignored when looking for directives, but messages are sent as written.
+     *
+     * @param line
+     *            line to execute
+     * @return {@code true} if the session goes on, {@code false} if it should end
+     */
+    private final boolean execute(final String line) {
+        final String  stripped;
+        final boolean running;
+
+        stripped = line.strip();
+        if (stripped.isEmpty()) {
+            // Blank lines are ignored
+            running = true;
+        } else if (stripped.startsWith(DIRECTIVE + DIRECTIVE)) {
+            // Escaped message, only the escape is removed
+            send(line.stripLeading()
+                .substring(DIRECTIVE.length()));
+            running = true;
+        } else if (stripped.startsWith(DIRECTIVE)) {
+            running = executeDirective(stripped.substring(DIRECTIVE.length()));
+        } else {
+            send(line);
+            running = true;
+        }
+
+        return running;
+    }
+
+    /**
+     * Executes a directive.
+     *
+     * @param directive
+     *            directive, without prefix
+     * @return {@code true} if the session goes on, {@code false} if it should end
+     */
+    private final boolean executeDirective(final String directive) {
+        final String[] parts;
+        boolean        running;
+
+        parts = directive.split("\\s+", 3);
+        running = true;
+        try {
+            switch (parts[0]) {
+                case "empty":
+                    send("");
+                    break;
+                case "repeat":
+                    repeat(Integer.parseInt(parts[1]), parts[2]);
+                    break;
+                case "sleep":
+                    sleep(Long.parseLong(parts[1]));
+                    break;
+                case "help":
+                    printHelp();
+                    break;
+                case "quit":
+                    running = false;
+                    break;
+                default:
+                    writer.printf("Unknown directive: %s%s%n", DIRECTIVE, parts[0]);
+                    writer.flush();
+                    break;
+            }
+        } catch (final NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            writer.printf("Invalid directive: %s%s%n", DIRECTIVE, directive);
+            writer.flush();
+        }
+
+        return running;
+    }
+
+    /**
+     * Prints the directives.
+     */
+    private final void printHelp() {
+        writer.println(":empty                      sends an empty message");
+        writer.println(":repeat <times> <message>   sends the message the received number of times");
+        writer.println(":sleep <milliseconds>       pauses the session");
+        writer.println(":quit                       ends the session");
+        writer.println("::<message>                 sends a message starting with a colon");
+        writer.flush();
+    }
+
+    /**
+     * Sends the message the received number of times.
+     *
+     * @param times
+     *            number of times to send the message
+     * @param message
+     *            message to send
+     */
+    private final void repeat(final int times, final String message) {
+        for (int i = 0; i < times; i++) {
+            send(message);
+        }
+    }
+
+    /**
+     * Sends a message through the client.
+     *
+     * @param message
+     *            message to send
+     */
+    private final void send(final String message) {
+        client.request(message);
+        sent++;
+    }
+
+    /**
+     * Pauses the session.
+     *
+     * @param millis
+     *            milliseconds to pause
+     */
+    private final void sleep(final long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (final InterruptedException e) {
+            LoggerFactory.getLogger(SessionInterpreter.class)
+                .error(e.getLocalizedMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.broadcast.integration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.example.netty.tcp.broadcast.Broadcast;
+import com.bernardomg.example.netty.tcp.broadcast.BroadcastReply;
+import com.bernardomg.example.netty.tcp.broadcast.BroadcastSummary;
+import com.bernardomg.example.netty.tcp.broadcast.HostsFile;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+@DisplayName("Broadcast against several mock servers")
+public final class ITBroadcast {
+
+    private final List<BroadcastReply> replies = new CopyOnWriteArrayList<>();
+
+    private final List<MockTcpServer>  servers = new ArrayList<>();
+
+    @TempDir
+    private Path                       temp;
+
+    /**
+     * Default constructor.
+     */
+    public ITBroadcast() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        servers.forEach(MockTcpServer::close);
+    }
+
+    @Test
+    @DisplayName("Servers which can't be reached, or are too slow, fail without holding back the rest")
+    public final void testFailures() throws IOException {
+        final MockTcpServer    slow;
+        final int              closedPort;
+        final Broadcast        broadcast;
+        final BroadcastSummary summary;
+
+        slow = start(LatencyDistribution.fixed(Duration.ofSeconds(3)));
+        start(LatencyDistribution.none());
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        broadcast = new Broadcast(List.of(InetSocketAddress.createUnresolved("localhost", slow.port()),
+            InetSocketAddress.createUnresolved("localhost", servers.get(1)
+                .port()),
+            InetSocketAddress.createUnresolved("localhost", closedPort)), replies::add);
+        broadcast.setLineDelimited(true);
+        broadcast.setTimeout(Duration.ofMillis(300));
+
+        summary = broadcast.run("message");
+
+        Assertions.assertEquals(3, summary.getEndpoints());
+        Assertions.assertEquals(1, summary.getReplied());
+        Assertions.assertEquals(1, summary.getFailures()
+            .get("TimeoutException"));
+        Assertions.assertTrue(summary.getElapsed() < Duration.ofSeconds(2)
+            .toNanos(), "took " + summary.getElapsed());
+        // The slow server is the last one
+        Assertions.assertEquals(slow.port(), replies.get(2)
+            .getAddress()
+            .getPort());
+    }
+
+    @Test
+    @DisplayName("All the servers in the hosts file receive the message, and their replies are collected")
+    public final void testHostsFile() throws IOException {
+        final Path             hosts;
+        final List<String>     lines;
+        final Broadcast        broadcast;
+        final BroadcastSummary summary;
+
+        lines = new ArrayList<>();
+        lines.add("# Servers");
+        for (int i = 0; i < 3; i++) {
+            lines.add("localhost:" + start(LatencyDistribution.fixed(Duration.ofMillis(10 * i))).port());
+        }
+        lines.add("");
+        hosts = temp.resolve("hosts.txt");
+        Files.write(hosts, lines, Charset.defaultCharset());
+
+        broadcast = new Broadcast(HostsFile.read(hosts, -1), replies::add);
+        broadcast.setLineDelimited(true);
+        broadcast.setParallelism(2);
+
+        summary = broadcast.run("message");
+
+        Assertions.assertEquals(3, summary.getEndpoints());
+        Assertions.assertEquals(3, summary.getReplied());
+        Assertions.assertEquals(3, summary.getLatencies()
+            .getTotalCount());
+        Assertions.assertEquals(3, replies.size());
+        for (final BroadcastReply reply : replies) {
+            Assertions.assertEquals("message", reply.getResponse());
+        }
+        for (final MockTcpServer server : servers) {
+            Assertions.assertEquals(1, server.getReceived());
+        }
+    }
+
+    @Test
+    @DisplayName("Addresses without a port take the default one, and IPv6 addresses go between brackets")
+    public final void testParse() {
+        Assertions.assertEquals(InetSocketAddress.createUnresolved("example.com", 8080),
+            HostsFile.parse("example.com", 8080));
+        Assertions.assertEquals(InetSocketAddress.createUnresolved("example.com", 9090),
+            HostsFile.parse(" example.com:9090 ", 8080));
+        Assertions.assertEquals(InetSocketAddress.createUnresolved("::1", 9090), HostsFile.parse("[::1]:9090", 8080));
+        Assertions.assertEquals(InetSocketAddress.createUnresolved("::1", 8080), HostsFile.parse("::1", 8080));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> HostsFile.parse("example.com", -1));
+    }
+
+    private final MockTcpServer start(final LatencyDistribution latency) {
+        final MockTcpServer server;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(latency)
+            .start();
+        servers.add(server);
+
+        return server;
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.churn.integration;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.churn.ChurnSummary;
+import com.bernardomg.example.netty.tcp.churn.ConnectionChurn;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+@DisplayName("Connection churn against the mock server")
+public final class ITConnectionChurn {
+
+    private MockTcpServer server;
+
+    /**
+     * Default constructor.
+     */
+    public ITConnectionChurn() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Connections are opened no faster than the rate, and exchange their messages before closing")
+    public final void testRun_Rate() {
+        final ConnectionChurn churn;
+        final ChurnSummary    summary;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+
+        churn = new ConnectionChurn("localhost", server.port());
+        churn.setRate(100);
+        churn.setConcurrency(100);
+        churn.setMessages(2, "message");
+        churn.setLineDelimited(true);
+
+        summary = churn.run(Duration.ofSeconds(1));
+
+        Assertions.assertTrue((summary.getAttempts() >= 50) && (summary.getAttempts() <= 110),
+            "attempted " + summary.getAttempts());
+        Assertions.assertEquals(summary.getAttempts(), summary.getConnected());
+        Assertions.assertEquals(summary.getConnected(), server.getConnections());
+        Assertions.assertEquals(summary.getConnected() * 2, summary.getReceived());
+        Assertions.assertEquals(0, summary.getMessageErrors());
+        Assertions.assertEquals(summary.getConnected(), summary.getConnectLatencies()
+            .getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Connections refused are counted as failures")
+    public final void testRun_Refused() {
+        final ConnectionChurn churn;
+        final ChurnSummary    summary;
+        final int             port;
+
+        // Closed, so nothing listens on the port
+        server = MockTcpServer.builder()
+            .start();
+        port = server.port();
+        server.close();
+        server = null;
+
+        churn = new ConnectionChurn("localhost", port);
+        churn.setRate(50);
+        churn.setConcurrency(5);
+
+        summary = churn.run(Duration.ofMillis(500));
+
+        Assertions.assertTrue(summary.getAttempts() > 0);
+        Assertions.assertEquals(0, summary.getConnected());
+        Assertions.assertEquals(summary.getAttempts(), summary.getFailures()
+            .values()
+            .stream()
+            .mapToLong(Long::longValue)
+            .sum());
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.cli.integration;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.example.netty.tcp.cli.TcpClientMenu;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+import picocli.CommandLine;
+
+@DisplayName("Diff from the command line")
+public final class ITDiffCommand {
+
+    private MockTcpServer baseline;
+
+    private MockTcpServer candidate;
+
+    @TempDir
+    private Path          folder;
+
+    private StringWriter  out;
+
+    /**
+     * Default constructor.
+     */
+    public ITDiffCommand() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        baseline.close();
+        candidate.close();
+    }
+
+    @Test
+    @DisplayName("Identical servers have no mismatches when the messages are line delimited")
+    public final void testExecute_LineDelimited() throws IOException {
+        final Integer code;
+
+        baseline = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        candidate = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+
+        code = execute("--line-delimited");
+
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(out.toString()
+            .startsWith("{\"compared\":500,\"mismatches\":0,"), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("\"baseline\":{\"errors\":0,"), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("\"candidate\":{\"errors\":0,"), out.toString());
+    }
+
+    @Test
+    @DisplayName("Identical servers have no mismatches when the messages are not delimited, even if sent concurrently")
+    public final void testExecute_Unframed() throws IOException {
+        final Integer code;
+
+        baseline = MockTcpServer.builder()
+            .start();
+        candidate = MockTcpServer.builder()
+            .start();
+
+        code = execute("--connections=4");
+
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(out.toString()
+            .startsWith("{\"compared\":500,\"mismatches\":0,"), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("\"baseline\":{\"errors\":0,"), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("\"candidate\":{\"errors\":0,"), out.toString());
+    }
+
+    private final Integer execute(final String... options) throws IOException {
+        final CommandLine  cli;
+        final List<String> args;
+        final Path         corpus;
+
+        corpus = folder.resolve("corpus.txt");
+        Files.write(corpus, IntStream.range(0, 500)
+            .mapToObj(i -> "message " + i)
+            .collect(Collectors.toList()), Charset.defaultCharset());
+
+        // The default concurrency, so the requests overlap
+        args = new ArrayList<>(List.of("diff", "--baseline=localhost:" + baseline.port(),
+            "--candidate=localhost:" + candidate.port(), "--input=" + corpus, "--summary=JSON"));
+        args.addAll(List.of(options));
+
+        out = new StringWriter();
+        cli = new CommandLine(new TcpClientMenu());
+        cli.setOut(new PrintWriter(out, true));
+        cli.setErr(new PrintWriter(new StringWriter()));
+
+        return cli.execute(args.toArray(new String[0]));
+    }
+
+}
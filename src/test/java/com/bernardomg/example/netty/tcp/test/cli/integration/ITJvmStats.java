@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.cli.integration;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.cli.TcpClientMenu;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+import picocli.CommandLine;
+
+@DisplayName("JVM stats of a run from the command line")
+public final class ITJvmStats {
+
+    private StringWriter  out;
+
+    private MockTcpServer server;
+
+    /**
+     * Default constructor.
+     */
+    public ITJvmStats() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        out = new StringWriter();
+    }
+
+    @Test
+    @DisplayName("The JSON stats follow the JSON summary")
+    public final void testExecute_Json() {
+        final Integer code;
+
+        code = execute("--summary=JSON");
+
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(out.toString()
+            .contains("{\"allocatedBytes\":"), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("\"pool\":{\"directArenas\":"), out.toString());
+    }
+
+    @Test
+    @DisplayName("Without a summary the stats are printed as text")
+    public final void testExecute_NoSummary() {
+        final Integer code;
+
+        code = execute();
+
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(out.toString()
+            .contains("Allocated: "), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("GC: "), out.toString());
+    }
+
+    @Test
+    @DisplayName("The allocations, garbage collections and memory are printed after the summary")
+    public final void testExecute_Text() {
+        final Integer code;
+        final Matcher allocated;
+
+        code = execute("--summary=TEXT");
+
+        Assertions.assertEquals(0, code);
+        allocated = Pattern.compile("Allocated: +[0-9.]+ MB, ([0-9]+) bytes/msg")
+            .matcher(out.toString());
+        Assertions.assertTrue(allocated.find(), out.toString());
+        Assertions.assertTrue(Long.parseLong(allocated.group(1)) > 0, out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("GC: "), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("Direct: "), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("Pool: "), out.toString());
+    }
+
+    private final Integer execute(final String... options) {
+        final CommandLine  cli;
+        final List<String> args;
+
+        args = new ArrayList<>(List.of("multiple", "--host=localhost", "--port=" + server.port(), "--line-delimited",
+            "--count=200", "--rate=2000", "--report", "--jvm-stats"));
+        args.addAll(List.of(options));
+
+        cli = new CommandLine(new TcpClientMenu());
+        cli.setOut(new PrintWriter(out, true));
+        cli.setErr(new PrintWriter(new StringWriter()));
+
+        return cli.execute(args.toArray(new String[0]));
+    }
+
+}
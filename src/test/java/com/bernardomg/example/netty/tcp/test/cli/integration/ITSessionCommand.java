@@ -0,0 +1,101 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.cli.integration;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.example.netty.tcp.cli.TcpClientMenu;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+import picocli.CommandLine;
+
+@DisplayName("Session from the command line")
+public final class ITSessionCommand {
+
+    @TempDir
+    private Path          folder;
+
+    private StringWriter  out;
+
+    private MockTcpServer server;
+
+    /**
+     * Default constructor.
+     */
+    public ITSessionCommand() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        out = new StringWriter();
+    }
+
+    @Test
+    @DisplayName("The input file is read in the chosen charset, and the lines are sent as written")
+    public final void testExecute_Charset() throws IOException {
+        final Path        input;
+        final CommandLine cli;
+        final Integer     code;
+
+        input = folder.resolve("session.txt");
+        Files.writeString(input, "ma\u00F1ana\n  10\u00B0 \n", StandardCharsets.ISO_8859_1);
+
+        cli = new CommandLine(new TcpClientMenu());
+        cli.setOut(new PrintWriter(out, true));
+        cli.setErr(new PrintWriter(new StringWriter()));
+
+        code = cli.execute("session", "--host=localhost", "--port=" + server.port(), "--line-delimited",
+            "--charset=ISO-8859-1", "--input=" + input);
+
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(out.toString()
+            .contains("Sent message: ma\u00F1ana"), out.toString());
+        Assertions.assertTrue(out.toString()
+            .contains("Sent message:   10\u00B0 "), out.toString());
+    }
+
+}
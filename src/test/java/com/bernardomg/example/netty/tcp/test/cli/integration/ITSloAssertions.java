@@ -0,0 +1,165 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.cli.integration;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.example.netty.tcp.cli.TcpClientMenu;
+import com.bernardomg.example.netty.tcp.cli.option.SloOptions;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+import picocli.CommandLine;
+
+@DisplayName("Service level objectives and result files from the command line")
+public final class ITSloAssertions {
+
+    private StringWriter  err;
+
+    private MockTcpServer server;
+
+    @TempDir
+    private Path          temp;
+
+    /**
+     * Default constructor.
+     */
+    public ITSloAssertions() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(20)))
+            .start();
+        err = new StringWriter();
+    }
+
+    @Test
+    @DisplayName("The result file can be written as CSV")
+    public final void testExecute_Csv() throws IOException {
+        final Path    file;
+        final Integer code;
+
+        file = temp.resolve("result.csv");
+
+        code = execute("--result-file=" + file, "--result-format=CSV");
+
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(Files.readString(file)
+            .startsWith("\"Value\",\"Percentile\""));
+    }
+
+    @Test
+    @DisplayName("When the objectives are met the exit code is zero, and the result file has the distribution")
+    public final void testExecute_Met() throws IOException {
+        final Path    file;
+        final Integer code;
+        final String  contents;
+
+        file = temp.resolve("result.json");
+
+        code = execute("--assert-p99=1s", "--assert-errors=0", "--result-file=" + file);
+
+        contents = Files.readString(file);
+        Assertions.assertEquals(0, code);
+        Assertions.assertTrue(contents.contains("\"distribution\""), contents);
+        Assertions.assertTrue(contents.contains("\"histogram\""), contents);
+        Assertions.assertEquals("", err.toString());
+    }
+
+    @Test
+    @DisplayName("When no response is received the latency objectives are violated")
+    public final void testExecute_NoResponses() {
+        final Integer code;
+
+        // Never replies during the run
+        server.close();
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMinutes(1)))
+            .start();
+
+        code = execute("--assert-p99=1s", "--wait=1");
+
+        Assertions.assertEquals(SloOptions.VIOLATION_EXIT_CODE, code);
+        Assertions.assertTrue(err.toString()
+            .contains("SLO violated: no latencies were recorded"), err.toString());
+    }
+
+    @Test
+    @DisplayName("When a latency objective is violated the exit code reports it")
+    public final void testExecute_Violated() {
+        final Integer code;
+
+        code = execute("--assert-p99=5ms");
+
+        Assertions.assertEquals(SloOptions.VIOLATION_EXIT_CODE, code);
+        Assertions.assertTrue(err.toString()
+            .contains("SLO violated: p99 latency"), err.toString());
+    }
+
+    private final Integer execute(final String... objectives) {
+        final CommandLine cli;
+        final String[]    args;
+
+        args = new String[objectives.length + 7];
+        args[0] = "multiple";
+        args[1] = "--host=localhost";
+        args[2] = "--port=" + server.port();
+        args[3] = "--line-delimited";
+        args[4] = "--count=20";
+        args[5] = "--rate=1000";
+        args[6] = "--summary=NONE";
+        System.arraycopy(objectives, 0, args, 7, objectives.length);
+
+        cli = new CommandLine(new TcpClientMenu());
+        cli.setOut(new PrintWriter(new StringWriter()));
+        cli.setErr(new PrintWriter(err, true));
+
+        return cli.execute(args);
+    }
+
+}
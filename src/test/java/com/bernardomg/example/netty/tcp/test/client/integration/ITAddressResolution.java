@@ -0,0 +1,265 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.keepalive.KeepAlivePolicy;
+import com.bernardomg.example.netty.tcp.client.resolve.AddressPreference;
+import com.bernardomg.example.netty.tcp.client.resolve.EndpointResolver;
+import com.bernardomg.example.netty.tcp.client.resolve.ResolverPolicy;
+import com.bernardomg.example.netty.tcp.client.resolve.ResolverType;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.StubDnsServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+import io.netty.handler.codec.dns.DnsRecordType;
+import reactor.netty.resources.LoopResources;
+
+@DisplayName("Address resolution against the mock server and a stub DNS server")
+public final class ITAddressResolution {
+
+    private static final String       HOST     = "echo.test";
+
+    private ReactorNettyTcpClient     client;
+
+    private StubDnsServer             dns;
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITAddressResolution() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (dns != null) {
+            dns.close();
+        }
+    }
+
+    @Test
+    @DisplayName("The host is queried once for all the connections")
+    public final void testDns_QueriedOnce() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        dns = StubDnsServer.start();
+        dns.setRecords(HOST, 60, "127.0.0.1");
+
+        connect(HOST, dnsPolicy(), 4);
+
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertEquals("message " + i, client.exchange("message " + i)
+                .block(TransactionRecorder.TIMEOUT));
+        }
+
+        Assertions.assertEquals(1, dns.getQueries(HOST, DnsRecordType.A));
+        Assertions.assertEquals(0, dns.getQueries(HOST, DnsRecordType.AAAA));
+        Assertions.assertEquals(4, server.getConnections());
+    }
+
+    @Test
+    @DisplayName("The addresses are refreshed before they expire, and kept when the refresh fails")
+    public final void testDns_Refresh() {
+        final ResolverPolicy  policy;
+        final KeepAlivePolicy keepAlive;
+        final long            connections;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        dns = StubDnsServer.start();
+        dns.setRecords(HOST, 1, "127.0.0.1");
+
+        policy = dnsPolicy();
+        policy.setNegativeTtl(Duration.ofSeconds(1));
+        // Replaced all the time, so new connections keep being opened
+        keepAlive = new KeepAlivePolicy();
+        keepAlive.setMaxLife(Duration.ofMillis(100));
+        keepAlive.setValidationInterval(Duration.ofMillis(50));
+        connect(HOST, policy, 1, keepAlive);
+
+        TransactionRecorder.await(() -> dns.getQueries(HOST, DnsRecordType.A) >= 2);
+
+        // The name stops resolving
+        dns.setRecords(HOST, 1);
+        TransactionRecorder.await(() -> dns.getQueries(HOST, DnsRecordType.A) >= 4);
+
+        connections = server.getConnections();
+        TransactionRecorder.await(() -> server.getConnections() > connections);
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TransactionRecorder.TIMEOUT));
+        Assertions.assertFalse(recorder.getRecycled()
+            .isEmpty());
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+    }
+
+    @Test
+    @DisplayName("When the DNS resolution takes too long, the JVM resolves the host")
+    public final void testDns_Timeout_JvmFallback() throws IOException {
+        final ResolverPolicy policy;
+        final LoopResources  loops;
+        final CountDownLatch busy;
+        final long           start;
+
+        policy = new ResolverPolicy();
+        policy.setType(ResolverType.DNS);
+        policy.setPreference(AddressPreference.IPV4_ONLY);
+        policy.setQueryTimeout(Duration.ofMillis(100));
+
+        // The only event loop is kept busy, so the query can't even time out
+        loops = LoopResources.create("test-dns", 1, true);
+        busy = new CountDownLatch(1);
+        loops.onClient(LoopResources.DEFAULT_NATIVE)
+            .execute(() -> {
+                try {
+                    busy.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread()
+                        .interrupt();
+                }
+            });
+        try (DatagramSocket silent = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+                EndpointResolver resolver = new EndpointResolver(HOST, 8080, policy)) {
+            policy.setNameServer((InetSocketAddress) silent.getLocalSocketAddress());
+
+            start = System.nanoTime();
+            resolver.start(loops);
+
+            // The JVM can't resolve it either, so it is left for each connection
+            Assertions.assertEquals(List.of(InetSocketAddress.createUnresolved(HOST, 8080)), resolver.getAddresses());
+            Assertions.assertTrue((System.nanoTime() - start) < TransactionRecorder.TIMEOUT.toNanos(),
+                "waited for the DNS server");
+        } finally {
+            busy.countDown();
+            loops.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("An address which refuses the connection falls back to the next one")
+    public final void testHappyEyeballs_Fallback() {
+        final ResolverPolicy policy;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+
+        policy = new ResolverPolicy();
+        policy.setType(ResolverType.STATIC);
+        policy.setStaticAddresses(List.of(new InetSocketAddress("127.0.0.1", findClosedPort()),
+            new InetSocketAddress("127.0.0.1", server.port())));
+        policy.setHappyEyeballsDelay(Duration.ofSeconds(10));
+        connect(HOST, policy, 2);
+
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TransactionRecorder.TIMEOUT));
+        Assertions.assertEquals(2, server.getConnections());
+    }
+
+    @Test
+    @DisplayName("With static addresses the host is never resolved")
+    public final void testStatic() {
+        final ResolverPolicy policy;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+
+        policy = new ResolverPolicy();
+        policy.setType(ResolverType.STATIC);
+        policy.setStaticAddresses(List.of(InetSocketAddress.createUnresolved("127.0.0.1", server.port())));
+        connect("unknown.invalid", policy, 1);
+
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TransactionRecorder.TIMEOUT));
+    }
+
+    private final void connect(final String host, final ResolverPolicy policy, final int connections) {
+        connect(host, policy, connections, null);
+    }
+
+    private final void connect(final String host, final ResolverPolicy policy, final int connections,
+            final KeepAlivePolicy keepAlive) {
+        client = new ReactorNettyTcpClient(host, server.port(), recorder, false);
+        client.setLineDelimited(true);
+        client.setConnections(connections);
+        client.setResolver(policy);
+        if (keepAlive != null) {
+            client.setKeepAlive(keepAlive);
+        }
+        client.connect();
+    }
+
+    private final ResolverPolicy dnsPolicy() {
+        final ResolverPolicy policy;
+
+        policy = new ResolverPolicy();
+        policy.setType(ResolverType.DNS);
+        policy.setNameServer(dns.address());
+        policy.setPreference(AddressPreference.IPV4_ONLY);
+
+        return policy;
+    }
+
+    private final int findClosedPort() {
+        final int port;
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return port;
+    }
+
+}
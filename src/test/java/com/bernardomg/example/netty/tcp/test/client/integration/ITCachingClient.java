@@ -0,0 +1,141 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.cache.CachingClient;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("Caching client against the mock server")
+public final class ITCachingClient {
+
+    private static final Duration            TIMEOUT = Duration.ofSeconds(5);
+
+    private CachingClient                    client;
+
+    private final MetricsTransactionListener metrics = new MetricsTransactionListener();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITCachingClient() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent requests for the same message share a single exchange")
+    public final void testExchange_Concurrent() {
+        final List<String> responses;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(200)))
+            .start();
+        connect(Duration.ofMinutes(1));
+
+        responses = Flux.range(0, 10)
+            .flatMap(i -> client.exchange("message"))
+            .collectList()
+            .block(TIMEOUT);
+
+        Assertions.assertEquals(10, responses.size());
+        Assertions.assertEquals(1, server.getReceived(), "messages sent to the server");
+        Assertions.assertEquals(1, metrics.getCacheMisses(), "misses");
+        Assertions.assertEquals(9, metrics.getCacheHits(), "hits");
+    }
+
+    @Test
+    @DisplayName("Expired responses are requested again")
+    public final void testExchange_Expired() throws InterruptedException {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(Duration.ofMillis(100));
+
+        client.exchange("message")
+            .block(TIMEOUT);
+        Thread.sleep(200);
+        client.exchange("message")
+            .block(TIMEOUT);
+
+        Assertions.assertEquals(2, server.getReceived(), "messages sent to the server");
+        Assertions.assertEquals(2, metrics.getCacheMisses(), "misses");
+    }
+
+    @Test
+    @DisplayName("Repeated requests take the response from the cache")
+    public final void testExchange_Repeated() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(Duration.ofMinutes(1));
+
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TIMEOUT));
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TIMEOUT));
+        Assertions.assertEquals("other", client.exchange("other")
+            .block(TIMEOUT));
+
+        Assertions.assertEquals(2, server.getReceived(), "messages sent to the server");
+        Assertions.assertEquals(2, metrics.getCacheMisses(), "misses");
+        Assertions.assertEquals(1, metrics.getCacheHits(), "hits");
+    }
+
+    private final void connect(final Duration ttl) {
+        final ReactorNettyTcpClient tcpClient;
+
+        tcpClient = new ReactorNettyTcpClient("localhost", server.port(), metrics, false);
+        tcpClient.setLineDelimited(true);
+
+        client = new CachingClient(tcpClient, metrics, 100, ttl);
+        client.connect();
+    }
+
+}
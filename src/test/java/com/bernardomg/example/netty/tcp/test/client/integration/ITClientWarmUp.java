@@ -0,0 +1,194 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ClientWarmUp;
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.WarmUpTransactionListener;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Client warm-up against the mock server")
+public final class ITClientWarmUp {
+
+    private ReactorNettyTcpClient            client;
+
+    private WarmUpTransactionListener        listener;
+
+    private final MetricsTransactionListener metrics  = new MetricsTransactionListener();
+
+    private final TransactionRecorder        recorder = new TransactionRecorder();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITClientWarmUp() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        client.close();
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(5)))
+            .start();
+
+        listener = new WarmUpTransactionListener(new CompositeTransactionListener(List.of(recorder, metrics)));
+        client = new ReactorNettyTcpClient("localhost", server.port(), listener, false);
+        client.setLineDelimited(true);
+        client.setConnections(3);
+    }
+
+    @Test
+    @DisplayName("All the connections are open, and the warm-up answered, before the measured messages")
+    public final void testWarmUp_ConnectionsOpened() {
+        warmUp(30, TransactionRecorder.TIMEOUT);
+
+        Assertions.assertEquals(3, server.getConnections());
+        Assertions.assertEquals(30, server.getReceived());
+
+        send(10);
+
+        // No connection was opened by the measured messages
+        Assertions.assertEquals(3, server.getConnections());
+        Assertions.assertEquals(40, server.getReceived());
+    }
+
+    @Test
+    @DisplayName("Errors during the warm-up are not recorded, and count as answered warm-up messages")
+    public final void testWarmUp_Errors() {
+        // Up to 3 messages on each connection, the rest are rejected
+        client.setConcurrencyLimit(() -> new FixedConcurrencyLimit(1));
+        client.setMaxQueued(2);
+
+        warmUp(30, TransactionRecorder.TIMEOUT);
+
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+
+        send(9);
+
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+        Assertions.assertEquals(0, metrics.getErrors());
+        Assertions.assertEquals(9, metrics.getReceived());
+    }
+
+    @Test
+    @DisplayName("The warm-up messages are not recorded")
+    public final void testWarmUp_ExcludedFromListener() {
+        warmUp(30, TransactionRecorder.TIMEOUT);
+
+        Assertions.assertEquals(List.of(), recorder.getSent());
+        Assertions.assertEquals(List.of(), recorder.getReceived());
+
+        send(10);
+
+        Assertions.assertEquals(10, recorder.getSent()
+            .size());
+        Assertions.assertFalse(recorder.getSent()
+            .contains("warm-up"), "sent " + recorder.getSent());
+        Assertions.assertFalse(recorder.getReceived()
+            .contains("warm-up"), "received " + recorder.getReceived());
+    }
+
+    @Test
+    @DisplayName("The warm-up messages and their latencies are not included in the metrics")
+    public final void testWarmUp_ExcludedFromMetrics() {
+        final MetricsSummary summary;
+
+        warmUp(30, TransactionRecorder.TIMEOUT);
+
+        Assertions.assertEquals(0, metrics.getSent());
+        Assertions.assertEquals(0, metrics.getReceived());
+
+        send(10);
+
+        summary = MetricsSummary.of(metrics);
+        Assertions.assertEquals(10, summary.getSent());
+        Assertions.assertEquals(10, summary.getReceived());
+        // "message 0" to "message 9"
+        Assertions.assertEquals(90, summary.getBytesSent());
+        Assertions.assertEquals(90, summary.getBytesReceived());
+        Assertions.assertEquals(0, summary.getErrors());
+        Assertions.assertEquals(10, summary.getLatencies()
+            .getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Warm-up responses arriving after the timeout are not recorded")
+    public final void testWarmUp_Timeout_LateResponses() {
+        // A single connection, so the warm-up responses arrive before those for the measured messages
+        client.setConnections(1);
+
+        // The connection takes 150 ms to answer the warm-up messages
+        warmUp(30, Duration.ofMillis(5));
+
+        send(10);
+
+        Assertions.assertEquals(40, server.getReceived());
+        Assertions.assertFalse(recorder.getReceived()
+            .contains("warm-up"), "received " + recorder.getReceived());
+        Assertions.assertEquals(10, metrics.getReceived());
+        Assertions.assertEquals(10, metrics.getTotalLatencies()
+            .getTotalCount());
+    }
+
+    private final void send(final int messages) {
+        for (int i = 0; i < messages; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == messages);
+    }
+
+    private final void warmUp(final int messages, final Duration timeout) {
+        client.connect();
+        new ClientWarmUp(client, listener, "warm-up", timeout.toMillis()).warmUp(messages);
+    }
+
+}
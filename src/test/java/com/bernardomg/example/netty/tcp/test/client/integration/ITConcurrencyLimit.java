@@ -0,0 +1,270 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.RequestRejectedException;
+import com.bernardomg.example.netty.tcp.client.limit.AimdConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.ConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.limit.GradientConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Concurrency limits against the mock server")
+public final class ITConcurrencyLimit {
+
+    private ReactorNettyTcpClient            client;
+
+    private final List<ConcurrencyLimit>     limits   = new CopyOnWriteArrayList<>();
+
+    private final MetricsTransactionListener metrics  = new MetricsTransactionListener();
+
+    private final TransactionRecorder        recorder = new TransactionRecorder();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITConcurrencyLimit() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("The AIMD limit grows while the replies are fast")
+    public final void testAimd_Fast_Grows() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(1, 1000, () -> new AimdConcurrencyLimit(2, 1, 50, TimeUnit.SECONDS.toNanos(1)));
+
+        send(300);
+
+        Assertions.assertTrue(limit() > 2, "limits " + recorder.getLimits());
+        assertLimitChanges();
+    }
+
+    @Test
+    @DisplayName("The AIMD limit rejects a minimum below one, or limits out of order")
+    public final void testAimd_InvalidBounds() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 0, 50, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 20, 50, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AimdConcurrencyLimit(10, 1, 5, 1));
+    }
+
+    @Test
+    @DisplayName("The AIMD limit shrinks while the replies are slow")
+    public final void testAimd_Slow_Shrinks() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(20)))
+            .start();
+        connect(1, 1000, () -> new AimdConcurrencyLimit(20, 1, 50, TimeUnit.MILLISECONDS.toNanos(10)));
+
+        send(40);
+
+        Assertions.assertTrue(limit() < 20, "limits " + recorder.getLimits());
+        assertLimitChanges();
+    }
+
+    @Test
+    @DisplayName("The gradient limit grows while the round trip time is steady")
+    public final void testGradient_Fast_Grows() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(1, 1000, () -> new GradientConcurrencyLimit(4, 1, 50));
+
+        send(300);
+
+        Assertions.assertTrue(maxLimit() > 4, "limits " + recorder.getLimits());
+        assertLimitChanges();
+    }
+
+    @Test
+    @DisplayName("The gradient limit rejects a minimum below one, or limits out of order")
+    public final void testGradient_InvalidBounds() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 0, 50));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 20, 50));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimit(10, 1, 5));
+    }
+
+    @Test
+    @DisplayName("The gradient limit shrinks once the replies slow down")
+    public final void testGradient_SlowingDown_Shrinks() {
+        final AtomicLong replies;
+        final int        peak;
+        final int        changes;
+        final int        lowest;
+
+        // Fast replies set the usual round trip time, the rest are well over it
+        replies = new AtomicLong();
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(random -> (replies.incrementAndGet() <= 300) ? Duration.ZERO : Duration.ofMillis(10))
+            .start();
+        connect(1, 1000, () -> new GradientConcurrencyLimit(20, 1, 50));
+
+        send(300);
+        peak = limit();
+        changes = recorder.getLimits()
+            .size();
+        send(100);
+
+        // The long-term average catches up with the slow replies, so the limit recovers afterwards
+        lowest = recorder.getLimits()
+            .subList(changes, recorder.getLimits()
+                .size())
+            .stream()
+            .mapToInt(Integer::intValue)
+            .min()
+            .orElse(peak);
+        Assertions.assertTrue(lowest < peak, "limits " + recorder.getLimits());
+        assertLimitChanges();
+    }
+
+    @Test
+    @DisplayName("The limit changes of all the connections add up to their limits")
+    public final void testLimitChanges_SeveralConnections() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.uniform(Duration.ZERO, Duration.ofMillis(4)))
+            .start();
+        connect(3, 1000, () -> new AimdConcurrencyLimit(10, 1, 50, TimeUnit.MILLISECONDS.toNanos(2)));
+
+        send(300);
+
+        Assertions.assertTrue(recorder.getLimits()
+            .size() > 3, "limits " + recorder.getLimits());
+        assertLimitChanges();
+    }
+
+    @Test
+    @DisplayName("Requests over the limit are queued, and rejected through the listener once the queue is full")
+    public final void testQueueFull_Rejected() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(100)))
+            .start();
+        connect(1, 2, () -> new FixedConcurrencyLimit(1));
+
+        // One written, two queued
+        for (int i = 0; i < 10; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 3);
+        Assertions.assertEquals(List.of("message 0", "message 1", "message 2"), recorder.getReceived());
+        Assertions.assertEquals(7, recorder.getErrors()
+            .size());
+        for (final Throwable error : recorder.getErrors()) {
+            Assertions.assertInstanceOf(RequestRejectedException.class, error);
+        }
+        Assertions.assertEquals(7, metrics.getErrors());
+        Assertions.assertEquals(1, recorder.getConcurrencyLimit());
+    }
+
+    private final void assertLimitChanges() {
+        final int actual;
+
+        actual = limits.stream()
+            .mapToInt(ConcurrencyLimit::getLimit)
+            .sum();
+
+        Assertions.assertEquals(actual, recorder.getConcurrencyLimit(), "limits " + recorder.getLimits());
+        Assertions.assertEquals(actual, metrics.getConcurrencyLimit(), "reported limit");
+    }
+
+    private final void connect(final int connections, final int queued, final Supplier<ConcurrencyLimit> limit) {
+        client = new ReactorNettyTcpClient("localhost", server.port(),
+            new CompositeTransactionListener(List.of(recorder, metrics)), false);
+        client.setLineDelimited(true);
+        client.setConnections(connections);
+        client.setMaxQueued(queued);
+        client.setConcurrencyLimit(() -> {
+            final ConcurrencyLimit created;
+
+            created = limit.get();
+            limits.add(created);
+            return created;
+        });
+        client.connect();
+    }
+
+    private final int limit() {
+        return limits.get(0)
+            .getLimit();
+    }
+
+    private final int maxLimit() {
+        return recorder.getLimits()
+            .stream()
+            .mapToInt(Integer::intValue)
+            .max()
+            .orElse(0);
+    }
+
+    private final void send(final int messages) {
+        final int expected;
+
+        expected = recorder.getReceived()
+            .size() + messages;
+        for (int i = 0; i < messages; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == expected, Duration.ofSeconds(10));
+    }
+
+}
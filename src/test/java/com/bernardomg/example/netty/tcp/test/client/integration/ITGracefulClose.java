@@ -0,0 +1,172 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.RequestRejectedException;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Graceful close against the mock server")
+public final class ITGracefulClose {
+
+    private ReactorNettyTcpClient     client;
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITGracefulClose() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Requests sent after closing are rejected")
+    public final void testClose_AfterClose_Rejected() {
+        connect(Duration.ZERO, Duration.ofSeconds(1));
+
+        client.close();
+        client.request("message");
+
+        Assertions.assertEquals(1, recorder.getErrors()
+            .size());
+        Assertions.assertInstanceOf(RequestRejectedException.class, recorder.getErrors()
+            .get(0));
+    }
+
+    @Test
+    @DisplayName("Closing waits for the pending responses, and finishes once all are received")
+    public final void testClose_Drained() {
+        final long start;
+        final long elapsed;
+
+        connect(Duration.ofMillis(300), Duration.ofSeconds(5));
+
+        for (int i = 0; i < 10; i++) {
+            client.request("message " + i);
+        }
+
+        start = System.nanoTime();
+        client.close();
+        elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertEquals(10, recorder.getReceived()
+            .size());
+        Assertions.assertEquals(List.of(0L, 0L), recorder.getDrained());
+        Assertions.assertTrue(elapsed < 4000, "closing took " + elapsed + " ms");
+    }
+
+    @Test
+    @DisplayName("Closing after a refused connection releases the threads, without failing")
+    public final void testClose_RefusedConnect() throws IOException {
+        final int         closedPort;
+        final Set<Thread> before;
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        before = clientThreads();
+        client = new ReactorNettyTcpClient("localhost", closedPort, recorder, false);
+        Assertions.assertThrows(RuntimeException.class, client::connect);
+
+        Assertions.assertDoesNotThrow(client::close);
+
+        TransactionRecorder.await(() -> before.containsAll(clientThreads()));
+        Assertions.assertTrue(recorder.getDrained()
+            .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Closing stops waiting at the timeout, and reports the requests without response")
+    public final void testClose_Timeout_ReportsLeftovers() {
+        final long start;
+        final long elapsed;
+
+        connect(Duration.ofSeconds(3), Duration.ofMillis(200));
+
+        for (int i = 0; i < 5; i++) {
+            client.request("message " + i);
+        }
+
+        start = System.nanoTime();
+        client.close();
+        elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertTrue(recorder.getReceived()
+            .isEmpty());
+        Assertions.assertEquals(5L, recorder.getDrained()
+            .get(0));
+        Assertions.assertTrue(elapsed >= 200, "closing took " + elapsed + " ms");
+        Assertions.assertTrue(elapsed < 2500, "closing took " + elapsed + " ms");
+    }
+
+    private final Set<Thread> clientThreads() {
+        return Thread.getAllStackTraces()
+            .keySet()
+            .stream()
+            .filter(thread -> thread.getName()
+                .startsWith("tcp-client"))
+            .collect(Collectors.toSet());
+    }
+
+    private final void connect(final Duration latency, final Duration drainTimeout) {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(latency))
+            .start();
+
+        client = new ReactorNettyTcpClient("localhost", server.port(), recorder, false);
+        client.setLineDelimited(true);
+        client.setDrainTimeout(drainTimeout);
+        client.connect();
+    }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.RequestRejectedException;
+import com.bernardomg.example.netty.tcp.client.hedge.HedgeBudget;
+import com.bernardomg.example.netty.tcp.client.hedge.HedgingClient;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+@DisplayName("Hedging client against the mock server")
+public final class ITHedgingClient {
+
+    private static final Duration            SLOW    = Duration.ofMillis(1000);
+
+    private static final Duration            TIMEOUT = Duration.ofSeconds(5);
+
+    private HedgingClient                    client;
+
+    private final MetricsTransactionListener metrics = new MetricsTransactionListener();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITHedgingClient() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    @BeforeEach
+    public final void startServer() {
+        final AtomicInteger replies;
+
+        // Only the first reply is slow
+        replies = new AtomicInteger();
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(random -> (replies.getAndIncrement() == 0) ? SLOW : Duration.ZERO)
+            .start();
+    }
+
+    @Test
+    @DisplayName("The budget rejects saving less than one hedge")
+    public final void testBudget_InvalidBurst() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HedgeBudget(1, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HedgeBudget(1, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HedgeBudget(1, 0.5));
+    }
+
+    @Test
+    @DisplayName("Slow requests are hedged, and take the first response")
+    public final void testExchange_Hedged() {
+        final long start;
+        final long elapsed;
+
+        connect(new HedgeBudget(1, 10));
+
+        start = System.nanoTime();
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TIMEOUT));
+        elapsed = System.nanoTime() - start;
+
+        Assertions.assertTrue(elapsed < SLOW.toNanos(), "waited for the slow response");
+        Assertions.assertEquals(1, metrics.getHedges(), "hedges");
+        Assertions.assertEquals(2, server.getReceived(), "messages sent to the server");
+    }
+
+    @Test
+    @DisplayName("Without budget, slow requests are not hedged")
+    public final void testExchange_NoBudget() {
+        final long start;
+        final long elapsed;
+
+        connect(new HedgeBudget(0, 10));
+
+        start = System.nanoTime();
+        Assertions.assertEquals("message", client.exchange("message")
+            .block(TIMEOUT));
+        elapsed = System.nanoTime() - start;
+
+        Assertions.assertTrue(elapsed >= SLOW.toNanos(), "didn't wait for the slow response");
+        Assertions.assertEquals(0, metrics.getHedges(), "hedges");
+        Assertions.assertEquals(1, server.getReceived(), "messages sent to the server");
+    }
+
+    @Test
+    @DisplayName("Requests failing before the delay are not hedged, and return their error")
+    public final void testExchange_PrimaryFailed() throws InterruptedException {
+        final ReactorNettyTcpClient tcpClient;
+        final long                  start;
+        final long                  elapsed;
+
+        tcpClient = new ReactorNettyTcpClient("localhost", server.port(), metrics, false);
+        tcpClient.setLineDelimited(true);
+        tcpClient.setConcurrencyLimit(() -> new FixedConcurrencyLimit(1));
+
+        client = new HedgingClient(tcpClient, metrics, Duration.ofMillis(50), 0, new HedgeBudget(1, 10));
+        client.connect();
+
+        // The slow reply takes the only request allowed, so the next one is rejected right away
+        tcpClient.request("slow");
+
+        start = System.nanoTime();
+        Assertions.assertThrows(RequestRejectedException.class, () -> client.exchange("message")
+            .block(TIMEOUT));
+        elapsed = System.nanoTime() - start;
+
+        // Past the delay, when the hedge would have been sent
+        Thread.sleep(200);
+
+        Assertions.assertTrue(elapsed < Duration.ofMillis(50)
+            .toNanos(), "waited for the hedge delay");
+        Assertions.assertEquals(0, metrics.getHedges(), "hedges");
+        Assertions.assertEquals(1, server.getReceived(), "messages sent to the server");
+    }
+
+    private final void connect(final HedgeBudget budget) {
+        final ReactorNettyTcpClient tcpClient;
+
+        tcpClient = new ReactorNettyTcpClient("localhost", server.port(), metrics, false);
+        tcpClient.setLineDelimited(true);
+        tcpClient.setConnections(2);
+
+        client = new HedgingClient(tcpClient, metrics, Duration.ofMillis(50), 0, budget);
+        client.connect();
+    }
+
+}
@@ -0,0 +1,176 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.keepalive.KeepAlivePolicy;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+import reactor.core.Exceptions;
+
+@DisplayName("Keep-alive and connection recycling against the mock server")
+public final class ITKeepAlive {
+
+    private ReactorNettyTcpClient     client;
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITKeepAlive() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Heartbeats are sent to idle connections, and their responses are not taken as responses to requests")
+    public final void testHeartbeat() {
+        final KeepAlivePolicy policy;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        policy = new KeepAlivePolicy();
+        policy.setHeartbeat("PING", Duration.ofMillis(100));
+        connect(policy);
+
+        TransactionRecorder.await(() -> server.getReceived() >= 3);
+        client.request("message");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 1);
+        Assertions.assertEquals(List.of("message"), recorder.getReceived());
+        Assertions.assertEquals(1, server.getConnections());
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+    }
+
+    @Test
+    @DisplayName("A connection without response past the idle timeout is closed, and replaced")
+    public final void testIdleTimeout() {
+        final KeepAlivePolicy policy;
+        final Throwable       error;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofSeconds(3)))
+            .start();
+        policy = new KeepAlivePolicy();
+        policy.setIdleTimeout(Duration.ofMillis(200));
+        policy.setValidationInterval(Duration.ofMillis(50));
+        connect(policy);
+
+        error = Assertions.assertThrows(RuntimeException.class, () -> client.exchange("message")
+            .block(Duration.ofSeconds(2)));
+
+        Assertions.assertInstanceOf(ClosedChannelException.class, Exceptions.unwrap(error));
+
+        TransactionRecorder.await(() -> server.getConnections() == 2);
+        Assertions.assertEquals(List.of("connection closed"), recorder.getRecycled());
+    }
+
+    @Test
+    @DisplayName("Connections closed by the server are replaced, and the requests go to the replacement")
+    public final void testRecycle_Closed() {
+        final KeepAlivePolicy policy;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .dropAfter(1)
+            .start();
+        policy = new KeepAlivePolicy();
+        policy.setValidationInterval(Duration.ofMillis(50));
+        connect(policy);
+
+        client.request("first");
+        TransactionRecorder.await(() -> server.getConnections() == 2);
+        client.request("second");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 2);
+        Assertions.assertEquals(List.of("first", "second"), recorder.getReceived());
+        // The replacement is also closed after replying
+        Assertions.assertEquals("connection closed", recorder.getRecycled()
+            .get(0));
+    }
+
+    @Test
+    @DisplayName("Connections over the maximum life time are replaced without losing requests")
+    public final void testRecycle_MaxLife() throws InterruptedException {
+        final KeepAlivePolicy policy;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(20)))
+            .start();
+        policy = new KeepAlivePolicy();
+        policy.setMaxLife(Duration.ofMillis(200));
+        policy.setValidationInterval(Duration.ofMillis(50));
+        connect(policy);
+
+        for (int i = 0; i < 40; i++) {
+            client.request("message " + i);
+            Thread.sleep(20);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 40);
+        Assertions.assertTrue(server.getConnections() >= 3, "opened " + server.getConnections());
+        Assertions.assertTrue(recorder.getRecycled()
+            .contains("over the maximum life time"), "recycled " + recorder.getRecycled());
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+    }
+
+    private final void connect(final KeepAlivePolicy policy) {
+        client = new ReactorNettyTcpClient("localhost", server.port(), recorder, false);
+        client.setLineDelimited(true);
+        client.setKeepAlive(policy);
+        client.connect();
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.Client;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("Multiplexed streams against the mock server")
+public final class ITMultiplexedStreams {
+
+    private static final Duration            TIMEOUT = Duration.ofSeconds(10);
+
+    private ReactorNettyTcpClient            client;
+
+    private final MetricsTransactionListener metrics = new MetricsTransactionListener();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITMultiplexedStreams() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Each stream receives its own responses")
+    public final void testExchange_Concurrent() {
+        final List<String> streams;
+        final List<String> responses;
+
+        connect(true, 1);
+
+        streams = IntStream.range(0, 20)
+            .mapToObj(i -> "stream " + i)
+            .collect(Collectors.toList());
+        responses = Flux.fromIterable(streams)
+            .flatMapSequential(message -> {
+                final Client stream;
+
+                stream = client.openStream();
+                return Flux.range(0, 10)
+                    .concatMap(i -> stream.exchange(message))
+                    .distinct()
+                    .single()
+                    .doFinally(s -> stream.close());
+            })
+            .collectList()
+            .block(TIMEOUT);
+
+        Assertions.assertEquals(streams, responses);
+        Assertions.assertEquals(200, server.getReceived(), "messages received by the server");
+        Assertions.assertEquals(1, server.getConnections(), "connections");
+    }
+
+    @Test
+    @DisplayName("A large message doesn't hold back the other streams")
+    public final void testExchange_LargeMessage() {
+        final AtomicReference<String> large;
+        final Client                  largeStream;
+        final Client                  smallStream;
+        final String                  message;
+
+        connect(true, 1);
+        largeStream = client.openStream();
+        smallStream = client.openStream();
+
+        message = "x".repeat(4 * 1024 * 1024);
+        large = new AtomicReference<>();
+        largeStream.exchange(message)
+            // Fails if the test ends before
+            .subscribe(large::set, error -> {});
+
+        Assertions.assertEquals("small", smallStream.exchange("small")
+            .block(TIMEOUT));
+        Assertions.assertNull(large.get(), "the large message finished before the small one");
+
+        TransactionRecorder.await(() -> large.get() != null, TIMEOUT);
+        Assertions.assertEquals(message, large.get());
+    }
+
+    @Test
+    @DisplayName("A stream out of window doesn't block the other streams")
+    public final void testExchange_OutOfWindow() {
+        final AtomicReference<String> blocked;
+        final Client                  blockedStream;
+        final Client                  freeStream;
+
+        connect(false, 1);
+        blockedStream = client.openStream();
+        freeStream = client.openStream();
+
+        blocked = new AtomicReference<>();
+        blockedStream.exchange("x".repeat(100 * 1024))
+            // Fails when closing the client
+            .subscribe(blocked::set, error -> {});
+
+        Assertions.assertEquals("message 1", freeStream.exchange("message 1")
+            .block(TIMEOUT));
+        Assertions.assertEquals("message 2", freeStream.exchange("message 2")
+            .block(TIMEOUT));
+        Assertions.assertNull(blocked.get(), "the stream should be out of window");
+    }
+
+    @Test
+    @DisplayName("Requests are spread through the streams of a single connection")
+    public final void testRequest_Streams() {
+        connect(true, 8);
+
+        for (int i = 0; i < 100; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> metrics.getReceived() == 100, TIMEOUT);
+        Assertions.assertEquals(100, metrics.getTotalLatencies()
+            .getTotalCount(), "latencies");
+        Assertions.assertEquals(0, metrics.getErrors(), "errors");
+        Assertions.assertEquals(1, server.getConnections(), "connections");
+    }
+
+    private final void connect(final boolean windowUpdates, final int streams) {
+        server = MockTcpServer.builder()
+            .multiplexed(windowUpdates)
+            .start();
+
+        client = new ReactorNettyTcpClient("localhost", server.port(), metrics, false);
+        client.setStreams(streams);
+        client.connect();
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.RequestRejectedException;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+import reactor.core.publisher.Flux;
+
+@DisplayName("Pipelining window against the mock server")
+public final class ITPipelining {
+
+    private ReactorNettyTcpClient     client;
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITPipelining() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Once all the windows are full, messages are queued, and rejected when the queue is full")
+    public final void testAllWindowsFull() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(200)))
+            .start();
+        connect(2, 1, 1);
+
+        // One written on each connection, one queued on each, the rest rejected
+        for (int i = 0; i < 6; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 4);
+        Assertions.assertEquals(2, recorder.getErrors()
+            .size());
+        Assertions.assertInstanceOf(RequestRejectedException.class, recorder.getErrors()
+            .get(0));
+        Assertions.assertEquals(0, recorder.getSpills());
+    }
+
+    @Test
+    @DisplayName("Responses are matched to the pipelined requests in order")
+    public final void testInOrderMatching() {
+        final List<String> messages;
+        final List<String> responses;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.uniform(Duration.ZERO, Duration.ofMillis(5)))
+            .start();
+        connect(1, 4, 100);
+
+        messages = Flux.range(0, 50)
+            .map(i -> "message " + i)
+            .collectList()
+            .block();
+        responses = Flux.fromIterable(messages)
+            .flatMapSequential(client::exchange)
+            .collectList()
+            .block(TransactionRecorder.TIMEOUT);
+
+        Assertions.assertEquals(messages, responses);
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+    }
+
+    @Test
+    @DisplayName("A message spills into another connection when its window is full")
+    public final void testSpill() {
+        final AtomicInteger replies;
+
+        replies = new AtomicInteger();
+        // Only the first message is slow
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(random -> replies.getAndIncrement() == 0 ? Duration.ofMillis(1000) : Duration.ZERO)
+            .start();
+        connect(2, 1, 100);
+
+        client.request("slow");
+        TransactionRecorder.await(() -> server.getReceived() == 1);
+        client.request("fast 0");
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 1);
+
+        // Its connection waits for the slow one, so it goes through the other
+        client.request("fast 1");
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 2);
+
+        Assertions.assertEquals(List.of("fast 0", "fast 1"), recorder.getReceived());
+        Assertions.assertEquals(1, recorder.getSpills());
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+    }
+
+    private final void connect(final int connections, final int depth, final int queued) {
+        client = new ReactorNettyTcpClient("localhost", server.port(), recorder, false);
+        client.setLineDelimited(true);
+        client.setConnections(connections);
+        client.setPipelineDepth(depth);
+        client.setMaxQueued(queued);
+        client.connect();
+    }
+
+}
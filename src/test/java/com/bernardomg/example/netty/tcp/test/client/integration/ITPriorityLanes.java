@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.RequestRejectedException;
+import com.bernardomg.example.netty.tcp.client.limit.FixedConcurrencyLimit;
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+import com.bernardomg.example.netty.tcp.client.priority.PriorityPolicy;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Priority lanes against the mock server")
+public final class ITPriorityLanes {
+
+    private ReactorNettyTcpClient     client;
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITPriorityLanes() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("High priority messages overtake the queued bulk messages")
+    public final void testHighOvertakesBulk() {
+        final long highMax;
+        final long bulkMax;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(5)))
+            .start();
+        connect(new PriorityPolicy());
+
+        for (int i = 0; i < 100; i++) {
+            client.request("bulk " + i, Priority.BULK);
+        }
+        for (int i = 0; i < 3; i++) {
+            client.request("high " + i, Priority.HIGH);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 103);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(recorder.getReceived()
+                .indexOf("high " + i) < 10, "received " + recorder.getReceived());
+        }
+
+        highMax = recorder.getLaneLatencies()
+            .get(Priority.HIGH)
+            .stream()
+            .mapToLong(Long::longValue)
+            .max()
+            .getAsLong();
+        bulkMax = recorder.getLaneLatencies()
+            .get(Priority.BULK)
+            .stream()
+            .mapToLong(Long::longValue)
+            .max()
+            .getAsLong();
+        Assertions.assertTrue(highMax * 2 < bulkMax, "high " + highMax + ", bulk " + bulkMax);
+        Assertions.assertEquals(List.of(), recorder.getErrors());
+    }
+
+    @Test
+    @DisplayName("A full lane rejects its messages, while the other lanes still accept them")
+    public final void testLaneCapacity() {
+        final PriorityPolicy policy;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(50)))
+            .start();
+        policy = new PriorityPolicy();
+        policy.setCapacity(5);
+        connect(policy);
+
+        // One written, five queued
+        for (int i = 0; i < 10; i++) {
+            client.request("bulk " + i, Priority.BULK);
+        }
+        client.request("high", Priority.HIGH);
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 7);
+        Assertions.assertEquals(4, recorder.getErrors()
+            .size());
+        Assertions.assertInstanceOf(RequestRejectedException.class, recorder.getErrors()
+            .get(0));
+        Assertions.assertEquals("high", recorder.getReceived()
+            .get(1));
+    }
+
+    @Test
+    @DisplayName("With the same priority, messages keep the order they were sent in")
+    public final void testSamePriorityOrder() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(new PriorityPolicy());
+
+        for (int i = 0; i < 20; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 20);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals("message " + i, recorder.getReceived()
+                .get(i));
+        }
+        Assertions.assertEquals(List.of(Priority.NORMAL), List.copyOf(recorder.getLaneLatencies()
+            .keySet()));
+    }
+
+    private final void connect(final PriorityPolicy policy) {
+        client = new ReactorNettyTcpClient("localhost", server.port(), recorder, false);
+        client.setLineDelimited(true);
+        // A single request at a time, so the rest wait in the lanes
+        client.setConcurrencyLimit(() -> new FixedConcurrencyLimit(1));
+        client.setPriorities(policy);
+        client.connect();
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.rate.RateSchedule;
+import com.bernardomg.example.netty.tcp.client.rate.TokenBucket;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Rate limit against the mock server")
+public final class ITRateLimit {
+
+    private static final Duration     TIMEOUT  = Duration.ofSeconds(10);
+
+    private ReactorNettyTcpClient     client;
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITRateLimit() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("The burst is sent at once, and then the rate is kept")
+    public final void testRequest_Burst() {
+        final long start;
+        final long afterBurst;
+
+        connect(new TokenBucket(RateSchedule.constant(2), 50));
+
+        // The bucket starts with the first request, which may be written later
+        start = System.nanoTime();
+        for (int i = 0; i < 51; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getSendTimes()
+            .size() == 51, TIMEOUT);
+        afterBurst = TimeUnit.NANOSECONDS.toMillis(recorder.getSendTimes()
+            .get(50) - start);
+        Assertions.assertTrue(elapsed(0, 49) < 400, "burst took " + elapsed(0, 49) + " ms");
+        Assertions.assertTrue(afterBurst >= 450, "message after the burst took " + afterBurst + " ms");
+    }
+
+    @Test
+    @DisplayName("Messages are spaced by the rate")
+    public final void testRequest_Constant() {
+        connect(new TokenBucket(RateSchedule.constant(1000), 1));
+
+        for (int i = 0; i < 200; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getSendTimes()
+            .size() == 200, TIMEOUT);
+        Assertions.assertTrue(elapsed(0, 199) >= 190, "sending took " + elapsed(0, 199) + " ms");
+        Assertions.assertTrue(elapsed(0, 199) < 1000, "sending took " + elapsed(0, 199) + " ms");
+    }
+
+    @Test
+    @DisplayName("A linear ramp spaces the first messages more than the last ones")
+    public final void testRequest_LinearRamp() {
+        connect(new TokenBucket(RateSchedule.linear(50, 500, Duration.ofSeconds(1)), 1));
+
+        for (int i = 0; i < 200; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> recorder.getSendTimes()
+            .size() == 200, TIMEOUT);
+        Assertions.assertTrue(elapsed(0, 10) > (3 * elapsed(189, 199)),
+            "first messages took " + elapsed(0, 10) + " ms, last ones " + elapsed(189, 199) + " ms");
+    }
+
+    @Test
+    @DisplayName("A step ramp never goes over the final rate, even if shorter than its steps")
+    public final void testSchedule_ShortStepRamp() {
+        final RateSchedule schedule;
+        final RateSchedule empty;
+        final RateSchedule tooShort;
+
+        // Three nanoseconds for each step, and the remaining one for the last step
+        schedule = RateSchedule.steps(0, 100, Duration.ofNanos(10), 3);
+        Assertions.assertEquals(0, schedule.getRate(0));
+        Assertions.assertEquals(50, schedule.getRate(3));
+        Assertions.assertEquals(100, schedule.getRate(9));
+        Assertions.assertEquals(100, schedule.getRate(10));
+
+        empty = RateSchedule.steps(0, 100, Duration.ZERO, 5);
+        Assertions.assertEquals(100, empty.getRate(0));
+
+        // A nanosecond for each step, cut short by the end of the ramp
+        tooShort = RateSchedule.steps(0, 100, Duration.ofNanos(3), 5);
+        Assertions.assertEquals(50, tooShort.getRate(2));
+        Assertions.assertEquals(100, tooShort.getRate(3));
+    }
+
+    private final void connect(final TokenBucket limit) {
+        server = MockTcpServer.builder()
+            .start();
+
+        client = new ReactorNettyTcpClient("localhost", server.port(), recorder, false);
+        client.connect();
+        client.setRateLimit(limit);
+    }
+
+    private final long elapsed(final int from, final int to) {
+        final List<Long> sent;
+
+        sent = recorder.getSendTimes();
+
+        return TimeUnit.NANOSECONDS.toMillis(sent.get(to) - sent.get(from));
+    }
+
+}
@@ -0,0 +1,233 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Reactor Netty client against the mock server")
+public final class ITReactorNettyTcpClientMockServer {
+
+    private ReactorNettyTcpClient            client;
+
+    private final MetricsTransactionListener metrics  = new MetricsTransactionListener();
+
+    private final TransactionRecorder        recorder = new TransactionRecorder();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITReactorNettyTcpClientMockServer() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Messages with multi-byte characters are sent and received in the chosen charset")
+    public final void testRequest_Charset() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(true, StandardCharsets.UTF_8);
+
+        client.request("ma\u00F1ana 10\u20AC");
+        client.request("plain");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 2);
+        Assertions.assertEquals(List.of("ma\u00F1ana 10\u20AC", "plain"), recorder.getReceived());
+    }
+
+    @Test
+    @DisplayName("Closed connections are reported after the last reply")
+    public final void testRequest_Dropped() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .dropAfter(3)
+            .start();
+        connect(true);
+
+        for (int i = 0; i < 3; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> server.getDropped() == 1);
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 3);
+        Assertions.assertEquals(List.of("message 0", "message 1", "message 2"), recorder.getReceived());
+    }
+
+    @Test
+    @DisplayName("Echoes all the messages, with a latency for each")
+    public final void testRequest_Echo() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(true);
+
+        for (int i = 0; i < 50; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> metrics.getReceived() == 50);
+        Assertions.assertEquals("message 49", recorder.getReceived()
+            .get(49));
+        Assertions.assertEquals(50, metrics.getTotalLatencies()
+            .getTotalCount());
+        Assertions.assertEquals(0, metrics.getErrors());
+    }
+
+    @Test
+    @DisplayName("Empty lines are sent, and their replies are not taken by the next message")
+    public final void testExchange_Empty_LineDelimited() {
+        final String empty;
+        final String next;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(true);
+
+        empty = client.exchange("")
+            .block(TransactionRecorder.TIMEOUT);
+        next = client.exchange("next")
+            .block(TransactionRecorder.TIMEOUT);
+
+        Assertions.assertEquals("", empty);
+        Assertions.assertEquals("next", next);
+        Assertions.assertEquals(2, server.getReceived());
+    }
+
+    @Test
+    @DisplayName("Without framing, empty messages are not written")
+    public final void testExchange_Empty_Raw() {
+        final String empty;
+
+        server = MockTcpServer.builder()
+            .start();
+        connect(false);
+
+        empty = client.exchange("")
+            .block(TransactionRecorder.TIMEOUT);
+        client.request("next");
+
+        TransactionRecorder.await(() -> String.join("", recorder.getReceived())
+            .equals("next"));
+        Assertions.assertNull(empty);
+        Assertions.assertEquals(2, metrics.getSent());
+    }
+
+    @Test
+    @DisplayName("Line framing joins fragmented replies")
+    public final void testRequest_Fragmented_LineDelimited() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .fixedReply("fragmented reply")
+            .fragmented(4, Duration.ofMillis(5))
+            .start();
+        connect(true);
+
+        client.request("message 1");
+        client.request("message 2");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 2);
+        Assertions.assertEquals(List.of("fragmented reply", "fragmented reply"), recorder.getReceived());
+    }
+
+    @Test
+    @DisplayName("Without framing, fragmented replies are received in pieces")
+    public final void testRequest_Fragmented_Raw() {
+        server = MockTcpServer.builder()
+            .fixedReply("fragmented reply")
+            .fragmented(4, Duration.ofMillis(20))
+            .start();
+        connect(false);
+
+        client.request("message");
+
+        TransactionRecorder.await(() -> String.join("", recorder.getReceived())
+            .equals("fragmented reply"));
+        Assertions.assertTrue(recorder.getReceived()
+            .size() > 1, "received in one piece");
+    }
+
+    @Test
+    @DisplayName("Latencies include the server delay")
+    public final void testRequest_Latency() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(50)))
+            .start();
+        connect(true);
+
+        for (int i = 0; i < 5; i++) {
+            client.request("message " + i);
+        }
+
+        TransactionRecorder.await(() -> metrics.getReceived() == 5);
+        Assertions.assertTrue(metrics.getTotalLatencies()
+            .getMinValue() >= TimeUnit.MILLISECONDS.toNanos(50), "latency below the server delay");
+    }
+
+    private final void connect(final boolean lineDelimited) {
+        connect(lineDelimited, Charset.defaultCharset());
+    }
+
+    private final void connect(final boolean lineDelimited, final Charset charset) {
+        client = new ReactorNettyTcpClient("localhost", server.port(),
+            new CompositeTransactionListener(List.of(recorder, metrics)), false);
+        client.setLineDelimited(lineDelimited);
+        client.setCharset(charset);
+        client.connect();
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.socket.SocketStats;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.payload.TemplatePayloadGenerator;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+
+@DisplayName("Socket stats sampled against the mock server")
+public final class ITSocketStats {
+
+    private ReactorNettyTcpClient            client;
+
+    private final MetricsTransactionListener metrics = new MetricsTransactionListener();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITSocketStats() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Samples each connection")
+    public final void testSample() {
+        final SocketStats stats;
+
+        server = MockTcpServer.builder()
+            .start();
+        connect(2);
+        client.request("message");
+
+        TransactionRecorder.await(() -> metrics.getSocketStats()
+            .size() == 2);
+        stats = metrics.getSocketStats()
+            .iterator()
+            .next();
+
+        Assertions.assertEquals(Epoll.isAvailable(), stats.isKernelAvailable(), "kernel stats");
+        Assertions.assertTrue(stats.isWritable(), "writable");
+    }
+
+    @Test
+    @DisplayName("Connections become unwritable when the server reads slowly")
+    public final void testWritability() {
+        server = MockTcpServer.builder()
+            .slowReads(Duration.ofMillis(500))
+            .start();
+        connect(1);
+
+        try (TemplatePayloadGenerator generator = TemplatePayloadGenerator.random(PooledByteBufAllocator.DEFAULT,
+            1024 * 1024, 1, 1)) {
+            for (int i = 0; i < 20; i++) {
+                client.request(generator.next());
+            }
+        }
+
+        TransactionRecorder.await(() -> metrics.getWritabilityChanges() > 0);
+        TransactionRecorder.await(() -> metrics.getSocketStats()
+            .iterator()
+            .next()
+            .getPendingWriteBytes() > 0);
+    }
+
+    private final void connect(final int connections) {
+        client = new ReactorNettyTcpClient("localhost", server.port(), metrics, false);
+        client.setConnections(connections);
+        client.setSocketStatsInterval(50);
+        client.connect();
+    }
+
+}
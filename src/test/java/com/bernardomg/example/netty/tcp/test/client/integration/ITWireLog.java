@@ -0,0 +1,170 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.client.integration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.client.wire.WireLogHandler;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Wire log against the mock server")
+public final class ITWireLog {
+
+    private Appender                         appender;
+
+    private ReactorNettyTcpClient            client;
+
+    private final List<String>               events  = new CopyOnWriteArrayList<>();
+
+    private final MetricsTransactionListener metrics = new MetricsTransactionListener();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITWireLog() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        // Removed first, as closing the channels is logged
+        wireLogger().removeAppender(appender.getName());
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        appender = new AbstractAppender("collector", null, null, true, Property.EMPTY_ARRAY) {
+
+            @Override
+            public final void append(final LogEvent event) {
+                events.add(event.getMessage()
+                    .getFormattedMessage());
+            }
+
+        };
+        appender.start();
+        wireLogger().addAppender(appender, Level.INFO, null);
+    }
+
+    @Test
+    @DisplayName("Logs every write as a JSON line, when sampling all of them")
+    public final void testWireLog_All() {
+        server = MockTcpServer.builder()
+            .start();
+        connect(1, 64, false);
+
+        client.request("message 1");
+        client.request("message 2");
+
+        TransactionRecorder.await(() -> writes().size() == 2);
+        Assertions.assertTrue(events.get(0)
+            .matches("\\{\"ts\":\\d+,\"channel\":\"\\w+\",\"event\":\"open\"\\}"), events.get(0));
+        Assertions.assertTrue(writes().get(0)
+            .endsWith("\"event\":\"write\",\"seq\":1,\"bytes\":9,\"preview\":\"message 1\",\"truncated\":false}"),
+            writes().get(0));
+        Assertions.assertTrue(writes().get(1)
+            .endsWith("\"event\":\"write\",\"seq\":2,\"bytes\":9,\"preview\":\"message 2\",\"truncated\":false}"),
+            writes().get(1));
+    }
+
+    @Test
+    @DisplayName("Previews are cut to their size, and escaped")
+    public final void testWireLog_Preview() {
+        server = MockTcpServer.builder()
+            .start();
+        connect(1, 10, false);
+
+        client.request("\"quoted\"\t\\ and some more text");
+
+        TransactionRecorder.await(() -> writes().size() == 1);
+        Assertions.assertTrue(writes().get(0)
+            .endsWith("\"bytes\":29,\"preview\":\"\\\"quoted\\\"\\u0009\\\\\",\"truncated\":true}"), writes().get(0));
+    }
+
+    @Test
+    @DisplayName("Logs only a sample of the writes")
+    public final void testWireLog_Sampled() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect(0.5, 16, true);
+
+        for (int i = 0; i < 200; i++) {
+            client.request("message " + i);
+        }
+
+        // Every write went through the handler before its response
+        TransactionRecorder.await(() -> metrics.getReceived() == 200);
+        Assertions.assertTrue(writes().size() > 0, "sampled writes");
+        Assertions.assertTrue(writes().size() < 200, "sampled writes");
+    }
+
+    private final void connect(final double rate, final int preview, final boolean lineDelimited) {
+        client = new ReactorNettyTcpClient("localhost", server.port(), metrics, false);
+        client.setLineDelimited(lineDelimited);
+        client.setWireLog(rate, preview);
+        client.connect();
+    }
+
+    private final LoggerConfig wireLogger() {
+        return ((LoggerContext) LogManager.getContext(false)).getConfiguration()
+            .getLoggerConfig(WireLogHandler.WIRE_LOGGER);
+    }
+
+    private final List<String> writes() {
+        return events.stream()
+            .filter(e -> e.contains("\"event\":\"write\""))
+            .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bernardomg.example.netty.tcp.client.codec.TextCodec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Text codec benchmark. Compares the codec against the path used by Reactor Netty for strings, which encodes with
+ * {@code ByteBuf.writeCharSequence} after appending the line break, and decodes with {@code ByteBuf.toString}.
+ * <p>
+ * Run with the benchmark profile.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextCodecBenchmark {
+
+    /**
+     * ASCII message flag. Otherwise the message includes multi-byte characters.
+     */
+    @Param({ "true", "false" })
+    public boolean                 ascii;
+
+    /**
+     * Message length, in characters.
+     */
+    @Param({ "16", "256", "4096" })
+    public int                     length;
+
+    /**
+     * Allocator for the buffers.
+     */
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+    /**
+     * Codec being measured.
+     */
+    private final TextCodec        codec     = TextCodec.UTF_8;
+
+    /**
+     * Encoded message, to decode.
+     */
+    private ByteBuf                encoded;
+
+    /**
+     * Message to encode.
+     */
+    private String                 message;
+
+    /**
+     * Default constructor.
+     */
+    public TextCodecBenchmark() {
+        super();
+    }
+
+    @Benchmark
+    public final String decodeCodec() {
+        return codec.decode(encoded);
+    }
+
+    @Benchmark
+    public final String decodeToString() {
+        return encoded.toString(encoded.readerIndex(), encoded.readableBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public final int encodeCodec() {
+        final ByteBuf data;
+        final int     bytes;
+
+        data = codec.encodeLine(allocator, message);
+        bytes = data.readableBytes();
+        data.release();
+
+        return bytes;
+    }
+
+    @Benchmark
+    public final int encodeWriteCharSequence() {
+        final ByteBuf data;
+        final int     bytes;
+
+        data = allocator.buffer();
+        data.writeCharSequence(message + '\n', StandardCharsets.UTF_8);
+        bytes = data.readableBytes();
+        data.release();
+
+        return bytes;
+    }
+
+    @Setup
+    public final void setUp() {
+        final StringBuilder text;
+        final char          character;
+
+        if (ascii) {
+            character = 'a';
+        } else {
+            character = '\u00F1';
+        }
+
+        text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            // One in eight characters is taken from the chosen set
+            if ((i % 8) == 0) {
+                text.append(character);
+            } else {
+                text.append((char) ('a' + (i % 26)));
+            }
+        }
+        message = text.toString();
+
+        // Direct, as received from the connection
+        encoded = allocator.directBuffer();
+        encoded.writeCharSequence(message, StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public final void tearDown() {
+        encoded.release();
+    }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.diff.integration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.diff.DiffSummary;
+import com.bernardomg.example.netty.tcp.diff.Mismatch;
+import com.bernardomg.example.netty.tcp.diff.RequestRecorder;
+import com.bernardomg.example.netty.tcp.diff.ResponseDiff;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+@DisplayName("Response diff against the mock servers")
+public final class ITResponseDiff {
+
+    private ReactorNettyTcpClient baseline;
+
+    private MockTcpServer         baselineServer;
+
+    private ReactorNettyTcpClient candidate;
+
+    private MockTcpServer         candidateServer;
+
+    private final List<Mismatch>  mismatches = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    private Path                  tempDir;
+
+    /**
+     * Default constructor.
+     */
+    public ITResponseDiff() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (baseline != null) {
+            baseline.close();
+        }
+        if (candidate != null) {
+            candidate.close();
+        }
+        if (baselineServer != null) {
+            baselineServer.close();
+        }
+        if (candidateServer != null) {
+            candidateServer.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Different responses are reported as mismatches")
+    public final void testRun_Different() {
+        final DiffSummary summary;
+
+        start(MockTcpServer.builder()
+            .lineDelimited()
+            .fixedReply("changed"));
+
+        summary = diff(corpus(10));
+
+        Assertions.assertEquals(10, summary.getCompared());
+        Assertions.assertEquals(10, summary.getMismatches());
+        Assertions.assertEquals(10, mismatches.size());
+        Assertions.assertEquals(IntStream.range(0, 10)
+            .mapToObj(Long::valueOf)
+            .collect(Collectors.toSet()),
+            mismatches.stream()
+                .map(Mismatch::getIndex)
+                .collect(Collectors.toSet()));
+        for (final Mismatch mismatch : mismatches) {
+            Assertions.assertEquals(mismatch.getMessage(), mismatch.getBaseline());
+            Assertions.assertEquals("changed", mismatch.getCandidate());
+        }
+    }
+
+    @Test
+    @DisplayName("A recorded corpus is replayed with the same responses")
+    public final void testRun_Recorded() throws IOException {
+        final Path                  file;
+        final ReactorNettyTcpClient recorded;
+        final DiffSummary           summary;
+
+        start(MockTcpServer.builder()
+            .lineDelimited());
+
+        file = tempDir.resolve("corpus.txt");
+        try (RequestRecorder recorder = new RequestRecorder(file)) {
+            recorded = new ReactorNettyTcpClient("localhost", baselineServer.port(), recorder, false);
+            recorded.setLineDelimited(true);
+            recorded.setDrainTimeout(Duration.ofSeconds(5));
+            recorded.connect();
+            for (int i = 0; i < 5; i++) {
+                recorded.request("recorded " + i);
+            }
+            recorded.close();
+        }
+
+        try (Stream<String> lines = Files.lines(file)) {
+            summary = diff(lines);
+        }
+
+        Assertions.assertEquals(5, summary.getCompared());
+        Assertions.assertEquals(0, summary.getMismatches());
+    }
+
+    @Test
+    @DisplayName("Equal responses are compared without mismatches, and the latencies of both servers are kept")
+    public final void testRun_Same() {
+        final DiffSummary summary;
+
+        start(MockTcpServer.builder()
+            .lineDelimited());
+
+        summary = diff(corpus(500));
+
+        Assertions.assertEquals(500, summary.getCompared());
+        Assertions.assertEquals(0, summary.getMismatches());
+        Assertions.assertTrue(mismatches.isEmpty());
+        Assertions.assertEquals(0, summary.getBaselineErrors());
+        Assertions.assertEquals(0, summary.getCandidateErrors());
+        Assertions.assertEquals(500, summary.getBaselineLatencies()
+            .getTotalCount());
+        Assertions.assertEquals(500, summary.getCandidateLatencies()
+            .getTotalCount());
+    }
+
+    private final ReactorNettyTcpClient connect(final MockTcpServer server) {
+        final ReactorNettyTcpClient client;
+
+        client = new ReactorNettyTcpClient("localhost", server.port(), new CompositeTransactionListener(List.of()),
+            false);
+        client.setLineDelimited(true);
+        client.connect();
+
+        return client;
+    }
+
+    private final Stream<String> corpus(final int size) {
+        return IntStream.range(0, size)
+            .mapToObj(i -> "message " + i);
+    }
+
+    private final DiffSummary diff(final Stream<String> corpus) {
+        return new ResponseDiff(baseline, candidate, Duration.ofSeconds(5), mismatches::add).run(corpus, 16);
+    }
+
+    private final void start(final MockTcpServer.Builder candidateBuilder) {
+        baselineServer = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        candidateServer = candidateBuilder.start();
+
+        baseline = connect(baselineServer);
+        candidate = connect(candidateServer);
+    }
+
+}
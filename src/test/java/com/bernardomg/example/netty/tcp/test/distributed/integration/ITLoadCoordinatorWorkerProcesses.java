@@ -0,0 +1,164 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.distributed.integration;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.Main;
+import com.bernardomg.example.netty.tcp.distributed.LoadCoordinator;
+import com.bernardomg.example.netty.tcp.load.LoadPlan;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+
+
+@DisplayName("Load coordinator with worker processes")
+public final class ITLoadCoordinatorWorkerProcesses {
+
+    private static final Pattern LISTENING = Pattern.compile("Listening for plans on .*:(\\d+)");
+
+    private MockTcpServer        server;
+
+    private final List<Process>  workers   = new ArrayList<>();
+
+    /**
+     * Default constructor.
+     */
+    public ITLoadCoordinatorWorkerProcesses() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        workers.forEach(Process::destroyForcibly);
+        server.close();
+    }
+
+    @Test
+    @DisplayName("A worker answers a failed plan with an error, and keeps serving")
+    public final void testRun_FailedPlan() throws IOException {
+        final List<InetSocketAddress> addresses;
+        final LoadPlan                failing;
+        final LoadPlan                plan;
+        final CompletionException     error;
+        final MetricsSummary          summary;
+        final int                     closedPort;
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        addresses = List.of(startWorker(2));
+        failing = new LoadPlan("localhost", closedPort, "message", 100, 1, 500, 500, true);
+        plan = new LoadPlan("localhost", server.port(), "message", 100, 1, 500, 500, true);
+
+        error = Assertions.assertThrows(CompletionException.class, () -> new LoadCoordinator(addresses).run(failing));
+        Assertions.assertTrue(error.getCause()
+            .getMessage()
+            .contains("failed running the plan"), error.getCause()
+                .getMessage());
+        // The actual cause, not a failure when cleaning up
+        Assertions.assertTrue(error.getCause()
+            .getMessage()
+            .contains("Connection refused"), error.getCause()
+                .getMessage());
+
+        summary = new LoadCoordinator(addresses).run(plan);
+
+        Assertions.assertTrue(summary.getSent() > 0, "sent " + summary.getSent());
+        Assertions.assertEquals(summary.getSent(), summary.getReceived(), "received");
+    }
+
+    @Test
+    @DisplayName("Merges the metrics from all the workers")
+    public final void testRun_MergesWorkers() throws IOException {
+        final List<InetSocketAddress> addresses;
+        final LoadPlan                plan;
+        final MetricsSummary          summary;
+
+        addresses = List.of(startWorker(1), startWorker(1));
+        plan = new LoadPlan("localhost", server.port(), "message", 200, 2, 1000, 1000, true);
+
+        summary = new LoadCoordinator(addresses).run(plan);
+
+        Assertions.assertTrue((summary.getSent() >= 180) && (summary.getSent() <= 200),
+            "sent " + summary.getSent());
+        Assertions.assertEquals(summary.getSent(), summary.getReceived(), "received");
+        Assertions.assertEquals(summary.getReceived(), summary.getLatencies()
+            .getTotalCount(), "latencies");
+        Assertions.assertEquals(0, summary.getErrors(), "errors");
+    }
+
+    @BeforeEach
+    public final void startServer() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+    }
+
+    /**
+     * Starts a worker in its own process, which serves the received number of plans, and returns its control
+     * address.
+     */
+    private final InetSocketAddress startWorker(final int plans) throws IOException {
+        final ProcessBuilder builder;
+        final Process        process;
+        final BufferedReader reader;
+        final String         line;
+        final Matcher        matcher;
+
+        builder = new ProcessBuilder(
+            System.getProperty("java.home") + File.separator + "bin" + File.separator + "java", "-cp",
+            System.getProperty("java.class.path"), Main.class.getName(), "worker", "--control-port=0",
+            "--plans=" + plans);
+        builder.redirectErrorStream(true);
+        process = builder.start();
+        workers.add(process);
+
+        reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        line = reader.readLine();
+        matcher = LISTENING.matcher(String.valueOf(line));
+        Assertions.assertTrue(matcher.find(), "worker started, but printed: " + line);
+
+        return new InetSocketAddress("localhost", Integer.parseInt(matcher.group(1)));
+    }
+
+}
@@ -0,0 +1,214 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.metrics.integration;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.metrics.IntervalReporter;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Interval reports of a run against the mock server")
+public final class ITIntervalReporter {
+
+    private static final long                LATENCY  = 20;
+
+    // The decimal separator depends on the default locale
+    private static final Pattern             REPORT   = Pattern.compile("\\[ *([0-9.,]+)s\\] sent ([0-9]+) msg/s"
+            + " \\| received ([0-9]+) msg/s \\| out [0-9.,]+ MB/s \\| in [0-9.,]+ MB/s \\| in-flight ([0-9]+)"
+            + " \\| latency ms p50 ([0-9.,]+) p90 ([0-9.,]+) p99 ([0-9.,]+) p99\\.9 ([0-9.,]+) max ([0-9.,]+)"
+            + " \\| errors ([0-9]+)");
+
+    private ReactorNettyTcpClient            client;
+
+    private final MetricsTransactionListener metrics  = new MetricsTransactionListener();
+
+    private StringWriter                     out;
+
+    private final TransactionRecorder        recorder = new TransactionRecorder();
+
+    private final AtomicInteger              replies  = new AtomicInteger();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITIntervalReporter() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        client.close();
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        // The first 10 replies are immediate, the rest wait for the latency
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .latency(random -> (replies.incrementAndGet() <= 10) ? Duration.ZERO : Duration.ofMillis(LATENCY))
+            .start();
+
+        client = new ReactorNettyTcpClient("localhost", server.port(),
+            new CompositeTransactionListener(List.of(recorder, metrics)), false);
+        client.setLineDelimited(true);
+        client.connect();
+
+        out = new StringWriter();
+    }
+
+    @Test
+    @DisplayName("Closing prints the report for the last interval")
+    public final void testClose_FinalReport() {
+        final IntervalReporter reporter;
+        final List<String>     lines;
+        final Matcher          report;
+
+        // Long enough to never report on its own
+        reporter = new IntervalReporter(metrics, new PrintWriter(out), Duration.ofMinutes(1)
+            .toMillis());
+        reporter.start();
+        run(10);
+        reporter.close();
+
+        lines = out.toString()
+            .lines()
+            .collect(Collectors.toList());
+        Assertions.assertEquals(1, lines.size(), out.toString());
+        report = REPORT.matcher(lines.get(0));
+        Assertions.assertTrue(report.find(), out.toString());
+        Assertions.assertEquals("0", report.group(4), "in-flight");
+        Assertions.assertEquals("0", report.group(10), "errors");
+    }
+
+    @Test
+    @DisplayName("Closing twice reports only once")
+    public final void testClose_Twice() {
+        final IntervalReporter reporter;
+
+        reporter = new IntervalReporter(metrics, new PrintWriter(out), Duration.ofMinutes(1)
+            .toMillis());
+        reporter.start();
+        run(10);
+        reporter.close();
+        reporter.close();
+
+        Assertions.assertEquals(1, out.toString()
+            .lines()
+            .count(), out.toString());
+    }
+
+    @Test
+    @DisplayName("The report only contains the messages and latencies since the previous one")
+    public final void testReport_Deltas() {
+        final IntervalReporter reporter;
+        final Matcher          report;
+        final double           seconds;
+        final long             received;
+
+        // Fast messages before the reports, which should be left out
+        run(10);
+
+        reporter = new IntervalReporter(metrics, new PrintWriter(out), Duration.ofMinutes(1)
+            .toMillis());
+        reporter.start();
+        run(10);
+        reporter.close();
+
+        report = REPORT.matcher(out.toString());
+        Assertions.assertTrue(report.find(), out.toString());
+
+        // Rates are per second, so they are taken back to messages, allowing for the rounding of the time
+        seconds = parse(report.group(1));
+        received = Math.round(Long.parseLong(report.group(3)) * seconds);
+        Assertions.assertTrue((received >= 7) && (received <= 13), "received " + received + " in " + out);
+
+        // All the percentiles are for the slow messages
+        for (int i = 5; i <= 9; i++) {
+            Assertions.assertTrue(parse(report.group(i)) >= LATENCY, report.group() + " in " + out);
+        }
+        Assertions.assertTrue(parse(report.group(5)) <= parse(report.group(9)), out.toString());
+    }
+
+    @Test
+    @DisplayName("Reports are printed after each interval")
+    public final void testReport_Periodic() {
+        final IntervalReporter reporter;
+
+        reporter = new IntervalReporter(metrics, new PrintWriter(out), 100);
+        reporter.start();
+        run(10);
+
+        TransactionRecorder.await(() -> out.toString()
+            .lines()
+            .count() >= 2);
+        reporter.close();
+
+        out.toString()
+            .lines()
+            .forEach(line -> Assertions.assertTrue(REPORT.matcher(line)
+                .find(), line));
+    }
+
+    private final double parse(final String value) {
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+
+    private final void run(final int messages) {
+        final int expected;
+
+        expected = recorder.getReceived()
+            .size() + messages;
+        // One after the other, so each latency is the server's one
+        for (int i = 0; i < messages; i++) {
+            client.exchange("message " + i)
+                .block(TransactionRecorder.TIMEOUT);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == expected);
+    }
+
+}
@@ -0,0 +1,244 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.metrics.integration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.metrics.MetricsSummary;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.test.server.LatencyDistribution;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Metrics summary of a run against the mock server")
+public final class ITMetricsSummary {
+
+    private static final long                LATENCY  = 20;
+
+    private ReactorNettyTcpClient            client;
+
+    private final MetricsTransactionListener metrics  = new MetricsTransactionListener();
+
+    private final TransactionRecorder        recorder = new TransactionRecorder();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITMetricsSummary() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        client.close();
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .fixedReply("ok")
+            .latency(LatencyDistribution.fixed(Duration.ofMillis(LATENCY)))
+            .start();
+
+        client = new ReactorNettyTcpClient("localhost", server.port(),
+            new CompositeTransactionListener(List.of(recorder, metrics)), false);
+        client.setLineDelimited(true);
+        client.connect();
+    }
+
+    @Test
+    @DisplayName("The listener counts the messages, bytes and latencies of the run")
+    public final void testListener() {
+        run();
+
+        Assertions.assertEquals(10, metrics.getSent());
+        Assertions.assertEquals(10, metrics.getReceived());
+        // "message 0" to "message 9"
+        Assertions.assertEquals(90, metrics.getBytesSent());
+        Assertions.assertEquals(20, metrics.getBytesReceived());
+        Assertions.assertEquals(0, metrics.getErrors());
+        Assertions.assertEquals(0, metrics.getInFlight());
+        // One after the other, so they can't take less than all the latencies together
+        Assertions.assertTrue(metrics.getElapsed() >= Duration.ofMillis(LATENCY * 10)
+            .toNanos(), "elapsed " + metrics.getElapsed());
+        Assertions.assertEquals(10, metrics.getTotalLatencies()
+            .getTotalCount());
+    }
+
+    @Test
+    @DisplayName("The bytes are counted in the charset of the messages")
+    public final void testListener_Charset() {
+        final MetricsTransactionListener utf16;
+        final MockTcpServer              echo;
+        final ReactorNettyTcpClient      utf16Client;
+
+        // Without line breaks, the echo server returns the same bytes for any charset
+        echo = MockTcpServer.builder()
+            .start();
+        utf16 = new MetricsTransactionListener(StandardCharsets.UTF_16BE);
+        utf16Client = new ReactorNettyTcpClient("localhost", echo.port(), utf16, false);
+        utf16Client.setCharset(StandardCharsets.UTF_16BE);
+        utf16Client.connect();
+        try {
+            for (int i = 0; i < 10; i++) {
+                utf16Client.exchange("message " + i)
+                    .block(TransactionRecorder.TIMEOUT);
+            }
+        } finally {
+            utf16Client.close();
+            echo.close();
+        }
+
+        // Two bytes for each character
+        Assertions.assertEquals(10, utf16.getReceived());
+        Assertions.assertEquals(180, utf16.getBytesSent());
+        Assertions.assertEquals(180, utf16.getBytesReceived());
+    }
+
+    @Test
+    @DisplayName("Merging adds the totals and latencies of all the runs")
+    public final void testMerge() {
+        final MetricsSummary summary;
+        final MetricsSummary merged;
+
+        run();
+
+        summary = MetricsSummary.of(metrics);
+        merged = MetricsSummary.merge(List.of(summary, summary));
+
+        Assertions.assertEquals(20, merged.getSent());
+        Assertions.assertEquals(20, merged.getReceived());
+        Assertions.assertEquals(180, merged.getBytesSent());
+        Assertions.assertEquals(40, merged.getBytesReceived());
+        Assertions.assertEquals(0, merged.getErrors());
+        Assertions.assertEquals(20, merged.getLatencies()
+            .getTotalCount());
+        Assertions.assertEquals(summary.getLatencies()
+            .getValueAtPercentile(50),
+            merged.getLatencies()
+                .getValueAtPercentile(50));
+    }
+
+    @Test
+    @DisplayName("The JSON summary contains the totals and latencies of the run")
+    public final void testToJson() {
+        final String json;
+
+        run();
+
+        json = MetricsSummary.of(metrics)
+            .toJson();
+
+        Assertions.assertTrue(json.startsWith("{\"sent\":10,\"received\":10,\"bytesSent\":90,\"bytesReceived\":20,"
+                + "\"errors\":0,\"elapsedSeconds\":"),
+            json);
+        Assertions.assertTrue(json.contains("\"latencyMillis\":{\"count\":10,\"min\":"), json);
+        assertLatencies(json, "\"(min|mean|p50|p90|p99|p99\\.9|max)\":([0-9.]+)");
+        Assertions.assertTrue(json.endsWith("}}"), json);
+    }
+
+    @Test
+    @DisplayName("The properties keep the whole summary")
+    public final void testToProperties() {
+        final MetricsSummary summary;
+        final MetricsSummary read;
+
+        run();
+
+        summary = MetricsSummary.of(metrics);
+        read = MetricsSummary.fromProperties(summary.toProperties());
+
+        Assertions.assertEquals(summary.toText(), read.toText());
+        Assertions.assertEquals(summary.toJson(), read.toJson());
+    }
+
+    @Test
+    @DisplayName("The text summary contains the totals and latencies of the run")
+    public final void testToText() {
+        final String text;
+
+        run();
+
+        text = MetricsSummary.of(metrics)
+            .toText();
+
+        Assertions.assertTrue(text.startsWith("Sent:       10 messages, 90 bytes, "), text);
+        Assertions.assertTrue(text.contains("Received:   10 messages, 20 bytes, "), text);
+        Assertions.assertTrue(text.contains("Errors:     0"), text);
+        assertLatencies(text, "(min|mean|p50|p90|p99|p99\\.9|max) ([0-9.]+)");
+    }
+
+    private final void assertLatencies(final String summary, final String regex) {
+        final Matcher matcher;
+        int           count;
+        double        previous;
+        double        value;
+
+        // In order, and none below the server latency
+        matcher = Pattern.compile(regex)
+            .matcher(summary);
+        count = 0;
+        previous = LATENCY;
+        while (matcher.find()) {
+            value = Double.parseDouble(matcher.group(2));
+            // The mean is not a percentile
+            if (!"mean".equals(matcher.group(1))) {
+                Assertions.assertTrue(value >= previous, matcher.group() + " in " + summary);
+                previous = value;
+            }
+            Assertions.assertTrue(value >= LATENCY, matcher.group() + " in " + summary);
+            count++;
+        }
+        Assertions.assertEquals(7, count, summary);
+    }
+
+    private final void run() {
+        for (int i = 0; i < 10; i++) {
+            client.exchange("message " + i)
+                .block(TransactionRecorder.TIMEOUT);
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 10);
+    }
+
+}
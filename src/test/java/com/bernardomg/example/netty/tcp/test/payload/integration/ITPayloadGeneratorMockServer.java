@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.payload.integration;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.CompositeTransactionListener;
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.metrics.MetricsTransactionListener;
+import com.bernardomg.example.netty.tcp.payload.CounterPayloadGenerator;
+import com.bernardomg.example.netty.tcp.payload.PayloadGenerator;
+import com.bernardomg.example.netty.tcp.payload.TemplatePayloadGenerator;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+@DisplayName("Generated payloads sent to the mock server")
+public final class ITPayloadGeneratorMockServer {
+
+    private ReactorNettyTcpClient            client;
+
+    private final MetricsTransactionListener metrics  = new MetricsTransactionListener();
+
+    private final TransactionRecorder        recorder = new TransactionRecorder();
+
+    private MockTcpServer                    server;
+
+    /**
+     * Default constructor.
+     */
+    public ITPayloadGeneratorMockServer() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        client.close();
+        server.close();
+    }
+
+    @BeforeEach
+    public final void setUp() {
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+
+        client = new ReactorNettyTcpClient("localhost", server.port(),
+            new CompositeTransactionListener(List.of(recorder, metrics)), false);
+        client.setLineDelimited(true);
+        client.connect();
+    }
+
+    @Test
+    @DisplayName("Counter payloads are filled up to the size")
+    public final void testRequest_Counter() {
+        final List<String> received;
+
+        try (PayloadGenerator generator = new CounterPayloadGenerator(PooledByteBufAllocator.DEFAULT, "Message %d",
+            32)) {
+            for (int i = 0; i < 3; i++) {
+                client.request(generator.next());
+            }
+        }
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 3);
+        received = recorder.getReceived();
+        Assertions.assertTrue(received.get(0)
+            .startsWith("Message 1"), received.get(0));
+        Assertions.assertTrue(received.get(2)
+            .startsWith("Message 3"), received.get(2));
+        Assertions.assertEquals(32, received.get(0)
+            .length());
+        Assertions.assertEquals(3 * 32, metrics.getBytesSent());
+    }
+
+    @Test
+    @DisplayName("Random payloads reuse the templates, and are released once written")
+    public final void testRequest_Random() {
+        final TemplatePayloadGenerator generator;
+        final ByteBuf                  payload;
+        final List<String>             received;
+
+        generator = TemplatePayloadGenerator.random(PooledByteBufAllocator.DEFAULT, 10 * 1024, 2, 1);
+
+        payload = generator.next();
+        client.request(payload);
+        for (int i = 0; i < 3; i++) {
+            client.request(generator.next());
+        }
+        generator.close();
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 4);
+        received = recorder.getReceived();
+        Assertions.assertEquals(received.get(0), received.get(2), "same template");
+        Assertions.assertNotEquals(received.get(0), received.get(1), "different templates");
+        Assertions.assertEquals(10 * 1024, received.get(0)
+            .length());
+        Assertions.assertEquals(0, payload.refCnt(), "payload not released");
+    }
+
+}
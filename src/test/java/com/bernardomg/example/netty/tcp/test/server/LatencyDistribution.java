@@ -0,0 +1,109 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.server;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Distribution for the latency added by the mock server before each reply. Values are taken from the server random
+ * generator, so a fixed seed gives the same sequence of latencies.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Exponential distribution, as usual for service times.
+     *
+     * @param mean
+     *            mean latency
+     * @return exponential latency distribution
+     */
+    public static LatencyDistribution exponential(final Duration mean) {
+        return random -> Duration.ofNanos((long) (-Math.log(1 - random.nextDouble()) * mean.toNanos()));
+    }
+
+    /**
+     * Always the same latency.
+     *
+     * @param latency
+     *            latency to add
+     * @return fixed latency distribution
+     */
+    public static LatencyDistribution fixed(final Duration latency) {
+        return random -> latency;
+    }
+
+    /**
+     * No latency.
+     *
+     * @return no latency distribution
+     */
+    public static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    /**
+     * Mostly one latency, with occasional slow replies.
+     *
+     * @param usual
+     *            usual latency
+     * @param slow
+     *            latency for slow replies
+     * @param slowRatio
+     *            ratio of slow replies, from 0 to 1
+     * @return latency distribution with a slow tail
+     */
+    public static LatencyDistribution tail(final Duration usual, final Duration slow, final double slowRatio) {
+        return random -> random.nextDouble() < slowRatio ? slow : usual;
+    }
+
+    /**
+     * Uniform distribution between two latencies.
+     *
+     * @param min
+     *            minimum latency
+     * @param max
+     *            maximum latency
+     * @return uniform latency distribution
+     */
+    public static LatencyDistribution uniform(final Duration min, final Duration max) {
+        return random -> min.plusNanos((long) (random.nextDouble() * max.minus(min)
+            .toNanos()));
+    }
+
+    /**
+     * Returns the next latency.
+     *
+     * @param random
+     *            random generator
+     * @return the next latency
+     */
+    public Duration next(final Random random);
+
+}
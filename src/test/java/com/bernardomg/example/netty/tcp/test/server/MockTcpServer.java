@@ -0,0 +1,445 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.server;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import org.reactivestreams.Publisher;
+
+import com.bernardomg.example.netty.tcp.client.mux.MuxFrame;
+
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.NettyInbound;
+import reactor.netty.NettyOutbound;
+import reactor.netty.tcp.TcpServer;
+
+/**
+ * Embeddable TCP server for tests and benchmarks. Listens on the loopback interface, and replies to each message
+ * following the configured behaviour.
+ * <p>
+ * Each connection handles its messages in order, one at a time, like a sequential server. Random values come from a
+ * seeded generator, so runs can be reproduced.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class MockTcpServer implements AutoCloseable {
+
+    /**
+     * Builder for the mock server.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    public static final class Builder {
+
+        /**
+         * Messages replied on each connection before closing it. Zero to never close.
+         */
+        private int                   dropAfter;
+
+        /**
+         * Ratio of messages which close the connection instead of being replied.
+         */
+        private double                dropRatio;
+
+        /**
+         * Size of each reply fragment. Zero to write replies whole.
+         */
+        private int                   fragmentSize;
+
+        /**
+         * Wait between reply fragments.
+         */
+        private Duration              fragmentDelay = Duration.ofMillis(1);
+
+        /**
+         * Latency added before each reply.
+         */
+        private LatencyDistribution   latency       = LatencyDistribution.none();
+
+        /**
+         * Line delimited messages flag.
+         */
+        private boolean               lineDelimited;
+
+        /**
+         * Multiplexed streams flag.
+         */
+        private boolean               multiplexed;
+
+        /**
+         * Wait before reading each message.
+         */
+        private Duration              readDelay     = Duration.ZERO;
+
+        /**
+         * Builds the reply for each message.
+         */
+        private UnaryOperator<String> reply         = UnaryOperator.identity();
+
+        /**
+         * Seed for the random generator.
+         */
+        private long                  seed          = 1;
+
+        /**
+         * Window updates flag, for multiplexed streams.
+         */
+        private boolean               windowUpdates = true;
+
+        private Builder() {
+            super();
+        }
+
+        /**
+         * Closes each connection after replying to the received number of messages.
+         *
+         * @param messages
+         *            messages to reply before closing
+         * @return this builder
+         */
+        public final Builder dropAfter(final int messages) {
+            dropAfter = messages;
+            return this;
+        }
+
+        /**
+         * Closes the connection, instead of replying, for the received ratio of messages.
+         *
+         * @param ratio
+         *            ratio of dropped messages, from 0 to 1
+         * @return this builder
+         */
+        public final Builder dropRatio(final double ratio) {
+            dropRatio = ratio;
+            return this;
+        }
+
+        /**
+         * Replies with the same message received.
+         *
+         * @return this builder
+         */
+        public final Builder echo() {
+            reply = UnaryOperator.identity();
+            return this;
+        }
+
+        /**
+         * Writes each reply in fragments of the received size, flushing each of them separately.
+         *
+         * @param size
+         *            fragment size
+         * @param delay
+         *            wait between fragments
+         * @return this builder
+         */
+        public final Builder fragmented(final int size, final Duration delay) {
+            fragmentSize = size;
+            fragmentDelay = delay;
+            return this;
+        }
+
+        /**
+         * Replies always with the same message.
+         *
+         * @param message
+         *            reply message
+         * @return this builder
+         */
+        public final Builder fixedReply(final String message) {
+            reply = msg -> message;
+            return this;
+        }
+
+        /**
+         * Waits before each reply, following the distribution.
+         *
+         * @param distribution
+         *            latency distribution
+         * @return this builder
+         */
+        public final Builder latency(final LatencyDistribution distribution) {
+            latency = Objects.requireNonNull(distribution);
+            return this;
+        }
+
+        /**
+         * Reads lines, and ends each reply with a line break.
+         *
+         * @return this builder
+         */
+        public final Builder lineDelimited() {
+            lineDelimited = true;
+            return this;
+        }
+
+        /**
+         * Speaks the multiplexing protocol, echoing each frame back on its stream. Other behaviours don't apply to
+         * multiplexed streams.
+         *
+         * @param updates
+         *            window updates flag, if disabled the clients run out of window
+         * @return this builder
+         */
+        public final Builder multiplexed(final boolean updates) {
+            multiplexed = true;
+            windowUpdates = updates;
+            return this;
+        }
+
+        /**
+         * Waits before reading each message. As messages are read one at a time, this pushes back on the client.
+         *
+         * @param delay
+         *            wait before each read
+         * @return this builder
+         */
+        public final Builder slowReads(final Duration delay) {
+            readDelay = Objects.requireNonNull(delay);
+            return this;
+        }
+
+        /**
+         * Seed for the random generator.
+         *
+         * @param value
+         *            seed
+         * @return this builder
+         */
+        public final Builder seed(final long value) {
+            seed = value;
+            return this;
+        }
+
+        /**
+         * Starts the server on any free port.
+         *
+         * @return the running server
+         */
+        public final MockTcpServer start() {
+            return new MockTcpServer(this);
+        }
+
+    }
+
+    /**
+     * Maximum length for a line, when the messages are line delimited.
+     */
+    private static final int       MAX_LINE_LENGTH = 64 * 1024;
+
+    /**
+     * Creates a builder for a mock server. By default it is an echo server without latency.
+     *
+     * @return a builder for a mock server
+     */
+    public static final Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Connections accepted.
+     */
+    private final AtomicLong       connections     = new AtomicLong();
+
+    /**
+     * Server configuration.
+     */
+    private final Builder          config;
+
+    /**
+     * Connections closed on purpose.
+     */
+    private final AtomicLong       dropped         = new AtomicLong();
+
+    /**
+     * Random generator. Shared by all the connections.
+     */
+    private final Random           random;
+
+    /**
+     * Messages received.
+     */
+    private final AtomicLong       received        = new AtomicLong();
+
+    /**
+     * Running server.
+     */
+    private final DisposableServer server;
+
+    private MockTcpServer(final Builder builder) {
+        super();
+
+        config = builder;
+        random = new Random(config.seed);
+
+        server = TcpServer.create()
+            .host("localhost")
+            .port(0)
+            .doOnConnection(conn -> {
+                connections.incrementAndGet();
+                if (config.multiplexed) {
+                    conn.addHandlerLast(MuxFrame.newDecoder());
+                    conn.addHandlerLast(new MuxEchoHandler(received, config.windowUpdates));
+                } else if (config.lineDelimited) {
+                    conn.addHandlerLast(new LineBasedFrameDecoder(MAX_LINE_LENGTH));
+                }
+            })
+            .handle(this::handle)
+            .bindNow();
+    }
+
+    @Override
+    public final void close() {
+        server.disposeNow();
+    }
+
+    /**
+     * Returns the number of connections accepted.
+     *
+     * @return the number of connections accepted
+     */
+    public final long getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Returns the number of connections closed on purpose.
+     *
+     * @return the number of connections closed on purpose
+     */
+    public final long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of messages received.
+     *
+     * @return the number of messages received
+     */
+    public final long getReceived() {
+        return received.get();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the server port
+     */
+    public final int port() {
+        return server.port();
+    }
+
+    private final Publisher<Void> handle(final NettyInbound inbound, final NettyOutbound outbound) {
+        final List<Connection> connection;
+
+        connection = new ArrayList<>(1);
+        inbound.withConnection(connection::add);
+
+        return inbound.receive()
+            .asString(StandardCharsets.UTF_8)
+            .index()
+            // One message at a time, so slow reads push back on the client
+            .concatMap(indexed -> reply(outbound, connection.get(0), indexed.getT1(), indexed.getT2()), 1)
+            .then();
+    }
+
+    private final Duration nextLatency() {
+        synchronized (random) {
+            return config.latency.next(random);
+        }
+    }
+
+    private final boolean nextDrop() {
+        synchronized (random) {
+            return (config.dropRatio > 0) && (random.nextDouble() < config.dropRatio);
+        }
+    }
+
+    private final Mono<Void> reply(final NettyOutbound outbound, final Connection connection, final long index,
+            final String message) {
+        final String     response;
+        final Mono<Void> write;
+
+        received.incrementAndGet();
+
+        if (nextDrop()) {
+            dropped.incrementAndGet();
+            connection.dispose();
+            return Mono.empty();
+        }
+
+        if (config.lineDelimited) {
+            response = config.reply.apply(message) + '\n';
+        } else {
+            response = config.reply.apply(message);
+        }
+
+        if (config.fragmentSize > 0) {
+            write = Flux.fromIterable(split(response))
+                .concatMap(fragment -> outbound.sendString(Mono.just(fragment), StandardCharsets.UTF_8)
+                    .then()
+                    .then(Mono.delay(config.fragmentDelay)))
+                .then();
+        } else {
+            write = outbound.sendString(Mono.just(response), StandardCharsets.UTF_8)
+                .then();
+        }
+
+        return Mono.delay(config.readDelay)
+            .then(Mono.delay(nextLatency()))
+            .then(write)
+            .doOnSuccess(v -> {
+                if ((config.dropAfter > 0) && ((index + 1) >= config.dropAfter)) {
+                    dropped.incrementAndGet();
+                    connection.dispose();
+                }
+            });
+    }
+
+    private final List<String> split(final String response) {
+        final List<String> fragments;
+
+        fragments = new ArrayList<>();
+        for (int i = 0; i < response.length(); i += config.fragmentSize) {
+            fragments.add(response.substring(i, Math.min(response.length(), i + config.fragmentSize)));
+        }
+
+        return fragments;
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.server;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bernardomg.example.netty.tcp.client.mux.MuxFrame;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Echoes each data frame back on its stream, and gives back the window for it. Window updates from the client are
+ * ignored, as the server doesn't limit its writes.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+final class MuxEchoHandler extends ChannelInboundHandlerAdapter {
+
+    /**
+     * Messages received, counted by their last frame.
+     */
+    private final AtomicLong received;
+
+    /**
+     * Window updates flag. If disabled, clients run out of window.
+     */
+    private final boolean    windowUpdates;
+
+    MuxEchoHandler(final AtomicLong rcvd, final boolean updates) {
+        super();
+
+        received = Objects.requireNonNull(rcvd);
+        windowUpdates = updates;
+    }
+
+    @Override
+    public final void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+        final ByteBuf frame;
+        final int     length;
+        final int     stream;
+        final int     flags;
+
+        frame = (ByteBuf) msg;
+        length = frame.getInt(frame.readerIndex());
+        stream = frame.getInt(frame.readerIndex() + Integer.BYTES);
+        flags = frame.getByte(frame.readerIndex() + (2 * Integer.BYTES));
+
+        if ((flags & MuxFrame.FLAG_WINDOW_UPDATE) != 0) {
+            frame.release();
+        } else {
+            if ((flags & MuxFrame.FLAG_END) != 0) {
+                received.incrementAndGet();
+            }
+            if (windowUpdates && (length > 0)) {
+                ctx.write(MuxFrame.windowUpdate(ctx.alloc(), stream, length));
+            }
+            // The frame is echoed as it is
+            ctx.write(frame);
+        }
+    }
+
+    @Override
+    public final void channelReadComplete(final ChannelHandlerContext ctx) {
+        ctx.flush();
+    }
+
+}
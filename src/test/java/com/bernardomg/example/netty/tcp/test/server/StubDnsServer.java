@@ -0,0 +1,240 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.bernardomg.example.netty.tcp.test.server;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.handler.codec.dns.DnsSection;
+import io.netty.util.NetUtil;
+
+/**
+ * Embeddable DNS server for tests. Listens for UDP queries on the loopback interface, and answers the A and AAAA
+ * queries with the records set in it. Any other name gets a name error.
+ * <p>
+ * Records can be replaced while running, and the queries for each name are counted.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class StubDnsServer implements AutoCloseable {
+
+    /**
+     * Record set for a name.
+     *
+     * @author Bernardo Mart&iacute;nez Garrido
+     *
+     */
+    private static final class Records {
+
+        /**
+         * Addresses for the name.
+         */
+        private final List<InetAddress> addresses;
+
+        /**
+         * Time to live, in seconds.
+         */
+        private final long              ttl;
+
+        private Records(final List<InetAddress> addrs, final long tl) {
+            super();
+
+            addresses = addrs;
+            ttl = tl;
+        }
+
+    }
+
+    /**
+     * Starts a server without records.
+     *
+     * @return the running server
+     */
+    public static final StubDnsServer start() {
+        return new StubDnsServer();
+    }
+
+    /**
+     * Server channel.
+     */
+    private final Channel                 channel;
+
+    /**
+     * Event loop for the server.
+     */
+    private final EventLoopGroup          group   = new NioEventLoopGroup(1);
+
+    /**
+     * Queries received, by name and type.
+     */
+    private final Map<String, AtomicLong> queries = new ConcurrentHashMap<>();
+
+    /**
+     * Records, by name.
+     */
+    private final Map<String, Records>    records = new ConcurrentHashMap<>();
+
+    private StubDnsServer() {
+        super();
+
+        channel = new Bootstrap().group(group)
+            .channel(NioDatagramChannel.class)
+            .handler(new ChannelInitializer<DatagramChannel>() {
+
+                @Override
+                protected final void initChannel(final DatagramChannel ch) {
+                    ch.pipeline()
+                        .addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(),
+                            new SimpleChannelInboundHandler<DatagramDnsQuery>() {
+
+                                @Override
+                                protected final void channelRead0(final ChannelHandlerContext ctx,
+                                        final DatagramDnsQuery query) {
+                                    ctx.writeAndFlush(answer(query));
+                                }
+
+                            });
+                }
+
+            })
+            .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+            .syncUninterruptibly()
+            .channel();
+    }
+
+    /**
+     * Returns the address the server is listening on.
+     *
+     * @return the server address
+     */
+    public final InetSocketAddress address() {
+        return (InetSocketAddress) channel.localAddress();
+    }
+
+    @Override
+    public final void close() {
+        channel.close()
+            .syncUninterruptibly();
+        // No quiet period, nothing else runs on it
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS)
+            .syncUninterruptibly();
+    }
+
+    /**
+     * Returns the number of queries received for the name and type.
+     *
+     * @param name
+     *            queried name
+     * @param type
+     *            queried type
+     * @return the number of queries
+     */
+    public final long getQueries(final String name, final DnsRecordType type) {
+        return queries.getOrDefault(name + " " + type.name(), new AtomicLong())
+            .get();
+    }
+
+    /**
+     * Sets the records for the name, replacing any previous one. Each address becomes an A or AAAA record, depending
+     * on its family.
+     *
+     * @param name
+     *            name for the records
+     * @param ttl
+     *            time to live, in seconds
+     * @param addresses
+     *            IP addresses for the name
+     */
+    public final void setRecords(final String name, final long ttl, final String... addresses) {
+        final List<InetAddress> parsed;
+
+        parsed = Arrays.stream(addresses)
+            .map(NetUtil::createInetAddressFromIpAddressString)
+            .collect(Collectors.toList());
+        records.put(name, new Records(parsed, ttl));
+    }
+
+    private final DatagramDnsResponse answer(final DatagramDnsQuery query) {
+        final DatagramDnsResponse response;
+        final DnsQuestion         question;
+        final String              name;
+        final Records             found;
+        byte[]                    bytes;
+
+        response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id());
+        question = query.recordAt(DnsSection.QUESTION);
+        response.addRecord(DnsSection.QUESTION, question);
+
+        // Names are queried fully qualified
+        name = question.name()
+            .substring(0, question.name()
+                .length() - 1);
+        queries.computeIfAbsent(name + " " + question.type()
+            .name(), k -> new AtomicLong())
+            .incrementAndGet();
+
+        found = records.get(name);
+        if (found == null) {
+            response.setCode(DnsResponseCode.NXDOMAIN);
+        } else {
+            for (final InetAddress address : found.addresses) {
+                bytes = address.getAddress();
+                if ((bytes.length == 4) == DnsRecordType.A.equals(question.type())) {
+                    response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), question.type(),
+                        found.ttl, Unpooled.wrappedBuffer(bytes)));
+                }
+            }
+        }
+
+        return response;
+    }
+
+}
@@ -0,0 +1,294 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.server;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+
+import com.bernardomg.example.netty.tcp.client.TransactionListener;
+import com.bernardomg.example.netty.tcp.client.priority.Priority;
+
+/**
+ * Transaction listener which records the events received, for the tests to check them. Also waits for conditions
+ * which depend on the server or the client threads.
+ * <p>
+ * All the records are thread safe, as they are written from the event loops.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class TransactionRecorder implements TransactionListener {
+
+    /**
+     * Default time to wait for a condition.
+     */
+    public static final Duration            TIMEOUT          = Duration.ofSeconds(5);
+
+    /**
+     * Interval between checks of the condition being waited for, in milliseconds.
+     */
+    private static final long               POLL_INTERVAL    = 10;
+
+    /**
+     * Waits until the condition is met, failing the test if it takes longer than the default timeout.
+     *
+     * @param condition
+     *            condition to wait for
+     */
+    public static final void await(final BooleanSupplier condition) {
+        await(condition, TIMEOUT);
+    }
+
+    /**
+     * Waits until the condition is met, failing the test if it takes longer than the timeout.
+     *
+     * @param condition
+     *            condition to wait for
+     * @param timeout
+     *            maximum time to wait
+     */
+    public static final void await(final BooleanSupplier condition, final Duration timeout) {
+        final long deadline;
+
+        deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "timed out after " + timeout);
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (final InterruptedException e) {
+                Thread.currentThread()
+                    .interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Sum of all the concurrency limit changes.
+     */
+    private final AtomicInteger             concurrencyLimit = new AtomicInteger();
+
+    /**
+     * Unanswered requests and unwritten bytes for each drain, in pairs.
+     */
+    private final List<Long>                drained          = new CopyOnWriteArrayList<>();
+
+    /**
+     * Errors.
+     */
+    private final List<Throwable>           errors           = new CopyOnWriteArrayList<>();
+
+    /**
+     * Latencies for each priority lane, in nanoseconds.
+     */
+    private final Map<Priority, List<Long>> laneLatencies    = new ConcurrentHashMap<>();
+
+    /**
+     * Concurrency limit after each change.
+     */
+    private final List<Integer>             limits           = new CopyOnWriteArrayList<>();
+
+    /**
+     * Messages received.
+     */
+    private final List<String>              received         = new CopyOnWriteArrayList<>();
+
+    /**
+     * Reasons for each recycled connection.
+     */
+    private final List<String>              recycled         = new CopyOnWriteArrayList<>();
+
+    /**
+     * Messages sent.
+     */
+    private final List<String>              sent             = new CopyOnWriteArrayList<>();
+
+    /**
+     * Time at which each message was sent, in nanoseconds.
+     */
+    private final List<Long>                sendTimes        = new CopyOnWriteArrayList<>();
+
+    /**
+     * Requests spilled to another connection.
+     */
+    private final AtomicInteger             spills           = new AtomicInteger();
+
+    /**
+     * Default constructor.
+     */
+    public TransactionRecorder() {
+        super();
+    }
+
+    /**
+     * Returns the sum of all the concurrency limit changes. As limits start at zero, this is the limit for all the
+     * connections.
+     *
+     * @return the sum of all the concurrency limit changes
+     */
+    public final int getConcurrencyLimit() {
+        return concurrencyLimit.get();
+    }
+
+    /**
+     * Returns the unanswered requests and unwritten bytes for each drain, in pairs.
+     *
+     * @return the unanswered requests and unwritten bytes for each drain
+     */
+    public final List<Long> getDrained() {
+        return drained;
+    }
+
+    /**
+     * Returns the errors.
+     *
+     * @return the errors
+     */
+    public final List<Throwable> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the latencies for each priority lane, in nanoseconds.
+     *
+     * @return the latencies for each lane
+     */
+    public final Map<Priority, List<Long>> getLaneLatencies() {
+        return laneLatencies;
+    }
+
+    /**
+     * Returns the concurrency limit after each change.
+     *
+     * @return the concurrency limit after each change
+     */
+    public final List<Integer> getLimits() {
+        return limits;
+    }
+
+    /**
+     * Returns the messages received.
+     *
+     * @return the messages received
+     */
+    public final List<String> getReceived() {
+        return received;
+    }
+
+    /**
+     * Returns the reasons for each recycled connection.
+     *
+     * @return the reasons for each recycled connection
+     */
+    public final List<String> getRecycled() {
+        return recycled;
+    }
+
+    /**
+     * Returns the messages sent.
+     *
+     * @return the messages sent
+     */
+    public final List<String> getSent() {
+        return sent;
+    }
+
+    /**
+     * Returns the time at which each message was sent, in nanoseconds.
+     *
+     * @return the time at which each message was sent
+     */
+    public final List<Long> getSendTimes() {
+        return sendTimes;
+    }
+
+    /**
+     * Returns the number of requests spilled to another connection.
+     *
+     * @return the number of spilled requests
+     */
+    public final int getSpills() {
+        return spills.get();
+    }
+
+    @Override
+    public final void onConcurrencyLimitChange(final int previous, final int current) {
+        concurrencyLimit.addAndGet(current - previous);
+        limits.add(current);
+    }
+
+    @Override
+    public final void onDrain(final int unanswered, final long unwritten) {
+        drained.add((long) unanswered);
+        drained.add(unwritten);
+    }
+
+    @Override
+    public final void onError(final Throwable error) {
+        errors.add(error);
+    }
+
+    @Override
+    public final void onLaneLatency(final Priority priority, final long nanos) {
+        laneLatencies.computeIfAbsent(priority, p -> new CopyOnWriteArrayList<>())
+            .add(nanos);
+    }
+
+    @Override
+    public final void onReceive(final String message) {
+        received.add(message);
+    }
+
+    @Override
+    public final void onRecycle(final String reason) {
+        recycled.add(reason);
+    }
+
+    @Override
+    public final void onSend(final String message) {
+        sendTimes.add(System.nanoTime());
+        sent.add(message);
+    }
+
+    @Override
+    public final void onSpill() {
+        spills.incrementAndGet();
+    }
+
+    @Override
+    public final void onStart() {}
+
+    @Override
+    public final void onStop() {}
+
+}
@@ -0,0 +1,150 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.session.integration;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.bernardomg.example.netty.tcp.client.ReactorNettyTcpClient;
+import com.bernardomg.example.netty.tcp.session.SessionInterpreter;
+import com.bernardomg.example.netty.tcp.test.server.MockTcpServer;
+import com.bernardomg.example.netty.tcp.test.server.TransactionRecorder;
+
+@DisplayName("Session interpreter against the mock server")
+public final class ITSessionInterpreter {
+
+    private ReactorNettyTcpClient     client;
+
+    private final StringWriter        output   = new StringWriter();
+
+    private final TransactionRecorder recorder = new TransactionRecorder();
+
+    private MockTcpServer             server;
+
+    /**
+     * Default constructor.
+     */
+    public ITSessionInterpreter() {
+        super();
+    }
+
+    @AfterEach
+    public final void cleanUp() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid directives are reported, and the session goes on")
+    public final void testRun_InvalidDirectives() throws IOException {
+        final long sent;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect();
+
+        sent = run(":unknown", ":repeat many message", ":sleep", "message");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 1);
+        Assertions.assertEquals(1, sent);
+        Assertions.assertTrue(output.toString()
+            .contains("Unknown directive: :unknown"), output::toString);
+        Assertions.assertTrue(output.toString()
+            .contains("Invalid directive: :repeat many message"), output::toString);
+        Assertions.assertTrue(output.toString()
+            .contains("Invalid directive: :sleep"), output::toString);
+    }
+
+    @Test
+    @DisplayName("Sends all the lines through a single connection, until quitting")
+    public final void testRun_SingleConnection() throws IOException {
+        final long sent;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect();
+
+        sent = run("first", "", ":repeat 3 repeated message", ":sleep 10", "::colon", ":quit", "after quitting");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 5);
+        Assertions.assertEquals(5, sent);
+        Assertions.assertEquals(
+            List.of("first", "repeated message", "repeated message", "repeated message", ":colon"),
+            recorder.getReceived());
+        Assertions.assertEquals(1, server.getConnections(), "connections");
+    }
+
+    @Test
+    @DisplayName("Messages are sent as written, while directives may be surrounded by whitespace")
+    public final void testRun_Whitespace() throws IOException {
+        final long sent;
+
+        server = MockTcpServer.builder()
+            .lineDelimited()
+            .start();
+        connect();
+
+        sent = run("  indented message ", "  :repeat 2 repeated ", "   ", " ::colon ");
+
+        TransactionRecorder.await(() -> recorder.getReceived()
+            .size() == 4);
+        Assertions.assertEquals(4, sent);
+        Assertions.assertEquals(List.of("  indented message ", "repeated", "repeated", ":colon "),
+            recorder.getReceived());
+    }
+
+    private final void connect() {
+        client = new ReactorNettyTcpClient("localhost", server.port(), recorder, false);
+        client.setLineDelimited(true);
+        client.connect();
+    }
+
+    private final long run(final String... lines) throws IOException {
+        final SessionInterpreter interpreter;
+
+        interpreter = new SessionInterpreter(client, new PrintWriter(output));
+
+        return interpreter.run(new BufferedReader(new StringReader(String.join("\n", lines))));
+    }
+
+}
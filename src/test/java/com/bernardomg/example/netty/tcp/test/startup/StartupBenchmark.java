@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ * <p>
+ * Copyright (c) 2023 the original author or authors.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.bernardomg.example.netty.tcp.test.startup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time benchmark. Launches the executable JAR as a new process several times, and prints the median wall
+ * time for each case.
+ * <p>
+ * Two commands are measured: the help, which only goes through the CLI, and a message sent to a closed port, which
+ * also initializes logging and Netty. When a class data archive exists, both are repeated using it.
+ * <p>
+ * Arguments: the JAR path, optionally the class data archive path, and optionally the number of runs.
+ *
+ * @author Bernardo Mart&iacute;nez Garrido
+ *
+ */
+public final class StartupBenchmark {
+
+    /**
+     * Default number of runs for each case.
+     */
+    private static final int    DEFAULT_RUNS = 10;
+
+    /**
+     * Maximum time allowed to a single run, in seconds.
+     */
+    private static final long   TIMEOUT      = 60;
+
+    /**
+     * Java executable.
+     */
+    private static final String JAVA         = Paths.get(System.getProperty("java.home"), "bin", "java")
+        .toString();
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            JAR path, archive path and number of runs
+     * @throws IOException
+     *             if a process can't be started
+     * @throws InterruptedException
+     *             if interrupted while waiting for a process
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final String  jar;
+        final Path    archive;
+        final int     runs;
+        final boolean archived;
+
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Missing JAR path");
+        }
+
+        jar = args[0];
+        if (args.length > 1) {
+            archive = Paths.get(args[1]);
+        } else {
+            archive = null;
+        }
+        if (args.length > 2) {
+            runs = Integer.parseInt(args[2]);
+        } else {
+            runs = DEFAULT_RUNS;
+        }
+        archived = (archive != null) && Files.exists(archive);
+
+        System.out.printf("Startup benchmark: %s, %d runs per case%n", jar, runs);
+        measure("help", runs, Collections.emptyList(), jar, "--help");
+        measure("connect", runs, Collections.emptyList(), jar, "message", "--host=localhost", "--port=1",
+            "--message=benchmark", "--wait=0");
+        if (archived) {
+            measure("help (archive)", runs, List.of("-XX:SharedArchiveFile=" + archive), jar, "--help");
+            measure("connect (archive)", runs, List.of("-XX:SharedArchiveFile=" + archive), jar, "message",
+                "--host=localhost", "--port=1", "--message=benchmark", "--wait=0");
+        } else {
+            System.out.println("No class data archive, skipping archived cases");
+        }
+    }
+
+    /**
+     * Launches the JAR the received number of times, and prints the median and best wall times.
+     *
+     * @param name
+     *            case name
+     * @param runs
+     *            number of runs
+     * @param jvmArgs
+     *            JVM arguments
+     * @param jar
+     *            JAR path
+     * @param cliArgs
+     *            CLI arguments
+     * @throws IOException
+     *             if a process can't be started
+     * @throws InterruptedException
+     *             if interrupted while waiting for a process
+     */
+    private static final void measure(final String name, final int runs, final List<String> jvmArgs,
+            final String jar, final String... cliArgs) throws IOException, InterruptedException {
+        final List<String> command;
+        final List<Long>   times;
+        final long         median;
+
+        command = new ArrayList<>();
+        command.add(JAVA);
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar);
+        command.addAll(Arrays.asList(cliArgs));
+
+        times = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+            times.add(run(command));
+        }
+        Collections.sort(times);
+        median = times.get(times.size() / 2);
+
+        System.out.printf("%-18s median %5d ms | best %5d ms%n", name, median, times.get(0));
+    }
+
+    /**
+     * Runs the command once, discarding its output, and returns the wall time in milliseconds.
+     *
+     * @param command
+     *            command to run
+     * @return wall time in milliseconds
+     * @throws IOException
+     *             if the process can't be started
+     * @throws InterruptedException
+     *             if interrupted while waiting for the process
+     */
+    private static final long run(final List<String> command) throws IOException, InterruptedException {
+        final ProcessBuilder builder;
+        final Process        process;
+        final long           start;
+
+        builder = new ProcessBuilder(command).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+        start = System.nanoTime();
+        process = builder.start();
+        if (!process.waitFor(TIMEOUT, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Run timed out: " + command);
+        }
+
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Default constructor.
+     */
+    private StartupBenchmark() {
+        super();
+    }
+
+}